@@ -1,5 +1,12 @@
 package com.sample.shop.config;
 
+import com.sample.shop.service.PagingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.CacheMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +17,791 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final MassIndexing massIndexing = new MassIndexing();
+
+    private final Search search = new Search();
+
+    private final Paging paging = new Paging();
+
     // jhipster-needle-application-properties-property
+
+    public MassIndexing getMassIndexing() {
+        return massIndexing;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Paging getPaging() {
+        return paging;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class MassIndexing {
+
+        public static final String DEFAULT_PROFILE = "default";
+
+        /**
+         * Named mass indexing profiles, selected with the {@code profile} parameter of {@code POST /api/mass/index}.
+         */
+        private final Map<String, Profile> profiles = new LinkedHashMap<>();
+
+        private final Delta delta = new Delta();
+
+        private final Batch batch = new Batch();
+
+        private final Verify verify = new Verify();
+
+        public MassIndexing() {
+            profiles.put(DEFAULT_PROFILE, new Profile());
+        }
+
+        public Map<String, Profile> getProfiles() {
+            return profiles;
+        }
+
+        public Delta getDelta() {
+            return delta;
+        }
+
+        public Batch getBatch() {
+            return batch;
+        }
+
+        public Verify getVerify() {
+            return verify;
+        }
+
+        public static class Profile {
+
+            /**
+             * Entity names to reindex, every indexed entity when empty.
+             */
+            private List<String> entities = new ArrayList<>();
+
+            private int batchSizeToLoadObjects = 500;
+
+            private int threadsToLoadObjects = 2;
+
+            private int typesToIndexInParallel = 1;
+
+            private int idFetchSize = 100;
+
+            /**
+             * Timeout of the transactions loading the entities, in seconds. The JTA default when not set.
+             */
+            private Integer transactionTimeout;
+
+            private CacheMode cacheMode = CacheMode.IGNORE;
+
+            /**
+             * Disable refreshes and replicas on the target indexes while they are rebuilt. Only applied by blue/green jobs,
+             * whose fresh indexes serve no search until promoted.
+             */
+            private boolean bulkLoad = true;
+
+            /**
+             * Segment count to force merge the rebuilt indexes down to, no force merge when not set.
+             */
+            private Integer forceMergeMaxSegments;
+
+            public List<String> getEntities() {
+                return entities;
+            }
+
+            public void setEntities(List<String> entities) {
+                this.entities = entities;
+            }
+
+            public int getBatchSizeToLoadObjects() {
+                return batchSizeToLoadObjects;
+            }
+
+            public void setBatchSizeToLoadObjects(int batchSizeToLoadObjects) {
+                this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+            }
+
+            public int getThreadsToLoadObjects() {
+                return threadsToLoadObjects;
+            }
+
+            public void setThreadsToLoadObjects(int threadsToLoadObjects) {
+                this.threadsToLoadObjects = threadsToLoadObjects;
+            }
+
+            public int getTypesToIndexInParallel() {
+                return typesToIndexInParallel;
+            }
+
+            public void setTypesToIndexInParallel(int typesToIndexInParallel) {
+                this.typesToIndexInParallel = typesToIndexInParallel;
+            }
+
+            public int getIdFetchSize() {
+                return idFetchSize;
+            }
+
+            public void setIdFetchSize(int idFetchSize) {
+                this.idFetchSize = idFetchSize;
+            }
+
+            public Integer getTransactionTimeout() {
+                return transactionTimeout;
+            }
+
+            public void setTransactionTimeout(Integer transactionTimeout) {
+                this.transactionTimeout = transactionTimeout;
+            }
+
+            public CacheMode getCacheMode() {
+                return cacheMode;
+            }
+
+            public void setCacheMode(CacheMode cacheMode) {
+                this.cacheMode = cacheMode;
+            }
+
+            public boolean isBulkLoad() {
+                return bulkLoad;
+            }
+
+            public void setBulkLoad(boolean bulkLoad) {
+                this.bulkLoad = bulkLoad;
+            }
+
+            public Integer getForceMergeMaxSegments() {
+                return forceMergeMaxSegments;
+            }
+
+            public void setForceMergeMaxSegments(Integer forceMergeMaxSegments) {
+                this.forceMergeMaxSegments = forceMergeMaxSegments;
+            }
+        }
+
+        public static class Batch {
+
+            /**
+             * Number of entities indexed between two checkpoints of a partition.
+             */
+            private int checkpointInterval = 2000;
+
+            /**
+             * Number of entities per id range partition.
+             */
+            private int rowsPerPartition = 20000;
+
+            public int getCheckpointInterval() {
+                return checkpointInterval;
+            }
+
+            public void setCheckpointInterval(int checkpointInterval) {
+                this.checkpointInterval = checkpointInterval;
+            }
+
+            public int getRowsPerPartition() {
+                return rowsPerPartition;
+            }
+
+            public void setRowsPerPartition(int rowsPerPartition) {
+                this.rowsPerPartition = rowsPerPartition;
+            }
+        }
+
+        public static class Verify {
+
+            /**
+             * Cron expression of the scheduled index verification, disabled by default.
+             */
+            private String cron = "-";
+
+            /**
+             * Number of documents read from each side per chunk.
+             */
+            private int chunkSize = 1000;
+
+            /**
+             * Pause between two chunks, to limit the load put on the database and the cluster.
+             */
+            private Duration throttle = Duration.ZERO;
+
+            /**
+             * Compare the indexed field values on top of the document ids.
+             */
+            private boolean compareContent = true;
+
+            /**
+             * Reindex the missing and stale documents and purge the extra ones during the scheduled verification.
+             */
+            private boolean repair = false;
+
+            public String getCron() {
+                return cron;
+            }
+
+            public void setCron(String cron) {
+                this.cron = cron;
+            }
+
+            public int getChunkSize() {
+                return chunkSize;
+            }
+
+            public void setChunkSize(int chunkSize) {
+                this.chunkSize = chunkSize;
+            }
+
+            public Duration getThrottle() {
+                return throttle;
+            }
+
+            public void setThrottle(Duration throttle) {
+                this.throttle = throttle;
+            }
+
+            public boolean isCompareContent() {
+                return compareContent;
+            }
+
+            public void setCompareContent(boolean compareContent) {
+                this.compareContent = compareContent;
+            }
+
+            public boolean isRepair() {
+                return repair;
+            }
+
+            public void setRepair(boolean repair) {
+                this.repair = repair;
+            }
+        }
+
+        public static class Delta {
+
+            /**
+             * Cron expression of the scheduled delta indexing, disabled by default.
+             */
+            private String cron = "-";
+
+            private int batchSize = 500;
+
+            /**
+             * Time a revision is given to commit before the delta indexing checkpoint moves past it: revision numbers are
+             * assigned before commit, so a lower revision may become visible after a higher one.
+             */
+            private Duration settleTime = Duration.ofMinutes(1);
+
+            public String getCron() {
+                return cron;
+            }
+
+            public void setCron(String cron) {
+                this.cron = cron;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public Duration getSettleTime() {
+                return settleTime;
+            }
+
+            public void setSettleTime(Duration settleTime) {
+                this.settleTime = settleTime;
+            }
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * Skip writing a document to the index when the hash of its indexed values did not change since the last write.
+         */
+        private boolean skipUnchangedDocuments = true;
+
+        /**
+         * Build the search results from the index projections instead of loading the entities from the database.
+         */
+        private boolean projectionResults = true;
+
+        /**
+         * How long the point in time of a cursor paginated search is kept open between two pages.
+         */
+        private Duration cursorKeepAlive = Duration.ofMinutes(1);
+
+        /**
+         * Number of hits read per scroll chunk by the search exports.
+         */
+        private int exportChunkSize = 1000;
+
+        /**
+         * How long the response of a search export may stream, see {@code ExportResponseUtil}.
+         */
+        private Duration exportTimeout = Duration.ofHours(1);
+
+        /**
+         * How much of the text fields is indexed; changing it requires a mass indexing of every entity.
+         */
+        private MappingProfile mappingProfile = MappingProfile.FULL;
+
+        /**
+         * How long the version of a document is tracked after its last write, see {@code SearchDocumentVersions}: longer
+         * than any indexing plan stays queued.
+         */
+        private Duration documentVersionTimeToLive = Duration.ofHours(1);
+
+        private final Suggest suggest = new Suggest();
+
+        private final ResultCache resultCache = new ResultCache();
+
+        private final Federated federated = new Federated();
+
+        private final Consistency consistency = new Consistency();
+
+        private final DeadLetters deadLetters = new DeadLetters();
+
+        public boolean isSkipUnchangedDocuments() {
+            return skipUnchangedDocuments;
+        }
+
+        public void setSkipUnchangedDocuments(boolean skipUnchangedDocuments) {
+            this.skipUnchangedDocuments = skipUnchangedDocuments;
+        }
+
+        public boolean isProjectionResults() {
+            return projectionResults;
+        }
+
+        public void setProjectionResults(boolean projectionResults) {
+            this.projectionResults = projectionResults;
+        }
+
+        public Duration getCursorKeepAlive() {
+            return cursorKeepAlive;
+        }
+
+        public void setCursorKeepAlive(Duration cursorKeepAlive) {
+            this.cursorKeepAlive = cursorKeepAlive;
+        }
+
+        public int getExportChunkSize() {
+            return exportChunkSize;
+        }
+
+        public void setExportChunkSize(int exportChunkSize) {
+            this.exportChunkSize = exportChunkSize;
+        }
+
+        public Duration getExportTimeout() {
+            return exportTimeout;
+        }
+
+        public void setExportTimeout(Duration exportTimeout) {
+            this.exportTimeout = exportTimeout;
+        }
+
+        public MappingProfile getMappingProfile() {
+            return mappingProfile;
+        }
+
+        public void setMappingProfile(MappingProfile mappingProfile) {
+            this.mappingProfile = mappingProfile;
+        }
+
+        public Duration getDocumentVersionTimeToLive() {
+            return documentVersionTimeToLive;
+        }
+
+        public void setDocumentVersionTimeToLive(Duration documentVersionTimeToLive) {
+            this.documentVersionTimeToLive = documentVersionTimeToLive;
+        }
+
+        public Suggest getSuggest() {
+            return suggest;
+        }
+
+        public ResultCache getResultCache() {
+            return resultCache;
+        }
+
+        public Federated getFederated() {
+            return federated;
+        }
+
+        public Consistency getConsistency() {
+            return consistency;
+        }
+
+        public DeadLetters getDeadLetters() {
+            return deadLetters;
+        }
+
+        /**
+         * How much of the fields is indexed, see {@code ElasticsearchAnalysisConfig} and {@code SearchMappingConfigurer}.
+         */
+        public enum MappingProfile {
+            /**
+             * Every text field is indexed with edge n-grams, so any of them matches a prefix of its words.
+             */
+            FULL,
+
+            /**
+             * Only title-like fields are indexed with edge n-grams; the other text fields are indexed word by word and
+             * match the prefix of the last query term through a {@code bool_prefix} query, see {@code PagedSearch}.
+             * The fields no search sorts on have no doc values, see {@code SearchMappingConfigurer}.
+             */
+            LEAN,
+        }
+
+        /**
+         * Settings of the type-ahead suggestions served by {@code /api/_suggest/{entity}}.
+         */
+        public static class Suggest {
+
+            /**
+             * Number of suggestions returned when the request does not ask for a size.
+             */
+            private int size = 8;
+
+            /**
+             * Largest number of suggestions a request may ask for.
+             */
+            private int maxSize = 20;
+
+            /**
+             * Time after which Elasticsearch returns the suggestions collected so far.
+             */
+            private Duration timeout = Duration.ofMillis(20);
+
+            /**
+             * Number of prefixes kept in the in-memory suggestion cache.
+             */
+            private int cacheMaxEntries = 10000;
+
+            /**
+             * How long the suggestions of a prefix are cached.
+             */
+            private Duration cacheTimeToLive = Duration.ofSeconds(60);
+
+            public int getSize() {
+                return size;
+            }
+
+            public void setSize(int size) {
+                this.size = size;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+
+            public int getCacheMaxEntries() {
+                return cacheMaxEntries;
+            }
+
+            public void setCacheMaxEntries(int cacheMaxEntries) {
+                this.cacheMaxEntries = cacheMaxEntries;
+            }
+
+            public Duration getCacheTimeToLive() {
+                return cacheTimeToLive;
+            }
+
+            public void setCacheTimeToLive(Duration cacheTimeToLive) {
+                this.cacheTimeToLive = cacheTimeToLive;
+            }
+        }
+
+        /**
+         * Settings of the cache of the {@code /_search/products} and {@code /_search/categories} result pages.
+         */
+        public static class ResultCache {
+
+            /**
+             * Serve repeated searches from the cache.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Number of result pages kept in the cache, on each node.
+             */
+            private int maxEntries = 10000;
+
+            /**
+             * How long a result page is cached, unless overridden for its index.
+             */
+            private Duration timeToLive = Duration.ofSeconds(60);
+
+            /**
+             * How long a result page is cached, by index name, e.g. {@code product: 30s}.
+             */
+            private Map<String, Duration> timeToLiveByIndex = new LinkedHashMap<>();
+
+            /**
+             * The refresh interval of the indexes: the results of an index are only cached once its latest writes
+             * were indexed at least that long ago, and are searchable.
+             */
+            private Duration refreshInterval = Duration.ofSeconds(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Map<String, Duration> getTimeToLiveByIndex() {
+                return timeToLiveByIndex;
+            }
+
+            public void setTimeToLiveByIndex(Map<String, Duration> timeToLiveByIndex) {
+                this.timeToLiveByIndex = timeToLiveByIndex;
+            }
+
+            public Duration getRefreshInterval() {
+                return refreshInterval;
+            }
+
+            public void setRefreshInterval(Duration refreshInterval) {
+                this.refreshInterval = refreshInterval;
+            }
+
+            /**
+             * @param index the index name.
+             * @return how long a result page of the index is cached.
+             */
+            public Duration timeToLive(String index) {
+                return timeToLiveByIndex.getOrDefault(index, timeToLive);
+            }
+        }
+
+        /**
+         * Settings of the search across every entity served by {@code /api/_search/all}.
+         */
+        public static class Federated {
+
+            /**
+             * Number of hits returned per entity when the request does not ask for a size.
+             */
+            private int size = 5;
+
+            /**
+             * Largest number of hits per entity a request may ask for.
+             */
+            private int maxSize = 20;
+
+            /**
+             * Time after which Elasticsearch returns the hits collected so far, shared by every entity.
+             */
+            private Duration timeout = Duration.ofMillis(500);
+
+            public int getSize() {
+                return size;
+            }
+
+            public void setSize(int size) {
+                this.size = size;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+        }
+
+        /**
+         * Settings of the consistency tokens returned by the writes and awaited by the searches.
+         */
+        public static class Consistency {
+
+            /**
+             * Longest time a search waits for the indexes to catch up with its consistency token.
+             */
+            private Duration timeout = Duration.ofSeconds(2);
+
+            /**
+             * Time between two checks of the indexed generations while a search waits.
+             */
+            private Duration pollInterval = Duration.ofMillis(20);
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+
+            public Duration getPollInterval() {
+                return pollInterval;
+            }
+
+            public void setPollInterval(Duration pollInterval) {
+                this.pollInterval = pollInterval;
+            }
+        }
+
+        /**
+         * Settings of the dead-letter queue of the entities whose automatic indexing failed.
+         */
+        public static class DeadLetters {
+
+            /**
+             * Time between two retries of the due entities. Also read by the scheduler, which only accepts the ISO-8601
+             * format, e.g. {@code PT30S}, or milliseconds.
+             */
+            private Duration retryInterval = Duration.ofSeconds(30);
+
+            /**
+             * Largest number of entities reindexed per retry.
+             */
+            private int batchSize = 100;
+
+            /**
+             * Delay before the first retry of an entity, doubled after each failed retry.
+             */
+            private Duration initialBackoff = Duration.ofSeconds(10);
+
+            /**
+             * Longest delay between two retries of an entity.
+             */
+            private Duration maxBackoff = Duration.ofHours(1);
+
+            public Duration getRetryInterval() {
+                return retryInterval;
+            }
+
+            public void setRetryInterval(Duration retryInterval) {
+                this.retryInterval = retryInterval;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public Duration getInitialBackoff() {
+                return initialBackoff;
+            }
+
+            public void setInitialBackoff(Duration initialBackoff) {
+                this.initialBackoff = initialBackoff;
+            }
+
+            public Duration getMaxBackoff() {
+                return maxBackoff;
+            }
+
+            public void setMaxBackoff(Duration maxBackoff) {
+                this.maxBackoff = maxBackoff;
+            }
+        }
+    }
+    /**
+     * Settings of the paging of the criteria listings and of the searches.
+     */
+    public static class Paging {
+
+        /**
+         * How pages count their entities when neither the request nor the entity chooses.
+         */
+        private PagingMode defaultMode = PagingMode.EXACT;
+
+        /**
+         * How pages count their entities, by entity name, e.g. {@code product: capped}.
+         */
+        private Map<String, PagingMode> modes = new LinkedHashMap<>();
+
+        /**
+         * Number of entities a capped page counts up to.
+         */
+        private int countThreshold = 10000;
+
+        public PagingMode getDefaultMode() {
+            return defaultMode;
+        }
+
+        public void setDefaultMode(PagingMode defaultMode) {
+            this.defaultMode = defaultMode;
+        }
+
+        public Map<String, PagingMode> getModes() {
+            return modes;
+        }
+
+        public void setModes(Map<String, PagingMode> modes) {
+            this.modes = modes;
+        }
+
+        public int getCountThreshold() {
+            return countThreshold;
+        }
+
+        public void setCountThreshold(int countThreshold) {
+            this.countThreshold = countThreshold;
+        }
+
+        /**
+         * @param entityName the entity name.
+         * @param requested the mode requested, or {@code null}.
+         * @return the requested mode, else the mode of the entity, else the default mode.
+         */
+        public PagingMode mode(String entityName, PagingMode requested) {
+            if (requested != null) {
+                return requested;
+            }
+            return modes.getOrDefault(entityName, defaultMode);
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
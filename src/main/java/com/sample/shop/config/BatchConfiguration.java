@@ -0,0 +1,47 @@
+package com.sample.shop.config;
+
+import java.util.Properties;
+import javax.batch.operations.JobOperator;
+import javax.sql.DataSource;
+import org.jberet.operations.DefaultJobOperatorImpl;
+import org.jberet.repository.JdbcRepository;
+import org.jberet.repository.JobRepository;
+import org.jberet.se.BatchSEEnvironment;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * JBeret runtime of the checkpointed mass indexing job.
+ * <p>
+ * The job repository is stored in the application database through the application {@link DataSource}, so that the
+ * checkpoints survive a restart of the node. Its tables are created by Liquibase, which may run asynchronously: the
+ * operator is therefore only created on first use.
+ */
+@Configuration
+public class BatchConfiguration {
+
+    @Bean
+    @Lazy
+    public JobOperator batchJobOperator(DataSource dataSource) {
+        return createJobOperator(dataSource);
+    }
+
+    /**
+     * @param dataSource the data source of the job repository.
+     * @return a JBeret operator storing its job repository in the data source.
+     */
+    public static JobOperator createJobOperator(DataSource dataSource) {
+        Properties configProperties = new Properties();
+        configProperties.setProperty("job-repository-type", "jdbc");
+        JobRepository jobRepository = new JdbcRepository(dataSource, configProperties);
+        return new DefaultJobOperatorImpl(
+            new BatchSEEnvironment() {
+                @Override
+                public JobRepository getJobRepository() {
+                    return jobRepository;
+                }
+            }
+        );
+    }
+}
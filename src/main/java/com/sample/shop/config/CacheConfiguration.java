@@ -103,10 +103,11 @@ public class CacheConfiguration {
      *  </ol>
      *
      * @param jHipsterProperties the jhipster properties to configure from.
+     * @param applicationProperties the application properties to configure the application caches from.
      * @return the infinispan cache configurer.
      */
     @Bean
-    public InfinispanCacheConfigurer cacheConfigurer(JHipsterProperties jHipsterProperties) {
+    public InfinispanCacheConfigurer cacheConfigurer(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         log.info("Defining {} configuration", "app-data for local, replicated and distributed modes");
         JHipsterProperties.Cache.Infinispan cacheInfo = jHipsterProperties.getCache().getInfinispan();
 
@@ -255,6 +256,80 @@ public class CacheConfiguration {
                             .build()
                     )
                 );
+
+            // type-ahead suggestions are cheap to recompute: kept locally, for a short time
+            ApplicationProperties.Search.Suggest suggest = applicationProperties.getSearch().getSuggest();
+            manager.defineConfiguration(
+                com.sample.shop.service.SuggestService.SUGGESTIONS_CACHE,
+                new ConfigurationBuilder()
+                    .clustering()
+                    .cacheMode(CacheMode.LOCAL)
+                    .statistics()
+                    .enabled(cacheInfo.isStatsEnabled())
+                    .memory()
+                    .maxCount(suggest.getCacheMaxEntries())
+                    .expiration()
+                    .lifespan(suggest.getCacheTimeToLive().toMillis(), TimeUnit.MILLISECONDS)
+                    .build()
+            );
+
+            // search result pages are shared by the cluster; they are keyed by the generation of their index, which is
+            // replicated to every node and bumped after each write, so that stale pages are never read again
+            ApplicationProperties.Search.ResultCache resultCache = applicationProperties.getSearch().getResultCache();
+            manager.defineConfiguration(
+                com.sample.shop.service.SearchResultCache.SEARCH_RESULTS_CACHE,
+                new ConfigurationBuilder()
+                    .clustering()
+                    .cacheMode(CacheMode.DIST_SYNC)
+                    .hash()
+                    .numOwners(cacheInfo.getDistributed().getInstanceCount())
+                    .statistics()
+                    .enabled(cacheInfo.isStatsEnabled())
+                    .memory()
+                    .maxCount(resultCache.getMaxEntries())
+                    .expiration()
+                    .lifespan(resultCache.getTimeToLive().toMillis(), TimeUnit.MILLISECONDS)
+                    .build()
+            );
+            manager.defineConfiguration(
+                com.sample.shop.service.SearchIndexGenerations.INDEX_GENERATIONS_CACHE,
+                new ConfigurationBuilder()
+                    .clustering()
+                    .cacheMode(CacheMode.REPL_SYNC)
+                    .statistics()
+                    .enabled(cacheInfo.isStatsEnabled())
+                    .build()
+            );
+            manager.defineConfiguration(
+                com.sample.shop.service.SearchIndexGenerations.INDEXED_GENERATIONS_CACHE,
+                new ConfigurationBuilder()
+                    .clustering()
+                    .cacheMode(CacheMode.REPL_SYNC)
+                    .statistics()
+                    .enabled(cacheInfo.isStatsEnabled())
+                    .build()
+            );
+            manager.defineConfiguration(
+                com.sample.shop.service.SearchIndexGenerations.INDEX_REBUILDS_CACHE,
+                new ConfigurationBuilder()
+                    .clustering()
+                    .cacheMode(CacheMode.REPL_SYNC)
+                    .statistics()
+                    .enabled(cacheInfo.isStatsEnabled())
+                    .build()
+            );
+            // the version of a document only matters while an indexing plan writing it may be queued
+            manager.defineConfiguration(
+                com.sample.shop.service.SearchDocumentVersions.DOCUMENT_VERSIONS_CACHE,
+                new ConfigurationBuilder()
+                    .clustering()
+                    .cacheMode(CacheMode.REPL_SYNC)
+                    .statistics()
+                    .enabled(cacheInfo.isStatsEnabled())
+                    .expiration()
+                    .lifespan(applicationProperties.getSearch().getDocumentVersionTimeToLive().toMillis(), TimeUnit.MILLISECONDS)
+                    .build()
+            );
         };
     }
 
@@ -4,8 +4,23 @@ import org.hibernate.search.backend.elasticsearch.analysis.ElasticsearchAnalysis
 import org.hibernate.search.backend.elasticsearch.analysis.ElasticsearchAnalysisConfigurer;
 import org.springframework.stereotype.Component;
 
+/**
+ * Analysis of the indexes.
+ * <p>
+ * Title-like fields are indexed with {@code autocomplete_indexing}, the other text fields with {@code text_indexing},
+ * whose definition depends on {@code application.search.mapping-profile}: see {@link ApplicationProperties.Search.MappingProfile}.
+ * Hibernate Search retrieves this configurer from the Spring context ({@code bean:elasticsearchAnalysisConfig}): it has
+ * no default constructor, so that a reference by class name fails at boot rather than ignoring the configured profile.
+ */
+@Component
 public class ElasticsearchAnalysisConfig implements ElasticsearchAnalysisConfigurer {
 
+    private final ApplicationProperties.Search.MappingProfile mappingProfile;
+
+    public ElasticsearchAnalysisConfig(ApplicationProperties applicationProperties) {
+        this.mappingProfile = applicationProperties.getSearch().getMappingProfile();
+    }
+
     @Override
     public void configure(ElasticsearchAnalysisConfigurationContext context) {
         context
@@ -53,7 +68,25 @@ public class ElasticsearchAnalysisConfig implements ElasticsearchAnalysisConfigu
             .charFilters("tm_char_filter")
             .tokenFilters("lowercase", "asciifolding");
 
+        context
+            .analyzer("text_indexing")
+            .custom()
+            .tokenizer("whitespace")
+            .charFilters("tm_char_filter")
+            .tokenFilters(textIndexingTokenFilters(mappingProfile));
+
         context.charFilter("tm_char_filter").type("mapping").param("mappings", "- => ", "+ => ", "( => ", ") => ", "+91 => ");
     }
-}
 
+    /**
+     * @param mappingProfile the mapping profile.
+     * @return the token filters of {@code text_indexing}: those of {@code autocomplete_indexing} for the full profile,
+     * those of {@code autocomplete_search} for the lean one, where prefixes are matched at search time ({@code term*}).
+     */
+    static String[] textIndexingTokenFilters(ApplicationProperties.Search.MappingProfile mappingProfile) {
+        return switch (mappingProfile) {
+            case FULL -> new String[] { "lowercase", "asciifolding", "autocomplete_edge_ngram" };
+            case LEAN -> new String[] { "lowercase", "asciifolding" };
+        };
+    }
+}
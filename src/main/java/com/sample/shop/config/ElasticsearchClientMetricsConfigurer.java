@@ -0,0 +1,107 @@
+package com.sample.shop.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.hibernate.search.backend.elasticsearch.client.ElasticsearchHttpClientConfigurationContext;
+import org.hibernate.search.backend.elasticsearch.client.ElasticsearchHttpClientConfigurer;
+
+/**
+ * Measures the requests Hibernate Search sends to Elasticsearch, including the bulk requests its indexing queues are
+ * flushed with.
+ * <p>
+ * Requests are timed by {@code search.backend.requests}, tagged by operation and status class, from the moment the
+ * client accepts them: the time includes the waits for a connection when {@code max_connections_per_route} are busy.
+ * The bytes sent for each request are recorded by {@code search.backend.requests.size}, read from the connection
+ * metrics so that the bodies are not serialized twice.
+ * Hibernate Search creates this configurer through the Spring bean container, which injects the meter registry;
+ * created reflectively, it falls back to the global registry.
+ */
+public class ElasticsearchClientMetricsConfigurer implements ElasticsearchHttpClientConfigurer {
+
+    static final String METRIC_PREFIX = "search.backend";
+
+    private static final Set<String> OPERATIONS = Set.of("bulk", "search", "scroll", "count", "refresh", "flush", "forcemerge");
+
+    private static final String START_ATTRIBUTE = ElasticsearchClientMetricsConfigurer.class.getName() + ".start";
+
+    private static final String OPERATION_ATTRIBUTE = ElasticsearchClientMetricsConfigurer.class.getName() + ".operation";
+
+    private final MeterRegistry meterRegistry;
+
+    public ElasticsearchClientMetricsConfigurer() {
+        this(Metrics.globalRegistry);
+    }
+
+    public ElasticsearchClientMetricsConfigurer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void configure(ElasticsearchHttpClientConfigurationContext context) {
+        context
+            .clientBuilder()
+            .addInterceptorLast((HttpRequestInterceptor) this::requestStarted)
+            .addInterceptorLast((HttpResponseInterceptor) this::responseReceived);
+    }
+
+    private void requestStarted(HttpRequest request, HttpContext context) {
+        context.setAttribute(OPERATION_ATTRIBUTE, operation(request.getRequestLine().getUri()));
+        context.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    private void responseReceived(HttpResponse response, HttpContext context) {
+        Object start = context.getAttribute(START_ATTRIBUTE);
+        Object operation = context.getAttribute(OPERATION_ATTRIBUTE);
+        if (!(start instanceof Long startNanos) || !(operation instanceof String operationName)) {
+            return;
+        }
+        Timer
+            .builder(METRIC_PREFIX + ".requests")
+            .description("Requests sent to Elasticsearch by Hibernate Search")
+            .tag("operation", operationName)
+            .tag("status", response.getStatusLine().getStatusCode() / 100 + "xx")
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        HttpConnection connection = HttpCoreContext.adapt(context).getConnection();
+        if (connection != null && connection.getMetrics() != null) {
+            // connections are not pipelined: the bytes sent since the previous response are those of this request
+            HttpConnectionMetrics metrics = connection.getMetrics();
+            DistributionSummary
+                .builder(METRIC_PREFIX + ".requests.size")
+                .description("Bytes sent to Elasticsearch per request, headers included")
+                .baseUnit("bytes")
+                .tag("operation", operationName)
+                .register(meterRegistry)
+                .record(metrics.getSentBytesCount());
+            metrics.reset();
+        }
+    }
+
+    /**
+     * @param uri the request URI, e.g. {@code /product-write/_bulk?refresh=false}.
+     * @return the operation of the request: the last endpoint of its path if it is a known one, else {@code other}.
+     */
+    static String operation(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        String operation = "other";
+        for (String segment : path.split("/")) {
+            if (segment.startsWith("_") && OPERATIONS.contains(segment.substring(1))) {
+                operation = segment.substring(1);
+            }
+        }
+        return operation;
+    }
+}
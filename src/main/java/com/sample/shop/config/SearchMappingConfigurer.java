@@ -0,0 +1,49 @@
+package com.sample.shop.config;
+
+import com.sample.shop.domain.WishList;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Searchable;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.orm.mapping.HibernateOrmMappingConfigurationContext;
+import org.hibernate.search.mapper.orm.mapping.HibernateOrmSearchMappingConfigurer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapping of the fields whose index structures depend on {@code application.search.mapping-profile}, see
+ * {@link ApplicationProperties.Search.MappingProfile}; the other fields are mapped by their annotations.
+ * <p>
+ * The lean profile drops the doc values of the fields no search sorts or aggregates on. Projections read the
+ * {@code _source} of the hits on Elasticsearch, so {@code projectable} stores nothing per field and stays enabled.
+ * Hibernate Search retrieves this configurer from the Spring context ({@code bean:searchMappingConfigurer}).
+ */
+@Component
+public class SearchMappingConfigurer implements HibernateOrmSearchMappingConfigurer {
+
+    private final ApplicationProperties.Search.MappingProfile mappingProfile;
+
+    public SearchMappingConfigurer(ApplicationProperties applicationProperties) {
+        this.mappingProfile = applicationProperties.getSearch().getMappingProfile();
+    }
+
+    @Override
+    public void configure(HibernateOrmMappingConfigurationContext context) {
+        context
+            .programmaticMapping()
+            .type(WishList.class)
+            .property("restricted")
+            .genericField()
+            .projectable(Projectable.YES)
+            .searchable(Searchable.YES)
+            .sortable(docValues());
+    }
+
+    /**
+     * @return whether the fields no search sorts on keep their doc values: only with the full profile.
+     */
+    Sortable docValues() {
+        return switch (mappingProfile) {
+            case FULL -> Sortable.YES;
+            case LEAN -> Sortable.NO;
+        };
+    }
+}
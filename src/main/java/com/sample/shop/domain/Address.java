@@ -12,6 +12,7 @@ import org.hibernate.search.engine.backend.types.Projectable;
 import org.hibernate.search.engine.backend.types.Searchable;
 import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.bridge.mapping.annotation.RoutingBinderRef;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
@@ -35,7 +36,7 @@ import javax.validation.constraints.Size;
 @Audited
 @Table(name = "address")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-@Indexed(index = "address")
+@Indexed(index = "address", routingBinder = @RoutingBinderRef(type = UnchangedDocumentRoutingBinder.class))
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "address-read", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Address implements Serializable {
@@ -54,7 +55,7 @@ public class Address implements Serializable {
     private String address1;
 
     @Column(name = "address_2")
-    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
+    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "text_indexing", searchAnalyzer = "autocomplete_search")
     private String address2;
 
     @Column(name = "city")
@@ -70,10 +71,10 @@ public class Address implements Serializable {
     @NotNull
     @Size(max = 2)
     @Column(name = "country", length = 2, nullable = false)
-    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
+    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "text_indexing", searchAnalyzer = "autocomplete_search")
     private String country;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     @Audited(targetAuditMode = RelationTargetAuditMode.NOT_AUDITED)
     @ManyToOne
     @JsonIgnoreProperties(value = {"wishLists", "addresses"}, allowSetters = true)
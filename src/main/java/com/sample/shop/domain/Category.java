@@ -7,8 +7,8 @@ import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 import org.hibernate.envers.Audited;
-import org.hibernate.envers.NotAudited;
 import org.hibernate.envers.RelationTargetAuditMode;
+import org.hibernate.search.engine.backend.types.Aggregable;
 import org.hibernate.search.engine.backend.types.ObjectStructure;
 import org.hibernate.search.engine.backend.types.Projectable;
 import org.hibernate.search.engine.backend.types.Searchable;
@@ -16,6 +16,7 @@ import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.bridge.mapping.annotation.RoutingBinderRef;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
@@ -47,7 +48,7 @@ import javax.validation.constraints.NotNull;
 @Audited
 @Table(name = "category")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-@Indexed(index = "category")
+@Indexed(index = "category", routingBinder = @RoutingBinderRef(type = UnchangedDocumentRoutingBinder.class))
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "category-read", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Category implements Serializable {
@@ -58,7 +59,7 @@ public class Category implements Serializable {
     @GeneratedValue
     @Type(type = "uuid-char")
     @Column(name = "id", length = 36)
-    @KeywordField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES)
+    @KeywordField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES, aggregable = Aggregable.YES)
     private UUID id;
 
     @NotNull
@@ -80,19 +81,20 @@ public class Category implements Serializable {
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
-    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
+    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "text_indexing", searchAnalyzer = "autocomplete_search")
     private CategoryStatus status;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @Audited(targetAuditMode = RelationTargetAuditMode.NOT_AUDITED)
     @ManyToOne
     @JsonIgnoreProperties(value = {"parent", "products"}, allowSetters = true)
     private Category parent;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    // flattened into products.id and products.title arrays; audited so that the delta indexing finds the products
+    // whose categories changed from this owning side
+    @IndexedEmbedded(includePaths = { "id", "title" }, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
-    @NotAudited
     @ManyToMany
     @JoinTable(
         name = "rel_category__product",
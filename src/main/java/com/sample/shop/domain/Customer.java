@@ -13,6 +13,7 @@ import org.hibernate.search.engine.backend.types.Searchable;
 import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.bridge.mapping.annotation.RoutingBinderRef;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
@@ -37,7 +38,7 @@ import javax.persistence.Table;
 @Audited
 @Table(name = "customer")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-@Indexed(index = "customer")
+@Indexed(index = "customer", routingBinder = @RoutingBinderRef(type = UnchangedDocumentRoutingBinder.class))
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "customer-read", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Customer implements Serializable {
@@ -64,10 +65,11 @@ public class Customer implements Serializable {
     private String email;
 
     @Column(name = "telephone")
-    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
+    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "text_indexing", searchAnalyzer = "autocomplete_search")
     private String telephone;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    // flattened into wishLists.id and wishLists.title arrays
+    @IndexedEmbedded(includePaths = { "id", "title" }, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @NotAudited
     @OneToMany(mappedBy = "customer")
@@ -76,7 +78,8 @@ public class Customer implements Serializable {
     @JsonIgnoreProperties(value = {"products", "customer"}, allowSetters = true)
     private Set<WishList> wishLists = new HashSet<>();
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    // flattened into one array per address field: a query cannot require two values from the same address
+    @IndexedEmbedded(includePaths = { "id", "address1", "address2", "city", "postcode", "country" }, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @NotAudited
     @OneToMany(mappedBy = "customer")
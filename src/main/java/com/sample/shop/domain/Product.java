@@ -8,6 +8,7 @@ import org.hibernate.annotations.Type;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.NotAudited;
 import org.hibernate.envers.RelationTargetAuditMode;
+import org.hibernate.search.engine.backend.types.Aggregable;
 import org.hibernate.search.engine.backend.types.ObjectStructure;
 import org.hibernate.search.engine.backend.types.Projectable;
 import org.hibernate.search.engine.backend.types.Searchable;
@@ -15,6 +16,7 @@ import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.bridge.mapping.annotation.RoutingBinderRef;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
@@ -42,7 +44,7 @@ import javax.validation.constraints.NotNull;
 @Audited
 @Table(name = "product")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-@Indexed(index = "product")
+@Indexed(index = "product", routingBinder = @RoutingBinderRef(type = UnchangedDocumentRoutingBinder.class))
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "product-read", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Product implements Serializable {
@@ -62,33 +64,34 @@ public class Product implements Serializable {
     private String title;
 
     @Column(name = "keywords")
-    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
+    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "text_indexing", searchAnalyzer = "autocomplete_search")
     private String keywords;
 
     @Column(name = "description")
-    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
+    @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "text_indexing", searchAnalyzer = "autocomplete_search")
     private String description;
 
     @Column(name = "rating")
-    @GenericField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES)
+    @GenericField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES, aggregable = Aggregable.YES)
     private Integer rating;
 
     @Column(name = "date_added")
-    @GenericField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES)
+    @GenericField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES, aggregable = Aggregable.YES)
     private LocalDate dateAdded;
 
     @Column(name = "date_modified")
     @GenericField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES)
     private LocalDate dateModified;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @Audited(targetAuditMode = RelationTargetAuditMode.NOT_AUDITED)
     @ManyToOne
     @JsonIgnoreProperties(value = { "products", "customer" }, allowSetters = true)
     private WishList wishList;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    // flattened into categories.id and categories.description arrays: filters and facets need no nested query
+    @IndexedEmbedded(includePaths = { "id", "description" }, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @NotAudited
     @ManyToMany(mappedBy = "products")
@@ -0,0 +1,103 @@
+package com.sample.shop.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * The hash of the last document written to the index for an entity, used to skip writing unchanged documents.
+ */
+@Entity
+@Table(name = "search_document_hash")
+public class SearchDocumentHash implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entity name and id, e.g. {@code Product:8c0c...}.
+     */
+    @NotNull
+    @Size(max = 100)
+    @Id
+    @Column(name = "document_key", length = 100)
+    private String documentKey;
+
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    @Column(name = "updated_date")
+    private Instant updatedDate;
+
+    public String getDocumentKey() {
+        return documentKey;
+    }
+
+    public void setDocumentKey(String documentKey) {
+        this.documentKey = documentKey;
+    }
+
+    public SearchDocumentHash documentKey(String documentKey) {
+        this.setDocumentKey(documentKey);
+        return this;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public SearchDocumentHash hash(String hash) {
+        this.setHash(hash);
+        return this;
+    }
+
+    public Instant getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(Instant updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    public SearchDocumentHash updatedDate(Instant updatedDate) {
+        this.setUpdatedDate(updatedDate);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchDocumentHash)) {
+            return false;
+        }
+        return Objects.equals(documentKey, ((SearchDocumentHash) o).documentKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(documentKey);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchDocumentHash{" +
+            "documentKey='" + documentKey + '\'' +
+            ", hash='" + hash + '\'' +
+            ", updatedDate='" + updatedDate + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,99 @@
+package com.sample.shop.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * The high-water mark of an incremental indexing process, e.g. the last Envers revision reindexed by the delta indexing.
+ */
+@Entity
+@Table(name = "search_index_checkpoint")
+public class SearchIndexCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 50)
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @NotNull
+    @Column(name = "revision", nullable = false)
+    private Integer revision;
+
+    @Column(name = "updated_date")
+    private Instant updatedDate;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SearchIndexCheckpoint name(String name) {
+        this.setName(name);
+        return this;
+    }
+
+    public Integer getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Integer revision) {
+        this.revision = revision;
+    }
+
+    public SearchIndexCheckpoint revision(Integer revision) {
+        this.setRevision(revision);
+        return this;
+    }
+
+    public Instant getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(Instant updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    public SearchIndexCheckpoint updatedDate(Instant updatedDate) {
+        this.setUpdatedDate(updatedDate);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchIndexCheckpoint)) {
+            return false;
+        }
+        return Objects.equals(name, ((SearchIndexCheckpoint) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchIndexCheckpoint{" +
+            "name='" + name + '\'' +
+            ", revision=" + revision +
+            ", updatedDate='" + updatedDate + '\'' +
+            "}";
+    }
+}
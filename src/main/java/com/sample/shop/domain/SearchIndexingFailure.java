@@ -0,0 +1,179 @@
+package com.sample.shop.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * An entity whose document could not be written to the index, waiting to be reindexed: an entry of the indexing
+ * dead-letter queue.
+ */
+@Entity
+@Table(name = "search_indexing_failure")
+public class SearchIndexingFailure implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entity name and id, e.g. {@code Product:8c0c...}.
+     */
+    @NotNull
+    @Size(max = 100)
+    @Id
+    @Column(name = "document_key", length = 100)
+    private String documentKey;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "entity_name", length = 50, nullable = false)
+    private String entityName;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "entity_id", length = 50, nullable = false)
+    private String entityId;
+
+    @Size(max = 1000)
+    @Column(name = "failure_message", length = 1000)
+    private String failureMessage;
+
+    /**
+     * The failed attempts to reindex the entity, the original failure included.
+     */
+    @NotNull
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @NotNull
+    @Column(name = "last_failed_date", nullable = false)
+    private Instant lastFailedDate;
+
+    @NotNull
+    @Column(name = "next_attempt_date", nullable = false)
+    private Instant nextAttemptDate;
+
+    public String getDocumentKey() {
+        return documentKey;
+    }
+
+    public void setDocumentKey(String documentKey) {
+        this.documentKey = documentKey;
+    }
+
+    public SearchIndexingFailure documentKey(String documentKey) {
+        this.setDocumentKey(documentKey);
+        return this;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public SearchIndexingFailure entityName(String entityName) {
+        this.setEntityName(entityName);
+        return this;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public SearchIndexingFailure entityId(String entityId) {
+        this.setEntityId(entityId);
+        return this;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+
+    public SearchIndexingFailure failureMessage(String failureMessage) {
+        this.setFailureMessage(failureMessage);
+        return this;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public SearchIndexingFailure attempts(Integer attempts) {
+        this.setAttempts(attempts);
+        return this;
+    }
+
+    public Instant getLastFailedDate() {
+        return lastFailedDate;
+    }
+
+    public void setLastFailedDate(Instant lastFailedDate) {
+        this.lastFailedDate = lastFailedDate;
+    }
+
+    public SearchIndexingFailure lastFailedDate(Instant lastFailedDate) {
+        this.setLastFailedDate(lastFailedDate);
+        return this;
+    }
+
+    public Instant getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    public void setNextAttemptDate(Instant nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    public SearchIndexingFailure nextAttemptDate(Instant nextAttemptDate) {
+        this.setNextAttemptDate(nextAttemptDate);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchIndexingFailure)) {
+            return false;
+        }
+        return Objects.equals(documentKey, ((SearchIndexingFailure) o).documentKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(documentKey);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchIndexingFailure{" +
+            "documentKey='" + documentKey + '\'' +
+            ", attempts=" + attempts +
+            ", lastFailedDate='" + lastFailedDate + '\'' +
+            ", nextAttemptDate='" + nextAttemptDate + '\'' +
+            ", failureMessage='" + failureMessage + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.sample.shop.domain;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.hibernate.Hibernate;
+import org.hibernate.search.mapper.pojo.bridge.RoutingBridge;
+import org.hibernate.search.mapper.pojo.bridge.binding.RoutingBindingContext;
+import org.hibernate.search.mapper.pojo.bridge.mapping.programmatic.RoutingBinder;
+import org.hibernate.search.mapper.pojo.bridge.runtime.RoutingBridgeRouteContext;
+import org.hibernate.search.mapper.pojo.route.DocumentRoutes;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes the documents of the indexed entities to their index, except the entities whose document the current
+ * transaction found unchanged, see {@link #skipInCurrentTransaction(Class, Object)}: Hibernate Search then neither
+ * writes nor deletes their document, while the other entities of the same type are indexed as usual.
+ * <p>
+ * The skipped entities are bound to the transaction, so they are only skipped when the indexing plan is processed by
+ * the writing thread: with the {@code outbox-polling} coordination, or when mass indexing, every document is written.
+ */
+public class UnchangedDocumentRoutingBinder implements RoutingBinder {
+
+    @Override
+    public void bind(RoutingBindingContext context) {
+        context.dependencies().useRootOnly();
+        context.bridge(Object.class, new Bridge());
+    }
+
+    /**
+     * Skip the document of an entity when the indexing plan of the current transaction is processed.
+     *
+     * @param entityType the entity type.
+     * @param id the id of the entity.
+     */
+    public static void skipInCurrentTransaction(Class<?> entityType, Object id) {
+        SkippedEntities skipped = (SkippedEntities) TransactionSynchronizationManager.getResource(SkippedEntities.class);
+        if (skipped == null) {
+            skipped = new SkippedEntities();
+            TransactionSynchronizationManager.bindResource(SkippedEntities.class, skipped);
+            TransactionSynchronizationManager.registerSynchronization(skipped);
+        }
+        skipped.entities.add(new SkippedEntity(entityType, id));
+    }
+
+    static boolean isSkipped(Object entity, Object id) {
+        SkippedEntities skipped = (SkippedEntities) TransactionSynchronizationManager.getResource(SkippedEntities.class);
+        return skipped != null && skipped.entities.contains(new SkippedEntity(Hibernate.getClass(entity), id));
+    }
+
+    private static final class Bridge implements RoutingBridge<Object> {
+
+        @Override
+        public void route(DocumentRoutes routes, Object entityIdentifier, Object indexedEntity, RoutingBridgeRouteContext context) {
+            if (isSkipped(indexedEntity, entityIdentifier)) {
+                routes.notIndexed();
+            } else {
+                routes.addRoute();
+            }
+        }
+
+        @Override
+        public void previousRoutes(
+            DocumentRoutes routes,
+            Object entityIdentifier,
+            Object indexedEntity,
+            RoutingBridgeRouteContext context
+        ) {
+            // a skipped entity must not be deleted from its previous route either
+            route(routes, entityIdentifier, indexedEntity, context);
+        }
+    }
+
+    private record SkippedEntity(Class<?> entityType, Object id) {}
+
+    private static final class SkippedEntities implements TransactionSynchronization {
+
+        private final Set<SkippedEntity> entities = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SkippedEntities.class);
+        }
+    }
+}
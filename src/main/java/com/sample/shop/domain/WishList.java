@@ -14,7 +14,7 @@ import org.hibernate.search.engine.backend.types.Searchable;
 import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
-import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.bridge.mapping.annotation.RoutingBinderRef;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
@@ -41,7 +41,7 @@ import javax.validation.constraints.NotNull;
 @Audited
 @Table(name = "wish_list")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-@Indexed(index = "wishlist")
+@Indexed(index = "wishlist", routingBinder = @RoutingBinderRef(type = UnchangedDocumentRoutingBinder.class))
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "wishlist-read", createIndex = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class WishList implements Serializable {
@@ -60,11 +60,12 @@ public class WishList implements Serializable {
     @FullTextField(projectable = Projectable.YES, searchable = Searchable.YES, analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
     private String title;
 
+    // mapped by SearchMappingConfigurer, its doc values depend on the mapping profile
     @Column(name = "restricted")
-    @GenericField(projectable = Projectable.YES, searchable = Searchable.YES, sortable = Sortable.YES)
     private Boolean restricted;
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    // flattened into products.id and products.title arrays
+    @IndexedEmbedded(includePaths = { "id", "title" }, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @NotAudited
     @OneToMany(mappedBy = "wishList")
@@ -73,7 +74,7 @@ public class WishList implements Serializable {
     @JsonIgnoreProperties(value = {"wishList", "categories"}, allowSetters = true)
     private Set<Product> products = new HashSet<>();
 
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     @Audited(targetAuditMode = RelationTargetAuditMode.NOT_AUDITED)
     @ManyToOne
@@ -0,0 +1,11 @@
+package com.sample.shop.repository;
+
+import com.sample.shop.domain.SearchDocumentHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link SearchDocumentHash} entity.
+ */
+@Repository
+public interface SearchDocumentHashRepository extends JpaRepository<SearchDocumentHash, String> {}
@@ -0,0 +1,11 @@
+package com.sample.shop.repository;
+
+import com.sample.shop.domain.SearchIndexCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link SearchIndexCheckpoint} entity.
+ */
+@Repository
+public interface SearchIndexCheckpointRepository extends JpaRepository<SearchIndexCheckpoint, String> {}
@@ -0,0 +1,31 @@
+package com.sample.shop.repository;
+
+import com.sample.shop.domain.SearchIndexingFailure;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link SearchIndexingFailure} entity.
+ */
+@Repository
+public interface SearchIndexingFailureRepository extends JpaRepository<SearchIndexingFailure, String> {
+    List<SearchIndexingFailure> findByNextAttemptDateLessThanEqualOrderByNextAttemptDate(Instant date, Pageable pageable);
+
+    long countByNextAttemptDateLessThanEqual(Instant date);
+
+    @Query("select f.entityName, count(f) from SearchIndexingFailure f group by f.entityName")
+    List<Object[]> countByEntityName();
+
+    /**
+     * Delete a failure once its entity is reindexed, unless the entity failed again meanwhile.
+     */
+    @Modifying
+    @Query("delete from SearchIndexingFailure f where f.documentKey = :documentKey and f.lastFailedDate = :lastFailedDate")
+    int deleteRetried(@Param("documentKey") String documentKey, @Param("lastFailedDate") Instant lastFailedDate);
+}
@@ -1,26 +1,27 @@
 package com.sample.shop.service;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.Address;
 import com.sample.shop.repository.AddressRepository;
-import com.sample.shop.repository.search.AddressSearchRepository;
 import com.sample.shop.service.dto.AddressDTO;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.mapper.AddressMapper;
 import com.sample.shop.service.projections.mapper.AddressProjectionMapper;
 
-import org.hibernate.search.mapper.orm.Search;
-import org.hibernate.search.mapper.orm.session.SearchSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
@@ -31,6 +32,11 @@ import javax.persistence.EntityManager;
 @Transactional
 public class AddressService {
 
+    /**
+     * Full text fields matched by unqualified query terms.
+     */
+    static final String[] SEARCH_FIELDS = { "address1", "address2", "city", "postcode", "country" };
+
     private final Logger log = LoggerFactory.getLogger(AddressService.class);
 
     private final AddressRepository addressRepository;
@@ -38,23 +44,34 @@ public class AddressService {
     private final AddressMapper addressMapper;
     private final AddressProjectionMapper addressProjectionMapper;
 
-    private final AddressSearchRepository addressSearchRepository;
+    private final SearchDocumentHashService searchDocumentHashService;
 
     private final EntityManager entityManager;
-    private final SearchSession searchSession;
+
+    private final EntitySearch entitySearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SearchExporter searchExporter;
 
     public AddressService(
         AddressRepository addressRepository,
         AddressMapper addressMapper,
-        AddressProjectionMapper addressProjectionMapper, AddressSearchRepository addressSearchRepository,
-        EntityManager entityManager
+        AddressProjectionMapper addressProjectionMapper,
+        EntityManager entityManager,
+        SearchDocumentHashService searchDocumentHashService,
+        EntitySearch entitySearch,
+        ApplicationProperties applicationProperties,
+        SearchExporter searchExporter
     ) {
         this.addressRepository = addressRepository;
         this.addressMapper = addressMapper;
         this.addressProjectionMapper = addressProjectionMapper;
-        this.addressSearchRepository = addressSearchRepository;
+        this.searchDocumentHashService = searchDocumentHashService;
         this.entityManager = entityManager;
-        searchSession = Search.session(entityManager);
+        this.entitySearch = entitySearch;
+        this.applicationProperties = applicationProperties;
+        this.searchExporter = searchExporter;
     }
 
     /**
@@ -68,7 +85,7 @@ public class AddressService {
         Address address = addressMapper.toEntity(addressDTO);
         address = addressRepository.save(address);
         AddressDTO result = addressMapper.toDto(address);
-        // addressSearchRepository.index(address);
+        searchDocumentHashService.skipIndexingIfUnchanged(address, address.getId());
         return result;
     }
 
@@ -83,7 +100,7 @@ public class AddressService {
         Address address = addressMapper.toEntity(addressDTO);
         address = addressRepository.save(address);
         AddressDTO result = addressMapper.toDto(address);
-        // addressSearchRepository.index(address);
+        searchDocumentHashService.skipIndexingIfUnchanged(address, address.getId());
         return result;
     }
 
@@ -105,7 +122,7 @@ public class AddressService {
             })
             .map(addressRepository::save)
             .map(savedAddress -> {
-                //addressSearchRepository.save(savedAddress);
+                searchDocumentHashService.skipIndexingIfUnchanged(savedAddress, savedAddress.getId());
 
                 return savedAddress;
             })
@@ -144,46 +161,120 @@ public class AddressService {
     public void delete(UUID id) {
         log.debug("Request to delete Address : {}", id);
         addressRepository.deleteById(id);
-        //addressSearchRepository.deleteById(id);
+        searchDocumentHashService.forget(Address.class, id);
     }
 
     /**
-     * Search for the address corresponding to the query.
+     * Search for the address corresponding to the query. Unless {@code application.search.projection-results} is disabled,
+     * the results are built from the index only, see {@link #searchWithProjection(String, Pageable)}.
      *
-     * @param query    the query of the search.
+     * @param query the query of the search.
      * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<AddressDTO> search(String query, Pageable pageable) {
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return searchWithProjection(query, pageable);
+        }
         log.debug("Request to search for a page of Addresses for query {}", query);
+        return entitySearch.entities(Address.class, query, SEARCH_FIELDS, pageable, addressMapper::toDto);
+    }
 
-        List addresses = searchSession.search( Address.class )
-            .where( (f, b) -> {
-                    b.must(f.matchAll());
-                }
-            ).fetchHits( 20 ).stream().map(addressMapper::toDto).collect(Collectors.toList());
-        return new PageImpl<>(addresses,pageable,addresses.size());
+    /**
+     * Search for the address corresponding to the query, counting the matching entities as required by a paging mode.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @param paging the paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the page of entities, a {@link org.springframework.data.domain.Page} unless the mode is a slice.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<AddressDTO> search(String query, Pageable pageable, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("address", paging);
+        if (mode == PagingMode.EXACT) {
+            return search(query, pageable);
+        }
+        log.debug("Request to search for a {} page of Addresses for query {}", mode, query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projections(
+                Address.class,
+                com.sample.shop.service.projections.dto.Address.class,
+                query,
+                SEARCH_FIELDS,
+                pageable,
+                mode,
+                addressProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entities(Address.class, query, SEARCH_FIELDS, pageable, mode, addressMapper::toDto);
+    }
 
-    }    /**
-     * Search for the address corresponding to the query.
+    /**
+     * Search for the address corresponding to the query, building the results from the index only.
      *
-     * @param query    the query of the search.
+     * @param query the query of the search.
      * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<AddressDTO> searchWithProjection(String query, Pageable pageable) {
-        log.debug("Request to search for a page of Addresses for query {}", query);
+        log.debug("Request to search for a page of Addresses projections for query {}", query);
+        return entitySearch.projections(
+            Address.class,
+            com.sample.shop.service.projections.dto.Address.class,
+            query,
+            SEARCH_FIELDS,
+            pageable,
+            addressProjectionMapper::toDto
+        );
+    }
 
-        List addresses = searchSession.search( Address.class )
-            .select(com.sample.shop.service.projections.dto.Address.class)
-            .where( (f, b) -> {
-                    b.must(f.matchAll());
-                }
-            ).fetchHits( 20 ).stream().map(addressProjectionMapper::toDto).collect(Collectors.toList());
-        return new PageImpl<>(addresses,pageable,addresses.size());
-        //return addressSearchRepository.search(query, pageable).map(addressMapper::toDto);
+    /**
+     * Search for the address corresponding to the query, one cursor page at a time.
+     *
+     * @param query the query of the search.
+     * @param sort the sort of the search, the same for every page.
+     * @param size the number of entities per page.
+     * @param cursor the cursor returned with the previous page, blank for the first page.
+     * @return the page of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<AddressDTO> searchAfter(String query, Sort sort, int size, String cursor) {
+        log.debug("Request to search for a cursor page of Addresses for query {}", query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projectionsAfter(
+                Address.class,
+                com.sample.shop.service.projections.dto.Address.class,
+                query,
+                SEARCH_FIELDS,
+                sort,
+                size,
+                cursor,
+                addressProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entitiesAfter(Address.class, query, SEARCH_FIELDS, sort, size, cursor, addressMapper::toDto);
+    }
 
+    /**
+     * Export every address corresponding to the query as newline delimited JSON, built from the index only.
+     *
+     * @param query the query of the search.
+     * @param out the stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the stream could not be written.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long export(String query, OutputStream out) throws IOException {
+        log.debug("Request to export Addresses for query {}", query);
+        return searchExporter.export(
+            Address.class,
+            com.sample.shop.service.projections.dto.Address.class,
+            query,
+            SEARCH_FIELDS,
+            addressProjectionMapper::toDto,
+            out
+        );
     }
 }
@@ -1,5 +1,6 @@
 package com.sample.shop.service;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.*; // for static metamodels
 import com.sample.shop.domain.Category;
 import com.sample.shop.repository.CategoryRepository;
@@ -8,11 +9,13 @@ import com.sample.shop.service.criteria.CategoryCriteria;
 import com.sample.shop.service.dto.CategoryDTO;
 import com.sample.shop.service.mapper.CategoryMapper;
 import java.util.List;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class CategoryQueryService extends QueryService<Category> {
 
     private final CategorySearchRepository categorySearchRepository;
 
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
     public CategoryQueryService(
         CategoryRepository categoryRepository,
         CategoryMapper categoryMapper,
-        CategorySearchRepository categorySearchRepository
+        CategorySearchRepository categorySearchRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
     ) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
         this.categorySearchRepository = categorySearchRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -71,6 +82,26 @@ public class CategoryQueryService extends QueryService<Category> {
         return categoryRepository.findAll(specification, page).map(categoryMapper::toDto);
     }
 
+    /**
+     * Return a page of {@link CategoryDTO} which matches the criteria from the database, counting the matching entities
+     * as required by a paging mode.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param paging The paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the matching entities, a {@link Page} unless the mode is a slice.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CategoryDTO> findByCriteria(CategoryCriteria criteria, Pageable page, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("category", paging);
+        if (mode == PagingMode.EXACT) {
+            return findByCriteria(criteria, page);
+        }
+        log.debug("find by criteria : {}, page: {}, paging: {}", criteria, page, mode);
+        final Specification<Category> specification = createSpecification(criteria);
+        int countThreshold = applicationProperties.getPaging().getCountThreshold();
+        return CriteriaPaging.fetch(entityManager, Category.class, specification, page, mode, countThreshold).map(categoryMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,19 +1,24 @@
 package com.sample.shop.service;
 
-import static org.elasticsearch.index.query.QueryBuilders.*;
-
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.Category;
 import com.sample.shop.repository.CategoryRepository;
-import com.sample.shop.repository.search.CategorySearchRepository;
 import com.sample.shop.service.dto.CategoryDTO;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.mapper.CategoryMapper;
+import com.sample.shop.service.projections.mapper.CategoryProjectionMapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -23,22 +28,47 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class CategoryService {
 
+    /**
+     * Full text fields matched by unqualified query terms.
+     */
+    static final String[] SEARCH_FIELDS = { "description", "status" };
+
     private final Logger log = LoggerFactory.getLogger(CategoryService.class);
 
     private final CategoryRepository categoryRepository;
 
     private final CategoryMapper categoryMapper;
 
-    private final CategorySearchRepository categorySearchRepository;
+    private final CategoryProjectionMapper categoryProjectionMapper;
+
+    private final SearchDocumentHashService searchDocumentHashService;
+
+    private final EntitySearch entitySearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SearchExporter searchExporter;
+
+    private final SearchResultCache searchResultCache;
 
     public CategoryService(
         CategoryRepository categoryRepository,
         CategoryMapper categoryMapper,
-        CategorySearchRepository categorySearchRepository
+        CategoryProjectionMapper categoryProjectionMapper,
+        SearchDocumentHashService searchDocumentHashService,
+        EntitySearch entitySearch,
+        ApplicationProperties applicationProperties,
+        SearchExporter searchExporter,
+        SearchResultCache searchResultCache
     ) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
-        this.categorySearchRepository = categorySearchRepository;
+        this.categoryProjectionMapper = categoryProjectionMapper;
+        this.searchDocumentHashService = searchDocumentHashService;
+        this.entitySearch = entitySearch;
+        this.applicationProperties = applicationProperties;
+        this.searchExporter = searchExporter;
+        this.searchResultCache = searchResultCache;
     }
 
     /**
@@ -52,7 +82,7 @@ public class CategoryService {
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
         CategoryDTO result = categoryMapper.toDto(category);
-        //categorySearchRepository.index(category);
+        searchDocumentHashService.skipIndexingIfUnchanged(category, category.getId());
         return result;
     }
 
@@ -67,7 +97,7 @@ public class CategoryService {
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
         CategoryDTO result = categoryMapper.toDto(category);
-        //categorySearchRepository.index(category);
+        searchDocumentHashService.skipIndexingIfUnchanged(category, category.getId());
         return result;
     }
 
@@ -89,7 +119,7 @@ public class CategoryService {
             })
             .map(categoryRepository::save)
             .map(savedCategory -> {
-                //categorySearchRepository.save(savedCategory);
+                searchDocumentHashService.skipIndexingIfUnchanged(savedCategory, savedCategory.getId());
 
                 return savedCategory;
             })
@@ -137,19 +167,128 @@ public class CategoryService {
     public void delete(UUID id) {
         log.debug("Request to delete Category : {}", id);
         categoryRepository.deleteById(id);
-        //categorySearchRepository.deleteById(id);
+        searchDocumentHashService.forget(Category.class, id);
     }
 
     /**
-     * Search for the category corresponding to the query.
+     * Search for the category corresponding to the query. Unless {@code application.search.projection-results} is disabled,
+     * the results are built from the index only, see {@link #searchWithProjection(String, Pageable)}.
+     * Repeated searches are served from the {@link SearchResultCache} until the index is written to.
      *
      * @param query the query of the search.
      * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<CategoryDTO> search(String query, Pageable pageable) {
-        log.debug("Request to search for a page of Categories for query {}", query);
-        return categorySearchRepository.search(query, pageable).map(categoryMapper::toDto);
+        return searchResultCache.get(
+            Category.class,
+            query,
+            pageable,
+            () -> {
+                if (applicationProperties.getSearch().isProjectionResults()) {
+                    return searchWithProjection(query, pageable);
+                }
+                log.debug("Request to search for a page of Categories for query {}", query);
+                return entitySearch.entities(Category.class, query, SEARCH_FIELDS, pageable, categoryMapper::toDto);
+            }
+        );
+    }
+
+    /**
+     * Search for the category corresponding to the query, counting the matching entities as required by a paging mode.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @param paging the paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the page of entities, a {@link org.springframework.data.domain.Page} unless the mode is a slice.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<CategoryDTO> search(String query, Pageable pageable, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("category", paging);
+        if (mode == PagingMode.EXACT) {
+            return search(query, pageable);
+        }
+        log.debug("Request to search for a {} page of Categories for query {}", mode, query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projections(
+                Category.class,
+                com.sample.shop.service.projections.dto.Category.class,
+                query,
+                SEARCH_FIELDS,
+                pageable,
+                mode,
+                categoryProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entities(Category.class, query, SEARCH_FIELDS, pageable, mode, categoryMapper::toDto);
+    }
+
+    /**
+     * Search for the category corresponding to the query, building the results from the index only.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<CategoryDTO> searchWithProjection(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Categories projections for query {}", query);
+        return entitySearch.projections(
+            Category.class,
+            com.sample.shop.service.projections.dto.Category.class,
+            query,
+            SEARCH_FIELDS,
+            pageable,
+            categoryProjectionMapper::toDto
+        );
+    }
+
+    /**
+     * Search for the category corresponding to the query, one cursor page at a time.
+     *
+     * @param query the query of the search.
+     * @param sort the sort of the search, the same for every page.
+     * @param size the number of entities per page.
+     * @param cursor the cursor returned with the previous page, blank for the first page.
+     * @return the page of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<CategoryDTO> searchAfter(String query, Sort sort, int size, String cursor) {
+        log.debug("Request to search for a cursor page of Categories for query {}", query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projectionsAfter(
+                Category.class,
+                com.sample.shop.service.projections.dto.Category.class,
+                query,
+                SEARCH_FIELDS,
+                sort,
+                size,
+                cursor,
+                categoryProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entitiesAfter(Category.class, query, SEARCH_FIELDS, sort, size, cursor, categoryMapper::toDto);
+    }
+
+    /**
+     * Export every category corresponding to the query as newline delimited JSON, built from the index only.
+     *
+     * @param query the query of the search.
+     * @param out the stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the stream could not be written.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long export(String query, OutputStream out) throws IOException {
+        log.debug("Request to export Categories for query {}", query);
+        return searchExporter.export(
+            Category.class,
+            com.sample.shop.service.projections.dto.Category.class,
+            query,
+            SEARCH_FIELDS,
+            categoryProjectionMapper::toDto,
+            out
+        );
     }
 }
@@ -0,0 +1,105 @@
+package com.sample.shop.service;
+
+import com.sample.shop.service.dto.CappedPage;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Helpers paginating the criteria listings without the {@code count(*)} of
+ * {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)}.
+ * <p>
+ * A {@link PagingMode#SLICE} reads one entity past the page to know whether a next page exists. A
+ * {@link PagingMode#CAPPED} page counts the matching entities up to the count threshold, so the database stops
+ * scanning once the threshold is reached; on the last page the total is known without counting.
+ */
+public final class CriteriaPaging {
+
+    private CriteriaPaging() {}
+
+    /**
+     * Fetch a page of entities without an exact count.
+     *
+     * @param entityManager the entity manager.
+     * @param entityType the entity type.
+     * @param specification the filters the entities must match.
+     * @param pageable the pagination information.
+     * @param mode the paging mode, {@link PagingMode#SLICE} or {@link PagingMode#CAPPED}.
+     * @param countThreshold the number of entities a {@link PagingMode#CAPPED} page counts up to.
+     * @param <E> the type of entities.
+     * @return a {@link org.springframework.data.domain.SliceImpl} or a {@link CappedPage}.
+     */
+    public static <E> Slice<E> fetch(
+        EntityManager entityManager,
+        Class<E> entityType,
+        Specification<E> specification,
+        Pageable pageable,
+        PagingMode mode,
+        int countThreshold
+    ) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = builder.createQuery(entityType);
+        Root<E> root = query.from(entityType);
+        where(query, root, builder, specification);
+        query.select(root);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        TypedQuery<E> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            List<E> content = typedQuery.getResultList();
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        if (mode == PagingMode.SLICE) {
+            typedQuery.setMaxResults(pageable.getPageSize() + 1);
+            return PagedSearch.toSlice(typedQuery.getResultList(), pageable);
+        }
+        typedQuery.setMaxResults(pageable.getPageSize());
+        List<E> content = typedQuery.getResultList();
+        if (!content.isEmpty() && content.size() < pageable.getPageSize()) {
+            return new CappedPage<>(content, pageable, pageable.getOffset() + content.size(), true);
+        }
+        long count = countUpTo(entityManager, entityType, specification, countThreshold);
+        return new CappedPage<>(content, pageable, Math.max(count, pageable.getOffset() + content.size()), count < countThreshold);
+    }
+
+    /**
+     * Count the matching entities up to a threshold, without loading them: a probe for a single id at the threshold
+     * offset tells whether the threshold is reached, and only fewer matching entities are counted.
+     */
+    private static <E> long countUpTo(EntityManager entityManager, Class<E> entityType, Specification<E> specification, int threshold) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        if (threshold > 0) {
+            CriteriaQuery<Object> probe = builder.createQuery(Object.class);
+            Root<E> probeRoot = probe.from(entityType);
+            where(probe, probeRoot, builder, specification);
+            // the ids rather than a constant, which a distinct specification would collapse to a single row
+            probe.select(probeRoot.get(PagedSearch.ID_FIELD));
+            if (!entityManager.createQuery(probe).setFirstResult(threshold - 1).setMaxResults(1).getResultList().isEmpty()) {
+                return threshold;
+            }
+        }
+        CriteriaQuery<Long> count = builder.createQuery(Long.class);
+        Root<E> countRoot = count.from(entityType);
+        where(count, countRoot, builder, specification);
+        count.select(count.isDistinct() ? builder.countDistinct(countRoot) : builder.count(countRoot));
+        return entityManager.createQuery(count).getSingleResult();
+    }
+
+    private static <E> void where(CriteriaQuery<?> query, Root<E> root, CriteriaBuilder builder, Specification<E> specification) {
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.sample.shop.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.dto.CursorPage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.core.TimeValue;
+import org.hibernate.search.backend.elasticsearch.ElasticsearchExtension;
+import org.hibernate.search.backend.elasticsearch.index.ElasticsearchIndexManager;
+import org.hibernate.search.backend.elasticsearch.search.projection.dsl.ElasticsearchSearchProjectionFactory;
+import org.hibernate.search.backend.elasticsearch.search.query.ElasticsearchSearchResult;
+import org.hibernate.search.backend.elasticsearch.search.query.dsl.ElasticsearchSearchRequestTransformerContext;
+import org.hibernate.search.engine.search.projection.dsl.ProjectionFinalStep;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.common.EntityReference;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cursor pagination of the entity searches, backed by an Elasticsearch point in time and {@code search_after}.
+ * <p>
+ * Unlike {@code from}/{@code size} paging, the cost of a page does not grow with its depth and is not limited by
+ * the {@code index.max_result_window}. The point in time is opened on the first page and kept alive between pages;
+ * the opaque cursor returned with each page carries its id and the sort values of the last hit. The sort always
+ * ends with the {@code id} field (see {@link PagedSearch#sort}), so the position of a hit is unique.
+ */
+@Component
+public class CursorPagedSearch {
+
+    /**
+     * Request parameters Elasticsearch rejects when the search targets a point in time.
+     */
+    private static final Set<String> POINT_IN_TIME_INCOMPATIBLE_PARAMETERS = Set.of(
+        "routing",
+        "preference",
+        "ignore_unavailable",
+        "allow_no_indices",
+        "expand_wildcards"
+    );
+
+    private final Logger log = LoggerFactory.getLogger(CursorPagedSearch.class);
+
+    private final RestHighLevelClient client;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    public CursorPagedSearch(RestHighLevelClient client, EntityManager entityManager, ApplicationProperties applicationProperties) {
+        this.client = client;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Fetch the page of entities following a cursor.
+     *
+     * @param searchSession the search session to run the query with.
+     * @param entityType the searched entity type.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param sort the sort, which must be the same for every page of a cursor.
+     * @param size the number of hits per page.
+     * @param cursor the cursor returned with the previous page, or blank for the first page.
+     * @param mapper the mapper of the entities.
+     * @param <E> the type of entities.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public <E, D> CursorPage<D> fetch(
+        SearchSession searchSession,
+        Class<E> entityType,
+        String query,
+        String[] fields,
+        Sort sort,
+        int size,
+        String cursor,
+        Function<? super E, D> mapper
+    ) {
+        return fetch(searchSession, entityType, f -> f.entity(), query, fields, sort, size, cursor, mapper);
+    }
+
+    /**
+     * Fetch the page of projections following a cursor, built from the index only.
+     *
+     * @param searchSession the search session to run the query with.
+     * @param entityType the searched entity type.
+     * @param projectionType the projection record the hits are built from.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param sort the sort, which must be the same for every page of a cursor.
+     * @param size the number of hits per page.
+     * @param cursor the cursor returned with the previous page, or blank for the first page.
+     * @param mapper the mapper of the projections.
+     * @param <E> the type of entities.
+     * @param <P> the type of projections.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public <E, P, D> CursorPage<D> fetchProjections(
+        SearchSession searchSession,
+        Class<E> entityType,
+        Class<P> projectionType,
+        String query,
+        String[] fields,
+        Sort sort,
+        int size,
+        String cursor,
+        Function<? super P, D> mapper
+    ) {
+        return fetch(searchSession, entityType, f -> f.composite().as(projectionType), query, fields, sort, size, cursor, mapper);
+    }
+
+    private <E, H, D> CursorPage<D> fetch(
+        SearchSession searchSession,
+        Class<E> entityType,
+        Function<ElasticsearchSearchProjectionFactory<EntityReference, E>, ProjectionFinalStep<H>> hitProjection,
+        String query,
+        String[] fields,
+        Sort sort,
+        int size,
+        String cursor,
+        Function<? super H, D> mapper
+    ) {
+        Position position = cursor == null || cursor.isBlank() ? new Position(openPointInTime(entityType), null) : Position.decode(cursor);
+        String keepAlive = applicationProperties.getSearch().getCursorKeepAlive().toMillis() + "ms";
+
+        ElasticsearchSearchResult<Hit<H>> result = searchSession
+            .search(entityType)
+            .extension(ElasticsearchExtension.get())
+            .select(f -> f.composite().from(hitProjection.apply(f), f.jsonHit()).as(Hit::new))
+            .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+            .sort(f -> PagedSearch.sort(f, sort, PagedSearch.index(searchSession, entityType)))
+            .requestTransformer(context -> position.applyTo(context, keepAlive))
+            .fetch(size);
+
+        List<D> content = new ArrayList<>(result.hits().size());
+        result.hits().forEach(hit -> content.add(mapper.apply(hit.value())));
+
+        JsonElement pointInTimeId = result.responseBody().get("pit_id");
+        String pit = pointInTimeId != null ? pointInTimeId.getAsString() : position.pit();
+        if (result.hits().size() < size) {
+            closePointInTime(pit);
+            return new CursorPage<>(content, null);
+        }
+        JsonArray lastSortValues = result.hits().get(result.hits().size() - 1).json().getAsJsonArray("sort");
+        return new CursorPage<>(content, new Position(pit, lastSortValues).encode());
+    }
+
+    private String openPointInTime(Class<?> entityType) {
+        String index = Search
+            .mapping(entityManager.getEntityManagerFactory())
+            .indexedEntity(entityType)
+            .indexManager()
+            .unwrap(ElasticsearchIndexManager.class)
+            .descriptor()
+            .readName();
+        TimeValue keepAlive = TimeValue.timeValueMillis(applicationProperties.getSearch().getCursorKeepAlive().toMillis());
+        try {
+            OpenPointInTimeRequest request = new OpenPointInTimeRequest(index).keepAlive(keepAlive);
+            return client.openPointInTime(request, RequestOptions.DEFAULT).getPointInTimeId();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open a point in time on index " + index, e);
+        }
+    }
+
+    private void closePointInTime(String pit) {
+        try {
+            client.closePointInTime(new ClosePointInTimeRequest(pit), RequestOptions.DEFAULT);
+        } catch (IOException | RuntimeException e) {
+            // the point in time expires on its own after the keep alive
+            log.warn("Could not close point in time: {}", e.getMessage());
+        }
+    }
+
+    private record Hit<H>(H value, JsonObject json) {}
+
+    /**
+     * The position of a cursor: the point in time it reads and the sort values of the last returned hit.
+     */
+    record Position(String pit, JsonArray searchAfter) {
+        void applyTo(ElasticsearchSearchRequestTransformerContext context, String keepAlive) {
+            context.path("/_search");
+            context.parametersMap().keySet().removeAll(POINT_IN_TIME_INCOMPATIBLE_PARAMETERS);
+            JsonObject pointInTime = new JsonObject();
+            pointInTime.addProperty("id", pit);
+            pointInTime.addProperty("keep_alive", keepAlive);
+            context.body().add("pit", pointInTime);
+            if (searchAfter != null) {
+                context.body().add("search_after", searchAfter);
+            }
+        }
+
+        String encode() {
+            JsonObject json = new JsonObject();
+            json.addProperty("pit", pit);
+            json.add("after", searchAfter);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String cursor) {
+            try {
+                JsonObject json = JsonParser
+                    .parseString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8))
+                    .getAsJsonObject();
+                if (!json.has("pit") || !json.has("after")) {
+                    throw new IllegalArgumentException("Incomplete search cursor");
+                }
+                return new Position(json.get("pit").getAsString(), json.getAsJsonArray("after"));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid search cursor", e);
+            }
+        }
+    }
+}
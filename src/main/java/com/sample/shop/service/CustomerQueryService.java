@@ -1,5 +1,6 @@
 package com.sample.shop.service;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.*; // for static metamodels
 import com.sample.shop.domain.Customer;
 import com.sample.shop.repository.CustomerRepository;
@@ -8,11 +9,13 @@ import com.sample.shop.service.criteria.CustomerCriteria;
 import com.sample.shop.service.dto.CustomerDTO;
 import com.sample.shop.service.mapper.CustomerMapper;
 import java.util.List;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class CustomerQueryService extends QueryService<Customer> {
 
     private final CustomerSearchRepository customerSearchRepository;
 
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
     public CustomerQueryService(
         CustomerRepository customerRepository,
         CustomerMapper customerMapper,
-        CustomerSearchRepository customerSearchRepository
+        CustomerSearchRepository customerSearchRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
     ) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
         this.customerSearchRepository = customerSearchRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -71,6 +82,26 @@ public class CustomerQueryService extends QueryService<Customer> {
         return customerRepository.findAll(specification, page).map(customerMapper::toDto);
     }
 
+    /**
+     * Return a page of {@link CustomerDTO} which matches the criteria from the database, counting the matching entities
+     * as required by a paging mode.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param paging The paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the matching entities, a {@link Page} unless the mode is a slice.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CustomerDTO> findByCriteria(CustomerCriteria criteria, Pageable page, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("customer", paging);
+        if (mode == PagingMode.EXACT) {
+            return findByCriteria(criteria, page);
+        }
+        log.debug("find by criteria : {}, page: {}, paging: {}", criteria, page, mode);
+        final Specification<Customer> specification = createSpecification(criteria);
+        int countThreshold = applicationProperties.getPaging().getCountThreshold();
+        return CriteriaPaging.fetch(entityManager, Customer.class, specification, page, mode, countThreshold).map(customerMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,19 +1,24 @@
 package com.sample.shop.service;
 
-import static org.elasticsearch.index.query.QueryBuilders.*;
-
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.Customer;
 import com.sample.shop.repository.CustomerRepository;
-import com.sample.shop.repository.search.CustomerSearchRepository;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.dto.CustomerDTO;
 import com.sample.shop.service.mapper.CustomerMapper;
+import com.sample.shop.service.projections.mapper.CustomerProjectionMapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -23,22 +28,43 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class CustomerService {
 
+    /**
+     * Full text fields matched by unqualified query terms.
+     */
+    static final String[] SEARCH_FIELDS = { "firstName", "lastName", "email", "telephone" };
+
     private final Logger log = LoggerFactory.getLogger(CustomerService.class);
 
     private final CustomerRepository customerRepository;
 
     private final CustomerMapper customerMapper;
 
-    private final CustomerSearchRepository customerSearchRepository;
+    private final CustomerProjectionMapper customerProjectionMapper;
+
+    private final SearchDocumentHashService searchDocumentHashService;
+
+    private final EntitySearch entitySearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SearchExporter searchExporter;
 
     public CustomerService(
         CustomerRepository customerRepository,
         CustomerMapper customerMapper,
-        CustomerSearchRepository customerSearchRepository
+        CustomerProjectionMapper customerProjectionMapper,
+        SearchDocumentHashService searchDocumentHashService,
+        EntitySearch entitySearch,
+        ApplicationProperties applicationProperties,
+        SearchExporter searchExporter
     ) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
-        this.customerSearchRepository = customerSearchRepository;
+        this.customerProjectionMapper = customerProjectionMapper;
+        this.searchDocumentHashService = searchDocumentHashService;
+        this.entitySearch = entitySearch;
+        this.applicationProperties = applicationProperties;
+        this.searchExporter = searchExporter;
     }
 
     /**
@@ -52,7 +78,7 @@ public class CustomerService {
         Customer customer = customerMapper.toEntity(customerDTO);
         customer = customerRepository.save(customer);
         CustomerDTO result = customerMapper.toDto(customer);
-        //customerSearchRepository.index(customer);
+        searchDocumentHashService.skipIndexingIfUnchanged(customer, customer.getId());
         return result;
     }
 
@@ -67,7 +93,7 @@ public class CustomerService {
         Customer customer = customerMapper.toEntity(customerDTO);
         customer = customerRepository.save(customer);
         CustomerDTO result = customerMapper.toDto(customer);
-        //customerSearchRepository.index(customer);
+        searchDocumentHashService.skipIndexingIfUnchanged(customer, customer.getId());
         return result;
     }
 
@@ -89,7 +115,7 @@ public class CustomerService {
             })
             .map(customerRepository::save)
             .map(savedCustomer -> {
-                //customerSearchRepository.save(savedCustomer);
+                searchDocumentHashService.skipIndexingIfUnchanged(savedCustomer, savedCustomer.getId());
 
                 return savedCustomer;
             })
@@ -128,19 +154,120 @@ public class CustomerService {
     public void delete(UUID id) {
         log.debug("Request to delete Customer : {}", id);
         customerRepository.deleteById(id);
-        //customerSearchRepository.deleteById(id);
+        searchDocumentHashService.forget(Customer.class, id);
     }
 
     /**
-     * Search for the customer corresponding to the query.
+     * Search for the customer corresponding to the query. Unless {@code application.search.projection-results} is disabled,
+     * the results are built from the index only, see {@link #searchWithProjection(String, Pageable)}.
      *
      * @param query the query of the search.
      * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<CustomerDTO> search(String query, Pageable pageable) {
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return searchWithProjection(query, pageable);
+        }
         log.debug("Request to search for a page of Customers for query {}", query);
-        return customerSearchRepository.search(query, pageable).map(customerMapper::toDto);
+        return entitySearch.entities(Customer.class, query, SEARCH_FIELDS, pageable, customerMapper::toDto);
+    }
+
+    /**
+     * Search for the customer corresponding to the query, counting the matching entities as required by a paging mode.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @param paging the paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the page of entities, a {@link org.springframework.data.domain.Page} unless the mode is a slice.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<CustomerDTO> search(String query, Pageable pageable, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("customer", paging);
+        if (mode == PagingMode.EXACT) {
+            return search(query, pageable);
+        }
+        log.debug("Request to search for a {} page of Customers for query {}", mode, query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projections(
+                Customer.class,
+                com.sample.shop.service.projections.dto.Customer.class,
+                query,
+                SEARCH_FIELDS,
+                pageable,
+                mode,
+                customerProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entities(Customer.class, query, SEARCH_FIELDS, pageable, mode, customerMapper::toDto);
+    }
+
+    /**
+     * Search for the customer corresponding to the query, building the results from the index only.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<CustomerDTO> searchWithProjection(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Customers projections for query {}", query);
+        return entitySearch.projections(
+            Customer.class,
+            com.sample.shop.service.projections.dto.Customer.class,
+            query,
+            SEARCH_FIELDS,
+            pageable,
+            customerProjectionMapper::toDto
+        );
+    }
+
+    /**
+     * Search for the customer corresponding to the query, one cursor page at a time.
+     *
+     * @param query the query of the search.
+     * @param sort the sort of the search, the same for every page.
+     * @param size the number of entities per page.
+     * @param cursor the cursor returned with the previous page, blank for the first page.
+     * @return the page of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<CustomerDTO> searchAfter(String query, Sort sort, int size, String cursor) {
+        log.debug("Request to search for a cursor page of Customers for query {}", query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projectionsAfter(
+                Customer.class,
+                com.sample.shop.service.projections.dto.Customer.class,
+                query,
+                SEARCH_FIELDS,
+                sort,
+                size,
+                cursor,
+                customerProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entitiesAfter(Customer.class, query, SEARCH_FIELDS, sort, size, cursor, customerMapper::toDto);
+    }
+
+    /**
+     * Export every customer corresponding to the query as newline delimited JSON, built from the index only.
+     *
+     * @param query the query of the search.
+     * @param out the stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the stream could not be written.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long export(String query, OutputStream out) throws IOException {
+        log.debug("Request to export Customers for query {}", query);
+        return searchExporter.export(
+            Customer.class,
+            com.sample.shop.service.projections.dto.Customer.class,
+            query,
+            SEARCH_FIELDS,
+            customerProjectionMapper::toDto,
+            out
+        );
     }
 }
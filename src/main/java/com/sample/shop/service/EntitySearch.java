@@ -0,0 +1,267 @@
+package com.sample.shop.service;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.dto.CursorPage;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.engine.search.query.SearchQuery;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs the entity searches, returning either managed entities or projections built from the index only.
+ * <p>
+ * Entity hits are loaded from the database in a read-only transaction. Projection hits are built from the
+ * {@code projections.dto} records out of any transaction, in a short-lived entity manager which never acquires
+ * a JDBC connection: such a search costs a single Elasticsearch round trip.
+ */
+@Component
+public class EntitySearch {
+
+    private final EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CursorPagedSearch cursorPagedSearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    public EntitySearch(
+        EntityManager entityManager,
+        EntityManagerFactory entityManagerFactory,
+        CursorPagedSearch cursorPagedSearch,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cursorPagedSearch = cursorPagedSearch;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Search a page of entities.
+     *
+     * @param entityType the searched entity type.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param pageable the pagination information.
+     * @param mapper the mapper of the entities.
+     * @param <E> the type of entities.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     */
+    @Transactional(readOnly = true)
+    public <E, D> Page<D> entities(Class<E> entityType, String query, String[] fields, Pageable pageable, Function<? super E, D> mapper) {
+        SearchSession searchSession = Search.session(entityManager);
+        SearchQuery<E> searchQuery = searchSession
+            .search(entityType)
+            .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+            .sort(f -> PagedSearch.sort(f, pageable.getSort(), PagedSearch.index(searchSession, entityType)))
+            .toQuery();
+        return PagedSearch.fetch(searchQuery, pageable).map(mapper);
+    }
+
+    /**
+     * Search a page of entities, counted as required by a paging mode.
+     *
+     * @param entityType the searched entity type.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param pageable the pagination information.
+     * @param mode the paging mode.
+     * @param mapper the mapper of the entities.
+     * @param <E> the type of entities.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     */
+    @Transactional(readOnly = true)
+    public <E, D> Slice<D> entities(
+        Class<E> entityType,
+        String query,
+        String[] fields,
+        Pageable pageable,
+        PagingMode mode,
+        Function<? super E, D> mapper
+    ) {
+        SearchSession searchSession = Search.session(entityManager);
+        SearchQuery<E> searchQuery = PagedSearch.toQuery(
+            searchSession
+                .search(entityType)
+                .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+                .sort(f -> PagedSearch.sort(f, pageable.getSort(), PagedSearch.index(searchSession, entityType))),
+            pageable,
+            mode,
+            applicationProperties.getPaging().getCountThreshold()
+        );
+        return PagedSearch.fetch(searchQuery, pageable, mode).map(mapper);
+    }
+
+    /**
+     * Search a page of projections.
+     *
+     * @param entityType the searched entity type.
+     * @param projectionType the projection record the hits are built from.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param pageable the pagination information.
+     * @param mapper the mapper of the projections.
+     * @param <P> the type of projections.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <P, D> Page<D> projections(
+        Class<?> entityType,
+        Class<P> projectionType,
+        String query,
+        String[] fields,
+        Pageable pageable,
+        Function<? super P, D> mapper
+    ) {
+        return withoutTransaction(searchSession -> {
+            SearchQuery<P> searchQuery = searchSession
+                .search(entityType)
+                .select(projectionType)
+                .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+                .sort(f -> PagedSearch.sort(f, pageable.getSort(), PagedSearch.index(searchSession, entityType)))
+                .toQuery();
+            return PagedSearch.fetch(searchQuery, pageable).map(mapper);
+        });
+    }
+
+    /**
+     * Search a page of projections, counted as required by a paging mode.
+     *
+     * @param entityType the searched entity type.
+     * @param projectionType the projection record the hits are built from.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param pageable the pagination information.
+     * @param mode the paging mode.
+     * @param mapper the mapper of the projections.
+     * @param <P> the type of projections.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <P, D> Slice<D> projections(
+        Class<?> entityType,
+        Class<P> projectionType,
+        String query,
+        String[] fields,
+        Pageable pageable,
+        PagingMode mode,
+        Function<? super P, D> mapper
+    ) {
+        int countThreshold = applicationProperties.getPaging().getCountThreshold();
+        return withoutTransaction(searchSession -> {
+            SearchQuery<P> searchQuery = PagedSearch.toQuery(
+                searchSession
+                    .search(entityType)
+                    .select(projectionType)
+                    .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+                    .sort(f -> PagedSearch.sort(f, pageable.getSort(), PagedSearch.index(searchSession, entityType))),
+                pageable,
+                mode,
+                countThreshold
+            );
+            return PagedSearch.fetch(searchQuery, pageable, mode).map(mapper);
+        });
+    }
+
+    /**
+     * Search the page of entities following a cursor, see {@link CursorPagedSearch}.
+     *
+     * @param entityType the searched entity type.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param sort the sort, the same for every page.
+     * @param size the number of hits per page.
+     * @param cursor the cursor returned with the previous page, or blank for the first page.
+     * @param mapper the mapper of the entities.
+     * @param <E> the type of entities.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     */
+    @Transactional(readOnly = true)
+    public <E, D> CursorPage<D> entitiesAfter(
+        Class<E> entityType,
+        String query,
+        String[] fields,
+        Sort sort,
+        int size,
+        String cursor,
+        Function<? super E, D> mapper
+    ) {
+        return cursorPagedSearch.fetch(Search.session(entityManager), entityType, query, fields, sort, size, cursor, mapper);
+    }
+
+    /**
+     * Search the page of projections following a cursor, see {@link CursorPagedSearch}.
+     *
+     * @param entityType the searched entity type.
+     * @param projectionType the projection record the hits are built from.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param sort the sort, the same for every page.
+     * @param size the number of hits per page.
+     * @param cursor the cursor returned with the previous page, or blank for the first page.
+     * @param mapper the mapper of the projections.
+     * @param <E> the type of entities.
+     * @param <P> the type of projections.
+     * @param <D> the type of mapped hits.
+     * @return the page of hits.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <E, P, D> CursorPage<D> projectionsAfter(
+        Class<E> entityType,
+        Class<P> projectionType,
+        String query,
+        String[] fields,
+        Sort sort,
+        int size,
+        String cursor,
+        Function<? super P, D> mapper
+    ) {
+        return withoutTransaction(searchSession ->
+            cursorPagedSearch.fetchProjections(searchSession, entityType, projectionType, query, fields, sort, size, cursor, mapper)
+        );
+    }
+
+    /**
+     * Run a search in a read-only transaction, which may load entities.
+     *
+     * @param search the search to run.
+     * @param <T> the type of results.
+     * @return the results of the search.
+     */
+    @Transactional(readOnly = true)
+    public <T> T inTransaction(Function<SearchSession, T> search) {
+        return search.apply(Search.session(entityManager));
+    }
+
+    /**
+     * Run a search out of any transaction, in a short-lived entity manager. The search must not load entities.
+     *
+     * @param search the search to run.
+     * @param <T> the type of results.
+     * @return the results of the search.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> T withoutTransaction(Function<SearchSession, T> search) {
+        EntityManager searchEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            return search.apply(Search.session(searchEntityManager));
+        } finally {
+            searchEntityManager.close();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.sample.shop.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.domain.Address;
+import com.sample.shop.domain.Category;
+import com.sample.shop.domain.Customer;
+import com.sample.shop.domain.Product;
+import com.sample.shop.domain.WishList;
+import com.sample.shop.service.dto.FederatedSearchResultDTO;
+import com.sample.shop.service.dto.SearchGroupDTO;
+import com.sample.shop.service.dto.SuggestionDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.backend.elasticsearch.ElasticsearchExtension;
+import org.hibernate.search.backend.elasticsearch.index.ElasticsearchIndexManager;
+import org.hibernate.search.engine.search.aggregation.AggregationKey;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service searching every entity at once, for the global search box.
+ * <p>
+ * The search targets the indexes of every entity in a single Elasticsearch request: the query string is matched
+ * against the full text fields of all the entities, and a {@code filters} aggregation on the {@code _index} of the
+ * hits groups them by entity, each group holding the number of matching entities and its best hits
+ * ({@code top_hits}, reading only the suggest fields from the source). The whole request shares a single timeout,
+ * after which Elasticsearch returns the hits collected so far, so a slow index cannot hold the others back.
+ */
+@Service
+public class FederatedSearchService {
+
+    private static final AggregationKey<JsonObject> GROUPS_KEY = AggregationKey.of("groups");
+
+    private static final String TOP_HITS = "top";
+
+    /**
+     * The searched entities, by the path segment of their REST resources.
+     */
+    private static final Map<String, Group> GROUPS = new LinkedHashMap<>();
+
+    static {
+        GROUPS.put("products", new Group(Product.class, ProductService.SEARCH_FIELDS));
+        GROUPS.put("categories", new Group(Category.class, CategoryService.SEARCH_FIELDS));
+        GROUPS.put("customers", new Group(Customer.class, CustomerService.SEARCH_FIELDS));
+        GROUPS.put("addresses", new Group(Address.class, AddressService.SEARCH_FIELDS));
+        GROUPS.put("wish-lists", new Group(WishList.class, WishListService.SEARCH_FIELDS));
+    }
+
+    private final Logger log = LoggerFactory.getLogger(FederatedSearchService.class);
+
+    private final EntitySearch entitySearch;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    public FederatedSearchService(
+        EntitySearch entitySearch,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entitySearch = entitySearch;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Search every entity for the query.
+     *
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param size the number of hits returned per entity.
+     * @return the hits, grouped by entity.
+     */
+    public FederatedSearchResultDTO search(String query, int size) {
+        log.debug("Request to search every entity for query {}", query);
+        Map<String, String> readNames = new LinkedHashMap<>();
+        GROUPS.forEach((name, group) -> readNames.put(name, readName(group.entityType())));
+        String[] fields = GROUPS.values().stream().flatMap(group -> Arrays.stream(group.searchFields())).distinct().toArray(String[]::new);
+        Set<String> sourceFields = new LinkedHashSet<>();
+        GROUPS.keySet().forEach(name -> sourceFields.addAll(Arrays.asList(SuggestService.suggestFields(name))));
+        JsonObject aggregation = groupsAggregationJson(readNames, size, sourceFields);
+
+        return entitySearch.withoutTransaction(searchSession -> {
+            SearchResult<?> result = searchSession
+                .search(GROUPS.values().stream().map(Group::entityType).collect(Collectors.toList()))
+                .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+                .aggregation(GROUPS_KEY, f -> f.extension(ElasticsearchExtension.get()).fromJson(aggregation))
+                .truncateAfter(applicationProperties.getSearch().getFederated().getTimeout())
+                .fetch(0);
+            FederatedSearchResultDTO searchResult = new FederatedSearchResultDTO();
+            searchResult.setGroups(toGroups(result.aggregation(GROUPS_KEY)));
+            searchResult.setTimedOut(result.timedOut());
+            return searchResult;
+        });
+    }
+
+    private String readName(Class<?> entityType) {
+        return Search
+            .mapping(entityManagerFactory)
+            .indexedEntity(entityType)
+            .indexManager()
+            .unwrap(ElasticsearchIndexManager.class)
+            .descriptor()
+            .readName();
+    }
+
+    /**
+     * @param readNames the read alias of the index of each group.
+     * @param size the number of top hits per group.
+     * @param sourceFields the fields read from the source of the top hits.
+     * @return the aggregation grouping the hits by index.
+     */
+    static JsonObject groupsAggregationJson(Map<String, String> readNames, int size, Set<String> sourceFields) {
+        JsonObject filters = new JsonObject();
+        readNames.forEach((name, readName) -> {
+            // queries on _index accept aliases as well as concrete index names
+            JsonObject index = new JsonObject();
+            index.addProperty("_index", readName);
+            JsonObject term = new JsonObject();
+            term.add("term", index);
+            filters.add(name, term);
+        });
+        JsonObject filtersAggregation = new JsonObject();
+        filtersAggregation.add("filters", filters);
+
+        JsonArray includes = new JsonArray();
+        sourceFields.forEach(includes::add);
+        JsonObject source = new JsonObject();
+        source.add("includes", includes);
+        JsonObject topHits = new JsonObject();
+        topHits.addProperty("size", size);
+        topHits.add("_source", source);
+        JsonObject topHitsAggregation = new JsonObject();
+        topHitsAggregation.add("top_hits", topHits);
+        JsonObject subAggregations = new JsonObject();
+        subAggregations.add(TOP_HITS, topHitsAggregation);
+
+        JsonObject json = new JsonObject();
+        json.add("filters", filtersAggregation);
+        json.add("aggs", subAggregations);
+        return json;
+    }
+
+    /**
+     * @param aggregation the response of the aggregation built by {@link #groupsAggregationJson}.
+     * @return the groups, in the order of {@link #GROUPS}, empty groups included.
+     */
+    static Map<String, SearchGroupDTO> toGroups(JsonObject aggregation) {
+        Map<String, SearchGroupDTO> groups = new LinkedHashMap<>();
+        JsonObject buckets = aggregation != null && aggregation.has("buckets") ? aggregation.getAsJsonObject("buckets") : new JsonObject();
+        GROUPS.keySet().forEach(name -> {
+            JsonObject bucket = buckets.getAsJsonObject(name);
+            groups.put(name, bucket == null ? new SearchGroupDTO(0, List.of()) : toGroup(name, bucket));
+        });
+        return groups;
+    }
+
+    private static SearchGroupDTO toGroup(String name, JsonObject bucket) {
+        String[] textFields = SuggestService.suggestFields(name);
+        List<SuggestionDTO> hits = new ArrayList<>();
+        for (JsonElement element : bucket.getAsJsonObject(TOP_HITS).getAsJsonObject("hits").getAsJsonArray("hits")) {
+            JsonObject hit = element.getAsJsonObject();
+            JsonObject source = hit.has("_source") ? hit.getAsJsonObject("_source") : new JsonObject();
+            String text = Stream
+                .of(textFields)
+                .map(source::get)
+                .filter(value -> value != null && !value.isJsonNull())
+                .map(JsonElement::getAsString)
+                .collect(Collectors.joining(" "));
+            hits.add(new SuggestionDTO(UUID.fromString(hit.get("_id").getAsString()), text));
+        }
+        return new SearchGroupDTO(bucket.get("doc_count").getAsLong(), hits);
+    }
+
+    private record Group(Class<?> entityType, String[] searchFields) {}
+}
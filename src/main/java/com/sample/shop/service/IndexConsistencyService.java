@@ -0,0 +1,35 @@
+package com.sample.shop.service;
+
+import com.sample.shop.service.dto.IndexConsistencyReportDTO;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service verifying that the indexes match the database.
+ */
+public interface IndexConsistencyService {
+    /**
+     * Start comparing the documents of the indexes with the entities of the database. Documents missing from the index,
+     * documents of deleted entities and, when comparing content, documents whose indexed values are outdated are reported.
+     *
+     * @param entities the names of the entity types to verify, every indexed entity type when empty.
+     * @param compareContent compare the indexed field values on top of the document ids.
+     * @param repair reindex the missing and stale documents and purge the extra ones.
+     * @return the started check.
+     * @throws MassIndexJobRunningException if a mass indexing job or another check is running.
+     */
+    IndexConsistencyReportDTO verify(List<String> entities, boolean compareContent, boolean repair);
+
+    Optional<IndexConsistencyReportDTO> findReport(UUID id);
+
+    List<IndexConsistencyReportDTO> findAllReports();
+
+    /**
+     * Cancel a running check.
+     *
+     * @param id the id of the check.
+     * @return the check, if known.
+     */
+    Optional<IndexConsistencyReportDTO> cancel(UUID id);
+}
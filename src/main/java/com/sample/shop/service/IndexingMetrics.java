@@ -0,0 +1,135 @@
+package com.sample.shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics of the automatic indexing pipeline, from the commit of a transaction to the execution of its indexing plan
+ * by the Elasticsearch backend:
+ * <ul>
+ *     <li>{@code search.indexing.works}: the indexing works submitted, by index. A work is counted for each written
+ *     entity the documents of the index depend on, see {@link SearchIndexGenerations}.</li>
+ *     <li>{@code search.indexing.pending.works}: the works of the plans submitted by this node whose execution did not
+ *     complete yet, by index. It is not the depth of the Hibernate Search indexing queues, which Hibernate Search does
+ *     not expose: a work stays pending while it is queued, while the bulk request holding it executes, and until the
+ *     whole plan completed, even if other works of the plan target other indexes.</li>
+ *     <li>{@code search.indexing.failures}: the indexing plans which failed, by index.</li>
+ *     <li>{@code search.indexing.commit}: the time from the start of the commit of a transaction to the submission of
+ *     its indexing plan, by synchronization. It mostly measures the database commit and the building of the documents
+ *     of the plan, which loads the embedded associations; when the indexing queues are full, it also includes the wait
+ *     for room in them.</li>
+ *     <li>{@code search.indexing.execution}: the time from the submission of an indexing plan to the end of its
+ *     execution, by synchronization, whether or not the transaction waited for it: the time the works spent in the
+ *     indexing queues included.</li>
+ *     <li>{@code search.indexing.wait}: the time transactions spent waiting on the index after their commit, by
+ *     synchronization.</li>
+ * </ul>
+ * The Elasticsearch requests the plans are executed with are measured by the {@code search.backend} metrics of the
+ * Hibernate Search client configurer.
+ */
+@Component
+public class IndexingMetrics {
+
+    static final String METRIC_PREFIX = "search.indexing";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicLong> pendingWorks = new ConcurrentHashMap<>();
+
+    public IndexingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    Timer waitTimer(IndexingSync sync) {
+        return Timer
+            .builder(METRIC_PREFIX + ".wait")
+            .description("Time transactions spent waiting on the index after their commit")
+            .tag("sync", sync.externalName())
+            .register(meterRegistry);
+    }
+
+    Timer commitTimer(IndexingSync sync) {
+        return Timer
+            .builder(METRIC_PREFIX + ".commit")
+            .description("Time from the start of the commit of a transaction to the submission of its indexing plan")
+            .tag("sync", sync.externalName())
+            .register(meterRegistry);
+    }
+
+    Timer executionTimer(IndexingSync sync) {
+        return Timer
+            .builder(METRIC_PREFIX + ".execution")
+            .description("Time from the submission of an indexing plan to the end of its execution, queueing included")
+            .tag("sync", sync.externalName())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record the submission of an indexing plan, then its execution once the plan completes.
+     *
+     * @param worksByIndex the number of works of the plan per index.
+     * @param plan the execution of the plan.
+     */
+    void submitted(Map<String, Integer> worksByIndex, CompletableFuture<? extends SearchIndexingPlanExecutionReport> plan) {
+        worksByIndex.forEach((index, works) -> {
+            worksCounter(index).increment(works);
+            pendingWorks(index).addAndGet(works);
+        });
+        plan.whenComplete((report, throwable) ->
+            worksByIndex.forEach((index, works) -> {
+                pendingWorks(index).addAndGet(-works);
+                if (throwable != null || report.throwable().isPresent()) {
+                    failuresCounter(index).increment();
+                }
+            })
+        );
+    }
+
+    /**
+     * @param index the index name.
+     * @return the works of the plans submitted for the index by this node whose execution did not complete yet.
+     */
+    long pendingWorks(String index) {
+        AtomicLong works = pendingWorks.get(index);
+        return works == null ? 0 : works.get();
+    }
+
+    private AtomicLong pendingWorks(String index) {
+        return pendingWorks.computeIfAbsent(
+            index,
+            key -> {
+                AtomicLong works = new AtomicLong();
+                Gauge
+                    .builder(METRIC_PREFIX + ".pending.works", works, AtomicLong::get)
+                    .description("Indexing works of the plans submitted by this node whose execution did not complete yet")
+                    .tag("index", key)
+                    .register(meterRegistry);
+                return works;
+            }
+        );
+    }
+
+    private Counter worksCounter(String index) {
+        return Counter
+            .builder(METRIC_PREFIX + ".works")
+            .description("Indexing works submitted by automatic indexing")
+            .tag("index", index)
+            .register(meterRegistry);
+    }
+
+    private Counter failuresCounter(String index) {
+        return Counter
+            .builder(METRIC_PREFIX + ".failures")
+            .description("Indexing plans which failed")
+            .tag("index", index)
+            .register(meterRegistry);
+    }
+}
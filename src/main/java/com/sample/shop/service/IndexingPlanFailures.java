@@ -0,0 +1,31 @@
+package com.sample.shop.service;
+
+import org.hibernate.search.engine.reporting.EntityIndexingFailureContext;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+
+/**
+ * Reports the failures of the indexing plans executed after a commit to the background failure handler, which queues
+ * the failing entities for a retry, see {@link SearchIndexingDeadLetters}.
+ */
+final class IndexingPlanFailures {
+
+    private IndexingPlanFailures() {}
+
+    /**
+     * @param context the synchronization context of the plan.
+     * @param report the execution report of the plan.
+     * @param throwable the failure of the plan.
+     */
+    static void report(
+        AutomaticIndexingSynchronizationConfigurationContext context,
+        SearchIndexingPlanExecutionReport report,
+        Throwable throwable
+    ) {
+        EntityIndexingFailureContext.Builder failure = EntityIndexingFailureContext.builder();
+        failure.throwable(throwable);
+        failure.failingOperation("Automatic indexing of entities");
+        report.failingEntities().forEach(failure::entityReference);
+        context.failureHandler().handle(failure.build());
+    }
+}
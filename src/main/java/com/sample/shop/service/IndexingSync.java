@@ -0,0 +1,48 @@
+package com.sample.shop.service;
+
+import java.util.Locale;
+
+/**
+ * How long a transaction waits, once committed, for its entities to be indexed.
+ */
+public enum IndexingSync {
+    /**
+     * Do not wait: the entities become searchable after the next periodic refresh of the indexes.
+     */
+    ASYNC,
+
+    /**
+     * Wait until Elasticsearch acknowledged the indexing, so that the changes survive a crash; they become searchable
+     * after the next periodic refresh of the indexes.
+     */
+    WRITE_SYNC,
+
+    /**
+     * Wait until the changes are searchable, without waiting for them to be safely written.
+     */
+    READ_SYNC,
+
+    /**
+     * Wait until the changes are safely written and searchable.
+     */
+    SYNC;
+
+    /**
+     * @param value the synchronization, case insensitive, e.g. {@code write-sync}, or {@code null}.
+     * @return the synchronization, or {@code null} if the value is blank.
+     * @throws IllegalArgumentException if the value is not a synchronization.
+     */
+    public static IndexingSync parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the name of the synchronization as written in requests and metrics, e.g. {@code write-sync}.
+     */
+    public String externalName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,20 @@
+package com.sample.shop.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Choose how long the transactions of a service method, or of every method of a service, wait for their entities to
+ * be indexed. Takes precedence over the {@code X-Indexing-Sync} header of the request.
+ *
+ * @see IndexingSynchronizations
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface IndexingSynchronization {
+    IndexingSync value();
+}
@@ -0,0 +1,46 @@
+package com.sample.shop.service;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the synchronization of the methods annotated with {@link IndexingSynchronization} for their duration.
+ * <p>
+ * Ordered before the transaction interceptor, so that a transaction opened by the annotated method is committed, and
+ * its indexing plan executed, while the synchronization is bound.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class IndexingSynchronizationAspect {
+
+    private final IndexingSynchronizations indexingSynchronizations;
+
+    public IndexingSynchronizationAspect(IndexingSynchronizations indexingSynchronizations) {
+        this.indexingSynchronizations = indexingSynchronizations;
+    }
+
+    @Around("@annotation(indexingSynchronization)")
+    public Object onMethod(ProceedingJoinPoint joinPoint, IndexingSynchronization indexingSynchronization) throws Throwable {
+        return proceed(joinPoint, indexingSynchronization);
+    }
+
+    @Around("@within(indexingSynchronization) && !@annotation(com.sample.shop.service.IndexingSynchronization)")
+    public Object onType(ProceedingJoinPoint joinPoint, IndexingSynchronization indexingSynchronization) throws Throwable {
+        return proceed(joinPoint, indexingSynchronization);
+    }
+
+    private Object proceed(ProceedingJoinPoint joinPoint, IndexingSynchronization indexingSynchronization) throws Throwable {
+        try (IndexingSynchronizations.Scope scope = indexingSynchronizations.bindMethod(indexingSynchronization.value())) {
+            Object result = joinPoint.proceed();
+            // the method joined the transaction of its caller, which commits after the scope is closed: the transaction
+            // keeps the synchronization of the method over the one of the caller
+            indexingSynchronizations.applyToCurrentTransaction();
+            return result;
+        }
+    }
+}
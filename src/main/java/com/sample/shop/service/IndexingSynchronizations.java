@@ -0,0 +1,311 @@
+package com.sample.shop.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationStrategy;
+import org.hibernate.search.mapper.orm.cfg.HibernateOrmMapperSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies the indexing synchronization chosen for the current request or service method to the Hibernate Search
+ * session of the current transaction.
+ * <p>
+ * The synchronization is bound to the current thread by the {@code X-Indexing-Sync} request header or by an
+ * {@link IndexingSynchronization} annotation, see {@link #bind(IndexingSync)}. It is applied to the search session of
+ * the transaction as soon as the transaction writes an entity, from Hibernate ORM events fired during the flush, so it
+ * holds when the indexing plan of the transaction executes at commit. The choice is recorded per transaction: once a
+ * service method chose a synchronization, the later flushes of the transaction keep it, even when the method joined
+ * the transaction of a caller bound to another synchronization. Transactions of threads without a bound
+ * synchronization get the strategy of the global {@code automatic_indexing.synchronization.strategy}, unless it is a
+ * custom strategy, which is left alone.
+ * <p>
+ * When no global strategy is configured, the transactions of unbound threads therefore get the {@code write-sync}
+ * strategy of this class rather than the built-in default of Hibernate Search. Both wait for Elasticsearch to
+ * acknowledge the writes without refreshing the indexes, but this one also hands the failures of a plan to the
+ * background failure handler, which queues the failing entities for a retry, before throwing; and its waits are
+ * recorded by {@code search.indexing.wait}. Configure another global strategy to change the default synchronization,
+ * or a custom one to keep this class away from the unbound threads.
+ * <p>
+ * The strategies, see {@link MeasuredSynchronizationStrategy}, record the commit and the execution of the indexing
+ * plans, the versions and the hashes of the documents they write, from the works each transaction collected from the
+ * same ORM events, see {@link IndexingTransaction}.
+ * <p>
+ * Under the outbox-polling coordination, the transactions only store indexing events and Hibernate Search ignores the
+ * synchronization strategies: the bound synchronizations then have no effect.
+ */
+@Component
+public class IndexingSynchronizations
+    implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    private final Logger log = LoggerFactory.getLogger(IndexingSynchronizations.class);
+
+    private final transient EntityManager entityManager;
+
+    private final transient SearchIndexGenerations searchIndexGenerations;
+
+    private final transient SearchDocumentVersions searchDocumentVersions;
+
+    private final transient Map<IndexingSync, AutomaticIndexingSynchronizationStrategy> strategies = new EnumMap<>(IndexingSync.class);
+
+    /**
+     * The synchronization of the global strategy, or {@code null} if it is a custom strategy.
+     */
+    private IndexingSync defaultSync;
+
+    public IndexingSynchronizations(
+        EntityManagerFactory entityManagerFactory,
+        EntityManager entityManager,
+        SearchIndexGenerations searchIndexGenerations,
+        IndexingMetrics indexingMetrics,
+        SearchDocumentVersions searchDocumentVersions,
+        SearchDocumentHashService searchDocumentHashService
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.searchIndexGenerations = searchIndexGenerations;
+        this.searchDocumentVersions = searchDocumentVersions;
+        for (IndexingSync sync : IndexingSync.values()) {
+            strategies.put(
+                sync,
+                new MeasuredSynchronizationStrategy(sync, indexingMetrics, searchDocumentVersions, searchDocumentHashService)
+            );
+        }
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        Object globalStrategy = entityManagerFactory
+            .getProperties()
+            .get(HibernateOrmMapperSettings.AUTOMATIC_INDEXING_SYNCHRONIZATION_STRATEGY);
+        defaultSync = defaultSync(globalStrategy);
+        if (defaultSync == null) {
+            log.info("Custom indexing synchronization strategy {}: the indexing plans of unbound threads are not measured", globalStrategy);
+        } else if (globalStrategy == null) {
+            log.info("No indexing synchronization strategy configured: unbound threads use the measured write-sync strategy");
+        }
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    /**
+     * @return the synchronization bound to the current thread, or {@code null}.
+     */
+    public IndexingSync current() {
+        Binding binding = CURRENT.get();
+        return binding == null ? null : binding.sync();
+    }
+
+    /**
+     * Bind a synchronization to the current thread until the returned scope is closed, which restores the
+     * synchronization bound before.
+     *
+     * @param sync the synchronization.
+     * @return the scope of the synchronization.
+     */
+    public Scope bind(IndexingSync sync) {
+        return bind(new Binding(sync, false));
+    }
+
+    /**
+     * Bind the synchronization of an {@link IndexingSynchronization} method, which the transactions it writes in keep
+     * until they complete, see {@link #bind(IndexingSync)}.
+     *
+     * @param sync the synchronization.
+     * @return the scope of the synchronization.
+     */
+    Scope bindMethod(IndexingSync sync) {
+        return bind(new Binding(sync, true));
+    }
+
+    private Scope bind(Binding binding) {
+        Binding previous = CURRENT.get();
+        CURRENT.set(binding);
+        return new Scope(previous);
+    }
+
+    /**
+     * Apply the synchronization bound to the current thread to the search session of the current transaction, if
+     * both exist. Needed when a scope closes before the transaction commits, e.g. when an annotated method joins the
+     * transaction of its caller.
+     */
+    public void applyToCurrentTransaction() {
+        Binding binding = CURRENT.get();
+        if (binding != null && TransactionSynchronizationManager.isActualTransactionActive() && choose(binding.sync(), binding.method())) {
+            Search.session(entityManager).automaticIndexingSynchronizationStrategy(strategies.get(binding.sync()));
+        }
+    }
+
+    /**
+     * Record the synchronization chosen for the current transaction: a synchronization chosen by a service method is
+     * kept until the transaction completes, the others are replaced by the later choices.
+     *
+     * @param sync the synchronization.
+     * @param method whether the synchronization was chosen by an {@link IndexingSynchronization} method.
+     * @return whether the search session of the transaction must be given the strategy of the synchronization, which
+     * it may have already, or {@code true} outside of a transaction.
+     */
+    static boolean choose(IndexingSync sync, boolean method) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return true;
+        }
+        return IndexingTransaction.current().choose(sync, method);
+    }
+
+    /**
+     * @return the synchronization chosen for the current transaction, or {@code null}.
+     */
+    static IndexingSync chosen() {
+        IndexingTransaction transaction = IndexingTransaction.bound();
+        return transaction == null ? null : transaction.sync();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        written(event.getSession(), event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        written(event.getSession(), event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        written(event.getSession(), event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void collectionWritten(AbstractCollectionEvent event) {
+        SessionImplementor session = event.getSession();
+        Class<?> ownerType = session.getFactory().getMetamodel().entityPersister(event.getAffectedOwnerEntityName()).getMappedClass();
+        written(session, ownerType, event.getAffectedOwnerIdOrNull());
+    }
+
+    private void written(Session session, Class<?> entityType, Object id) {
+        Binding binding = CURRENT.get();
+        if (binding == null && defaultSync != null) {
+            binding = new Binding(defaultSync, false);
+        }
+        if (binding == null) {
+            return;
+        }
+        if (choose(binding.sync(), binding.method())) {
+            Search.session(session).automaticIndexingSynchronizationStrategy(strategies.get(binding.sync()));
+        }
+        Set<String> indexes = searchIndexGenerations.indexesAffectedBy(entityType);
+        if (!indexes.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            String entityName = searchDocumentVersions.indexedEntityName(entityType);
+            IndexingTransaction
+                .current()
+                .written(indexes, entityName == null || id == null ? null : new SearchDocumentVersions.Document(entityName, id));
+        }
+    }
+
+    /**
+     * @param configured the configured global strategy.
+     * @return the synchronization of the strategy, or {@code null} if it is a custom strategy.
+     */
+    static IndexingSync defaultSync(Object configured) {
+        if (configured == null) {
+            return IndexingSync.WRITE_SYNC;
+        }
+        if (configured instanceof String name) {
+            try {
+                return IndexingSync.parse(name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A synchronization bound to the current thread, by a request or by an {@link IndexingSynchronization} method.
+     */
+    private record Binding(IndexingSync sync, boolean method) {}
+
+    /**
+     * The scope of a synchronization bound to the current thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Binding previous;
+
+        private Scope(Binding previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.sample.shop.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The indexing state of the current transaction, bound to the transaction until its completion: the synchronization
+ * chosen for it, its indexing works per index, the documents it wrote and the indexing plan it left executing in the
+ * background.
+ * <p>
+ * The state is written from the Hibernate ORM events of the flushes, see {@link IndexingSynchronizations}, and read by
+ * the strategies while the transaction commits, see {@link MeasuredSynchronizationStrategy}.
+ */
+final class IndexingTransaction implements TransactionSynchronization {
+
+    private final Map<String, Integer> worksByIndex = new HashMap<>();
+
+    private final Set<SearchDocumentVersions.Document> documents = new HashSet<>();
+
+    private IndexingSync sync;
+
+    private boolean methodSync;
+
+    private long lastWrite;
+
+    private long beforeCompletion;
+
+    private CompletableFuture<?> executingPlan;
+
+    private IndexingTransaction() {}
+
+    /**
+     * @return the state of the current transaction, or {@code null} if it did not choose a synchronization nor write
+     * an indexed entity.
+     */
+    static IndexingTransaction bound() {
+        return (IndexingTransaction) TransactionSynchronizationManager.getResource(IndexingTransaction.class);
+    }
+
+    /**
+     * @return the state of the current transaction, bound to it on first use.
+     */
+    static IndexingTransaction current() {
+        IndexingTransaction transaction = bound();
+        if (transaction == null) {
+            transaction = new IndexingTransaction();
+            TransactionSynchronizationManager.bindResource(IndexingTransaction.class, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        return transaction;
+    }
+
+    /**
+     * Take the indexing plan the current transaction left executing in the background when it committed, see
+     * {@link IndexingSync#ASYNC}. The plan is forgotten with the transaction.
+     *
+     * @return the plan, or {@code null} if the transaction waited for its plan or wrote no indexed entity.
+     */
+    static CompletableFuture<?> executingPlan() {
+        IndexingTransaction transaction = bound();
+        return transaction == null ? null : transaction.executingPlan;
+    }
+
+    /**
+     * Record the synchronization chosen for the transaction: a synchronization chosen by a service method is kept until
+     * the transaction completes, the others are replaced by the later choices.
+     *
+     * @param sync the synchronization.
+     * @param method whether the synchronization was chosen by an {@link IndexingSynchronization} method.
+     * @return whether the synchronization changed.
+     */
+    boolean choose(IndexingSync sync, boolean method) {
+        if ((methodSync && !method) || (sync == this.sync && method == methodSync)) {
+            return false;
+        }
+        this.sync = sync;
+        this.methodSync = method;
+        return true;
+    }
+
+    IndexingSync sync() {
+        return sync;
+    }
+
+    void written(Set<String> indexes, SearchDocumentVersions.Document document) {
+        indexes.forEach(index -> worksByIndex.merge(index, 1, Integer::sum));
+        if (document != null) {
+            documents.add(document);
+        }
+        lastWrite = System.nanoTime();
+    }
+
+    Map<String, Integer> worksByIndex() {
+        return Map.copyOf(worksByIndex);
+    }
+
+    Set<SearchDocumentVersions.Document> documents() {
+        return documents;
+    }
+
+    /**
+     * @return the start of the commit, or the last write when it was flushed while committing.
+     */
+    long commitStart() {
+        return Math.max(lastWrite, beforeCompletion);
+    }
+
+    void planExecuting(CompletableFuture<?> plan) {
+        executingPlan = plan;
+    }
+
+    @Override
+    public void beforeCompletion() {
+        beforeCompletion = System.nanoTime();
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(IndexingTransaction.class);
+    }
+}
@@ -0,0 +1,15 @@
+package com.sample.shop.service;
+
+import java.util.Collection;
+
+/**
+ * Thrown when a search is sorted on a property which is not a sortable field of the searched index.
+ */
+public class InvalidSortException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidSortException(String property, Collection<String> sortableFields) {
+        super("Cannot sort on '" + property + "', the sortable fields are " + String.join(", ", sortableFields));
+    }
+}
@@ -0,0 +1,13 @@
+package com.sample.shop.service;
+
+/**
+ * Thrown when a mass indexing job or an index verification is requested while another one is running.
+ */
+public class MassIndexJobRunningException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public MassIndexJobRunningException() {
+        super("A mass indexing job or index verification is already running");
+    }
+}
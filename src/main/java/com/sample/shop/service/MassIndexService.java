@@ -13,12 +13,96 @@
 
 package com.sample.shop.service;
 
-import org.springframework.scheduling.annotation.Async;
+import com.sample.shop.service.dto.IndexFootprintDTO;
+import com.sample.shop.service.dto.MassIndexBatchExecutionDTO;
+import com.sample.shop.service.dto.MassIndexJobDTO;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface MassIndexService {
-    @Async
-    void reindexAll();
+    /**
+     * Start reindexing in place the entity types of a mass indexing profile, in the background. Once the job succeeded,
+     * the entities written meanwhile are reindexed by a delta indexing job, see {@link #reindexDelta(Integer, Instant)}.
+     *
+     * @param profile the name of the mass indexing profile.
+     * @return the started job.
+     * @throws MassIndexJobRunningException if a mass indexing job or batch execution is running.
+     */
+    MassIndexJobDTO reindexAll(String profile);
+
+    /**
+     * Rebuild every index into a fresh versioned index, then atomically swap the read and write aliases
+     * and drop the previous index, so that searches keep being served from a complete index meanwhile. If the job fails
+     * or is cancelled, the write aliases go back to the previous indexes. Either way, the entities written meanwhile are
+     * then reindexed by a delta indexing job. The indexes are prepared and rebuilt in the background.
+     * <p>
+     * Searches read the previous indexes during the whole rebuild, while the writes go to the fresh ones: the entities
+     * written meanwhile are searched with their content from before the rebuild, and new entities are not found, until
+     * the fresh indexes are promoted, or after a rollback until the writes were replayed. Meanwhile the searches of the
+     * rebuilt indexes are not cached and their consistency tokens are reported stale.
+     *
+     * @param profile the name of the mass indexing profile.
+     * @return the started job.
+     * @throws MassIndexJobRunningException if a mass indexing job or batch execution is running.
+     */
+    MassIndexJobDTO reindexAllBlueGreen(String profile);
+
+    /**
+     * Reindex only the entities changed since a given Envers revision, purging the deleted ones.
+     * When neither bound is given, reindex the changes since the last delta indexing.
+     *
+     * @param sinceRevision the last revision already indexed, or {@code null}.
+     * @param since the time since which changes are reindexed, used when no revision is given, or {@code null}.
+     * @return the started job.
+     * @throws MassIndexJobRunningException if a mass indexing job or batch execution is running.
+     */
+    MassIndexJobDTO reindexDelta(Integer sinceRevision, Instant since);
+
+    /**
+     * Start the checkpointed JSR-352 mass indexing job for the entity types of a profile. Unlike the other jobs,
+     * its progress is persisted, so that it can be restarted from its last checkpoints after a failure or a crash.
+     *
+     * @param profile the name of the mass indexing profile.
+     * @return the started execution.
+     * @throws MassIndexJobRunningException if a mass indexing job or batch execution is running.
+     */
+    MassIndexBatchExecutionDTO startBatchReindex(String profile);
+
+    /**
+     * Restart a stopped, failed or interrupted execution of the checkpointed mass indexing job.
+     *
+     * @param executionId the id of the execution to restart.
+     * @return the new execution, if the execution is known.
+     * @throws MassIndexJobRunningException if a mass indexing job or batch execution is running.
+     * @throws IllegalStateException if the execution cannot be restarted.
+     */
+    Optional<MassIndexBatchExecutionDTO> restartBatchReindex(long executionId);
+
+    Optional<MassIndexBatchExecutionDTO> findBatchExecution(long executionId);
+
+    List<MassIndexBatchExecutionDTO> findAllBatchExecutions();
+
+    Optional<MassIndexJobDTO> findJob(UUID id);
+
+    List<MassIndexJobDTO> findAllJobs();
+
+    /**
+     * Cancel a running job.
+     *
+     * @param id the id of the job.
+     * @return the job, if known.
+     */
+    Optional<MassIndexJobDTO> cancelJob(UUID id);
+
+    /**
+     * Report the document counts, the size and the indexing and query statistics of every index, under the current
+     * mapping profile. Comparing the reports taken after a full mass indexing under each mapping compares the mappings.
+     *
+     * @return the footprint of the index of each indexed entity type.
+     * @throws IllegalStateException if Elasticsearch could not be reached.
+     */
+    List<IndexFootprintDTO> footprint();
 }
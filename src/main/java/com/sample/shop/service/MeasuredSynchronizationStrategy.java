@@ -0,0 +1,118 @@
+package com.sample.shop.service;
+
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationStrategy;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+import org.hibernate.search.util.common.SearchException;
+
+/**
+ * The strategy of an {@link IndexingSync}, equivalent to the built-in strategy of the same name, but recording the
+ * commit and the execution of the indexing plan, and the wait for it, in the {@link IndexingMetrics}; handing the
+ * written documents to the {@link SearchDocumentVersions} and their hashes to the {@link SearchDocumentHashService}; and
+ * reporting the failures of the plan, see {@link IndexingPlanFailures}.
+ */
+final class MeasuredSynchronizationStrategy implements AutomaticIndexingSynchronizationStrategy {
+
+    private final IndexingSync sync;
+
+    private final IndexingMetrics indexingMetrics;
+
+    private final SearchDocumentVersions searchDocumentVersions;
+
+    private final SearchDocumentHashService searchDocumentHashService;
+
+    private final Timer waitTimer;
+
+    private final Timer commitTimer;
+
+    private final Timer executionTimer;
+
+    MeasuredSynchronizationStrategy(
+        IndexingSync sync,
+        IndexingMetrics indexingMetrics,
+        SearchDocumentVersions searchDocumentVersions,
+        SearchDocumentHashService searchDocumentHashService
+    ) {
+        this.sync = sync;
+        this.indexingMetrics = indexingMetrics;
+        this.searchDocumentVersions = searchDocumentVersions;
+        this.searchDocumentHashService = searchDocumentHashService;
+        this.waitTimer = indexingMetrics.waitTimer(sync);
+        this.commitTimer = indexingMetrics.commitTimer(sync);
+        this.executionTimer = indexingMetrics.executionTimer(sync);
+    }
+
+    @Override
+    public void apply(AutomaticIndexingSynchronizationConfigurationContext context) {
+        boolean commit = sync == IndexingSync.WRITE_SYNC || sync == IndexingSync.SYNC;
+        boolean refresh = sync == IndexingSync.READ_SYNC || sync == IndexingSync.SYNC;
+        context.documentCommitStrategy(commit ? DocumentCommitStrategy.FORCE : DocumentCommitStrategy.NONE);
+        context.documentRefreshStrategy(refresh ? DocumentRefreshStrategy.FORCE : DocumentRefreshStrategy.NONE);
+        if (sync == IndexingSync.ASYNC) {
+            context.indexingFutureHandler(future -> {
+                IndexingTransaction transaction = submitted(future);
+                waitTimer.record(Duration.ZERO);
+                if (transaction != null) {
+                    // read once the transaction committed, see SearchIndexGenerations
+                    transaction.planExecuting(future);
+                }
+                future.thenAccept(report ->
+                    report.throwable().ifPresent(throwable -> IndexingPlanFailures.report(context, report, throwable))
+                );
+            });
+        } else {
+            context.indexingFutureHandler(future -> {
+                submitted(future);
+                SearchIndexingPlanExecutionReport report = waitTimer.record(() -> join(future));
+                report
+                    .throwable()
+                    .ifPresent(throwable -> {
+                        // the transaction is committed already: queue the entities for a retry, see SearchIndexingDeadLetters
+                        IndexingPlanFailures.report(context, report, throwable);
+                        throw new SearchException("Indexing failure for entities " + report.failingEntities(), throwable);
+                    });
+            });
+        }
+    }
+
+    /**
+     * @return the indexing state of the committing transaction, or {@code null} if it has none.
+     */
+    private IndexingTransaction submitted(CompletableFuture<? extends SearchIndexingPlanExecutionReport> future) {
+        long submission = System.nanoTime();
+        IndexingTransaction transaction = IndexingTransaction.bound();
+        if (transaction != null) {
+            // the database commit and the building of the documents, see IndexingMetrics
+            commitTimer.record(submission - transaction.commitStart(), TimeUnit.NANOSECONDS);
+            indexingMetrics.submitted(transaction.worksByIndex(), future);
+            searchDocumentVersions.submitted(transaction.documents(), future);
+        }
+        Map<String, String> hashes = SearchDocumentHashService.takePendingHashes();
+        if (!hashes.isEmpty()) {
+            // a failed document keeps its previous hash, so that its next save writes it again
+            future.whenComplete((report, throwable) -> {
+                if (throwable == null && report.throwable().isEmpty()) {
+                    searchDocumentHashService.indexed(hashes);
+                }
+            });
+        }
+        future.whenComplete((report, throwable) -> executionTimer.record(System.nanoTime() - submission, TimeUnit.NANOSECONDS));
+        return transaction;
+    }
+
+    private static SearchIndexingPlanExecutionReport join(CompletableFuture<? extends SearchIndexingPlanExecutionReport> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new SearchException("Indexing failure", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.sample.shop.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.dto.CappedPage;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.search.backend.elasticsearch.ElasticsearchExtension;
+import org.hibernate.search.engine.backend.metamodel.IndexDescriptor;
+import org.hibernate.search.engine.backend.metamodel.IndexFieldDescriptor;
+import org.hibernate.search.engine.search.predicate.dsl.PredicateFinalStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.engine.search.query.SearchQuery;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.engine.search.query.SearchResultTotal;
+import org.hibernate.search.engine.search.query.dsl.SearchQueryOptionsStep;
+import org.hibernate.search.engine.search.sort.dsl.SearchSortFactory;
+import org.hibernate.search.engine.search.sort.dsl.SortFinalStep;
+import org.hibernate.search.engine.search.sort.dsl.SortOrder;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Helpers running the entity searches as a single paginated Hibernate Search query.
+ * <p>
+ * The query string keeps the Lucene syntax the search endpoints always accepted (e.g. {@code id:<uuid>} or
+ * {@code title:foo*}); unqualified terms are matched against the full text fields of the entity, analyzed
+ * with the search analyzer they are mapped with ({@code autocomplete_search}). With the
+ * {@link ApplicationProperties.Search.MappingProfile#LEAN lean} mapping profile, the text fields indexed without edge
+ * n-grams match the prefix of the last term through an additional {@code bool_prefix} clause.
+ */
+public final class PagedSearch {
+
+    /**
+     * Field used to break ties between hits, so that pages stay stable.
+     */
+    static final String ID_FIELD = "id";
+
+    private PagedSearch() {}
+
+    /**
+     * Build the predicate matching a query string.
+     *
+     * @param f the predicate factory.
+     * @param query the query string, matching every document when blank.
+     * @param mappingProfile the mapping profile the indexes were built with.
+     * @param fields the full text fields unqualified terms are matched against.
+     * @return the predicate.
+     */
+    public static PredicateFinalStep matching(
+        SearchPredicateFactory f,
+        String query,
+        ApplicationProperties.Search.MappingProfile mappingProfile,
+        String... fields
+    ) {
+        if (isMatchAll(query)) {
+            return f.matchAll();
+        }
+        return f.extension(ElasticsearchExtension.get()).fromJson(queryJson(query, mappingProfile, fields));
+    }
+
+    /**
+     * Translate a Spring Data sort to a Hibernate Search sort. Unsorted requests are sorted by relevance.
+     *
+     * @param f the sort factory.
+     * @param sort the requested sort.
+     * @param index the searched index, see {@link #index(SearchSession, Class)}.
+     * @return the sort, always ending with the id to break ties.
+     * @throws InvalidSortException if a sort property is not a sortable field of the index, e.g. a full text field.
+     */
+    public static SortFinalStep sort(SearchSortFactory f, Sort sort, IndexDescriptor index) {
+        for (Sort.Order order : sort) {
+            if (!isSortable(index, order.getProperty())) {
+                throw new InvalidSortException(order.getProperty(), sortableFields(index));
+            }
+        }
+        return f.composite(b -> {
+            if (sort.isUnsorted()) {
+                b.add(f.score());
+            }
+            for (Sort.Order order : sort) {
+                b.add(f.field(order.getProperty()).order(order.isAscending() ? SortOrder.ASC : SortOrder.DESC));
+            }
+            if (sort.getOrderFor(ID_FIELD) == null) {
+                b.add(f.field(ID_FIELD));
+            }
+        });
+    }
+
+    /**
+     * @param searchSession the search session.
+     * @param entityType the searched entity type.
+     * @return the descriptor of the index of the entity type, listing its fields.
+     */
+    public static IndexDescriptor index(SearchSession searchSession, Class<?> entityType) {
+        return Search
+            .mapping(searchSession.toEntityManager().getEntityManagerFactory())
+            .indexedEntity(entityType)
+            .indexManager()
+            .descriptor();
+    }
+
+    static boolean isSortable(IndexDescriptor index, String path) {
+        return index
+            .field(path)
+            .filter(IndexFieldDescriptor::isValueField)
+            .map(field -> field.toValueField().type().sortable())
+            .orElse(false);
+    }
+
+    static List<String> sortableFields(IndexDescriptor index) {
+        return index
+            .staticFields()
+            .stream()
+            .filter(field -> field.isValueField() && field.toValueField().type().sortable())
+            .map(IndexFieldDescriptor::absolutePath)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Fetch the page of hits requested by a {@link Pageable}, along with the total hit count.
+     *
+     * @param query the query to run.
+     * @param pageable the pagination information.
+     * @param <H> the type of hits.
+     * @return the page of hits.
+     */
+    public static <H> Page<H> fetch(SearchQuery<H> query, Pageable pageable) {
+        return toPage(fetchResult(query, pageable), pageable);
+    }
+
+    /**
+     * Fetch the hits requested by a {@link Pageable}, keeping the other parts of the result such as aggregations.
+     *
+     * @param query the query to run.
+     * @param pageable the pagination information.
+     * @param <H> the type of hits.
+     * @return the result.
+     */
+    public static <H> SearchResult<H> fetchResult(SearchQuery<H> query, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return query.fetchAll();
+        }
+        return query.fetch(Math.toIntExact(pageable.getOffset()), pageable.getPageSize());
+    }
+
+    /**
+     * @param result the result fetched for a {@link Pageable}.
+     * @param pageable the pagination information.
+     * @param <H> the type of hits.
+     * @return the page of hits of the result.
+     */
+    public static <H> Page<H> toPage(SearchResult<H> result, Pageable pageable) {
+        return new PageImpl<>(result.hits(), pageable, result.total().hitCount());
+    }
+
+    /**
+     * Build a query counting its hits as required by a paging mode.
+     *
+     * @param step the search, with its predicate and sort.
+     * @param pageable the pagination information.
+     * @param mode the paging mode.
+     * @param countThreshold the number of hits a {@link PagingMode#CAPPED} page counts up to.
+     * @param <H> the type of hits.
+     * @return the query.
+     */
+    public static <H> SearchQuery<H> toQuery(
+        SearchQueryOptionsStep<?, H, ?, ?, ?> step,
+        Pageable pageable,
+        PagingMode mode,
+        int countThreshold
+    ) {
+        if (pageable.isUnpaged() || mode == PagingMode.EXACT) {
+            return step.toQuery();
+        }
+        if (mode == PagingMode.CAPPED) {
+            return step.totalHitCountThreshold(countThreshold).toQuery();
+        }
+        // a slice has no total: count no further than the hits it reads anyway
+        return step.totalHitCountThreshold(pageable.getOffset() + pageable.getPageSize() + 1).toQuery();
+    }
+
+    /**
+     * Fetch the page of hits requested by a {@link Pageable}, counted as required by a paging mode.
+     *
+     * @param query the query built by {@link #toQuery(SearchQueryOptionsStep, Pageable, PagingMode, int)}.
+     * @param pageable the pagination information.
+     * @param mode the paging mode.
+     * @param <H> the type of hits.
+     * @return a {@link Page} with an exact total, a {@link CappedPage} or a {@link Slice}.
+     */
+    public static <H> Slice<H> fetch(SearchQuery<H> query, Pageable pageable, PagingMode mode) {
+        if (pageable.isUnpaged() || mode == PagingMode.EXACT) {
+            return fetch(query, pageable);
+        }
+        if (mode == PagingMode.CAPPED) {
+            SearchResult<H> result = fetchResult(query, pageable);
+            SearchResultTotal total = result.total();
+            return new CappedPage<>(result.hits(), pageable, total.hitCountLowerBound(), total.isHitCountExact());
+        }
+        return toSlice(query.fetchHits(Math.toIntExact(pageable.getOffset()), pageable.getPageSize() + 1), pageable);
+    }
+
+    /**
+     * @param hits the hits of the page, followed by the first hit of the next page if any.
+     * @param pageable the pagination information.
+     * @param <H> the type of hits.
+     * @return the slice of the hits of the page.
+     */
+    static <H> Slice<H> toSlice(List<H> hits, Pageable pageable) {
+        boolean hasNext = hits.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? hits.subList(0, pageable.getPageSize()) : hits, pageable, hasNext);
+    }
+
+    static boolean isMatchAll(String query) {
+        return StringUtils.isBlank(query) || "*".equals(query.trim());
+    }
+
+    /**
+     * @param query the query string.
+     * @param mappingProfile the mapping profile the indexes were built with.
+     * @param fields the full text fields unqualified terms are matched against.
+     * @return the query string query, or for the lean profile a {@code bool} query also matching the documents where
+     * the last term is a prefix of a word.
+     */
+    static JsonObject queryJson(String query, ApplicationProperties.Search.MappingProfile mappingProfile, String... fields) {
+        JsonObject queryString = queryStringJson(query, fields);
+        if (mappingProfile != ApplicationProperties.Search.MappingProfile.LEAN) {
+            return queryString;
+        }
+        JsonArray should = new JsonArray();
+        should.add(queryString);
+        should.add(boolPrefixJson(query, fields));
+        JsonObject bool = new JsonObject();
+        bool.add("should", should);
+        bool.addProperty("minimum_should_match", 1);
+        JsonObject json = new JsonObject();
+        json.add("bool", bool);
+        return json;
+    }
+
+    static JsonObject queryStringJson(String query, String... fields) {
+        JsonObject queryString = new JsonObject();
+        queryString.addProperty("query", query);
+        queryString.add("fields", fieldArray(fields));
+        queryString.addProperty("lenient", true);
+        JsonObject json = new JsonObject();
+        json.add("query_string", queryString);
+        return json;
+    }
+
+    static JsonObject boolPrefixJson(String query, String... fields) {
+        JsonObject multiMatch = new JsonObject();
+        multiMatch.addProperty("query", query);
+        multiMatch.addProperty("type", "bool_prefix");
+        multiMatch.add("fields", fieldArray(fields));
+        multiMatch.addProperty("lenient", true);
+        JsonObject json = new JsonObject();
+        json.add("multi_match", multiMatch);
+        return json;
+    }
+
+    private static JsonArray fieldArray(String... fields) {
+        JsonArray fieldArray = new JsonArray();
+        for (String field : fields) {
+            fieldArray.add(field);
+        }
+        return fieldArray;
+    }
+}
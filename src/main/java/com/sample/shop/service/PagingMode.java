@@ -0,0 +1,36 @@
+package com.sample.shop.service;
+
+import java.util.Locale;
+
+/**
+ * How a paginated listing or search counts its matching entities.
+ */
+public enum PagingMode {
+    /**
+     * Count every matching entity: the page carries the exact total.
+     */
+    EXACT,
+
+    /**
+     * Count the matching entities up to {@code application.paging.count-threshold}: past it, the total of the page is
+     * a lower bound.
+     */
+    CAPPED,
+
+    /**
+     * Do not count: the page only tells whether a next page exists.
+     */
+    SLICE;
+
+    /**
+     * @param value the mode, case insensitive, or {@code null}.
+     * @return the mode, or {@code null} if the value is blank.
+     * @throws IllegalArgumentException if the value is not a mode.
+     */
+    public static PagingMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,137 @@
+package com.sample.shop.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sample.shop.service.dto.ProductDTO;
+import com.sample.shop.service.dto.ProductFacetsDTO;
+import com.sample.shop.service.dto.ProductSearchResultDTO;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import org.hibernate.search.backend.elasticsearch.ElasticsearchExtension;
+import org.hibernate.search.engine.search.aggregation.AggregationKey;
+import org.hibernate.search.engine.search.aggregation.dsl.AggregationFinalStep;
+import org.hibernate.search.engine.search.aggregation.dsl.SearchAggregationFactory;
+import org.hibernate.search.engine.search.query.SearchQuery;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.engine.search.query.dsl.SearchQueryOptionsStep;
+import org.hibernate.search.util.common.data.Range;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * The facets of the product search, computed as aggregations of the search query itself: a page of hits and the
+ * facet counts of every matching product are returned by a single Elasticsearch request.
+ * <p>
+ * Elasticsearch computes the aggregations from the doc values of the {@code aggregable} fields of {@link
+ * com.sample.shop.domain.Product}, never from the stored documents.
+ */
+final class ProductFacets {
+
+    /**
+     * Maximum number of categories returned, the most frequent first.
+     */
+    static final int MAX_CATEGORIES = 20;
+
+    static final AggregationKey<Map<UUID, Long>> CATEGORIES_KEY = AggregationKey.of("categories");
+
+    static final AggregationKey<Map<Range<Integer>, Long>> MINIMUM_RATINGS_KEY = AggregationKey.of("minimumRatings");
+
+    static final AggregationKey<JsonObject> DATE_ADDED_MONTHS_KEY = AggregationKey.of("dateAddedMonths");
+
+    /**
+     * Hibernate Search has no histogram aggregation, the monthly buckets are requested with native JSON.
+     */
+    static final String DATE_ADDED_MONTHS_JSON =
+        "{\"date_histogram\":{\"field\":\"dateAdded\",\"calendar_interval\":\"month\",\"format\":\"yyyy-MM\",\"min_doc_count\":1}}";
+
+    private ProductFacets() {}
+
+    /**
+     * Add the facet aggregations to a product search and build its query.
+     *
+     * @param step the product search, with its predicate and sort.
+     * @param <H> the type of hits.
+     * @return the query.
+     */
+    static <H> SearchQuery<H> toQuery(SearchQueryOptionsStep<?, H, ?, ?, ?> step) {
+        return step
+            .aggregation(CATEGORIES_KEY, ProductFacets::categoriesAggregation)
+            .aggregation(MINIMUM_RATINGS_KEY, ProductFacets::minimumRatingsAggregation)
+            .aggregation(DATE_ADDED_MONTHS_KEY, ProductFacets::dateAddedMonthsAggregation)
+            .toQuery();
+    }
+
+    /**
+     * Fetch a page of hits along with the facets.
+     *
+     * @param query the query built by {@link #toQuery}.
+     * @param pageable the pagination information.
+     * @param mapper the mapper of the hits.
+     * @param <H> the type of hits.
+     * @return the page of products and the facets.
+     */
+    static <H> ProductSearchResultDTO fetch(SearchQuery<H> query, Pageable pageable, Function<? super H, ProductDTO> mapper) {
+        SearchResult<H> result = PagedSearch.fetchResult(query, pageable);
+        List<ProductDTO> products = new ArrayList<>(result.hits().size());
+        result.hits().forEach(hit -> products.add(mapper.apply(hit)));
+
+        ProductFacetsDTO facets = new ProductFacetsDTO();
+        facets.setCategories(result.aggregation(CATEGORIES_KEY));
+        facets.setMinimumRatings(minimumRatings(result.aggregation(MINIMUM_RATINGS_KEY)));
+        facets.setDateAddedMonths(dateAddedMonths(result.aggregation(DATE_ADDED_MONTHS_KEY)));
+
+        ProductSearchResultDTO searchResult = new ProductSearchResultDTO();
+        searchResult.setProducts(products);
+        searchResult.setTotalCount(result.total().hitCount());
+        searchResult.setFacets(facets);
+        return searchResult;
+    }
+
+    private static AggregationFinalStep<Map<UUID, Long>> categoriesAggregation(SearchAggregationFactory f) {
+        return f.terms().field("categories.id", UUID.class).maxTermCount(MAX_CATEGORIES);
+    }
+
+    private static AggregationFinalStep<Map<Range<Integer>, Long>> minimumRatingsAggregation(SearchAggregationFactory f) {
+        // overlapping ranges: a product rated 3 is counted for the minimum ratings 1, 2 and 3
+        return f
+            .range()
+            .field("rating", Integer.class)
+            .range(Range.atLeast(1))
+            .range(Range.atLeast(2))
+            .range(Range.atLeast(3))
+            .range(Range.atLeast(4));
+    }
+
+    private static AggregationFinalStep<JsonObject> dateAddedMonthsAggregation(SearchAggregationFactory f) {
+        return f.extension(ElasticsearchExtension.get()).fromJson(DATE_ADDED_MONTHS_JSON);
+    }
+
+    /**
+     * @param counts the counts of the rating ranges.
+     * @return the counts keyed by the lower bound of their range, in ascending order.
+     */
+    static Map<Integer, Long> minimumRatings(Map<Range<Integer>, Long> counts) {
+        Map<Integer, Long> minimumRatings = new LinkedHashMap<>();
+        counts.forEach((range, count) -> range.lowerBoundValue().ifPresent(minimum -> minimumRatings.put(minimum, count)));
+        return minimumRatings;
+    }
+
+    /**
+     * @param histogram the response of the native date histogram aggregation.
+     * @return the counts keyed by month, in ascending order.
+     */
+    static Map<String, Long> dateAddedMonths(JsonObject histogram) {
+        Map<String, Long> months = new LinkedHashMap<>();
+        if (histogram == null || !histogram.has("buckets")) {
+            return months;
+        }
+        for (JsonElement element : histogram.getAsJsonArray("buckets")) {
+            JsonObject bucket = element.getAsJsonObject();
+            months.put(bucket.get("key_as_string").getAsString(), bucket.get("doc_count").getAsLong());
+        }
+        return months;
+    }
+}
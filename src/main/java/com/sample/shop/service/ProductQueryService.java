@@ -1,5 +1,6 @@
 package com.sample.shop.service;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.*; // for static metamodels
 import com.sample.shop.domain.Product;
 import com.sample.shop.repository.ProductRepository;
@@ -8,11 +9,13 @@ import com.sample.shop.service.criteria.ProductCriteria;
 import com.sample.shop.service.dto.ProductDTO;
 import com.sample.shop.service.mapper.ProductMapper;
 import java.util.List;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +39,22 @@ public class ProductQueryService extends QueryService<Product> {
 
     private final ProductSearchRepository productSearchRepository;
 
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
     public ProductQueryService(
         ProductRepository productRepository,
         ProductMapper productMapper,
-        ProductSearchRepository productSearchRepository
+        ProductSearchRepository productSearchRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
     ) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.productSearchRepository = productSearchRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -71,6 +82,26 @@ public class ProductQueryService extends QueryService<Product> {
         return productRepository.findAll(specification, page).map(productMapper::toDto);
     }
 
+    /**
+     * Return a page of {@link ProductDTO} which matches the criteria from the database, counting the matching entities
+     * as required by a paging mode.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param paging The paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the matching entities, a {@link Page} unless the mode is a slice.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> findByCriteria(ProductCriteria criteria, Pageable page, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("product", paging);
+        if (mode == PagingMode.EXACT) {
+            return findByCriteria(criteria, page);
+        }
+        log.debug("find by criteria : {}, page: {}, paging: {}", criteria, page, mode);
+        final Specification<Product> specification = createSpecification(criteria);
+        int countThreshold = applicationProperties.getPaging().getCountThreshold();
+        return CriteriaPaging.fetch(entityManager, Product.class, specification, page, mode, countThreshold).map(productMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,19 +1,26 @@
 package com.sample.shop.service;
 
-import static org.elasticsearch.index.query.QueryBuilders.*;
-
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.Product;
 import com.sample.shop.repository.ProductRepository;
-import com.sample.shop.repository.search.ProductSearchRepository;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.dto.ProductDTO;
+import com.sample.shop.service.dto.ProductSearchResultDTO;
 import com.sample.shop.service.mapper.ProductMapper;
+import com.sample.shop.service.projections.mapper.ProductProjectionMapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.search.engine.search.query.SearchQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -23,22 +30,47 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ProductService {
 
+    /**
+     * Full text fields matched by unqualified query terms.
+     */
+    static final String[] SEARCH_FIELDS = { "title", "keywords", "description" };
+
     private final Logger log = LoggerFactory.getLogger(ProductService.class);
 
     private final ProductRepository productRepository;
 
     private final ProductMapper productMapper;
 
-    private final ProductSearchRepository productSearchRepository;
+    private final ProductProjectionMapper productProjectionMapper;
+
+    private final SearchDocumentHashService searchDocumentHashService;
+
+    private final EntitySearch entitySearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SearchExporter searchExporter;
+
+    private final SearchResultCache searchResultCache;
 
     public ProductService(
         ProductRepository productRepository,
         ProductMapper productMapper,
-        ProductSearchRepository productSearchRepository
+        ProductProjectionMapper productProjectionMapper,
+        SearchDocumentHashService searchDocumentHashService,
+        EntitySearch entitySearch,
+        ApplicationProperties applicationProperties,
+        SearchExporter searchExporter,
+        SearchResultCache searchResultCache
     ) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
-        this.productSearchRepository = productSearchRepository;
+        this.productProjectionMapper = productProjectionMapper;
+        this.searchDocumentHashService = searchDocumentHashService;
+        this.entitySearch = entitySearch;
+        this.applicationProperties = applicationProperties;
+        this.searchExporter = searchExporter;
+        this.searchResultCache = searchResultCache;
     }
 
     /**
@@ -52,7 +84,7 @@ public class ProductService {
         Product product = productMapper.toEntity(productDTO);
         product = productRepository.save(product);
         ProductDTO result = productMapper.toDto(product);
-        //productSearchRepository.index(product);
+        searchDocumentHashService.skipIndexingIfUnchanged(product, product.getId());
         return result;
     }
 
@@ -67,7 +99,7 @@ public class ProductService {
         Product product = productMapper.toEntity(productDTO);
         product = productRepository.save(product);
         ProductDTO result = productMapper.toDto(product);
-        //productSearchRepository.index(product);
+        searchDocumentHashService.skipIndexingIfUnchanged(product, product.getId());
         return result;
     }
 
@@ -89,7 +121,7 @@ public class ProductService {
             })
             .map(productRepository::save)
             .map(savedProduct -> {
-                //productSearchRepository.save(savedProduct);
+                searchDocumentHashService.skipIndexingIfUnchanged(savedProduct, savedProduct.getId());
 
                 return savedProduct;
             })
@@ -128,19 +160,162 @@ public class ProductService {
     public void delete(UUID id) {
         log.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
-        //productSearchRepository.deleteById(id);
+        searchDocumentHashService.forget(Product.class, id);
     }
 
     /**
-     * Search for the product corresponding to the query.
+     * Search for the product corresponding to the query. Unless {@code application.search.projection-results} is disabled,
+     * the results are built from the index only, see {@link #searchWithProjection(String, Pageable)}.
+     * Repeated searches are served from the {@link SearchResultCache} until the index is written to.
      *
      * @param query the query of the search.
      * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<ProductDTO> search(String query, Pageable pageable) {
-        log.debug("Request to search for a page of Products for query {}", query);
-        return productSearchRepository.search(query, pageable).map(productMapper::toDto);
+        return searchResultCache.get(
+            Product.class,
+            query,
+            pageable,
+            () -> {
+                if (applicationProperties.getSearch().isProjectionResults()) {
+                    return searchWithProjection(query, pageable);
+                }
+                log.debug("Request to search for a page of Products for query {}", query);
+                return entitySearch.entities(Product.class, query, SEARCH_FIELDS, pageable, productMapper::toDto);
+            }
+        );
+    }
+
+    /**
+     * Search for the product corresponding to the query, counting the matching entities as required by a paging mode.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @param paging the paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the page of entities, a {@link org.springframework.data.domain.Page} unless the mode is a slice.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<ProductDTO> search(String query, Pageable pageable, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("product", paging);
+        if (mode == PagingMode.EXACT) {
+            return search(query, pageable);
+        }
+        log.debug("Request to search for a {} page of Products for query {}", mode, query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projections(
+                Product.class,
+                com.sample.shop.service.projections.dto.Product.class,
+                query,
+                SEARCH_FIELDS,
+                pageable,
+                mode,
+                productProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entities(Product.class, query, SEARCH_FIELDS, pageable, mode, productMapper::toDto);
+    }
+
+    /**
+     * Search for the product corresponding to the query, building the results from the index only.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<ProductDTO> searchWithProjection(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Products projections for query {}", query);
+        return entitySearch.projections(
+            Product.class,
+            com.sample.shop.service.projections.dto.Product.class,
+            query,
+            SEARCH_FIELDS,
+            pageable,
+            productProjectionMapper::toDto
+        );
+    }
+
+    /**
+     * Search for the product corresponding to the query along with the facets of every matching product: counts per
+     * category, per minimum rating and per month added. The page and the facets are fetched in a single request.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the page of entities and the facets.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductSearchResultDTO searchWithFacets(String query, Pageable pageable) {
+        log.debug("Request to search for a faceted page of Products for query {}", query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.withoutTransaction(searchSession -> {
+                SearchQuery<com.sample.shop.service.projections.dto.Product> searchQuery = ProductFacets.toQuery(
+                    searchSession
+                        .search(Product.class)
+                        .select(com.sample.shop.service.projections.dto.Product.class)
+                        .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), SEARCH_FIELDS))
+                        .sort(f -> PagedSearch.sort(f, pageable.getSort(), PagedSearch.index(searchSession, Product.class)))
+                );
+                return ProductFacets.fetch(searchQuery, pageable, productProjectionMapper::toDto);
+            });
+        }
+        return entitySearch.inTransaction(searchSession -> {
+            SearchQuery<Product> searchQuery = ProductFacets.toQuery(
+                searchSession
+                    .search(Product.class)
+                    .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), SEARCH_FIELDS))
+                    .sort(f -> PagedSearch.sort(f, pageable.getSort(), PagedSearch.index(searchSession, Product.class)))
+            );
+            return ProductFacets.fetch(searchQuery, pageable, productMapper::toDto);
+        });
+    }
+
+    /**
+     * Search for the product corresponding to the query, one cursor page at a time.
+     *
+     * @param query the query of the search.
+     * @param sort the sort of the search, the same for every page.
+     * @param size the number of entities per page.
+     * @param cursor the cursor returned with the previous page, blank for the first page.
+     * @return the page of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<ProductDTO> searchAfter(String query, Sort sort, int size, String cursor) {
+        log.debug("Request to search for a cursor page of Products for query {}", query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projectionsAfter(
+                Product.class,
+                com.sample.shop.service.projections.dto.Product.class,
+                query,
+                SEARCH_FIELDS,
+                sort,
+                size,
+                cursor,
+                productProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entitiesAfter(Product.class, query, SEARCH_FIELDS, sort, size, cursor, productMapper::toDto);
+    }
+
+    /**
+     * Export every product corresponding to the query as newline delimited JSON, built from the index only.
+     *
+     * @param query the query of the search.
+     * @param out the stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the stream could not be written.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long export(String query, OutputStream out) throws IOException {
+        log.debug("Request to export Products for query {}", query);
+        return searchExporter.export(
+            Product.class,
+            com.sample.shop.service.projections.dto.Product.class,
+            query,
+            SEARCH_FIELDS,
+            productProjectionMapper::toDto,
+            out
+        );
     }
 }
@@ -0,0 +1,216 @@
+package com.sample.shop.service;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.impl.ElasticsearchIndexAdmin;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.backend.elasticsearch.index.ElasticsearchIndexManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.util.common.SearchException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-your-writes consistency tokens.
+ * <p>
+ * The token of a write lists the generations its transactions brought the written indexes to (see
+ * {@link SearchIndexGenerations}). A search presenting the token waits until the indexing plans of those generations
+ * were executed, then refreshes the indexes if no refresh happened since, so that the writes are searchable. Writes
+ * may therefore stay {@link IndexingSync#ASYNC}: only the searches which need to read their writes pay for it.
+ * <p>
+ * The wait is bounded by {@code application.search.consistency.timeout}, after which the search runs anyway. While a
+ * blue/green mass indexing job rebuilds one of the indexes, its writes are not searchable whatever their generation and
+ * the token is reported stale without waiting. The time searches spend waiting is recorded by the
+ * {@code search.consistency.wait} timer, tagged by outcome.
+ * <p>
+ * Under the outbox-polling coordination, the indexing happens in background agents after the commit and the
+ * generations do not follow it: the writes return no token then, and the tokens issued before are reported stale
+ * without waiting, see {@link #tracksWrites()}.
+ */
+@Component
+public class SearchConsistency {
+
+    static final String METRIC_NAME = "search.consistency.wait";
+
+    private final SearchIndexGenerations searchIndexGenerations;
+
+    private final ElasticsearchIndexAdmin indexAdmin;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Timer caughtUpTimer;
+
+    private final Timer timedOutTimer;
+
+    private final Timer rebuildingTimer;
+
+    /**
+     * The latest indexed generation of each index known to be searchable, refreshed by this node.
+     */
+    private final Map<String, Long> refreshedGenerations = new ConcurrentHashMap<>();
+
+    public SearchConsistency(
+        SearchIndexGenerations searchIndexGenerations,
+        ElasticsearchIndexAdmin indexAdmin,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchIndexGenerations = searchIndexGenerations;
+        this.indexAdmin = indexAdmin;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+        this.caughtUpTimer = timer(meterRegistry, "caught-up");
+        this.timedOutTimer = timer(meterRegistry, "timed-out");
+        this.rebuildingTimer = timer(meterRegistry, "rebuilding");
+    }
+
+    /**
+     * @return whether the writes return tokens, which is not the case under the outbox-polling coordination, see
+     * {@link SearchIndexGenerations#isOutboxPolling()}.
+     */
+    public boolean tracksWrites() {
+        return !searchIndexGenerations.isOutboxPolling();
+    }
+
+    /**
+     * @return the token of the writes committed by the current thread since {@link #forgetCurrentThreadWrites()},
+     * or {@code null} if none wrote an indexed entity or the writes are not tracked.
+     */
+    public String currentThreadToken() {
+        Map<String, Long> committed = searchIndexGenerations.committedByCurrentThread();
+        return committed.isEmpty() || !tracksWrites() ? null : encode(committed);
+    }
+
+    public void forgetCurrentThreadWrites() {
+        searchIndexGenerations.forgetCommittedByCurrentThread();
+    }
+
+    /**
+     * Wait until the writes of a token are searchable, or until the timeout.
+     *
+     * @param token the token returned by the writes.
+     * @return {@code true} if the writes are searchable, {@code false} if the wait timed out, an index is being rebuilt
+     * or the writes are not tracked.
+     * @throws IllegalArgumentException if the token is invalid.
+     */
+    public boolean await(String token) {
+        Map<String, Long> generations = decode(token);
+        if (!tracksWrites()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        if (generations.keySet().stream().anyMatch(searchIndexGenerations::rebuilding)) {
+            rebuildingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return false;
+        }
+        Map<String, String> readNames = new TreeMap<>();
+        generations.keySet().forEach(index -> readNames.put(index, readName(index)));
+        ApplicationProperties.Search.Consistency consistency = applicationProperties.getSearch().getConsistency();
+        long deadline = start + consistency.getTimeout().toNanos();
+        try {
+            for (Map.Entry<String, Long> generation : generations.entrySet()) {
+                String index = generation.getKey();
+                if (!awaitIndexed(index, generation.getValue(), deadline)) {
+                    timedOutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return false;
+                }
+                if (refreshedGenerations.getOrDefault(index, 0L) < generation.getValue()) {
+                    long indexed = searchIndexGenerations.indexed(index);
+                    indexAdmin.refresh(readNames.get(index));
+                    refreshedGenerations.merge(index, indexed, Math::max);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not refresh indexes " + readNames.values(), e);
+        }
+        caughtUpTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    /**
+     * Wait until the indexing plans of a generation of an index and of all the previous ones were executed.
+     *
+     * @param index the index name.
+     * @param generation the generation.
+     * @param deadline the {@link System#nanoTime()} after which to give up.
+     * @return {@code true} if the plans were executed, {@code false} if the wait timed out.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    boolean awaitIndexed(String index, long generation, long deadline) throws InterruptedException {
+        long pollInterval = applicationProperties.getSearch().getConsistency().getPollInterval().toMillis();
+        while (searchIndexGenerations.indexed(index) < generation) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(pollInterval);
+        }
+        return true;
+    }
+
+    private String readName(String index) {
+        try {
+            return Search
+                .mapping(entityManagerFactory)
+                .indexManager(index)
+                .unwrap(ElasticsearchIndexManager.class)
+                .descriptor()
+                .readName();
+        } catch (SearchException e) {
+            throw new IllegalArgumentException("Unknown index in consistency token: " + index, e);
+        }
+    }
+
+    /**
+     * @param generations the generation of each index.
+     * @return the opaque token of the generations.
+     */
+    static String encode(Map<String, Long> generations) {
+        String value = new TreeMap<>(generations)
+            .entrySet()
+            .stream()
+            .map(generation -> generation.getKey() + ":" + generation.getValue())
+            .collect(Collectors.joining(","));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token a token built by {@link #encode(Map)}.
+     * @return the generation of each index.
+     * @throws IllegalArgumentException if the token is invalid.
+     */
+    static Map<String, Long> decode(String token) {
+        Map<String, Long> generations = new TreeMap<>();
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            for (String generation : value.split(",")) {
+                int separator = generation.lastIndexOf(':');
+                generations.put(generation.substring(0, separator), Long.parseLong(generation.substring(separator + 1)));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid consistency token", e);
+        }
+        return generations;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer
+            .builder(METRIC_NAME)
+            .description("Time searches spent waiting for the writes of their consistency token to be searchable")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,251 @@
+package com.sample.shop.service;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.domain.SearchDocumentHash;
+import com.sample.shop.domain.UnchangedDocumentRoutingBinder;
+import com.sample.shop.repository.SearchDocumentHashRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.search.engine.backend.metamodel.IndexFieldDescriptor;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service skipping the index writes of documents whose indexed values did not change.
+ * <p>
+ * Automatic indexing reindexes an entity as soon as one of its indexed properties or collections is dirty, even when
+ * the values end up identical, e.g. when a DTO is merged back or a collection is replaced by an equal one.
+ * This service hashes the values of every field of the document an entity would produce, compares the hash with the
+ * one of the last written document and, when equal, skips the document of that entity only, see
+ * {@link UnchangedDocumentRoutingBinder}. The other entities written by the transaction are indexed as usual.
+ * <p>
+ * The hash of a changed document is only recorded once the indexing plan of the transaction executed successfully,
+ * see {@link IndexingSynchronizations}: a document whose write failed is written again on the next save. Under the
+ * outbox-polling coordination no plan executes in the writing transaction, so no hash is recorded and no document is
+ * skipped.
+ */
+@Service
+@Transactional
+public class SearchDocumentHashService {
+
+    static final String METRIC_NAME = "search.indexing.writes";
+
+    private final Logger log = LoggerFactory.getLogger(SearchDocumentHashService.class);
+
+    private final SearchDocumentHashRepository searchDocumentHashRepository;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, List<String>> fieldPaths = new ConcurrentHashMap<>();
+
+    public SearchDocumentHashService(
+        SearchDocumentHashRepository searchDocumentHashRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchDocumentHashRepository = searchDocumentHashRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Skip reindexing an entity whose document would be identical to the last written one, otherwise keep the hash of
+     * the document about to be written until the indexing plan of the transaction executed, see
+     * {@link #takePendingHashes()}.
+     *
+     * @param entity the saved entity.
+     * @param id the id of the entity.
+     * @return {@code true} if the index write is skipped.
+     */
+    public boolean skipIndexingIfUnchanged(Object entity, Object id) {
+        if (!applicationProperties.getSearch().isSkipUnchangedDocuments()) {
+            return false;
+        }
+        Class<?> entityType = Hibernate.getClass(entity);
+        SearchIndexedEntity<?> indexedEntity = Search.mapping(entityManager.getEntityManagerFactory()).indexedEntity(entityType);
+        String hash = hash(entity, fieldPaths.computeIfAbsent(entityType, type -> fieldPaths(indexedEntity)));
+        String documentKey = documentKey(indexedEntity.name(), id);
+        Optional<SearchDocumentHash> lastWritten = searchDocumentHashRepository.findById(documentKey);
+        if (lastWritten.isPresent() && lastWritten.get().getHash().equals(hash)) {
+            UnchangedDocumentRoutingBinder.skipInCurrentTransaction(entityType, id);
+            counter(indexedEntity.name(), "skipped").increment();
+            log.debug("Skipping the indexing of unchanged {} {}", indexedEntity.name(), id);
+            return true;
+        }
+        PendingHashes.current().hashes.put(documentKey, hash);
+        counter(indexedEntity.name(), "written").increment();
+        return false;
+    }
+
+    /**
+     * Record the hashes of documents written by a successfully executed indexing plan.
+     *
+     * @param hashes the hash of each written document, by document key.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void indexed(Map<String, String> hashes) {
+        hashes.forEach((documentKey, hash) ->
+            searchDocumentHashRepository.save(
+                searchDocumentHashRepository
+                    .findById(documentKey)
+                    .orElseGet(() -> new SearchDocumentHash().documentKey(documentKey))
+                    .hash(hash)
+                    .updatedDate(Instant.now())
+            )
+        );
+    }
+
+    /**
+     * Take the hashes of the documents the current transaction is about to write, to record them once its indexing
+     * plan executed, see {@link #indexed(Map)}.
+     *
+     * @return the hash of each document, by document key, empty if the transaction wrote no hashed document.
+     */
+    static Map<String, String> takePendingHashes() {
+        PendingHashes pending = (PendingHashes) TransactionSynchronizationManager.getResource(PendingHashes.class);
+        if (pending == null) {
+            return Map.of();
+        }
+        Map<String, String> hashes = Map.copyOf(pending.hashes);
+        pending.hashes.clear();
+        return hashes;
+    }
+
+    /**
+     * Forget the hash of a deleted entity.
+     *
+     * @param entityType the entity type.
+     * @param id the id of the entity.
+     */
+    public void forget(Class<?> entityType, Object id) {
+        String entityName = Search.mapping(entityManager.getEntityManagerFactory()).indexedEntity(entityType).name();
+        String documentKey = documentKey(entityName, id);
+        if (searchDocumentHashRepository.existsById(documentKey)) {
+            searchDocumentHashRepository.deleteById(documentKey);
+        }
+    }
+
+    private Counter counter(String entityName, String outcome) {
+        return Counter
+            .builder(METRIC_NAME)
+            .description("Documents written to or skipped from the index after comparing their hash")
+            .tag("entity", entityName)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static String documentKey(String entityName, Object id) {
+        return entityName + ":" + id;
+    }
+
+    /**
+     * @return the paths of the value fields of the document, embedded documents included.
+     */
+    private static List<String> fieldPaths(SearchIndexedEntity<?> indexedEntity) {
+        return indexedEntity
+            .indexManager()
+            .descriptor()
+            .staticFields()
+            .stream()
+            .filter(IndexFieldDescriptor::isValueField)
+            .map(IndexFieldDescriptor::absolutePath)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Hash the values reachable through the given property paths. Multi-valued paths are sorted,
+     * so that the hash does not depend on the iteration order of unordered collections.
+     *
+     * @param entity the entity.
+     * @param paths dot separated property paths, e.g. {@code categories.description}.
+     * @return the hex encoded SHA-256 of the values.
+     */
+    static String hash(Object entity, Collection<String> paths) {
+        StringBuilder document = new StringBuilder();
+        for (String path : paths) {
+            List<String> values = new ArrayList<>();
+            collect(entity, path.split("\\."), 0, values);
+            values.sort(null);
+            document.append(path).append('=').append(values).append('\n');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(document.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void collect(Object value, String[] path, int depth, List<String> values) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Iterable<?> iterable) {
+            iterable.forEach(element -> collect(element, path, depth, values));
+            return;
+        }
+        if (depth == path.length) {
+            values.add(String.valueOf(value));
+            return;
+        }
+        BeanWrapper properties = new BeanWrapperImpl(value);
+        if (properties.isReadableProperty(path[depth])) {
+            collect(properties.getPropertyValue(path[depth]), path, depth + 1, values);
+        }
+    }
+
+    /**
+     * The hashes of the documents the current transaction is about to write, bound to the transaction until its
+     * completion.
+     */
+    private static final class PendingHashes implements TransactionSynchronization {
+
+        private final Map<String, String> hashes = new HashMap<>();
+
+        static PendingHashes current() {
+            PendingHashes pending = (PendingHashes) TransactionSynchronizationManager.getResource(PendingHashes.class);
+            if (pending == null) {
+                pending = new PendingHashes();
+                TransactionSynchronizationManager.bindResource(PendingHashes.class, pending);
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            return pending;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PendingHashes.class);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.sample.shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * A version per indexed document, bumped by each committed write of its entity, to repair the documents overwritten
+ * with stale content.
+ * <p>
+ * Hibernate Search writes the documents without an Elasticsearch version: when two transactions write the same entity,
+ * their indexing plans may execute in another order than their commits, on different nodes or from different indexing
+ * queues, and the index then keeps the document of the older write. Once an indexing plan executed, a document whose
+ * version moved on meanwhile was written by an overlapping plan, in whichever order: it is queued in the
+ * {@link SearchIndexingDeadLetters} and reindexed from the database after the initial backoff, once both plans executed.
+ * <p>
+ * The versions live in a replicated Infinispan cache, so that the writes of every node are compared, and expire after
+ * {@code application.search.document-version-time-to-live}. Only the documents of the written entities are tracked,
+ * not the documents embedding them. The documents queued for a reindex are counted by
+ * {@code search.indexing.version.conflicts}, tagged by entity.
+ * <p>
+ * Under the outbox-polling coordination the versions are not bumped: the events of an entity are processed in order by
+ * a single agent, so its documents cannot be overwritten out of order.
+ */
+@Component
+public class SearchDocumentVersions {
+
+    public static final String DOCUMENT_VERSIONS_CACHE = "searchDocumentVersions";
+
+    static final String METRIC_NAME = "search.indexing.version.conflicts";
+
+    private final Logger log = LoggerFactory.getLogger(SearchDocumentVersions.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EmbeddedCacheManager cacheManager;
+
+    private final SearchIndexingDeadLetters searchIndexingDeadLetters;
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile Map<Class<?>, String> indexedEntityNames;
+
+    public SearchDocumentVersions(
+        EntityManagerFactory entityManagerFactory,
+        EmbeddedCacheManager cacheManager,
+        SearchIndexingDeadLetters searchIndexingDeadLetters,
+        MeterRegistry meterRegistry
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.searchIndexingDeadLetters = searchIndexingDeadLetters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param entityType an entity type.
+     * @return the Hibernate Search name of the entities of the type, or {@code null} if they are not indexed.
+     */
+    String indexedEntityName(Class<?> entityType) {
+        Map<Class<?>, String> result = indexedEntityNames;
+        if (result == null) {
+            result = new HashMap<>();
+            for (SearchIndexedEntity<?> indexedEntity : Search.mapping(entityManagerFactory).allIndexedEntities()) {
+                result.put(indexedEntity.javaClass(), indexedEntity.name());
+            }
+            indexedEntityNames = result;
+        }
+        return result.get(entityType);
+    }
+
+    /**
+     * Bump the versions of the documents written by a committed transaction, then compare them with the current ones
+     * once its indexing plan executed, see {@link #executed(Map)}.
+     *
+     * @param documents the documents written by the transaction.
+     * @param plan the execution of the indexing plan of the transaction.
+     */
+    void submitted(Collection<Document> documents, CompletableFuture<?> plan) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        // the database transaction is committed: a plan submitted later writes newer content
+        Map<Document, Long> versions = committed(documents);
+        plan.whenComplete((report, throwable) -> executed(versions));
+    }
+
+    /**
+     * Bump the versions of the documents written by a committed transaction.
+     *
+     * @param documents the documents written by the transaction.
+     * @return the version of each document written by the indexing plan of the transaction.
+     */
+    Map<Document, Long> committed(Collection<Document> documents) {
+        Cache<String, Long> versions = versions();
+        Map<Document, Long> written = new HashMap<>();
+        documents.forEach(document -> written.put(document, versions.merge(document.key(), 1L, Long::sum)));
+        return written;
+    }
+
+    /**
+     * Compare the versions written by an executed indexing plan with the current ones, and queue the documents written
+     * again meanwhile for a reindex from the database.
+     *
+     * @param written the versions written by the plan, see {@link #committed(Collection)}.
+     * @return the documents which may be stale.
+     */
+    List<Document> executed(Map<Document, Long> written) {
+        List<Document> overtaken = overtaken(written, versions());
+        for (Document document : overtaken) {
+            Counter
+                .builder(METRIC_NAME)
+                .description("Documents written by overlapping indexing plans, reindexed from the database")
+                .tag("entity", document.entityName())
+                .register(meterRegistry)
+                .increment();
+            try {
+                searchIndexingDeadLetters.reindexLater(document.entityName(), document.id(), "Written by overlapping indexing plans");
+            } catch (RuntimeException e) {
+                log.error("Could not queue {} for a reindex, it may stay stale until its next write", document.key(), e);
+            }
+        }
+        if (!overtaken.isEmpty()) {
+            log.debug("Queued {} documents written by overlapping indexing plans for a reindex", overtaken.size());
+        }
+        return overtaken;
+    }
+
+    private Cache<String, Long> versions() {
+        return cacheManager.getCache(DOCUMENT_VERSIONS_CACHE);
+    }
+
+    /**
+     * @param written the versions written by an indexing plan.
+     * @param current the current version of each document key.
+     * @return the documents whose current version is newer than the written one.
+     */
+    static List<Document> overtaken(Map<Document, Long> written, Map<String, Long> current) {
+        List<Document> overtaken = new ArrayList<>();
+        written.forEach((document, version) -> {
+            Long currentVersion = current.get(document.key());
+            if (currentVersion != null && currentVersion > version) {
+                overtaken.add(document);
+            }
+        });
+        return overtaken;
+    }
+
+    /**
+     * A document, identified by the Hibernate Search name of its entity and the id of the entity.
+     */
+    record Document(String entityName, Object id) {
+        /**
+         * @return the key of the document, as in the {@code search_indexing_failure} table.
+         */
+        String key() {
+            return entityName + ":" + id;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.sample.shop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sample.shop.config.ApplicationProperties;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.engine.search.query.SearchScroll;
+import org.hibernate.search.engine.search.query.SearchScrollResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams every hit of an entity search as newline delimited JSON.
+ * <p>
+ * Hits are read with a Hibernate Search scroll, one chunk at a time, and built from the index only through the
+ * {@code projections.dto} records: the database is never queried, and only the current chunk is held in memory.
+ * Hits are read in index order, the cheapest order for Elasticsearch to scroll. The scroll is kept alive between
+ * chunks for the {@code scroll_timeout} of the Elasticsearch backend.
+ */
+@Component
+public class SearchExporter {
+
+    private final Logger log = LoggerFactory.getLogger(SearchExporter.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SearchExporter(
+        EntityManagerFactory entityManagerFactory,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Write every hit of a search to a stream, one JSON document per line, flushing the stream after each chunk.
+     *
+     * @param entityType the searched entity type.
+     * @param projectionType the projection record the hits are built from.
+     * @param query the query string, see {@link PagedSearch#matching}.
+     * @param fields the full text fields unqualified query terms are matched against.
+     * @param mapper the mapper of the projections to the written documents.
+     * @param out the stream to write to.
+     * @param <P> the type of projections.
+     * @return the number of written hits.
+     * @throws IOException if the stream could not be written.
+     */
+    public <P> long export(
+        Class<?> entityType,
+        Class<P> projectionType,
+        String query,
+        String[] fields,
+        Function<? super P, ?> mapper,
+        OutputStream out
+    ) throws IOException {
+        int chunkSize = applicationProperties.getSearch().getExportChunkSize();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try (
+            SearchScroll<P> scroll = Search
+                .session(entityManager)
+                .search(entityType)
+                .select(projectionType)
+                .where(f -> PagedSearch.matching(f, query, applicationProperties.getSearch().getMappingProfile(), fields))
+                .sort(f -> f.indexOrder())
+                .scroll(chunkSize)
+        ) {
+            long count = 0;
+            ObjectWriter writer = objectMapper.writer();
+            for (SearchScrollResult<P> chunk = scroll.next(); chunk.hasHits(); chunk = scroll.next()) {
+                count += writeChunk(writer, chunk.hits(), mapper, out);
+                out.flush();
+            }
+            log.debug("Exported {} {} for query {}", count, entityType.getSimpleName(), query);
+            return count;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    static <P> int writeChunk(ObjectWriter writer, List<P> hits, Function<? super P, ?> mapper, OutputStream out) throws IOException {
+        for (P hit : hits) {
+            out.write(writer.writeValueAsBytes(mapper.apply(hit)));
+            out.write('\n');
+        }
+        return hits.size();
+    }
+}
@@ -0,0 +1,433 @@
+package com.sample.shop.service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.PluralAttribute;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.cfg.HibernateOrmMapperSettings;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A generation counter per index, bumped after each transaction writing entities the documents of the index depend on.
+ * <p>
+ * Cached search results are keyed by the generation of their index (see {@link SearchResultCache}): once the counter
+ * is bumped, the results cached before the write are never read again and simply expire. The counters live in a
+ * replicated Infinispan cache, so a write on any node invalidates the results cached on every node.
+ * <p>
+ * The writes are collected from Hibernate ORM events during the flush, and the counters are bumped once the
+ * transaction is committed, after Hibernate Search executed the indexing plan of the transaction. A write bumps the
+ * index of the written entity and the indexes of the entities associated with it, which may embed it.
+ * <p>
+ * A second counter per index tracks the latest generation up to which every indexing plan was executed, which may lag
+ * behind when the plans execute in the background: see {@link SearchConsistency}. The plans may complete in another
+ * order than their commits, so the generations executed while an earlier one is still executing are kept aside until
+ * the earlier one completes; a generation whose plan never reports, e.g. because its node stopped, is given up
+ * {@link #ABANDONED_GENERATION_TIMEOUT} after a later one was executed. The counter also records when its generation
+ * was indexed, so that the result cache only caches a generation once its documents are searchable, after a refresh of
+ * the index: see {@link #searchable(String, long, Duration)}.
+ * <p>
+ * While a blue/green mass indexing job rebuilds an index, the writes go to the fresh index and stay invisible to the
+ * searches, which read the live one, until the fresh index is promoted or the writes are replayed into the live index
+ * after a rollback: meanwhile no generation of the index is searchable, see {@link #rebuildStarted(String)}.
+ * <p>
+ * Under the outbox-polling coordination, the transactions only store indexing events, which background agents index
+ * later, possibly on another node: nothing reports when the documents of a generation are indexed, so no generation is
+ * ever considered searchable, see {@link #isOutboxPolling()}.
+ */
+@Component
+public class SearchIndexGenerations
+    implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    public static final String INDEX_GENERATIONS_CACHE = "searchIndexGenerations";
+
+    public static final String INDEXED_GENERATIONS_CACHE = "searchIndexedGenerations";
+
+    public static final String INDEX_REBUILDS_CACHE = "searchIndexRebuilds";
+
+    static final Duration ABANDONED_GENERATION_TIMEOUT = Duration.ofMinutes(1);
+
+    static final String OUTBOX_POLLING = "outbox-polling";
+
+    private static final ThreadLocal<Map<String, Long>> COMMITTED = ThreadLocal.withInitial(HashMap::new);
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexGenerations.class);
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    private final transient EmbeddedCacheManager cacheManager;
+
+    private final boolean outboxPolling;
+
+    private transient volatile Map<Class<?>, Set<String>> affectedIndexes;
+
+    public SearchIndexGenerations(EntityManagerFactory entityManagerFactory, EmbeddedCacheManager cacheManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        Object coordinationStrategy = entityManagerFactory.getProperties().get(HibernateOrmMapperSettings.COORDINATION_STRATEGY);
+        this.outboxPolling = OUTBOX_POLLING.equals(String.valueOf(coordinationStrategy));
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    /**
+     * @param index the index name.
+     * @return the current generation of the index.
+     */
+    public long current(String index) {
+        return generations().getOrDefault(index, 0L);
+    }
+
+    /**
+     * Bump the generation of an index, invalidating the results cached for it.
+     *
+     * @param index the index name.
+     * @return the new generation of the index.
+     */
+    public long bump(String index) {
+        long generation = generations().merge(index, 1L, Long::sum);
+        log.debug("Index {} is now at generation {}", index, generation);
+        return generation;
+    }
+
+    /**
+     * @param index the index name.
+     * @return the latest generation of the index up to which every indexing plan was executed, see
+     * {@link SearchConsistency}.
+     */
+    public long indexed(String index) {
+        IndexedGeneration indexed = indexedGenerations().get(index);
+        return indexed == null ? 0 : indexed.settled(System.currentTimeMillis()).generation();
+    }
+
+    /**
+     * @param index the index name.
+     * @param generation a generation of the index.
+     * @param refreshInterval the refresh interval of the index.
+     * @return whether the writes of the generation and of the previous ones are searchable: their indexing plans were
+     * executed at least a refresh interval ago, and the index is not being rebuilt. Always {@code false} under the
+     * outbox-polling coordination.
+     */
+    public boolean searchable(String index, long generation, Duration refreshInterval) {
+        if (outboxPolling || rebuilding(index)) {
+            return false;
+        }
+        if (generation == 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        IndexedGeneration indexed = indexedGenerations().get(index);
+        if (indexed != null) {
+            indexed = indexed.settled(now);
+        }
+        return (
+            indexed != null &&
+            indexed.generation() >= generation &&
+            now - indexed.indexedAt() >= refreshInterval.toMillis()
+        );
+    }
+
+    /**
+     * @return whether the indexing is coordinated through the outbox tables, in which case the indexed generations only
+     * follow the commits, not the indexing of their documents.
+     */
+    public boolean isOutboxPolling() {
+        return outboxPolling;
+    }
+
+    /**
+     * Record that a blue/green mass indexing job started sending the writes of an index to a fresh index, which the
+     * searches do not read yet.
+     *
+     * @param index the index name.
+     */
+    public void rebuildStarted(String index) {
+        rebuilds().put(index, Boolean.TRUE);
+        log.debug("Index {} is being rebuilt, its writes are not searchable", index);
+    }
+
+    /**
+     * Record that the searches read the writes of an index again, once its fresh index was promoted or its writes were
+     * replayed into the live index. The generation of the index is bumped, so that no page cached from the previous
+     * index is served.
+     *
+     * @param index the index name.
+     */
+    public void rebuildEnded(String index) {
+        if (rebuilds().remove(index) != null) {
+            markIndexed(index, bump(index));
+            log.debug("Index {} is not being rebuilt anymore", index);
+        }
+    }
+
+    /**
+     * @param index the index name.
+     * @return whether a blue/green mass indexing job rebuilds the index, see {@link #rebuildStarted(String)}.
+     */
+    public boolean rebuilding(String index) {
+        return rebuilds().containsKey(index);
+    }
+
+    /**
+     * @return the generations reached by the indexes written by the transactions the current thread committed since
+     * {@link #forgetCommittedByCurrentThread()}.
+     */
+    public Map<String, Long> committedByCurrentThread() {
+        return Map.copyOf(COMMITTED.get());
+    }
+
+    public void forgetCommittedByCurrentThread() {
+        COMMITTED.remove();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        written(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        written(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        written(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void collectionWritten(AbstractCollectionEvent event) {
+        written(event.getSession().getFactory().getMetamodel().entityPersister(event.getAffectedOwnerEntityName()).getMappedClass());
+    }
+
+    /**
+     * @param entityType an entity type.
+     * @return the indexes whose documents may change when an entity of the type is written.
+     */
+    Set<String> indexesAffectedBy(Class<?> entityType) {
+        return affectedIndexes().getOrDefault(entityType, Set.of());
+    }
+
+    private void written(Class<?> entityType) {
+        Set<String> indexes = indexesAffectedBy(entityType);
+        if (indexes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexes.forEach(index -> committed(index, bump(index), null));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> written = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (written == null) {
+            Set<String> transactionWrites = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, transactionWrites);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        // Hibernate Search executed or started the indexing plan while committing
+                        CompletableFuture<?> plan = IndexingTransaction.executingPlan();
+                        transactionWrites.forEach(index -> committed(index, bump(index), plan));
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(SearchIndexGenerations.this);
+                    }
+                }
+            );
+            written = transactionWrites;
+        }
+        written.addAll(indexes);
+    }
+
+    void committed(String index, long generation, CompletableFuture<?> plan) {
+        COMMITTED.get().merge(index, generation, Math::max);
+        if (plan == null || plan.isDone()) {
+            markIndexed(index, generation);
+        } else {
+            // a failed plan is marked too: waiting longer would not make its documents appear
+            plan.whenComplete((report, throwable) -> markIndexed(index, generation));
+        }
+    }
+
+    private void markIndexed(String index, long generation) {
+        long now = System.currentTimeMillis();
+        indexedGenerations()
+            .compute(index, (key, indexed) -> (indexed == null ? IndexedGeneration.NONE : indexed).indexed(generation, now));
+    }
+
+    private Cache<String, Long> generations() {
+        return cacheManager.getCache(INDEX_GENERATIONS_CACHE);
+    }
+
+    private Cache<String, IndexedGeneration> indexedGenerations() {
+        return cacheManager.getCache(INDEXED_GENERATIONS_CACHE);
+    }
+
+    private Cache<String, Boolean> rebuilds() {
+        return cacheManager.getCache(INDEX_REBUILDS_CACHE);
+    }
+
+    private Map<Class<?>, Set<String>> affectedIndexes() {
+        Map<Class<?>, Set<String>> result = affectedIndexes;
+        if (result == null) {
+            result = affectedIndexes(entityManagerFactory);
+            affectedIndexes = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the indexes whose documents may change when an entity of a given type is written.
+     */
+    private static Map<Class<?>, Set<String>> affectedIndexes(EntityManagerFactory entityManagerFactory) {
+        Map<Class<?>, String> indexByType = new HashMap<>();
+        for (SearchIndexedEntity<?> indexedEntity : Search.mapping(entityManagerFactory).allIndexedEntities()) {
+            indexByType.put(indexedEntity.javaClass(), indexedEntity.indexManager().descriptor().hibernateSearchName());
+        }
+        Map<Class<?>, Set<String>> result = new HashMap<>();
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entityType.getJavaType();
+            String index = indexByType.get(type);
+            if (index != null) {
+                result.computeIfAbsent(type, key -> new HashSet<>()).add(index);
+            }
+            for (Attribute<?, ?> attribute : entityType.getAttributes()) {
+                if (!attribute.isAssociation()) {
+                    continue;
+                }
+                Class<?> associatedType = attribute instanceof PluralAttribute<?, ?, ?> plural
+                    ? plural.getElementType().getJavaType()
+                    : attribute.getJavaType();
+                // the document of an indexed entity may embed the associated entity, and the other way around
+                if (index != null) {
+                    result.computeIfAbsent(associatedType, key -> new HashSet<>()).add(index);
+                }
+                String associatedIndex = indexByType.get(associatedType);
+                if (associatedIndex != null) {
+                    result.computeIfAbsent(type, key -> new HashSet<>()).add(associatedIndex);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The indexed generations of an index: every generation up to {@code generation} was indexed, the last of them at
+     * {@code indexedAt}; each later generation of {@code ahead} was indexed at the time it maps to, while an earlier
+     * one is still executing.
+     */
+    record IndexedGeneration(long generation, long indexedAt, TreeMap<Long, Long> ahead) implements Serializable {
+        static final IndexedGeneration NONE = new IndexedGeneration(0, 0, new TreeMap<>());
+
+        /**
+         * @param executed a generation whose indexing plan was executed.
+         * @param now the current time, in milliseconds.
+         * @return the indexed generations, the executed one included.
+         */
+        IndexedGeneration indexed(long executed, long now) {
+            if (executed <= generation || ahead.containsKey(executed)) {
+                return settled(now);
+            }
+            TreeMap<Long, Long> executedAhead = new TreeMap<>(ahead);
+            executedAhead.put(executed, now);
+            return new IndexedGeneration(generation, indexedAt, executedAhead).settled(now);
+        }
+
+        /**
+         * @param now the current time, in milliseconds.
+         * @return the indexed generations, with the generations of {@code ahead} which follow the indexed one, or which
+         * waited longer than {@link #ABANDONED_GENERATION_TIMEOUT} for an earlier one, moved to the indexed generation.
+         */
+        IndexedGeneration settled(long now) {
+            if (ahead.isEmpty() || !follows(ahead.firstEntry(), generation, now)) {
+                return this;
+            }
+            TreeMap<Long, Long> remaining = new TreeMap<>(ahead);
+            long contiguous = generation;
+            long contiguousAt = indexedAt;
+            while (!remaining.isEmpty() && follows(remaining.firstEntry(), contiguous, now)) {
+                Map.Entry<Long, Long> next = remaining.pollFirstEntry();
+                contiguous = next.getKey();
+                contiguousAt = Math.max(contiguousAt, next.getValue());
+            }
+            return new IndexedGeneration(contiguous, contiguousAt, remaining);
+        }
+
+        private static boolean follows(Map.Entry<Long, Long> executed, long generation, long now) {
+            return executed.getKey() == generation + 1 || now - executed.getValue() >= ABANDONED_GENERATION_TIMEOUT.toMillis();
+        }
+    }
+}
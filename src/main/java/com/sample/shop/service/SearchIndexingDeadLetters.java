@@ -0,0 +1,294 @@
+package com.sample.shop.service;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.domain.SearchIndexingFailure;
+import com.sample.shop.repository.SearchIndexingFailureRepository;
+import com.sample.shop.service.dto.IndexingDeadLettersDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Dead-letter queue of the entities whose automatic indexing failed.
+ * <p>
+ * The Hibernate Search failure handler records the failing entities in the {@code search_indexing_failure} table
+ * instead of only logging them. Every {@code application.search.dead-letters.retry-interval}, the due entities are
+ * reindexed in batches, the entities deleted since being purged from the index. An entity whose retry fails again is
+ * retried after a backoff doubled on every attempt, up to {@code max-backoff}, so that an unavailable cluster is not
+ * hammered. A document is thus repaired without a full mass indexing.
+ * <p>
+ * The entities whose document may have been overwritten with stale content are queued too, see
+ * {@link SearchDocumentVersions}. Every node retries the due entities; reindexing an entity twice is harmless.
+ * <p>
+ * The size of the queue, counted on the retry schedule, is reported by the {@code search.indexing.dead.letters} gauge.
+ */
+@Service
+@Transactional
+public class SearchIndexingDeadLetters {
+
+    static final String METRIC_PREFIX = "search.indexing.dead.letters";
+
+    private static final int MAX_FAILURE_MESSAGE_LENGTH = 1000;
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexingDeadLetters.class);
+
+    private final SearchIndexingFailureRepository searchIndexingFailureRepository;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Counter recordedCounter;
+
+    private final Counter reindexedCounter;
+
+    private final Counter retryFailureCounter;
+
+    private final TransactionTemplate newTransaction;
+
+    /**
+     * The size of the queue at the last {@link #countDeadLetters()}, or {@code NaN} if it could not be counted.
+     */
+    private volatile double size = Double.NaN;
+
+    public SearchIndexingDeadLetters(
+        SearchIndexingFailureRepository searchIndexingFailureRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.searchIndexingFailureRepository = searchIndexingFailureRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.recordedCounter =
+            Counter.builder(METRIC_PREFIX + ".recorded").description("Entities whose indexing failed").register(meterRegistry);
+        this.reindexedCounter =
+            Counter.builder(METRIC_PREFIX + ".reindexed").description("Entities reindexed by a retry").register(meterRegistry);
+        this.retryFailureCounter =
+            Counter.builder(METRIC_PREFIX + ".retry.failures").description("Entities whose retry failed").register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX, this, deadLetters -> deadLetters.size)
+            .description("Entities waiting to be reindexed after an indexing failure")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record an entity whose document could not be written to the index, in a transaction of its own.
+     *
+     * @param entityName the entity name.
+     * @param id the id of the entity.
+     * @param failure the indexing failure.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void record(String entityName, Object id, Throwable failure) {
+        SearchIndexingFailure indexingFailure = queue(entityName, id, queued -> failed(queued, failure, Instant.now()));
+        recordedCounter.increment();
+        log.debug("Recorded indexing failure of {}", indexingFailure.getDocumentKey());
+    }
+
+    /**
+     * Queue an entity whose document may be stale for a reindex after the initial backoff, in a transaction of its own,
+     * leaving time for the indexing plans still writing it to execute. Unlike a failure, it does not count as an attempt.
+     *
+     * @param entityName the entity name.
+     * @param id the id of the entity.
+     * @param reason why the document may be stale.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reindexLater(String entityName, Object id, String reason) {
+        Duration delay = applicationProperties.getSearch().getDeadLetters().getInitialBackoff();
+        SearchIndexingFailure indexingFailure = queue(
+            entityName,
+            id,
+            queued -> {
+                Instant now = Instant.now();
+                queued.lastFailedDate(now).nextAttemptDate(now.plus(delay)).failureMessage(reason);
+            }
+        );
+        log.debug("Queued {} for a reindex: {}", indexingFailure.getDocumentKey(), reason);
+    }
+
+    /**
+     * Reindex the due entities, following {@code application.search.dead-letters.retry-interval}.
+     *
+     * @return the number of entities reindexed.
+     */
+    @Scheduled(fixedDelayString = "${application.search.dead-letters.retry-interval:PT30S}")
+    public int retryDue() {
+        Instant now = Instant.now();
+        List<SearchIndexingFailure> due = searchIndexingFailureRepository.findByNextAttemptDateLessThanEqualOrderByNextAttemptDate(
+            now,
+            PageRequest.of(0, applicationProperties.getSearch().getDeadLetters().getBatchSize())
+        );
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<SearchIndexingFailure>> dueByEntity = due
+            .stream()
+            .collect(Collectors.groupingBy(SearchIndexingFailure::getEntityName, LinkedHashMap::new, Collectors.toList()));
+        int reindexed = 0;
+        for (Map.Entry<String, List<SearchIndexingFailure>> entityFailures : dueByEntity.entrySet()) {
+            List<SearchIndexingFailure> failures = entityFailures.getValue();
+            try {
+                reindex(entityFailures.getKey(), failures);
+            } catch (RuntimeException e) {
+                log.warn("Could not reindex {} {} entities, retrying later: {}", failures.size(), entityFailures.getKey(), e.getMessage());
+                for (SearchIndexingFailure failure : failures) {
+                    failed(failure, e, now);
+                    searchIndexingFailureRepository.save(failure);
+                }
+                retryFailureCounter.increment(failures.size());
+                continue;
+            }
+            // an entity which failed again meanwhile stays queued
+            for (SearchIndexingFailure failure : failures) {
+                searchIndexingFailureRepository.deleteRetried(failure.getDocumentKey(), failure.getLastFailedDate());
+            }
+            reindexed += failures.size();
+        }
+        reindexedCounter.increment(reindexed);
+        log.info("Reindexed {} of {} entities of the indexing dead-letter queue", reindexed, due.size());
+        return reindexed;
+    }
+
+    /**
+     * Count the entities of the queue for the {@code search.indexing.dead.letters} gauge, on the retry schedule rather
+     * than on every scrape of the metrics.
+     */
+    @Scheduled(fixedDelayString = "${application.search.dead-letters.retry-interval:PT30S}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void countDeadLetters() {
+        try {
+            size = searchIndexingFailureRepository.count();
+        } catch (DataAccessException e) {
+            log.warn("Could not count the indexing dead letters: {}", e.getMessage());
+            size = Double.NaN;
+        }
+    }
+
+    /**
+     * @return the size of the dead-letter queue.
+     */
+    @Transactional(readOnly = true)
+    public IndexingDeadLettersDTO deadLetters() {
+        IndexingDeadLettersDTO deadLetters = new IndexingDeadLettersDTO();
+        deadLetters.setSize(searchIndexingFailureRepository.count());
+        deadLetters.setDue(searchIndexingFailureRepository.countByNextAttemptDateLessThanEqual(Instant.now()));
+        Map<String, Long> sizeByEntity = new TreeMap<>();
+        searchIndexingFailureRepository.countByEntityName().forEach(row -> sizeByEntity.put((String) row[0], (Long) row[1]));
+        deadLetters.setSizeByEntity(sizeByEntity);
+        return deadLetters;
+    }
+
+    private void reindex(String entityName, List<SearchIndexingFailure> failures) {
+        Class<?> entityType = Search.mapping(entityManager.getEntityManagerFactory()).indexedEntity(entityName).javaClass();
+        Class<?> idType = entityManager.getMetamodel().entity(entityType).getIdType().getJavaType();
+        List<Object> ids = failures
+            .stream()
+            .<Object>map(failure -> CONVERSION_SERVICE.convert(failure.getEntityId(), idType))
+            .collect(Collectors.toList());
+        List<?> entities = entityManager.unwrap(Session.class).byMultipleIds(entityType).multiLoad(ids);
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        for (int i = 0; i < ids.size(); i++) {
+            Object entity = entities.get(i);
+            if (entity != null) {
+                indexingPlan.addOrUpdate(entity);
+            } else {
+                indexingPlan.purge(entityType, ids.get(i), null);
+            }
+        }
+        indexingPlan.execute();
+    }
+
+    /**
+     * Insert or update the queued entity in a transaction of its own. When several nodes queue the same entity at
+     * once, the primary key on its document key lets only one insert it: the others fail, and update it on their retry.
+     *
+     * @param entityName the entity name.
+     * @param id the id of the entity.
+     * @param update the update of the queued entity.
+     * @return the queued entity.
+     */
+    private SearchIndexingFailure queue(String entityName, Object id, Consumer<SearchIndexingFailure> update) {
+        try {
+            return newTransaction.execute(status -> save(entityName, id, update));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("{}:{} was queued concurrently, updating it", entityName, id);
+            return newTransaction.execute(status -> save(entityName, id, update));
+        }
+    }
+
+    private SearchIndexingFailure save(String entityName, Object id, Consumer<SearchIndexingFailure> update) {
+        SearchIndexingFailure indexingFailure = queued(entityName, id);
+        update.accept(indexingFailure);
+        return searchIndexingFailureRepository.saveAndFlush(indexingFailure);
+    }
+
+    private SearchIndexingFailure queued(String entityName, Object id) {
+        String entityId = String.valueOf(id);
+        String documentKey = entityName + ":" + entityId;
+        return searchIndexingFailureRepository
+            .findById(documentKey)
+            .orElseGet(() -> new SearchIndexingFailure().documentKey(documentKey).entityName(entityName).entityId(entityId).attempts(0));
+    }
+
+    private void failed(SearchIndexingFailure indexingFailure, Throwable failure, Instant now) {
+        ApplicationProperties.Search.DeadLetters settings = applicationProperties.getSearch().getDeadLetters();
+        int attempts = indexingFailure.getAttempts() + 1;
+        indexingFailure
+            .attempts(attempts)
+            .lastFailedDate(now)
+            .nextAttemptDate(now.plus(backoff(attempts, settings.getInitialBackoff(), settings.getMaxBackoff())))
+            .failureMessage(failureMessage(failure));
+    }
+
+    /**
+     * @param attempts the failed attempts, at least 1.
+     * @param initialBackoff the backoff after the first failure.
+     * @param maxBackoff the longest backoff.
+     * @return the delay before the next attempt: the initial backoff, doubled after each failed retry.
+     */
+    static Duration backoff(int attempts, Duration initialBackoff, Duration maxBackoff) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static String failureMessage(Throwable failure) {
+        String message = failure == null ? null : failure.getMessage();
+        if (message == null || message.length() <= MAX_FAILURE_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_FAILURE_MESSAGE_LENGTH);
+    }
+}
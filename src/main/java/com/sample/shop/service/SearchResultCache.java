@@ -0,0 +1,190 @@
+package com.sample.shop.service;
+
+import com.sample.shop.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the search result pages, keyed by index, normalized query, page and sort.
+ * <p>
+ * Keys also carry the generation of the index (see {@link SearchIndexGenerations}), so a write to the index makes
+ * every page cached before it unreachable, on every node: stale pages are never served, they just expire after the
+ * time to live of their index. The pages are held in a distributed Infinispan cache shared by the cluster.
+ * <p>
+ * The generation is bumped as soon as the writing transaction commits, before its documents are searchable. Until the
+ * indexing plans of the generation were executed and the index refreshed, searches run against the index without
+ * being cached, so that no page missing the write is cached under the new generation. For the same reason, searches
+ * are not cached while a blue/green mass indexing job rebuilds their index, nor at all under the outbox-polling
+ * coordination, whose background indexing is not tracked.
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String SEARCH_RESULTS_CACHE = "searchResults";
+
+    static final String METRIC_NAME = "search.result.cache";
+
+    private final Logger log = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private final EmbeddedCacheManager cacheManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final SearchIndexGenerations searchIndexGenerations;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public SearchResultCache(
+        EmbeddedCacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory,
+        SearchIndexGenerations searchIndexGenerations,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.searchIndexGenerations = searchIndexGenerations;
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Return the cached result page of a search, or run the search and cache its page.
+     *
+     * @param entityType the searched entity type.
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @param search the search to run on a cache miss.
+     * @param <D> the type of hits.
+     * @return the page of hits.
+     */
+    public <D extends Serializable> Page<D> get(Class<?> entityType, String query, Pageable pageable, Supplier<Page<D>> search) {
+        ApplicationProperties.Search.ResultCache settings = applicationProperties.getSearch().getResultCache();
+        if (!settings.isEnabled()) {
+            return search.get();
+        }
+        String index = Search.mapping(entityManagerFactory).indexedEntity(entityType).indexManager().descriptor().hibernateSearchName();
+        return get(index, query, pageable, search);
+    }
+
+    <D extends Serializable> Page<D> get(String index, String query, Pageable pageable, Supplier<Page<D>> search) {
+        ApplicationProperties.Search.ResultCache settings = applicationProperties.getSearch().getResultCache();
+        long generation = searchIndexGenerations.current(index);
+        if (!searchIndexGenerations.searchable(index, generation, settings.getRefreshInterval())) {
+            // the latest writes may not be searchable yet: a page cached now could miss them for its whole time to live
+            stats(index).misses().increment();
+            return search.get();
+        }
+        String key = key(index, generation, query, pageable);
+        Cache<String, CachedPage<D>> cache = cacheManager.getCache(SEARCH_RESULTS_CACHE);
+        CachedPage<D> cached = cache.get(key);
+        if (cached != null) {
+            stats(index).hits().increment();
+            return new PageImpl<>(cached.getContent(), pageable, cached.getTotal());
+        }
+        stats(index).misses().increment();
+        Page<D> page = search.get();
+        Duration timeToLive = settings.timeToLive(index);
+        cache.put(key, new CachedPage<>(page), timeToLive.toMillis(), TimeUnit.MILLISECONDS);
+        log.debug("Cached the search page {} for {}", key, timeToLive);
+        return page;
+    }
+
+    /**
+     * @return the cache key of a search page; queries differing only by their surrounding or repeated whitespace share
+     *         a key, as do the blank and wildcard queries.
+     */
+    static String key(String index, long generation, String query, Pageable pageable) {
+        String normalizedQuery = PagedSearch.isMatchAll(query) ? "*" : query.strip().replaceAll("\\s+", " ");
+        String page = pageable.isPaged() ? pageable.getPageNumber() + "x" + pageable.getPageSize() : "unpaged";
+        return index + ":" + generation + ":" + page + ":" + sortKey(pageable.getSort()) + ":" + normalizedQuery;
+    }
+
+    private static String sortKey(Sort sort) {
+        return sort
+            .stream()
+            .map(order -> order.getProperty() + "," + order.getDirection() + (order.isIgnoreCase() ? ",ignorecase" : ""))
+            .collect(Collectors.joining(";"));
+    }
+
+    private Stats stats(String index) {
+        return stats.computeIfAbsent(
+            index,
+            key -> {
+                Stats indexStats = new Stats(counter(key, "hit"), counter(key, "miss"));
+                Gauge
+                    .builder(METRIC_NAME + ".hit.ratio", indexStats, Stats::hitRatio)
+                    .description("Share of the searches served from the result cache")
+                    .tag("index", key)
+                    .register(meterRegistry);
+                return indexStats;
+            }
+        );
+    }
+
+    private Counter counter(String index, String result) {
+        return Counter
+            .builder(METRIC_NAME)
+            .description("Searches served from the result cache or run against the index")
+            .tag("index", index)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private record Stats(Counter hits, Counter misses) {
+        double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0 : hits.count() / total;
+        }
+    }
+
+    /**
+     * The cached part of a page: its hits and the total hit count.
+     */
+    static class CachedPage<D extends Serializable> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<D> content;
+
+        private final long total;
+
+        CachedPage(Page<D> page) {
+            this.content = new ArrayList<>(page.getContent());
+            this.total = page.getTotalElements();
+        }
+
+        List<D> getContent() {
+            return content;
+        }
+
+        long getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.sample.shop.service;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.domain.Address;
+import com.sample.shop.domain.Category;
+import com.sample.shop.domain.Customer;
+import com.sample.shop.domain.Product;
+import com.sample.shop.domain.WishList;
+import com.sample.shop.service.dto.SuggestionDTO;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.hibernate.search.engine.search.projection.dsl.ProjectionFinalStep;
+import org.hibernate.search.engine.search.projection.dsl.SearchProjectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service serving type-ahead suggestions.
+ * <p>
+ * The suggest fields are indexed with the {@code autocomplete_indexing} edge n-gram analyzer, so a prefix is
+ * matched with a plain match query analyzed by {@code autocomplete_search}, every prefix term being required.
+ * Only the id and the display fields are projected from the index, the result size is small and the search is
+ * truncated after {@code application.search.suggest.timeout}. Suggestions are cached per prefix for a short time,
+ * which absorbs the hot prefixes typed by many users.
+ */
+@Service
+public class SuggestService {
+
+    public static final String SUGGESTIONS_CACHE = "searchSuggestions";
+
+    /**
+     * The suggest fields of the entities, by the path segment of their REST resources.
+     */
+    private static final Map<String, Suggester> SUGGESTERS = Map.of(
+        "products",
+        new Suggester(Product.class, "title"),
+        "categories",
+        new Suggester(Category.class, "description"),
+        "customers",
+        new Suggester(Customer.class, "firstName", "lastName", "email"),
+        "addresses",
+        new Suggester(Address.class, "address1", "city", "postcode"),
+        "wish-lists",
+        new Suggester(WishList.class, "title")
+    );
+
+    private final Logger log = LoggerFactory.getLogger(SuggestService.class);
+
+    private final EntitySearch entitySearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SuggestService(EntitySearch entitySearch, ApplicationProperties applicationProperties) {
+        this.entitySearch = entitySearch;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * @param entity the path segment of an entity resource, e.g. {@code products}.
+     * @return whether suggestions are served for the entity.
+     */
+    public boolean supports(String entity) {
+        return SUGGESTERS.containsKey(entity);
+    }
+
+    /**
+     * @param entity the path segment of an entity resource, e.g. {@code products}.
+     * @return the fields whose values make the text of a suggestion.
+     */
+    static String[] suggestFields(String entity) {
+        return SUGGESTERS.get(entity).fields();
+    }
+
+    /**
+     * Suggest the entities matching a prefix.
+     *
+     * @param entity the path segment of an entity resource, e.g. {@code products}.
+     * @param prefix the prefix typed so far.
+     * @param size the number of suggestions.
+     * @return the suggestions, best match first.
+     */
+    @Cacheable(cacheNames = SUGGESTIONS_CACHE, key = "#entity + ':' + #size + ':' + #prefix.trim().toLowerCase()")
+    public List<SuggestionDTO> suggest(String entity, String prefix, int size) {
+        Suggester suggester = SUGGESTERS.get(entity);
+        if (suggester == null) {
+            throw new IllegalArgumentException("No suggestions for " + entity);
+        }
+        String terms = prefix.trim();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Request to suggest {} for prefix {}", entity, terms);
+        return entitySearch.withoutTransaction(searchSession ->
+            searchSession
+                .search(suggester.entityType())
+                .select(f -> f.composite().from(suggester.projections(f)).asList())
+                .where(f -> f.match().fields(suggester.fields()).matching(terms).minimumShouldMatchPercent(100))
+                .truncateAfter(applicationProperties.getSearch().getSuggest().getTimeout())
+                .totalHitCountThreshold(size)
+                .fetchHits(size)
+                .stream()
+                .map(SuggestService::toSuggestion)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * @param values the projected id followed by the projected display fields.
+     * @return the suggestion, its text joining the display fields which have a value.
+     */
+    static SuggestionDTO toSuggestion(List<?> values) {
+        String text = values.stream().skip(1).filter(Objects::nonNull).map(String::valueOf).collect(Collectors.joining(" "));
+        return new SuggestionDTO((UUID) values.get(0), text);
+    }
+
+    private record Suggester(Class<?> entityType, String... fields) {
+        ProjectionFinalStep<?>[] projections(SearchProjectionFactory<?, ?> f) {
+            ProjectionFinalStep<?>[] projections = new ProjectionFinalStep<?>[fields.length + 1];
+            projections[0] = f.id(UUID.class);
+            for (int i = 0; i < fields.length; i++) {
+                projections[i + 1] = f.field(fields[i], String.class);
+            }
+            return projections;
+        }
+    }
+}
@@ -1,24 +1,29 @@
 package com.sample.shop.service;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.domain.WishList;
 import com.sample.shop.repository.WishListRepository;
-import com.sample.shop.repository.search.WishListSearchRepository;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.dto.WishListDTO;
 import com.sample.shop.service.mapper.WishListMapper;
 import com.sample.shop.service.projections.mapper.WishListProjectionMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
-import org.hibernate.search.mapper.orm.Search;
-import org.hibernate.search.mapper.orm.session.SearchSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
@@ -30,6 +35,11 @@ import javax.persistence.EntityManager;
 @Transactional
 public class WishListService {
 
+    /**
+     * Full text fields matched by unqualified query terms.
+     */
+    static final String[] SEARCH_FIELDS = { "title" };
+
     private final Logger log = LoggerFactory.getLogger(WishListService.class);
 
     private final WishListRepository wishListRepository;
@@ -38,24 +48,35 @@ public class WishListService {
 
     private final WishListProjectionMapper wishListProjectionMapper;
 
-    private final WishListSearchRepository wishListSearchRepository;
+    private final SearchDocumentHashService searchDocumentHashService;
 
     private final EntityManager entityManager;
-    private final SearchSession searchSession;
+
+    private final EntitySearch entitySearch;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SearchExporter searchExporter;
 
 
     public WishListService(
         WishListRepository wishListRepository,
         WishListMapper wishListMapper,
-        WishListProjectionMapper wishListProjectionMapper, WishListSearchRepository wishListSearchRepository,
-        EntityManager entityManager
+        WishListProjectionMapper wishListProjectionMapper,
+        EntityManager entityManager,
+        SearchDocumentHashService searchDocumentHashService,
+        EntitySearch entitySearch,
+        ApplicationProperties applicationProperties,
+        SearchExporter searchExporter
     ) {
         this.wishListRepository = wishListRepository;
         this.wishListMapper = wishListMapper;
         this.wishListProjectionMapper = wishListProjectionMapper;
-        this.wishListSearchRepository = wishListSearchRepository;
+        this.searchDocumentHashService = searchDocumentHashService;
         this.entityManager = entityManager;
-        searchSession = Search.session(entityManager);
+        this.entitySearch = entitySearch;
+        this.applicationProperties = applicationProperties;
+        this.searchExporter = searchExporter;
     }
 
     /**
@@ -69,7 +90,7 @@ public class WishListService {
         WishList wishList = wishListMapper.toEntity(wishListDTO);
         wishList = wishListRepository.save(wishList);
         WishListDTO result = wishListMapper.toDto(wishList);
-        //wishListSearchRepository.index(wishList);
+        searchDocumentHashService.skipIndexingIfUnchanged(wishList, wishList.getId());
         return result;
     }
 
@@ -84,7 +105,7 @@ public class WishListService {
         WishList wishList = wishListMapper.toEntity(wishListDTO);
         wishList = wishListRepository.save(wishList);
         WishListDTO result = wishListMapper.toDto(wishList);
-        //wishListSearchRepository.index(wishList);
+        searchDocumentHashService.skipIndexingIfUnchanged(wishList, wishList.getId());
         return result;
     }
 
@@ -106,7 +127,7 @@ public class WishListService {
             })
             .map(wishListRepository::save)
             .map(savedWishList -> {
-                //wishListSearchRepository.save(savedWishList);
+                searchDocumentHashService.skipIndexingIfUnchanged(savedWishList, savedWishList.getId());
 
                 return savedWishList;
             })
@@ -144,49 +165,120 @@ public class WishListService {
     public void delete(UUID id) {
         log.debug("Request to delete WishList : {}", id);
         wishListRepository.deleteById(id);
-        //wishListSearchRepository.deleteById(id);
+        searchDocumentHashService.forget(WishList.class, id);
     }
 
     /**
-     * Search for the wishList corresponding to the query.
+     * Search for the wishList corresponding to the query. Unless {@code application.search.projection-results} is disabled,
+     * the results are built from the index only, see {@link #searchWithProjection(String, Pageable)}.
      *
      * @param query the query of the search.
+     * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
-    public List<WishListDTO> search(String query) {
-        log.debug("Request to search WishLists for query {}", query);
-
-        List<WishListDTO> wishes = searchSession.search( WishList.class )
-            .where( (f, b) -> {
-                    b.must(f.matchAll());
-                }
-            ).fetchHits( 20 ).stream().map(wishListMapper::toDto).collect(Collectors.toList());
-        return StreamSupport
-            .stream(wishListSearchRepository.search(query).spliterator(), false)
-            .map(wishListMapper::toDto)
-            .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<WishListDTO> search(String query, Pageable pageable) {
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return searchWithProjection(query, pageable);
+        }
+        log.debug("Request to search for a page of WishLists for query {}", query);
+        return entitySearch.entities(WishList.class, query, SEARCH_FIELDS, pageable, wishListMapper::toDto);
+    }
+
+    /**
+     * Search for the wishList corresponding to the query, counting the matching entities as required by a paging mode.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @param paging the paging mode requested, {@code null} for the mode of {@code application.paging}.
+     * @return the page of entities, a {@link org.springframework.data.domain.Page} unless the mode is a slice.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<WishListDTO> search(String query, Pageable pageable, PagingMode paging) {
+        PagingMode mode = applicationProperties.getPaging().mode("wishList", paging);
+        if (mode == PagingMode.EXACT) {
+            return search(query, pageable);
+        }
+        log.debug("Request to search for a {} page of WishLists for query {}", mode, query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projections(
+                WishList.class,
+                com.sample.shop.service.projections.dto.WishList.class,
+                query,
+                SEARCH_FIELDS,
+                pageable,
+                mode,
+                wishListProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entities(WishList.class, query, SEARCH_FIELDS, pageable, mode, wishListMapper::toDto);
     }
 
     /**
-     * Search for the wishList corresponding to the query.
+     * Search for the wishList corresponding to the query, building the results from the index only.
      *
      * @param query the query of the search.
+     * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
-    public List<WishListDTO> searchWithProjection(String query) {
-        log.debug("Request to search WishLists for query {}", query);
-
-        List<WishListDTO> wishes = searchSession.search( WishList.class )
-            .select(com.sample.shop.service.projections.dto.WishList.class)
-            .where( (f, b) -> {
-                    b.must(f.matchAll());
-                }
-            ).fetchHits( 20 ).stream().map(wishListProjectionMapper::toDto).collect(Collectors.toList());
-        return StreamSupport
-            .stream(wishListSearchRepository.search(query).spliterator(), false)
-            .map(wishListMapper::toDto)
-            .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<WishListDTO> searchWithProjection(String query, Pageable pageable) {
+        log.debug("Request to search for a page of WishLists projections for query {}", query);
+        return entitySearch.projections(
+            WishList.class,
+            com.sample.shop.service.projections.dto.WishList.class,
+            query,
+            SEARCH_FIELDS,
+            pageable,
+            wishListProjectionMapper::toDto
+        );
+    }
+
+    /**
+     * Search for the wishList corresponding to the query, one cursor page at a time.
+     *
+     * @param query the query of the search.
+     * @param sort the sort of the search, the same for every page.
+     * @param size the number of entities per page.
+     * @param cursor the cursor returned with the previous page, blank for the first page.
+     * @return the page of entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<WishListDTO> searchAfter(String query, Sort sort, int size, String cursor) {
+        log.debug("Request to search for a cursor page of WishLists for query {}", query);
+        if (applicationProperties.getSearch().isProjectionResults()) {
+            return entitySearch.projectionsAfter(
+                WishList.class,
+                com.sample.shop.service.projections.dto.WishList.class,
+                query,
+                SEARCH_FIELDS,
+                sort,
+                size,
+                cursor,
+                wishListProjectionMapper::toDto
+            );
+        }
+        return entitySearch.entitiesAfter(WishList.class, query, SEARCH_FIELDS, sort, size, cursor, wishListMapper::toDto);
+    }
+
+    /**
+     * Export every wishList corresponding to the query as newline delimited JSON, built from the index only.
+     *
+     * @param query the query of the search.
+     * @param out the stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the stream could not be written.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long export(String query, OutputStream out) throws IOException {
+        log.debug("Request to export WishLists for query {}", query);
+        return searchExporter.export(
+            WishList.class,
+            com.sample.shop.service.projections.dto.WishList.class,
+            query,
+            SEARCH_FIELDS,
+            wishListProjectionMapper::toDto,
+            out
+        );
     }
 }
@@ -0,0 +1,43 @@
+package com.sample.shop.service.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * A page whose total was counted up to a threshold: past the threshold, the total is a lower bound.
+ *
+ * @param <T> the type of content.
+ */
+public class CappedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public CappedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    /**
+     * @return whether the total is exact rather than a lower bound.
+     */
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    @Override
+    public <U> CappedPage<U> map(Function<? super T, ? extends U> converter) {
+        return new CappedPage<>(getConvertedContent(converter), getPageable(), getTotalElements(), totalExact);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && obj instanceof CappedPage<?> that && totalExact == that.totalExact;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Boolean.hashCode(totalExact);
+    }
+}
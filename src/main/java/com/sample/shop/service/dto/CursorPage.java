@@ -0,0 +1,41 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of search hits fetched with a cursor, along with the cursor of the next page.
+ *
+ * @param <T> the type of hits.
+ */
+public class CursorPage<T> implements Serializable {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor of the next page, {@code null} once the last page is reached.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" + "size=" + content.size() + ", nextCursor='" + nextCursor + "'" + "}";
+    }
+}
@@ -0,0 +1,42 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DTO for the result of a search across every entity, grouped by entity.
+ */
+public class FederatedSearchResultDTO implements Serializable {
+
+    private Map<String, SearchGroupDTO> groups = new LinkedHashMap<>();
+
+    private boolean timedOut;
+
+    /**
+     * @return the hits of each entity, by the path segment of its REST resource, e.g. {@code products}.
+     */
+    public Map<String, SearchGroupDTO> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, SearchGroupDTO> groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * @return whether the search was cut short by the timeout, the groups holding the hits collected until then.
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    @Override
+    public String toString() {
+        return "FederatedSearchResultDTO{" + "groups=" + groups + ", timedOut=" + timedOut + "}";
+    }
+}
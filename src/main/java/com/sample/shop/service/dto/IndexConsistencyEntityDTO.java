@@ -0,0 +1,145 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A DTO describing the differences found between the index and the database for one entity type.
+ * Only the first differing ids are listed, the counts cover every difference.
+ */
+public class IndexConsistencyEntityDTO implements Serializable {
+
+    private String entity;
+
+    private long checked;
+
+    private long missing;
+
+    private long extra;
+
+    private long stale;
+
+    private long repaired;
+
+    private boolean completed;
+
+    private List<String> missingIds = new ArrayList<>();
+
+    private List<String> extraIds = new ArrayList<>();
+
+    private List<String> staleIds = new ArrayList<>();
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public long getChecked() {
+        return checked;
+    }
+
+    public void setChecked(long checked) {
+        this.checked = checked;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public void setMissing(long missing) {
+        this.missing = missing;
+    }
+
+    public long getExtra() {
+        return extra;
+    }
+
+    public void setExtra(long extra) {
+        this.extra = extra;
+    }
+
+    public long getStale() {
+        return stale;
+    }
+
+    public void setStale(long stale) {
+        this.stale = stale;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(long repaired) {
+        this.repaired = repaired;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    public List<String> getExtraIds() {
+        return extraIds;
+    }
+
+    public void setExtraIds(List<String> extraIds) {
+        this.extraIds = extraIds;
+    }
+
+    public List<String> getStaleIds() {
+        return staleIds;
+    }
+
+    public void setStaleIds(List<String> staleIds) {
+        this.staleIds = staleIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexConsistencyEntityDTO)) {
+            return false;
+        }
+
+        IndexConsistencyEntityDTO indexConsistencyEntityDTO = (IndexConsistencyEntityDTO) o;
+        return Objects.equals(this.entity, indexConsistencyEntityDTO.entity);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.entity);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IndexConsistencyEntityDTO{" +
+            "entity='" + getEntity() + "'" +
+            ", checked=" + getChecked() +
+            ", missing=" + getMissing() +
+            ", extra=" + getExtra() +
+            ", stale=" + getStale() +
+            ", repaired=" + getRepaired() +
+            ", completed='" + isCompleted() + "'" +
+            "}";
+    }
+}
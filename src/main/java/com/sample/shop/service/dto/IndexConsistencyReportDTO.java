@@ -0,0 +1,119 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A DTO describing a verification of the indexes against the database, and the differences found.
+ */
+public class IndexConsistencyReportDTO implements Serializable {
+
+    private UUID id;
+
+    private MassIndexJobDTO.Status status;
+
+    private boolean compareContent;
+
+    private boolean repair;
+
+    private Instant startTime;
+
+    private Instant endTime;
+
+    private List<IndexConsistencyEntityDTO> entities = new ArrayList<>();
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public MassIndexJobDTO.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(MassIndexJobDTO.Status status) {
+        this.status = status;
+    }
+
+    public boolean isCompareContent() {
+        return compareContent;
+    }
+
+    public void setCompareContent(boolean compareContent) {
+        this.compareContent = compareContent;
+    }
+
+    public boolean isRepair() {
+        return repair;
+    }
+
+    public void setRepair(boolean repair) {
+        this.repair = repair;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public List<IndexConsistencyEntityDTO> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(List<IndexConsistencyEntityDTO> entities) {
+        this.entities = entities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexConsistencyReportDTO)) {
+            return false;
+        }
+
+        IndexConsistencyReportDTO indexConsistencyReportDTO = (IndexConsistencyReportDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, indexConsistencyReportDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IndexConsistencyReportDTO{" +
+            "id='" + getId() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", compareContent='" + isCompareContent() + "'" +
+            ", repair='" + isRepair() + "'" +
+            ", startTime='" + getStartTime() + "'" +
+            ", endTime='" + getEndTime() + "'" +
+            ", entities=" + getEntities() +
+            "}";
+    }
+}
@@ -0,0 +1,165 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO describing the size, the indexing cost and the query cost of an index, to compare mappings.
+ */
+public class IndexFootprintDTO implements Serializable {
+
+    private String entity;
+
+    private String index;
+
+    private String mappingProfile;
+
+    private long documents;
+
+    private long rootDocuments;
+
+    private long storeSizeInBytes;
+
+    private long indexingTotal;
+
+    private long indexingTimeInMillis;
+
+    private long queryTotal;
+
+    private long queryTimeInMillis;
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public void setIndex(String index) {
+        this.index = index;
+    }
+
+    public String getMappingProfile() {
+        return mappingProfile;
+    }
+
+    public void setMappingProfile(String mappingProfile) {
+        this.mappingProfile = mappingProfile;
+    }
+
+    /**
+     * @return the number of Lucene documents, the hidden documents of the nested objects included.
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(long documents) {
+        this.documents = documents;
+    }
+
+    /**
+     * @return the number of documents of the indexed entity, which searches return.
+     */
+    public long getRootDocuments() {
+        return rootDocuments;
+    }
+
+    public void setRootDocuments(long rootDocuments) {
+        this.rootDocuments = rootDocuments;
+    }
+
+    /**
+     * @return the number of hidden Lucene documents per root document, one per nested object.
+     */
+    public double getNestedDocumentsPerRootDocument() {
+        return rootDocuments == 0 ? 0 : (documents - rootDocuments) / (double) rootDocuments;
+    }
+
+    public long getStoreSizeInBytes() {
+        return storeSizeInBytes;
+    }
+
+    public void setStoreSizeInBytes(long storeSizeInBytes) {
+        this.storeSizeInBytes = storeSizeInBytes;
+    }
+
+    /**
+     * @return the number of documents indexed by the primary shards since they were started.
+     */
+    public long getIndexingTotal() {
+        return indexingTotal;
+    }
+
+    public void setIndexingTotal(long indexingTotal) {
+        this.indexingTotal = indexingTotal;
+    }
+
+    /**
+     * @return the time the primary shards spent indexing those documents, summed over their indexing threads.
+     */
+    public long getIndexingTimeInMillis() {
+        return indexingTimeInMillis;
+    }
+
+    public void setIndexingTimeInMillis(long indexingTimeInMillis) {
+        this.indexingTimeInMillis = indexingTimeInMillis;
+    }
+
+    /**
+     * @return the number of queries run by the primary shards since they were started.
+     */
+    public long getQueryTotal() {
+        return queryTotal;
+    }
+
+    public void setQueryTotal(long queryTotal) {
+        this.queryTotal = queryTotal;
+    }
+
+    public long getQueryTimeInMillis() {
+        return queryTimeInMillis;
+    }
+
+    public void setQueryTimeInMillis(long queryTimeInMillis) {
+        this.queryTimeInMillis = queryTimeInMillis;
+    }
+
+    public long getBytesPerDocument() {
+        return rootDocuments == 0 ? 0 : storeSizeInBytes / rootDocuments;
+    }
+
+    /**
+     * @return the average time a primary shard spent running a query, fetch phase excluded.
+     */
+    public double getAverageQueryTimeInMillis() {
+        return queryTotal == 0 ? 0 : queryTimeInMillis / (double) queryTotal;
+    }
+
+    /**
+     * @return the number of documents an indexing thread indexes per second, the analysis cost of the mapping profile.
+     */
+    public double getDocumentsIndexedPerSecond() {
+        return indexingTimeInMillis == 0 ? 0 : indexingTotal * 1000.0 / indexingTimeInMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexFootprintDTO{" +
+            "entity='" + getEntity() + "'" +
+            ", index='" + getIndex() + "'" +
+            ", mappingProfile='" + getMappingProfile() + "'" +
+            ", documents=" + getDocuments() +
+            ", rootDocuments=" + getRootDocuments() +
+            ", storeSizeInBytes=" + getStoreSizeInBytes() +
+            ", indexingTotal=" + getIndexingTotal() +
+            ", indexingTimeInMillis=" + getIndexingTimeInMillis() +
+            ", queryTotal=" + getQueryTotal() +
+            ", queryTimeInMillis=" + getQueryTimeInMillis() +
+            "}";
+    }
+}
@@ -0,0 +1,51 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A DTO describing the dead-letter queue of the entities whose automatic indexing failed.
+ */
+public class IndexingDeadLettersDTO implements Serializable {
+
+    private long size;
+
+    private long due;
+
+    private Map<String, Long> sizeByEntity;
+
+    /**
+     * @return the number of entities waiting to be reindexed.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the number of entities the next retries reindex, the others waiting for the end of their backoff.
+     */
+    public long getDue() {
+        return due;
+    }
+
+    public void setDue(long due) {
+        this.due = due;
+    }
+
+    public Map<String, Long> getSizeByEntity() {
+        return sizeByEntity;
+    }
+
+    public void setSizeByEntity(Map<String, Long> sizeByEntity) {
+        this.sizeByEntity = sizeByEntity;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingDeadLettersDTO{" + "size=" + getSize() + ", due=" + getDue() + ", sizeByEntity=" + getSizeByEntity() + "}";
+    }
+}
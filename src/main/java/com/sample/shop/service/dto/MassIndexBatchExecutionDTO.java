@@ -0,0 +1,116 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A DTO describing an execution of the checkpointed JSR-352 mass indexing job.
+ */
+public class MassIndexBatchExecutionDTO implements Serializable {
+
+    private Long executionId;
+
+    private Long instanceId;
+
+    private String batchStatus;
+
+    private String exitStatus;
+
+    private Instant createTime;
+
+    private Instant startTime;
+
+    private Instant endTime;
+
+    public Long getExecutionId() {
+        return executionId;
+    }
+
+    public void setExecutionId(Long executionId) {
+        this.executionId = executionId;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getBatchStatus() {
+        return batchStatus;
+    }
+
+    public void setBatchStatus(String batchStatus) {
+        this.batchStatus = batchStatus;
+    }
+
+    public String getExitStatus() {
+        return exitStatus;
+    }
+
+    public void setExitStatus(String exitStatus) {
+        this.exitStatus = exitStatus;
+    }
+
+    public Instant getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Instant createTime) {
+        this.createTime = createTime;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MassIndexBatchExecutionDTO)) {
+            return false;
+        }
+
+        MassIndexBatchExecutionDTO massIndexBatchExecutionDTO = (MassIndexBatchExecutionDTO) o;
+        if (this.executionId == null) {
+            return false;
+        }
+        return Objects.equals(this.executionId, massIndexBatchExecutionDTO.executionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.executionId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MassIndexBatchExecutionDTO{" +
+            "executionId=" + getExecutionId() +
+            ", instanceId=" + getInstanceId() +
+            ", batchStatus='" + getBatchStatus() + "'" +
+            ", exitStatus='" + getExitStatus() + "'" +
+            ", createTime='" + getCreateTime() + "'" +
+            ", startTime='" + getStartTime() + "'" +
+            ", endTime='" + getEndTime() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,115 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A DTO describing a mass indexing job and its progress.
+ */
+public class MassIndexJobDTO implements Serializable {
+
+    public enum Status {
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED,
+    }
+
+    private UUID id;
+
+    private String profile;
+
+    private Status status;
+
+    private Instant startTime;
+
+    private Instant endTime;
+
+    private List<MassIndexProgressDTO> entities = new ArrayList<>();
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public List<MassIndexProgressDTO> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(List<MassIndexProgressDTO> entities) {
+        this.entities = entities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MassIndexJobDTO)) {
+            return false;
+        }
+
+        MassIndexJobDTO massIndexJobDTO = (MassIndexJobDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, massIndexJobDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MassIndexJobDTO{" +
+            "id='" + getId() + "'" +
+            ", profile='" + getProfile() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", startTime='" + getStartTime() + "'" +
+            ", endTime='" + getEndTime() + "'" +
+            ", entities=" + getEntities() +
+            "}";
+    }
+}
@@ -0,0 +1,93 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO describing the mass indexing progress of one entity type.
+ */
+public class MassIndexProgressDTO implements Serializable {
+
+    private String entity;
+
+    private long totalCount;
+
+    private long documentsIndexed;
+
+    private double documentsPerSecond;
+
+    private Long etaSeconds;
+
+    private long errorCount;
+
+    private boolean completed;
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public long getDocumentsIndexed() {
+        return documentsIndexed;
+    }
+
+    public void setDocumentsIndexed(long documentsIndexed) {
+        this.documentsIndexed = documentsIndexed;
+    }
+
+    public double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    public void setDocumentsPerSecond(double documentsPerSecond) {
+        this.documentsPerSecond = documentsPerSecond;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MassIndexProgressDTO{" +
+            "entity='" + getEntity() + "'" +
+            ", totalCount=" + getTotalCount() +
+            ", documentsIndexed=" + getDocumentsIndexed() +
+            ", documentsPerSecond=" + getDocumentsPerSecond() +
+            ", etaSeconds=" + getEtaSeconds() +
+            ", errorCount=" + getErrorCount() +
+            ", completed='" + isCompleted() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,65 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A DTO for the facet counts of a product search.
+ */
+public class ProductFacetsDTO implements Serializable {
+
+    private Map<UUID, Long> categories = new LinkedHashMap<>();
+
+    private Map<Integer, Long> minimumRatings = new LinkedHashMap<>();
+
+    private Map<String, Long> dateAddedMonths = new LinkedHashMap<>();
+
+    /**
+     * @return the number of products per category id, most frequent first.
+     */
+    public Map<UUID, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<UUID, Long> categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * @return the number of products rated at least the key.
+     */
+    public Map<Integer, Long> getMinimumRatings() {
+        return minimumRatings;
+    }
+
+    public void setMinimumRatings(Map<Integer, Long> minimumRatings) {
+        this.minimumRatings = minimumRatings;
+    }
+
+    /**
+     * @return the number of products added per month, keyed by {@code yyyy-MM}, oldest first.
+     */
+    public Map<String, Long> getDateAddedMonths() {
+        return dateAddedMonths;
+    }
+
+    public void setDateAddedMonths(Map<String, Long> dateAddedMonths) {
+        this.dateAddedMonths = dateAddedMonths;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "ProductFacetsDTO{" +
+            "categories=" +
+            categories +
+            ", minimumRatings=" +
+            minimumRatings +
+            ", dateAddedMonths=" +
+            dateAddedMonths +
+            "}"
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO for a page of product search hits along with the facet counts of the whole search.
+ */
+public class ProductSearchResultDTO implements Serializable {
+
+    private List<ProductDTO> products;
+
+    private long totalCount;
+
+    private ProductFacetsDTO facets;
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public ProductFacetsDTO getFacets() {
+        return facets;
+    }
+
+    public void setFacets(ProductFacetsDTO facets) {
+        this.facets = facets;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSearchResultDTO{" + "products=" + products + ", totalCount=" + totalCount + ", facets=" + facets + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the hits of one entity in a search across every entity: the best hits and the number of matching entities.
+ */
+public class SearchGroupDTO implements Serializable {
+
+    private long total;
+
+    private List<SuggestionDTO> hits = new ArrayList<>();
+
+    public SearchGroupDTO() {}
+
+    public SearchGroupDTO(long total, List<SuggestionDTO> hits) {
+        this.total = total;
+        this.hits = hits;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the best hits, best match first.
+     */
+    public List<SuggestionDTO> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<SuggestionDTO> hits) {
+        this.hits = hits;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchGroupDTO{" + "total=" + total + ", hits=" + hits + "}";
+    }
+}
@@ -0,0 +1,60 @@
+package com.sample.shop.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A DTO for a type-ahead suggestion: the id of a matching entity and the text to display for it.
+ */
+public class SuggestionDTO implements Serializable {
+
+    private UUID id;
+
+    private String text;
+
+    public SuggestionDTO() {}
+
+    public SuggestionDTO(UUID id, String text) {
+        this.id = id;
+        this.text = text;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SuggestionDTO)) {
+            return false;
+        }
+        SuggestionDTO that = (SuggestionDTO) o;
+        return Objects.equals(id, that.id) && Objects.equals(text, that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, text);
+    }
+
+    @Override
+    public String toString() {
+        return "SuggestionDTO{" + "id=" + id + ", text='" + text + "'" + "}";
+    }
+}
@@ -0,0 +1,174 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.dto.MassIndexBatchExecutionDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Supplier;
+import javax.batch.operations.BatchRuntimeException;
+import javax.batch.operations.JobOperator;
+import javax.batch.operations.NoSuchJobException;
+import javax.batch.operations.NoSuchJobExecutionException;
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.JobExecution;
+import javax.batch.runtime.JobInstance;
+import org.hibernate.search.batch.jsr352.core.massindexing.MassIndexingJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts and restarts the Hibernate Search JSR-352 mass indexing job on the JBeret runtime.
+ * <p>
+ * The job splits every entity type into id range partitions and checkpoints the progress of each partition
+ * in the JBeret job repository, stored in the application database (see {@code BatchConfiguration}), so that a
+ * restarted execution resumes from the last checkpoint instead of reindexing everything again, even on another node.
+ */
+@Component
+public class BatchMassIndexingLauncher {
+
+    /**
+     * JBeret job parameter controlling whether an execution still marked as started can be restarted.
+     * {@code detect} allows it when the execution is not running anymore, e.g. after a node crash.
+     */
+    static final String RESTART_MODE_PARAMETER = "jberet.restart.mode";
+
+    static final String RESTART_MODE_DETECT = "detect";
+
+    private static final int MAX_LISTED_INSTANCES = 20;
+
+    private final Logger log = LoggerFactory.getLogger(BatchMassIndexingLauncher.class);
+
+    private final Supplier<JobOperator> jobOperator;
+
+    public BatchMassIndexingLauncher(ObjectProvider<JobOperator> jobOperator) {
+        this(jobOperator::getObject);
+    }
+
+    BatchMassIndexingLauncher(Supplier<JobOperator> jobOperator) {
+        this.jobOperator = jobOperator;
+    }
+
+    /**
+     * Start a mass indexing job execution.
+     *
+     * @param entityTypes the entity types to reindex, at least one.
+     * @param profile the mass indexing profile providing the loading options.
+     * @param batch the partitioning and checkpointing options.
+     * @return the started execution.
+     */
+    public MassIndexBatchExecutionDTO start(
+        List<Class<?>> entityTypes,
+        ApplicationProperties.MassIndexing.Profile profile,
+        ApplicationProperties.MassIndexing.Batch batch
+    ) {
+        Class<?>[] otherEntityTypes = entityTypes.subList(1, entityTypes.size()).toArray(Class<?>[]::new);
+        Properties parameters = MassIndexingJob
+            .parameters()
+            .forEntities(entityTypes.get(0), otherEntityTypes)
+            .purgeAllOnStart(true)
+            .mergeSegmentsOnFinish(profile.getForceMergeMaxSegments() != null)
+            .maxThreads(profile.getThreadsToLoadObjects())
+            .entityFetchSize(profile.getBatchSizeToLoadObjects())
+            .idFetchSize(profile.getIdFetchSize())
+            .cacheMode(profile.getCacheMode())
+            .rowsPerPartition(batch.getRowsPerPartition())
+            .checkpointInterval(Math.min(batch.getCheckpointInterval(), batch.getRowsPerPartition()))
+            .build();
+        JobOperator jobOperator = this.jobOperator.get();
+        long executionId = jobOperator.start(MassIndexingJob.NAME, parameters);
+        log.info("Started mass indexing batch execution {} for {}", executionId, entityTypes);
+        return toDto(jobOperator, jobOperator.getJobExecution(executionId));
+    }
+
+    /**
+     * Restart a stopped, failed or interrupted execution from its last checkpoints.
+     *
+     * @param executionId the id of the execution to restart.
+     * @return the new execution, empty if the execution is unknown.
+     * @throws IllegalStateException if the execution cannot be restarted.
+     */
+    public Optional<MassIndexBatchExecutionDTO> restart(long executionId) {
+        JobOperator jobOperator = this.jobOperator.get();
+        try {
+            Properties parameters = new Properties();
+            Properties originalParameters = jobOperator.getParameters(executionId);
+            if (originalParameters != null) {
+                parameters.putAll(originalParameters);
+            }
+            parameters.setProperty(RESTART_MODE_PARAMETER, RESTART_MODE_DETECT);
+            long restartedExecutionId = jobOperator.restart(executionId, parameters);
+            log.info("Restarted mass indexing batch execution {} as {}", executionId, restartedExecutionId);
+            return Optional.of(toDto(jobOperator, jobOperator.getJobExecution(restartedExecutionId)));
+        } catch (NoSuchJobExecutionException e) {
+            return Optional.empty();
+        } catch (BatchRuntimeException e) {
+            throw new IllegalStateException("Mass indexing batch execution " + executionId + " cannot be restarted", e);
+        }
+    }
+
+    /**
+     * @param executionId the id of an execution.
+     * @return whether the execution is starting, running or stopping.
+     */
+    public boolean isRunning(long executionId) {
+        try {
+            BatchStatus batchStatus = this.jobOperator.get().getJobExecution(executionId).getBatchStatus();
+            return batchStatus == BatchStatus.STARTING || batchStatus == BatchStatus.STARTED || batchStatus == BatchStatus.STOPPING;
+        } catch (NoSuchJobExecutionException e) {
+            return false;
+        }
+    }
+
+    public Optional<MassIndexBatchExecutionDTO> find(long executionId) {
+        JobOperator jobOperator = this.jobOperator.get();
+        try {
+            return Optional.of(toDto(jobOperator, jobOperator.getJobExecution(executionId)));
+        } catch (NoSuchJobExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the executions of the most recent mass indexing job instances, most recent first.
+     */
+    public List<MassIndexBatchExecutionDTO> findAll() {
+        JobOperator jobOperator = this.jobOperator.get();
+        List<MassIndexBatchExecutionDTO> executions = new ArrayList<>();
+        try {
+            for (JobInstance jobInstance : jobOperator.getJobInstances(MassIndexingJob.NAME, 0, MAX_LISTED_INSTANCES)) {
+                for (JobExecution jobExecution : jobOperator.getJobExecutions(jobInstance)) {
+                    executions.add(toDto(jobInstance, jobExecution));
+                }
+            }
+        } catch (NoSuchJobException e) {
+            // the job never ran
+        }
+        return executions;
+    }
+
+    private MassIndexBatchExecutionDTO toDto(JobOperator jobOperator, JobExecution jobExecution) {
+        return toDto(jobOperator.getJobInstance(jobExecution.getExecutionId()), jobExecution);
+    }
+
+    private MassIndexBatchExecutionDTO toDto(JobInstance jobInstance, JobExecution jobExecution) {
+        MassIndexBatchExecutionDTO dto = new MassIndexBatchExecutionDTO();
+        dto.setExecutionId(jobExecution.getExecutionId());
+        dto.setInstanceId(jobInstance.getInstanceId());
+        dto.setBatchStatus(jobExecution.getBatchStatus() == null ? null : jobExecution.getBatchStatus().name());
+        dto.setExitStatus(jobExecution.getExitStatus());
+        dto.setCreateTime(toInstant(jobExecution.getCreateTime()));
+        dto.setStartTime(toInstant(jobExecution.getStartTime()));
+        dto.setEndTime(toInstant(jobExecution.getEndTime()));
+        return dto;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
+}
@@ -0,0 +1,295 @@
+package com.sample.shop.service.impl;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sample.shop.service.dto.IndexFootprintDTO;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.time.StopWatch;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.GetAliasesResponse;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetMappingsRequest;
+import org.elasticsearch.client.indices.GetMappingsResponse;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Low level Elasticsearch index administration used by the mass indexing jobs.
+ * <p>
+ * Index names follow the Hibernate Search {@code simple} layout: a primary index named {@code <name>-000001}
+ * reachable through the {@code <name>-read} and {@code <name>-write} aliases.
+ */
+@Component
+public class ElasticsearchIndexAdmin {
+
+    private static final Pattern VERSIONED_INDEX_NAME = Pattern.compile("^(.+)-(\\d{6})$");
+
+    /**
+     * Settings computed by Elasticsearch at index creation which must not be copied to a new index.
+     */
+    private static final List<String> INTERNAL_SETTING_PREFIXES = List.of(
+        "index.uuid",
+        "index.creation_date",
+        "index.version.",
+        "index.provided_name",
+        "index.resize.",
+        "index.routing.allocation.initial_recovery"
+    );
+
+    /**
+     * Settings overridden while an index is bulk loaded.
+     */
+    static final Settings BULK_LOAD_SETTINGS = Settings
+        .builder()
+        .put("index.refresh_interval", "-1")
+        .put("index.number_of_replicas", 0)
+        .build();
+
+    private final Logger log = LoggerFactory.getLogger(ElasticsearchIndexAdmin.class);
+
+    private final RestHighLevelClient client;
+
+    public ElasticsearchIndexAdmin(RestHighLevelClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Resolve the single index an alias currently points to.
+     *
+     * @param alias the alias to resolve.
+     * @return the name of the index behind the alias.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public String indexBehindAlias(String alias) throws IOException {
+        GetAliasesResponse response = client.indices().getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT);
+        Set<String> indexes = response.getAliases().keySet();
+        if (indexes.size() != 1) {
+            throw new IllegalStateException("Alias " + alias + " must point to exactly one index but points to " + indexes);
+        }
+        return indexes.iterator().next();
+    }
+
+    /**
+     * Create the next version of an index, copying the settings and mappings of the current one.
+     *
+     * @param currentIndex the index to copy.
+     * @return the name of the created index.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public String createSuccessorIndex(String currentIndex) throws IOException {
+        String successor = nextIndexName(currentIndex);
+
+        GetSettingsResponse settingsResponse = client.indices().getSettings(new GetSettingsRequest().indices(currentIndex), RequestOptions.DEFAULT);
+        Settings settings = settingsResponse
+            .getIndexToSettings()
+            .get(currentIndex)
+            .filter(key -> INTERNAL_SETTING_PREFIXES.stream().noneMatch(key::startsWith));
+
+        GetMappingsResponse mappingsResponse = client.indices().getMapping(new GetMappingsRequest().indices(currentIndex), RequestOptions.DEFAULT);
+        MappingMetadata mapping = mappingsResponse.mappings().get(currentIndex);
+
+        CreateIndexRequest request = new CreateIndexRequest(successor).settings(settings);
+        if (mapping != null) {
+            request.mapping(mapping.sourceAsMap());
+        }
+        client.indices().create(request, RequestOptions.DEFAULT);
+        log.info("Created index {} as successor of {}", successor, currentIndex);
+        return successor;
+    }
+
+    /**
+     * Add an alias to an index.
+     *
+     * @param alias the alias.
+     * @param index the index.
+     * @param writeIndex whether the index is the write index of the alias.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public void addAlias(String alias, String index, boolean writeIndex) throws IOException {
+        IndicesAliasesRequest.AliasActions add = IndicesAliasesRequest.AliasActions.add().index(index).alias(alias);
+        if (writeIndex) {
+            add.writeIndex(true);
+        }
+        client.indices().updateAliases(new IndicesAliasesRequest().addAliasAction(add), RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Atomically move an alias from one index to another.
+     *
+     * @param alias the alias to move.
+     * @param fromIndex the index the alias currently points to.
+     * @param toIndex the index the alias should point to.
+     * @param writeIndex whether the target index is the write index of the alias.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public void moveAlias(String alias, String fromIndex, String toIndex, boolean writeIndex) throws IOException {
+        IndicesAliasesRequest.AliasActions add = IndicesAliasesRequest.AliasActions.add().index(toIndex).alias(alias);
+        if (writeIndex) {
+            add.writeIndex(true);
+        }
+        IndicesAliasesRequest request = new IndicesAliasesRequest()
+            .addAliasAction(IndicesAliasesRequest.AliasActions.remove().index(fromIndex).alias(alias))
+            .addAliasAction(add);
+        client.indices().updateAliases(request, RequestOptions.DEFAULT);
+        log.info("Moved alias {} from {} to {}", alias, fromIndex, toIndex);
+    }
+
+    /**
+     * Delete an index, and with it every alias pointing to it.
+     *
+     * @param index the index to delete.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public void deleteIndex(String index) throws IOException {
+        client.indices().delete(new DeleteIndexRequest(index), RequestOptions.DEFAULT);
+        log.info("Deleted index {}", index);
+    }
+
+    /**
+     * Disable refreshes and replicas on an index before bulk loading it.
+     *
+     * @param index the index to tune.
+     * @return the settings to restore once the bulk load is over.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public Settings applyBulkLoadSettings(String index) throws IOException {
+        GetSettingsRequest getRequest = new GetSettingsRequest()
+            .indices(index)
+            .names(BULK_LOAD_SETTINGS.keySet().toArray(String[]::new));
+        GetSettingsResponse response = client.indices().getSettings(getRequest, RequestOptions.DEFAULT);
+        Settings original = restorableSettings(response.getIndexToSettings().getOrDefault(index, Settings.EMPTY));
+        client.indices().putSettings(new UpdateSettingsRequest(index).settings(BULK_LOAD_SETTINGS), RequestOptions.DEFAULT);
+        log.info("Applied bulk load settings to index {}, original settings {}", index, original);
+        return original;
+    }
+
+    /**
+     * Put back settings saved by {@link #applyBulkLoadSettings(String)}.
+     *
+     * @param index the index to restore.
+     * @param original the saved settings.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public void restoreSettings(String index, Settings original) throws IOException {
+        client.indices().putSettings(new UpdateSettingsRequest(index).settings(original), RequestOptions.DEFAULT);
+        log.info("Restored settings {} of index {}", original, index);
+    }
+
+    /**
+     * Make every indexed document of an index visible to searches.
+     *
+     * @param index the index to refresh.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public void refresh(String index) throws IOException {
+        client.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Merge the segments of an index, waiting for the merge to complete.
+     *
+     * @param index the index to merge.
+     * @param maxNumSegments the number of segments to merge down to.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public void forceMerge(String index, int maxNumSegments) throws IOException {
+        StopWatch stopWatch = StopWatch.createStarted();
+        client.indices().forcemerge(new ForceMergeRequest(index).maxNumSegments(maxNumSegments), RequestOptions.DEFAULT);
+        log.info("Force merged index {} down to {} segments in {}", index, maxNumSegments, stopWatch.formatTime());
+    }
+
+    /**
+     * Read the document counts, the store size and the indexing and query statistics of the primary shards of an index.
+     *
+     * @param alias the alias of the index.
+     * @return the footprint of the index behind the alias.
+     * @throws IOException if Elasticsearch could not be reached.
+     */
+    public IndexFootprintDTO footprint(String alias) throws IOException {
+        IndexFootprintDTO footprint = footprint(performGet("/" + alias + "/_stats/docs,store,indexing,search"));
+        // _stats counts the hidden documents of the nested objects, _count only the root documents
+        footprint.setRootDocuments(performGet("/" + alias + "/_count").get("count").getAsLong());
+        return footprint;
+    }
+
+    private JsonObject performGet(String endpoint) throws IOException {
+        Response response = client.getLowLevelClient().performRequest(new Request("GET", endpoint));
+        return JsonParser.parseString(EntityUtils.toString(response.getEntity())).getAsJsonObject();
+    }
+
+    /**
+     * @param stats the response of the {@code _stats} API for a single index.
+     * @return the footprint of the index.
+     */
+    static IndexFootprintDTO footprint(JsonObject stats) {
+        JsonObject indices = stats.getAsJsonObject("indices");
+        if (indices.size() != 1) {
+            throw new IllegalStateException("Expected the statistics of exactly one index but got " + indices.keySet());
+        }
+        String index = indices.keySet().iterator().next();
+        JsonObject primaries = indices.getAsJsonObject(index).getAsJsonObject("primaries");
+        IndexFootprintDTO footprint = new IndexFootprintDTO();
+        footprint.setIndex(index);
+        footprint.setDocuments(primaries.getAsJsonObject("docs").get("count").getAsLong());
+        footprint.setStoreSizeInBytes(primaries.getAsJsonObject("store").get("size_in_bytes").getAsLong());
+        footprint.setIndexingTotal(primaries.getAsJsonObject("indexing").get("index_total").getAsLong());
+        footprint.setIndexingTimeInMillis(primaries.getAsJsonObject("indexing").get("index_time_in_millis").getAsLong());
+        footprint.setQueryTotal(primaries.getAsJsonObject("search").get("query_total").getAsLong());
+        footprint.setQueryTimeInMillis(primaries.getAsJsonObject("search").get("query_time_in_millis").getAsLong());
+        return footprint;
+    }
+
+    /**
+     * Build the settings restoring the bulk load settings to their original values. A setting not explicitly
+     * set on the index is reset to the Elasticsearch default.
+     *
+     * @param current the settings explicitly set on the index.
+     * @return the settings to restore.
+     */
+    static Settings restorableSettings(Settings current) {
+        Settings.Builder builder = Settings.builder();
+        for (String key : BULK_LOAD_SETTINGS.keySet()) {
+            String value = current.get(key);
+            if (value == null) {
+                builder.putNull(key);
+            } else {
+                builder.put(key, value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Compute the name of the next version of an index, e.g. {@code product-000002} after {@code product-000001}.
+     *
+     * @param currentIndex the current index name.
+     * @return the next index name.
+     */
+    static String nextIndexName(String currentIndex) {
+        Matcher matcher = VERSIONED_INDEX_NAME.matcher(currentIndex);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Index " + currentIndex + " does not follow the <name>-NNNNNN naming scheme");
+        }
+        int version = Integer.parseInt(matcher.group(2)) + 1;
+        return String.format("%s-%06d", matcher.group(1), version);
+    }
+}
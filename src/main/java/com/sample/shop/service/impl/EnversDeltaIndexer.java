@@ -0,0 +1,307 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.domain.SearchIndexCheckpoint;
+import com.sample.shop.repository.SearchIndexCheckpointRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.envers.AuditReader;
+import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.configuration.EnversSettings;
+import org.hibernate.envers.exception.RevisionDoesNotExistException;
+import org.hibernate.envers.query.AuditEntity;
+import org.hibernate.envers.query.AuditQuery;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.collection.QueryableCollection;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.Joinable;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reindexes the entities changed between two Envers revisions, relying on the audit tables.
+ * <p>
+ * Deleted entities are found thanks to {@code store_data_at_delete} and purged from the index. A change made to a
+ * many-to-many association from its owning side creates no revision of the entities on the other side, so those are
+ * looked up in the audited join tables, e.g. the products added to or removed from a category. The inverse side of a
+ * one-to-many association is not audited either: a change made only to an {@code Address} or a {@code WishList} leaves
+ * the {@code Customer} document as it is until the customer itself changes or a full mass indexing runs.
+ */
+@Component
+public class EnversDeltaIndexer {
+
+    static final String CHECKPOINT_NAME = "envers-delta";
+
+    private final Logger log = LoggerFactory.getLogger(EnversDeltaIndexer.class);
+
+    private final EntityManager entityManager;
+
+    private final SearchIndexCheckpointRepository checkpointRepository;
+
+    public EnversDeltaIndexer(EntityManager entityManager, SearchIndexCheckpointRepository checkpointRepository) {
+        this.entityManager = entityManager;
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    /**
+     * @return the latest Envers revision, 0 if there is none.
+     */
+    @Transactional(readOnly = true)
+    public int latestRevision() {
+        return revisionAt(Instant.now());
+    }
+
+    /**
+     * Revision numbers are assigned when a transaction writes its first audited entity, not when it commits: a revision
+     * created shortly before now may still be uncommitted while higher ones are visible. Keeping the checkpoint at the
+     * revisions created before a settle time lets the next delta indexing scan them again instead of skipping them.
+     *
+     * @param settleTime the time a revision is given to commit.
+     * @return the latest Envers revision created before the settle time, 0 if there is none.
+     */
+    @Transactional(readOnly = true)
+    public int latestSettledRevision(Duration settleTime) {
+        return revisionAt(Instant.now().minus(settleTime));
+    }
+
+    /**
+     * @param instant a point in time.
+     * @return the latest Envers revision committed at or before the given instant, 0 if there is none.
+     */
+    @Transactional(readOnly = true)
+    public int revisionAt(Instant instant) {
+        AuditReader auditReader = AuditReaderFactory.get(entityManager);
+        try {
+            return auditReader.getRevisionNumberForDate(Date.from(instant)).intValue();
+        } catch (RevisionDoesNotExistException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return the last revision reindexed by the delta indexing, 0 if it never ran.
+     */
+    @Transactional(readOnly = true)
+    public int lastIndexedRevision() {
+        return checkpointRepository.findById(CHECKPOINT_NAME).map(SearchIndexCheckpoint::getRevision).orElse(0);
+    }
+
+    @Transactional
+    public void advanceCheckpoint(int revision) {
+        SearchIndexCheckpoint checkpoint = checkpointRepository
+            .findById(CHECKPOINT_NAME)
+            .orElseGet(() -> new SearchIndexCheckpoint().name(CHECKPOINT_NAME).revision(0));
+        if (revision > checkpoint.getRevision()) {
+            checkpointRepository.save(checkpoint.revision(revision).updatedDate(Instant.now()));
+        }
+    }
+
+    /**
+     * Reindex the next chunk of the entities of one type changed in the revisions {@code (fromRevision, toRevision]}, in
+     * a transaction of its own. The changed ids are read in id order, one chunk at a time, so that a large backlog
+     * neither fills the memory nor runs in a single long transaction.
+     *
+     * @param job the job reporting the progress.
+     * @param entityName the Hibernate Search name of the entity type.
+     * @param entityType the entity type.
+     * @param fromRevision the exclusive lower revision bound.
+     * @param toRevision the inclusive upper revision bound.
+     * @param afterId the exclusive lower id bound of the chunk, {@code null} for the first chunk.
+     * @param batchSize the number of entities loaded and indexed per chunk.
+     * @return the id of the last entity of the chunk, to pass to the next call, or {@code null} if no entity is left.
+     */
+    @Transactional
+    public Object reindexChanges(
+        MassIndexJob job,
+        String entityName,
+        Class<?> entityType,
+        int fromRevision,
+        int toRevision,
+        Object afterId,
+        int batchSize
+    ) {
+        checkNotCancelled(job);
+        AuditQuery changedIdsQuery = AuditReaderFactory
+            .get(entityManager)
+            .createQuery()
+            .forRevisionsOfEntity(entityType, false, true)
+            .addProjection(AuditEntity.id().distinct())
+            .add(AuditEntity.revisionNumber().gt(fromRevision))
+            .add(AuditEntity.revisionNumber().le(toRevision))
+            .addOrder(AuditEntity.id().asc())
+            .setMaxResults(batchSize);
+        if (afterId != null) {
+            changedIdsQuery.add(AuditEntity.id().gt(afterId));
+        }
+        List<?> changedIds = changedIdsQuery.getResultList();
+        log.debug("{} {} changed in revisions {} to {} after id {}", changedIds.size(), entityName, fromRevision + 1, toRevision, afterId);
+        return reindex(job.monitor(entityName), entityType, changedIds, batchSize);
+    }
+
+    /**
+     * Reindex the next chunk of the entities of one type added to or removed from a many-to-many association owned by
+     * another entity in the revisions {@code (fromRevision, toRevision]}, in a transaction of its own. These changes
+     * create a revision of the owning entity only, so {@link #reindexChanges} does not see them.
+     *
+     * @param job the job reporting the progress.
+     * @param entityName the Hibernate Search name of the entity type.
+     * @param entityType the entity type.
+     * @param fromRevision the exclusive lower revision bound.
+     * @param toRevision the inclusive upper revision bound.
+     * @param afterId the exclusive lower id bound of the chunk, {@code null} for the first chunk.
+     * @param batchSize the number of entities loaded and indexed per chunk.
+     * @return the id of the last entity of the chunk, to pass to the next call, or {@code null} if no entity is left.
+     */
+    @Transactional
+    public Object reindexAssociationChanges(
+        MassIndexJob job,
+        String entityName,
+        Class<?> entityType,
+        int fromRevision,
+        int toRevision,
+        Object afterId,
+        int batchSize
+    ) {
+        checkNotCancelled(job);
+        List<AuditedJoinTable> joinTables = auditedJoinTables(entityType);
+        if (joinTables.isEmpty()) {
+            return null;
+        }
+        String revisionColumn = String.valueOf(
+            entityManager.getEntityManagerFactory().getProperties().getOrDefault(EnversSettings.REVISION_FIELD_NAME, "REV")
+        );
+        String changes = joinTables
+            .stream()
+            .map(joinTable ->
+                "select " +
+                joinTable.elementColumn() +
+                " as id from " +
+                joinTable.table() +
+                " where " +
+                revisionColumn +
+                " > :fromRevision and " +
+                revisionColumn +
+                " <= :toRevision"
+            )
+            .collect(Collectors.joining(" union all "));
+        String sql =
+            "select distinct changed.id as id from (" +
+            changes +
+            ") changed" +
+            (afterId != null ? " where changed.id > :afterId" : "") +
+            " order by changed.id";
+        Type identifierType = entityPersister(entityType).getIdentifierType();
+        NativeQuery<?> changedIdsQuery = entityManager
+            .createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addScalar("id", identifierType)
+            .setParameter("fromRevision", fromRevision)
+            .setParameter("toRevision", toRevision)
+            .setMaxResults(batchSize);
+        if (afterId != null) {
+            changedIdsQuery.setParameter("afterId", afterId, identifierType);
+        }
+        List<?> changedIds = changedIdsQuery.getResultList();
+        log.debug(
+            "{} {} with changed associations in revisions {} to {} after id {}",
+            changedIds.size(),
+            entityName,
+            fromRevision + 1,
+            toRevision,
+            afterId
+        );
+        return reindex(job.monitor(entityName), entityType, changedIds, batchSize);
+    }
+
+    private void checkNotCancelled(MassIndexJob job) {
+        if (job.isCancelled()) {
+            throw new CancellationException("Delta indexing job " + job.getId() + " was cancelled");
+        }
+    }
+
+    private Object reindex(MicrometerMassIndexingMonitor monitor, Class<?> entityType, List<?> changedIds, int batchSize) {
+        if (changedIds.isEmpty()) {
+            return null;
+        }
+        monitor.addToTotalCount(changedIds.size());
+        String jpaEntityName = entityManager.getMetamodel().entity(entityType).getName();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, Object> existing = new HashMap<>();
+        entityManager
+            .createQuery("select e from " + jpaEntityName + " e where e.id in :ids", entityType)
+            .setParameter("ids", changedIds)
+            .getResultList()
+            .forEach(entity -> existing.put(persistenceUnitUtil.getIdentifier(entity), entity));
+        monitor.entitiesLoaded(existing.size());
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        for (Object id : changedIds) {
+            Object entity = existing.get(id);
+            if (entity != null) {
+                indexingPlan.addOrUpdate(entity);
+            } else {
+                indexingPlan.purge(entityType, id, null);
+            }
+        }
+        indexingPlan.execute();
+        entityManager.clear();
+        monitor.documentsAdded(changedIds.size());
+        return changedIds.size() < batchSize ? null : changedIds.get(changedIds.size() - 1);
+    }
+
+    /**
+     * The audit tables of the many-to-many join tables owned by another entity and holding the given entity type, found
+     * from the Envers audit entities mapped next to the collections.
+     */
+    private List<AuditedJoinTable> auditedJoinTables(Class<?> entityType) {
+        MetamodelImplementor metamodel = sessionFactory().getMetamodel();
+        String entityName = entityPersister(entityType).getEntityName();
+        Map<String, Object> properties = entityManager.getEntityManagerFactory().getProperties();
+        String prefix = String.valueOf(properties.getOrDefault(EnversSettings.AUDIT_TABLE_PREFIX, ""));
+        String suffix = String.valueOf(properties.getOrDefault(EnversSettings.AUDIT_TABLE_SUFFIX, "_AUD"));
+        List<AuditedJoinTable> joinTables = new ArrayList<>();
+        for (CollectionPersister collection : metamodel.collectionPersisters().values()) {
+            if (
+                !collection.isManyToMany() ||
+                collection.isInverse() ||
+                !(collection instanceof QueryableCollection queryable) ||
+                !(collection.getElementType() instanceof EntityType elementType) ||
+                !entityName.equals(elementType.getAssociatedEntityName())
+            ) {
+                continue;
+            }
+            // Envers names the audit entity of a join table after it; there is none when the collection is not audited
+            EntityPersister audit = metamodel.entityPersisters().get(prefix + queryable.getTableName() + suffix);
+            if (audit instanceof Joinable auditTable) {
+                joinTables.add(new AuditedJoinTable(auditTable.getTableName(), queryable.getElementColumnNames()[0]));
+            }
+        }
+        return joinTables;
+    }
+
+    private EntityPersister entityPersister(Class<?> entityType) {
+        return sessionFactory().getMetamodel().entityPersister(entityType);
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+    }
+
+    private record AuditedJoinTable(String table, String elementColumn) {}
+}
@@ -0,0 +1,206 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.service.dto.IndexConsistencyEntityDTO;
+import com.sample.shop.service.dto.IndexConsistencyReportDTO;
+import com.sample.shop.service.dto.MassIndexJobDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * A running or finished verification of the indexes against the database.
+ */
+public class IndexConsistencyCheck {
+
+    /**
+     * Number of differing ids listed per kind of difference and entity type.
+     */
+    static final int MAX_SAMPLE_IDS = 20;
+
+    private final UUID id = UUID.randomUUID();
+
+    private final Instant startTime = Instant.now();
+
+    private final boolean compareContent;
+
+    private final boolean repair;
+
+    private final Map<String, EntityCheck> entities = new LinkedHashMap<>();
+
+    private volatile MassIndexJobDTO.Status status = MassIndexJobDTO.Status.RUNNING;
+
+    private volatile Instant endTime;
+
+    IndexConsistencyCheck(boolean compareContent, boolean repair, List<String> entityNames) {
+        this.compareContent = compareContent;
+        this.repair = repair;
+        entityNames.forEach(entityName -> entities.put(entityName, new EntityCheck(entityName)));
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public MassIndexJobDTO.Status getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return status == MassIndexJobDTO.Status.RUNNING;
+    }
+
+    public boolean isCancelled() {
+        return status == MassIndexJobDTO.Status.CANCELLED;
+    }
+
+    public boolean isCompareContent() {
+        return compareContent;
+    }
+
+    public boolean isRepair() {
+        return repair;
+    }
+
+    public EntityCheck entity(String entityName) {
+        return entities.get(entityName);
+    }
+
+    /**
+     * Cancel the check, which stops before reading the next chunk.
+     *
+     * @return {@code false} if the check was already finished.
+     */
+    public synchronized boolean cancel() {
+        if (!isRunning()) {
+            return false;
+        }
+        status = MassIndexJobDTO.Status.CANCELLED;
+        endTime = Instant.now();
+        return true;
+    }
+
+    public synchronized void complete(Throwable throwable) {
+        if (!isRunning()) {
+            return;
+        }
+        status = throwable == null ? MassIndexJobDTO.Status.SUCCEEDED : MassIndexJobDTO.Status.FAILED;
+        endTime = Instant.now();
+    }
+
+    public IndexConsistencyReportDTO toDto() {
+        IndexConsistencyReportDTO dto = new IndexConsistencyReportDTO();
+        dto.setId(id);
+        dto.setStatus(status);
+        dto.setCompareContent(compareContent);
+        dto.setRepair(repair);
+        dto.setStartTime(startTime);
+        dto.setEndTime(endTime);
+        dto.setEntities(entities.values().stream().map(EntityCheck::toDto).collect(Collectors.toList()));
+        return dto;
+    }
+
+    /**
+     * The differences found for one entity type.
+     */
+    public static class EntityCheck {
+
+        private final String entityName;
+
+        private final AtomicLong checked = new AtomicLong();
+
+        private final AtomicLong missing = new AtomicLong();
+
+        private final AtomicLong extra = new AtomicLong();
+
+        private final AtomicLong stale = new AtomicLong();
+
+        private final AtomicLong repaired = new AtomicLong();
+
+        private final List<String> missingIds = new ArrayList<>();
+
+        private final List<String> extraIds = new ArrayList<>();
+
+        private final List<String> staleIds = new ArrayList<>();
+
+        private volatile boolean completed;
+
+        EntityCheck(String entityName) {
+            this.entityName = entityName;
+        }
+
+        public void matched() {
+            checked.incrementAndGet();
+        }
+
+        public void missing(Object documentId) {
+            checked.incrementAndGet();
+            missing.incrementAndGet();
+            sample(missingIds, documentId);
+        }
+
+        public void extra(Object documentId) {
+            extra.incrementAndGet();
+            sample(extraIds, documentId);
+        }
+
+        public void stale(Object documentId) {
+            checked.incrementAndGet();
+            stale.incrementAndGet();
+            sample(staleIds, documentId);
+        }
+
+        public void repaired(int count) {
+            repaired.addAndGet(count);
+        }
+
+        public void completed() {
+            completed = true;
+        }
+
+        public long getMissing() {
+            return missing.get();
+        }
+
+        public long getExtra() {
+            return extra.get();
+        }
+
+        public long getStale() {
+            return stale.get();
+        }
+
+        private static void sample(List<String> ids, Object documentId) {
+            synchronized (ids) {
+                if (ids.size() < MAX_SAMPLE_IDS) {
+                    ids.add(String.valueOf(documentId));
+                }
+            }
+        }
+
+        private static List<String> copy(List<String> ids) {
+            synchronized (ids) {
+                return new ArrayList<>(ids);
+            }
+        }
+
+        IndexConsistencyEntityDTO toDto() {
+            IndexConsistencyEntityDTO dto = new IndexConsistencyEntityDTO();
+            dto.setEntity(entityName);
+            dto.setChecked(checked.get());
+            dto.setMissing(missing.get());
+            dto.setExtra(extra.get());
+            dto.setStale(stale.get());
+            dto.setRepaired(repaired.get());
+            dto.setCompleted(completed);
+            dto.setMissingIds(copy(missingIds));
+            dto.setExtraIds(copy(extraIds));
+            dto.setStaleIds(copy(staleIds));
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.sample.shop.service.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Merge-join of two id-ordered streams of documents, one read from the database and one read from the index.
+ * <p>
+ * Both streams are read chunk by chunk, so that only one chunk per side is held in memory.
+ */
+final class IndexConsistencyComparator {
+
+    /**
+     * The state of one document: its id and the values of its compared fields.
+     */
+    record DocumentState(Object id, List<Object> values) {
+        /**
+         * Ids are ordered by their string form on both sides, as UUIDs are stored as {@code uuid-char}
+         * in the database and as keywords in the index.
+         */
+        String sortKey() {
+            return String.valueOf(id);
+        }
+    }
+
+    interface Listener {
+        void matched(DocumentState document);
+
+        /**
+         * @param document a document of the database with no counterpart in the index.
+         */
+        void missing(DocumentState document);
+
+        /**
+         * @param document a document of the index with no counterpart in the database.
+         */
+        void extra(DocumentState document);
+
+        /**
+         * @param document a document of the database whose indexed values differ.
+         */
+        void stale(DocumentState document);
+    }
+
+    private IndexConsistencyComparator() {}
+
+    static void compare(Iterator<DocumentState> database, Iterator<DocumentState> index, boolean compareContent, Listener listener) {
+        DocumentState databaseDocument = next(database);
+        DocumentState indexDocument = next(index);
+        while (databaseDocument != null || indexDocument != null) {
+            int order;
+            if (databaseDocument == null) {
+                order = 1;
+            } else if (indexDocument == null) {
+                order = -1;
+            } else {
+                order = databaseDocument.sortKey().compareTo(indexDocument.sortKey());
+            }
+            if (order < 0) {
+                listener.missing(databaseDocument);
+                databaseDocument = next(database);
+            } else if (order > 0) {
+                listener.extra(indexDocument);
+                indexDocument = next(index);
+            } else {
+                if (compareContent && !Objects.equals(databaseDocument.values(), indexDocument.values())) {
+                    listener.stale(databaseDocument);
+                } else {
+                    listener.matched(databaseDocument);
+                }
+                databaseDocument = next(database);
+                indexDocument = next(index);
+            }
+        }
+    }
+
+    /**
+     * @param nextChunk the function returning the documents following the given id, in id order, or the first
+     * documents when given {@code null}; an empty chunk ends the iteration.
+     * @return an iterator over every document, fetching one chunk at a time.
+     */
+    static Iterator<DocumentState> chunked(Function<Object, List<DocumentState>> nextChunk) {
+        return new Iterator<>() {
+            private List<DocumentState> chunk;
+
+            private int position;
+
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (exhausted) {
+                    return false;
+                }
+                if (chunk == null || position == chunk.size()) {
+                    Object lastId = chunk == null ? null : chunk.get(chunk.size() - 1).id();
+                    chunk = nextChunk.apply(lastId);
+                    position = 0;
+                    exhausted = chunk.isEmpty();
+                }
+                return !exhausted;
+            }
+
+            @Override
+            public DocumentState next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+    }
+
+    private static DocumentState next(Iterator<DocumentState> documents) {
+        return documents.hasNext() ? documents.next() : null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.service.impl.IndexConsistencyComparator.DocumentState;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import org.hibernate.search.engine.backend.metamodel.IndexFieldDescriptor;
+import org.hibernate.search.engine.search.projection.SearchProjection;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the indexed entities chunk by chunk, in id order, from the database and from the index,
+ * and repairs the differences found by the index verification.
+ */
+@Component
+public class IndexConsistencyReader {
+
+    /**
+     * The sortable keyword field every indexed entity maps its id to.
+     */
+    static final String ID_FIELD = "id";
+
+    private final EntityManager entityManager;
+
+    public IndexConsistencyReader(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @param indexedEntity the indexed entity.
+     * @return the single valued, projectable fields of the document root, whose values are compared.
+     */
+    public List<String> comparedFields(SearchIndexedEntity<?> indexedEntity) {
+        return indexedEntity
+            .indexManager()
+            .descriptor()
+            .staticFields()
+            .stream()
+            .filter(IndexFieldDescriptor::isValueField)
+            .filter(field -> field.parent().isRoot())
+            .filter(field -> !field.multiValued())
+            .filter(field -> field.toValueField().type().projectable())
+            .map(IndexFieldDescriptor::absolutePath)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DocumentState> databaseChunk(Class<?> entityType, List<String> fields, Object afterId, int chunkSize) {
+        String jpaEntityName = entityManager.getMetamodel().entity(entityType).getName();
+        TypedQuery<?> query = afterId == null
+            ? entityManager.createQuery("select e from " + jpaEntityName + " e order by e.id", entityType)
+            : entityManager
+                .createQuery("select e from " + jpaEntityName + " e where e.id > :afterId order by e.id", entityType)
+                .setParameter("afterId", afterId);
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<DocumentState> chunk = new ArrayList<>();
+        for (Object entity : query.setMaxResults(chunkSize).getResultList()) {
+            BeanWrapper properties = new BeanWrapperImpl(entity);
+            List<Object> values = new ArrayList<>(fields.size());
+            for (String field : fields) {
+                values.add(properties.isReadableProperty(field) ? properties.getPropertyValue(field) : null);
+            }
+            chunk.add(new DocumentState(persistenceUnitUtil.getIdentifier(entity), values));
+        }
+        entityManager.clear();
+        return chunk;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DocumentState> indexChunk(Class<?> entityType, List<String> fields, Object afterId, int chunkSize) {
+        List<List<?>> hits = Search
+            .session(entityManager)
+            .search(entityType)
+            .select(f ->
+                f
+                    .composite()
+                    .from(
+                        Stream
+                            .concat(Stream.of(f.id().toProjection()), fields.stream().map(field -> f.field(field).toProjection()))
+                            .toArray(SearchProjection<?>[]::new)
+                    )
+                    .asList()
+            )
+            .where(f -> afterId == null ? f.matchAll().toPredicate() : f.range().field(ID_FIELD).greaterThan(afterId).toPredicate())
+            .sort(f -> f.field(ID_FIELD))
+            .fetchHits(chunkSize);
+        List<DocumentState> chunk = new ArrayList<>(hits.size());
+        for (List<?> hit : hits) {
+            chunk.add(new DocumentState(hit.get(0), new ArrayList<>(hit.subList(1, hit.size()))));
+        }
+        return chunk;
+    }
+
+    /**
+     * Reindex the documents of entities that still exist and purge the documents of the others.
+     *
+     * @param entityType the entity type.
+     * @param reindexIds the ids of the entities to reindex.
+     * @param purgeIds the ids of the documents to purge.
+     * @return the number of repaired documents.
+     */
+    @Transactional
+    public int repair(Class<?> entityType, Collection<Object> reindexIds, Collection<Object> purgeIds) {
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        int repaired = 0;
+        if (!reindexIds.isEmpty()) {
+            String jpaEntityName = entityManager.getMetamodel().entity(entityType).getName();
+            List<?> entities = entityManager
+                .createQuery("select e from " + jpaEntityName + " e where e.id in :ids", entityType)
+                .setParameter("ids", reindexIds)
+                .getResultList();
+            entities.forEach(indexingPlan::addOrUpdate);
+            repaired += entities.size();
+        }
+        for (Object id : purgeIds) {
+            indexingPlan.purge(entityType, id, null);
+        }
+        repaired += purgeIds.size();
+        indexingPlan.execute();
+        entityManager.clear();
+        return repaired;
+    }
+}
@@ -0,0 +1,281 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.IndexConsistencyService;
+import com.sample.shop.service.MassIndexJobRunningException;
+import com.sample.shop.service.dto.IndexConsistencyReportDTO;
+import com.sample.shop.service.impl.IndexConsistencyComparator.DocumentState;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.time.StopWatch;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service Implementation verifying the indexes against the database.
+ * <p>
+ * Each entity type is read in id order from both sides, one chunk at a time, and the two streams are merge-joined,
+ * so that memory stays bounded whatever the size of the tables. Repairs are applied in chunks as differences are found.
+ * <p>
+ * Checks are started through the {@link MassIndexJobRegistry}, so that they never overlap each other or a mass
+ * indexing job.
+ */
+@Service
+public class IndexConsistencyServiceImpl implements IndexConsistencyService {
+
+    private static final int MAX_FINISHED_CHECKS = 20;
+
+    private final Logger log = LoggerFactory.getLogger(IndexConsistencyServiceImpl.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final IndexConsistencyReader reader;
+
+    private final MassIndexJobRegistry jobRegistry;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Executor taskExecutor;
+
+    private final Map<UUID, IndexConsistencyCheck> checks = new LinkedHashMap<>();
+
+    public IndexConsistencyServiceImpl(
+        EntityManagerFactory entityManagerFactory,
+        IndexConsistencyReader reader,
+        MassIndexJobRegistry jobRegistry,
+        ApplicationProperties applicationProperties,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.reader = reader;
+        this.jobRegistry = jobRegistry;
+        this.applicationProperties = applicationProperties;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public IndexConsistencyReportDTO verify(List<String> entities, boolean compareContent, boolean repair) {
+        ApplicationProperties.MassIndexing.Verify settings = applicationProperties.getMassIndexing().getVerify();
+        List<SearchIndexedEntity<?>> indexedEntities = IndexedEntities.resolve(entityManagerFactory, entities);
+        List<String> entityNames = indexedEntities.stream().map(SearchIndexedEntity::name).collect(Collectors.toList());
+        IndexConsistencyCheck check = jobRegistry.startExclusive(
+            () -> register(new IndexConsistencyCheck(compareContent, repair, entityNames)),
+            IndexConsistencyCheck::isRunning
+        );
+        StopWatch stopWatch = StopWatch.createStarted();
+        CompletableFuture
+            .runAsync(
+                () -> {
+                    for (SearchIndexedEntity<?> indexedEntity : indexedEntities) {
+                        verify(check, indexedEntity, settings.getChunkSize(), settings.getThrottle());
+                    }
+                },
+                taskExecutor
+            )
+            .whenComplete((result, throwable) -> {
+                check.complete(throwable);
+                stopWatch.stop();
+                if (throwable == null) {
+                    log.info(
+                        "Index verification {} succeeded! in {}: {}",
+                        check.getId(),
+                        stopWatch.formatTime(),
+                        check.toDto().getEntities()
+                    );
+                } else {
+                    log.error(
+                        "Index verification {} ended with status {} in {}",
+                        check.getId(),
+                        check.getStatus(),
+                        stopWatch.formatTime(),
+                        throwable
+                    );
+                }
+            });
+        return check.toDto();
+    }
+
+    /**
+     * Verify the indexes following {@code application.mass-indexing.verify.cron}.
+     */
+    @Scheduled(cron = "${application.mass-indexing.verify.cron:-}")
+    public void scheduledVerify() {
+        ApplicationProperties.MassIndexing.Verify settings = applicationProperties.getMassIndexing().getVerify();
+        try {
+            verify(List.of(), settings.isCompareContent(), settings.isRepair());
+        } catch (MassIndexJobRunningException e) {
+            log.info("Skipping scheduled index verification, a mass indexing job or a verification is running");
+        }
+    }
+
+    @Override
+    public Optional<IndexConsistencyReportDTO> findReport(UUID id) {
+        synchronized (checks) {
+            return Optional.ofNullable(checks.get(id)).map(IndexConsistencyCheck::toDto);
+        }
+    }
+
+    @Override
+    public List<IndexConsistencyReportDTO> findAllReports() {
+        synchronized (checks) {
+            return checks.values().stream().map(IndexConsistencyCheck::toDto).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Optional<IndexConsistencyReportDTO> cancel(UUID id) {
+        synchronized (checks) {
+            return Optional
+                .ofNullable(checks.get(id))
+                .map(check -> {
+                    if (check.cancel()) {
+                        log.info("Index verification {} cancelled", id);
+                    }
+                    return check.toDto();
+                });
+        }
+    }
+
+    private IndexConsistencyCheck register(IndexConsistencyCheck check) {
+        synchronized (checks) {
+            checks.put(check.getId(), check);
+            List<UUID> finished = checks
+                .values()
+                .stream()
+                .filter(finishedCheck -> !finishedCheck.isRunning())
+                .map(IndexConsistencyCheck::getId)
+                .collect(Collectors.toList());
+            for (int i = 0; i < finished.size() - MAX_FINISHED_CHECKS; i++) {
+                checks.remove(finished.get(i));
+            }
+            return check;
+        }
+    }
+
+    private void verify(IndexConsistencyCheck check, SearchIndexedEntity<?> indexedEntity, int chunkSize, Duration throttle) {
+        Class<?> entityType = indexedEntity.javaClass();
+        List<String> fields = check.isCompareContent() ? reader.comparedFields(indexedEntity) : List.of();
+        Iterator<DocumentState> database = IndexConsistencyComparator.chunked(afterId -> {
+            pause(check, throttle);
+            return reader.databaseChunk(entityType, fields, afterId, chunkSize);
+        });
+        Iterator<DocumentState> index = IndexConsistencyComparator.chunked(afterId ->
+            reader.indexChunk(entityType, fields, afterId, chunkSize)
+        );
+        Repairer repairer = new Repairer(check.entity(indexedEntity.name()), entityType, check.isRepair(), chunkSize);
+        IndexConsistencyComparator.compare(database, index, check.isCompareContent(), repairer);
+        repairer.flush();
+        IndexConsistencyCheck.EntityCheck entityCheck = check.entity(indexedEntity.name());
+        entityCheck.completed();
+        log.debug(
+            "Verified index of {}: {} missing, {} extra, {} stale",
+            indexedEntity.name(),
+            entityCheck.getMissing(),
+            entityCheck.getExtra(),
+            entityCheck.getStale()
+        );
+    }
+
+    private static void pause(IndexConsistencyCheck check, Duration throttle) {
+        if (check.isCancelled()) {
+            throw new CancellationException("Index verification " + check.getId() + " was cancelled");
+        }
+        if (throttle.isZero() || throttle.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(throttle.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Index verification " + check.getId() + " was interrupted");
+        }
+    }
+
+    /**
+     * Records the differences of one entity type and, when repairing, fixes them one chunk at a time.
+     */
+    private class Repairer implements IndexConsistencyComparator.Listener {
+
+        private final IndexConsistencyCheck.EntityCheck entityCheck;
+
+        private final Class<?> entityType;
+
+        private final boolean repair;
+
+        private final int chunkSize;
+
+        private final List<Object> reindexIds = new ArrayList<>();
+
+        private final List<Object> purgeIds = new ArrayList<>();
+
+        Repairer(IndexConsistencyCheck.EntityCheck entityCheck, Class<?> entityType, boolean repair, int chunkSize) {
+            this.entityCheck = entityCheck;
+            this.entityType = entityType;
+            this.repair = repair;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public void matched(DocumentState document) {
+            entityCheck.matched();
+        }
+
+        @Override
+        public void missing(DocumentState document) {
+            entityCheck.missing(document.id());
+            reindex(document);
+        }
+
+        @Override
+        public void extra(DocumentState document) {
+            entityCheck.extra(document.id());
+            if (repair) {
+                purgeIds.add(document.id());
+                flushIfFull();
+            }
+        }
+
+        @Override
+        public void stale(DocumentState document) {
+            entityCheck.stale(document.id());
+            reindex(document);
+        }
+
+        private void reindex(DocumentState document) {
+            if (repair) {
+                reindexIds.add(document.id());
+                flushIfFull();
+            }
+        }
+
+        private void flushIfFull() {
+            if (reindexIds.size() + purgeIds.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (reindexIds.isEmpty() && purgeIds.isEmpty()) {
+                return;
+            }
+            entityCheck.repaired(reader.repair(entityType, reindexIds, purgeIds));
+            reindexIds.clear();
+            purgeIds.clear();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.sample.shop.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+
+/**
+ * Resolution of the indexed entity types targeted by an indexing or verification job.
+ */
+final class IndexedEntities {
+
+    private IndexedEntities() {}
+
+    /**
+     * @param entityManagerFactory the entity manager factory.
+     * @param entityNames the entity names, case insensitive.
+     * @return the indexed entities with the given names, every indexed entity if no name is given.
+     * @throws IllegalArgumentException if a name is not the name of an indexed entity.
+     */
+    static List<SearchIndexedEntity<?>> resolve(EntityManagerFactory entityManagerFactory, List<String> entityNames) {
+        Collection<? extends SearchIndexedEntity<?>> allIndexedEntities = Search.mapping(entityManagerFactory).allIndexedEntities();
+        if (entityNames == null || entityNames.isEmpty()) {
+            return new ArrayList<>(allIndexedEntities);
+        }
+        List<SearchIndexedEntity<?>> indexedEntities = new ArrayList<>();
+        for (String entityName : entityNames) {
+            indexedEntities.add(
+                allIndexedEntities
+                    .stream()
+                    .filter(indexedEntity -> indexedEntity.name().equalsIgnoreCase(entityName))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown indexed entity " + entityName))
+            );
+        }
+        return indexedEntities;
+    }
+}
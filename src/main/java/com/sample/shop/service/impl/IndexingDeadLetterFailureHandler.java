@@ -0,0 +1,57 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.service.SearchIndexingDeadLetters;
+import org.hibernate.search.engine.reporting.EntityIndexingFailureContext;
+import org.hibernate.search.engine.reporting.FailureContext;
+import org.hibernate.search.engine.reporting.FailureHandler;
+import org.hibernate.search.mapper.orm.common.EntityReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Hibernate Search failure handler recording the entities whose indexing failed in the {@link SearchIndexingDeadLetters},
+ * on top of logging the failures as errors, as the default handler does.
+ * <p>
+ * Hibernate Search creates this handler through the Spring bean container while the entity manager factory starts,
+ * so the dead-letter queue, which needs the entity manager factory, is looked up on the first failure only. Created
+ * reflectively, the handler only logs.
+ */
+public class IndexingDeadLetterFailureHandler implements FailureHandler {
+
+    private final Logger log = LoggerFactory.getLogger(IndexingDeadLetterFailureHandler.class);
+
+    private final ObjectProvider<SearchIndexingDeadLetters> deadLetters;
+
+    public IndexingDeadLetterFailureHandler() {
+        this(null);
+    }
+
+    public IndexingDeadLetterFailureHandler(ObjectProvider<SearchIndexingDeadLetters> deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    @Override
+    public void handle(FailureContext context) {
+        log.error("{} failed", context.failingOperation(), context.throwable());
+    }
+
+    @Override
+    public void handle(EntityIndexingFailureContext context) {
+        log.error("{} failed for {}", context.failingOperation(), context.entityReferences(), context.throwable());
+        SearchIndexingDeadLetters queue = deadLetters == null ? null : deadLetters.getIfAvailable();
+        if (queue == null) {
+            return;
+        }
+        for (Object entityReference : context.entityReferences()) {
+            if (!(entityReference instanceof EntityReference reference)) {
+                continue;
+            }
+            try {
+                queue.record(reference.name(), reference.id(), context.throwable());
+            } catch (RuntimeException e) {
+                log.error("Could not record the indexing failure of {}, it stays stale until the next mass indexing", reference, e);
+            }
+        }
+    }
+}
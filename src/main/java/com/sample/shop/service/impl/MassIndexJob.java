@@ -0,0 +1,108 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.service.dto.MassIndexJobDTO;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A running or finished mass indexing job, made of one {@link MicrometerMassIndexingMonitor} per entity type.
+ */
+public class MassIndexJob {
+
+    private final UUID id = UUID.randomUUID();
+
+    private final Instant startTime = Instant.now();
+
+    private final String profile;
+
+    private final Map<String, MicrometerMassIndexingMonitor> monitors = new LinkedHashMap<>();
+
+    private volatile MassIndexJobDTO.Status status = MassIndexJobDTO.Status.RUNNING;
+
+    private volatile Instant endTime;
+
+    private final Set<CompletableFuture<?>> runningExecutions = ConcurrentHashMap.newKeySet();
+
+    MassIndexJob(String profile, Iterable<MicrometerMassIndexingMonitor> monitors) {
+        this.profile = profile;
+        monitors.forEach(monitor -> this.monitors.put(monitor.getEntityName(), monitor));
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public MassIndexJobDTO.Status getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return status == MassIndexJobDTO.Status.RUNNING;
+    }
+
+    public boolean isCancelled() {
+        return status == MassIndexJobDTO.Status.CANCELLED;
+    }
+
+    public MicrometerMassIndexingMonitor monitor(String entityName) {
+        return monitors.get(entityName);
+    }
+
+    /**
+     * Register a mass indexer running for this job, so that it can be cancelled.
+     *
+     * @param execution the future returned by the mass indexer.
+     */
+    public synchronized void track(CompletableFuture<?> execution) {
+        if (isCancelled()) {
+            execution.cancel(true);
+            return;
+        }
+        runningExecutions.add(execution);
+        execution.whenComplete((result, throwable) -> runningExecutions.remove(execution));
+    }
+
+    /**
+     * Cancel the job, interrupting the running mass indexer.
+     *
+     * @return {@code false} if the job was already finished.
+     */
+    public synchronized boolean cancel() {
+        if (!isRunning()) {
+            return false;
+        }
+        status = MassIndexJobDTO.Status.CANCELLED;
+        endTime = Instant.now();
+        runningExecutions.forEach(execution -> execution.cancel(true));
+        return true;
+    }
+
+    /**
+     * Record the outcome of the job, unless it has been cancelled meanwhile.
+     *
+     * @param failure the failure, or {@code null} on success.
+     */
+    public synchronized void complete(Throwable failure) {
+        if (isRunning()) {
+            status = failure == null ? MassIndexJobDTO.Status.SUCCEEDED : MassIndexJobDTO.Status.FAILED;
+            endTime = Instant.now();
+        }
+    }
+
+    public MassIndexJobDTO toDto() {
+        MassIndexJobDTO job = new MassIndexJobDTO();
+        job.setId(id);
+        job.setProfile(profile);
+        job.setStatus(status);
+        job.setStartTime(startTime);
+        job.setEndTime(endTime);
+        job.setEntities(monitors.values().stream().map(MicrometerMassIndexingMonitor::toDto).collect(Collectors.toList()));
+        return job;
+    }
+}
@@ -0,0 +1,154 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.service.MassIndexJobRunningException;
+import com.sample.shop.service.dto.MassIndexProgressDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory registry of the mass indexing jobs started on this node.
+ * <p>
+ * The other activities rewriting whole indexes, such as the executions of the checkpointed batch job, are started
+ * through {@link #startExclusive(Supplier, Predicate)}: at most one job or such activity runs at a time.
+ * <p>
+ * The progress of the latest job is also exposed as gauges tagged by entity type.
+ */
+@Component
+public class MassIndexJobRegistry {
+
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UUID, MassIndexJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * Whether each activity started through {@link #startExclusive(Supplier, Predicate)} is still running, guarded by
+     * {@link #jobs}.
+     */
+    private final List<BooleanSupplier> activities = new ArrayList<>();
+
+    private final Map<String, MicrometerMassIndexingMonitor> latestMonitors = new ConcurrentHashMap<>();
+
+    public MassIndexJobRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Register a new job indexing the given entity types, unless a job is running. The check and the registration are
+     * atomic, so that concurrent requests cannot both start a job.
+     *
+     * @param profile the mass indexing profile of the job.
+     * @param entityNames the entity types, in indexing order.
+     * @return the new job.
+     * @throws MassIndexJobRunningException if a job is running.
+     */
+    public MassIndexJob create(String profile, Collection<String> entityNames) {
+        synchronized (jobs) {
+            if (isBusy()) {
+                throw new MassIndexJobRunningException();
+            }
+            List<MicrometerMassIndexingMonitor> monitors = entityNames
+                .stream()
+                .map(entityName -> new MicrometerMassIndexingMonitor(entityName, meterRegistry))
+                .collect(Collectors.toList());
+            monitors.forEach(this::publish);
+            MassIndexJob job = new MassIndexJob(profile, monitors);
+            jobs.put(job.getId(), job);
+            evictFinishedJobs();
+            return job;
+        }
+    }
+
+    /**
+     * Start an activity tracked outside of this registry, unless a job or another such activity is running. As with
+     * {@link #create(String, Collection)}, the check and the start are atomic.
+     *
+     * @param start starts the activity.
+     * @param running tells whether the started activity is still running.
+     * @param <T> the type of the handle on the activity.
+     * @return the handle returned by {@code start}.
+     * @throws MassIndexJobRunningException if a job is running.
+     */
+    public <T> T startExclusive(Supplier<T> start, Predicate<T> running) {
+        synchronized (jobs) {
+            if (isBusy()) {
+                throw new MassIndexJobRunningException();
+            }
+            T activity = start.get();
+            activities.add(() -> running.test(activity));
+            return activity;
+        }
+    }
+
+    public Optional<MassIndexJob> find(UUID id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    public List<MassIndexJob> findAll() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    public boolean hasRunningJob() {
+        synchronized (jobs) {
+            return isBusy();
+        }
+    }
+
+    private boolean isBusy() {
+        activities.removeIf(running -> !running.getAsBoolean());
+        return !activities.isEmpty() || jobs.values().stream().anyMatch(MassIndexJob::isRunning);
+    }
+
+    private void evictFinishedJobs() {
+        long finished = jobs.values().stream().filter(job -> !job.isRunning()).count();
+        Iterator<MassIndexJob> iterator = jobs.values().iterator();
+        while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+            if (!iterator.next().isRunning()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    private void publish(MicrometerMassIndexingMonitor monitor) {
+        String entityName = monitor.getEntityName();
+        if (latestMonitors.put(entityName, monitor) == null) {
+            gauge(entityName, ".documents.total", "Documents the latest mass indexing has to index", MassIndexProgressDTO::getTotalCount);
+            gauge(entityName, ".documents.rate", "Documents indexed per second by the latest mass indexing", MassIndexProgressDTO::getDocumentsPerSecond);
+            gauge(
+                entityName,
+                ".eta",
+                "Estimated seconds until the latest mass indexing completes",
+                progress -> progress.getEtaSeconds() == null ? Double.NaN : progress.getEtaSeconds()
+            );
+        }
+    }
+
+    private void gauge(String entityName, String suffix, String description, ToDoubleFunction<MassIndexProgressDTO> value) {
+        Gauge
+            .builder(MicrometerMassIndexingMonitor.METRIC_PREFIX + suffix, latestMonitors, monitors -> value.applyAsDouble(monitors.get(entityName).toDto()))
+            .description(description)
+            .tag("entity", entityName)
+            .register(meterRegistry);
+    }
+}
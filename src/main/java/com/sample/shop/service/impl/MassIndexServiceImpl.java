@@ -15,7 +15,13 @@ package com.sample.shop.service.impl;
 
 
 
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.MassIndexJobRunningException;
 import com.sample.shop.service.MassIndexService;
+import com.sample.shop.service.SearchIndexGenerations;
+import com.sample.shop.service.dto.IndexFootprintDTO;
+import com.sample.shop.service.dto.MassIndexBatchExecutionDTO;
+import com.sample.shop.service.dto.MassIndexJobDTO;
 
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -23,9 +29,6 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
 import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
-import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
-import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
-import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.RequestOptions;
@@ -45,22 +48,29 @@ import org.hibernate.search.mapper.orm.Search;
 import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
 import org.hibernate.search.mapper.orm.mapping.SearchMapping;
 import org.hibernate.search.mapper.orm.massindexing.MassIndexer;
-import org.hibernate.search.mapper.orm.session.SearchSession;
-import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
-import org.hibernate.search.mapper.pojo.massindexing.impl.PojoMassIndexingLoggingMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
@@ -68,42 +78,499 @@ import javax.persistence.EntityManager;
 @Transactional
 public class MassIndexServiceImpl implements MassIndexService {
 
+    private static final String DELTA_PROFILE = "delta";
+
     private final Logger log = LoggerFactory.getLogger(MassIndexServiceImpl.class);
 
     private final EntityManager entityManager;
 
-    private final MassIndexingMonitor monitor;
-
     private final RestHighLevelClient mClient;
 
-    public MassIndexServiceImpl(EntityManager entityManager, RestHighLevelClient client) {
+    private final ElasticsearchIndexAdmin indexAdmin;
+
+    private final MassIndexJobRegistry jobRegistry;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final EnversDeltaIndexer deltaIndexer;
+
+    private final Executor taskExecutor;
+
+    private final BatchMassIndexingLauncher batchLauncher;
+
+    private final SearchIndexGenerations searchIndexGenerations;
+
+    public MassIndexServiceImpl(
+        EntityManager entityManager,
+        RestHighLevelClient client,
+        ElasticsearchIndexAdmin indexAdmin,
+        MassIndexJobRegistry jobRegistry,
+        ApplicationProperties applicationProperties,
+        EnversDeltaIndexer deltaIndexer,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        BatchMassIndexingLauncher batchLauncher,
+        SearchIndexGenerations searchIndexGenerations
+    ) {
         this.entityManager = entityManager;
         mClient = client;
-        monitor = new PojoMassIndexingLoggingMonitor(1000);
+        this.indexAdmin = indexAdmin;
+        this.jobRegistry = jobRegistry;
+        this.applicationProperties = applicationProperties;
+        this.deltaIndexer = deltaIndexer;
+        this.taskExecutor = taskExecutor;
+        this.batchLauncher = batchLauncher;
+        this.searchIndexGenerations = searchIndexGenerations;
     }
 
-    @Async
     @Override
-    public void reindexAll() {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        SearchSession searchSession = Search.session(entityManager);
-        searchSession
-            .massIndexer()
-            .batchSizeToLoadObjects(500)
-            .threadsToLoadObjects(2)
-            .typesToIndexInParallel(1)
-            .monitor(monitor)
-            .start()
-            .thenRun(() -> {
+    public MassIndexJobDTO reindexAll(String profileName) {
+        StopWatch stopWatch = StopWatch.createStarted();
+        ApplicationProperties.MassIndexing.Profile profile = profile(profileName);
+        List<SearchIndexedEntity<?>> indexedEntities = indexedEntities(profile);
+        int startRevision = settledRevision();
+        MassIndexJob job = createJob(profileName, indexedEntities);
+        // the caller only waits for the job to be registered
+        CompletableFuture
+            .supplyAsync(() -> run(job, indexedEntities, profile, true), taskExecutor)
+            .thenCompose(execution -> execution)
+            .whenComplete((result, throwable) -> {
+                job.complete(throwable);
                 stopWatch.stop();
-                log.info("Mass indexing succeeded! in {}", stopWatch.formatTime());
-            })
-            .exceptionally(throwable -> {
+                if (throwable == null) {
+                    log.info("Mass indexing job {} succeeded! in {}", job.getId(), stopWatch.formatTime());
+                    replayWritesSince(job, startRevision);
+                } else {
+                    log.error("Mass indexing job {} ended with status {} in {}", job.getId(), job.getStatus(), stopWatch.formatTime(), throwable);
+                }
+            });
+        return job.toDto();
+    }
+
+    @Override
+    public MassIndexJobDTO reindexAllBlueGreen(String profileName) {
+        StopWatch stopWatch = StopWatch.createStarted();
+        ApplicationProperties.MassIndexing.Profile profile = profile(profileName);
+        List<SearchIndexedEntity<?>> indexedEntities = indexedEntities(profile);
+        int startRevision = settledRevision();
+        MassIndexJob job = createJob(profileName, indexedEntities);
+        List<IndexSwap> swaps = new CopyOnWriteArrayList<>();
+        // the caller only waits for the job to be registered
+        CompletableFuture
+            .supplyAsync(
+                () -> {
+                    prepareSwaps(indexedEntities, swaps);
+                    return run(job, indexedEntities, profile, false);
+                },
+                taskExecutor
+            )
+            .thenCompose(execution -> execution)
+            .whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    promote(swaps);
+                    endRebuilds(swaps);
+                } else {
+                    rollback(swaps);
+                }
+                job.complete(throwable);
                 stopWatch.stop();
-                log.error("Mass indexing failed! in {}", stopWatch.formatTime(), throwable);
-                return null;
+                if (throwable == null) {
+                    log.info("Blue/green mass indexing job {} succeeded! in {}", job.getId(), stopWatch.formatTime());
+                } else {
+                    log.error(
+                        "Blue/green mass indexing job {} ended with status {} in {}",
+                        job.getId(),
+                        job.getStatus(),
+                        stopWatch.formatTime(),
+                        throwable
+                    );
+                }
+                // after a rollback, the writes sent to the dropped fresh indexes are missing from the live ones until replayed
+                CompletableFuture<Void> replay = replayWritesSince(job, startRevision);
+                if (throwable != null) {
+                    replay.whenComplete((replayed, replayFailure) -> endRebuilds(swaps));
+                }
             });
+        return job.toDto();
+    }
+
+    /**
+     * Create a fresh index next to the live index of each entity type and move the write alias to it. The live writes
+     * are then invisible to the searches until {@link #endRebuilds(List)}, see {@link SearchIndexGenerations}.
+     *
+     * @param indexedEntities the entity types.
+     * @param swaps receives the swaps prepared, to be promoted or rolled back.
+     */
+    private void prepareSwaps(List<SearchIndexedEntity<?>> indexedEntities, List<IndexSwap> swaps) {
+        try {
+            for (SearchIndexedEntity<?> indexedEntity : indexedEntities) {
+                ElasticsearchIndexDescriptor descriptor = indexedEntity.indexManager().unwrap(ElasticsearchIndexManager.class).descriptor();
+                String liveIndex = indexAdmin.indexBehindAlias(descriptor.writeName());
+                String freshIndex = indexAdmin.createSuccessorIndex(liveIndex);
+                searchIndexGenerations.rebuildStarted(descriptor.hibernateSearchName());
+                try {
+                    // live writes go to the fresh index from now on, searches keep hitting the live one
+                    indexAdmin.moveAlias(descriptor.writeName(), liveIndex, freshIndex, true);
+                } catch (IOException | RuntimeException e) {
+                    searchIndexGenerations.rebuildEnded(descriptor.hibernateSearchName());
+                    indexAdmin.deleteIndex(freshIndex);
+                    throw e;
+                }
+                swaps.add(new IndexSwap(descriptor, liveIndex, freshIndex));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not prepare fresh indexes for blue/green mass indexing", e);
+        }
+    }
+
+    @Override
+    public MassIndexJobDTO reindexDelta(Integer sinceRevision, Instant since) {
+        return startDelta(sinceRevision, since).job().toDto();
+    }
+
+    private DeltaRun startDelta(Integer sinceRevision, Instant since) {
+        StopWatch stopWatch = StopWatch.createStarted();
+        int checkpoint = deltaIndexer.lastIndexedRevision();
+        int fromRevision;
+        if (sinceRevision != null) {
+            fromRevision = sinceRevision;
+        } else if (since != null) {
+            fromRevision = deltaIndexer.revisionAt(since);
+        } else {
+            fromRevision = checkpoint;
+        }
+        int toRevision = deltaIndexer.latestRevision();
+        // the revisions of the settle window are scanned again by the next run, in case a lower one commits late
+        int settledRevision = Math.min(settledRevision(), toRevision);
+        int batchSize = applicationProperties.getMassIndexing().getDelta().getBatchSize();
+        List<SearchIndexedEntity<?>> indexedEntities = indexedEntities(List.of());
+        MassIndexJob job = createJob(DELTA_PROFILE, indexedEntities);
+        log.info("Delta indexing job {} reindexes revisions {} to {}", job.getId(), fromRevision + 1, toRevision);
+
+        CompletableFuture<Void> execution = CompletableFuture.runAsync(
+            () -> {
+                for (SearchIndexedEntity<?> indexedEntity : indexedEntities) {
+                    MicrometerMassIndexingMonitor monitor = job.monitor(indexedEntity.name());
+                    monitor.started();
+                    Object lastId = null;
+                    do {
+                        lastId =
+                            deltaIndexer.reindexChanges(
+                                job,
+                                indexedEntity.name(),
+                                indexedEntity.javaClass(),
+                                fromRevision,
+                                toRevision,
+                                lastId,
+                                batchSize
+                            );
+                    } while (lastId != null);
+                    // an entity both changed and moved in or out of an association is reindexed twice, which is harmless
+                    do {
+                        lastId =
+                            deltaIndexer.reindexAssociationChanges(
+                                job,
+                                indexedEntity.name(),
+                                indexedEntity.javaClass(),
+                                fromRevision,
+                                toRevision,
+                                lastId,
+                                batchSize
+                            );
+                    } while (lastId != null);
+                    monitor.indexingCompleted();
+                }
+            },
+            taskExecutor
+        );
+        job.track(execution);
+        CompletableFuture<Void> completion = execution.whenComplete((result, throwable) -> {
+            // only move the high-water mark when no revision was skipped since the previous one
+            if (throwable == null && fromRevision <= checkpoint) {
+                deltaIndexer.advanceCheckpoint(settledRevision);
+            }
+            job.complete(throwable);
+            stopWatch.stop();
+            if (throwable == null) {
+                log.info("Delta indexing job {} succeeded! in {}", job.getId(), stopWatch.formatTime());
+            } else {
+                log.error("Delta indexing job {} ended with status {} in {}", job.getId(), job.getStatus(), stopWatch.formatTime(), throwable);
+            }
+        });
+        return new DeltaRun(job, completion);
+    }
+
+    /**
+     * Reindex the entities written while a mass indexing job ran. On success, the job may have loaded an entity before a
+     * write and sent its document after the one of the write, overwriting it with stale content. After a blue/green
+     * rollback, the writes went to the dropped fresh indexes only.
+     *
+     * @param job the finished job.
+     * @param revision the latest Envers revision when the job started.
+     * @return the completion of the replay, whatever its outcome.
+     */
+    private CompletableFuture<Void> replayWritesSince(MassIndexJob job, int revision) {
+        try {
+            log.info("Reindexing the entities written during mass indexing job {}", job.getId());
+            return startDelta(revision, null).completion().handle((result, throwable) -> null);
+        } catch (RuntimeException e) {
+            log.error("Could not reindex the entities written during mass indexing job {}, run a delta indexing", job.getId(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * @return the latest Envers revision old enough for every lower revision to be committed, see
+     * {@link EnversDeltaIndexer#latestSettledRevision(java.time.Duration)}.
+     */
+    private int settledRevision() {
+        return deltaIndexer.latestSettledRevision(applicationProperties.getMassIndexing().getDelta().getSettleTime());
+    }
+
+    /**
+     * Reindex the changes since the last delta indexing, following {@code application.mass-indexing.delta.cron}.
+     */
+    @Scheduled(cron = "${application.mass-indexing.delta.cron:-}")
+    public void scheduledReindexDelta() {
+        try {
+            reindexDelta(null, null);
+        } catch (MassIndexJobRunningException e) {
+            log.info("Skipping scheduled delta indexing, a mass indexing job is running");
+        }
     }
 
+    @Override
+    public MassIndexBatchExecutionDTO startBatchReindex(String profileName) {
+        ApplicationProperties.MassIndexing.Profile profile = profile(profileName);
+        List<Class<?>> entityTypes = indexedEntities(profile)
+            .stream()
+            .<Class<?>>map(SearchIndexedEntity::javaClass)
+            .collect(Collectors.toList());
+        return jobRegistry.startExclusive(
+            () -> batchLauncher.start(entityTypes, profile, applicationProperties.getMassIndexing().getBatch()),
+            execution -> batchLauncher.isRunning(execution.getExecutionId())
+        );
+    }
+
+    @Override
+    public Optional<MassIndexBatchExecutionDTO> restartBatchReindex(long executionId) {
+        return jobRegistry.startExclusive(
+            () -> batchLauncher.restart(executionId),
+            execution -> execution.map(restarted -> batchLauncher.isRunning(restarted.getExecutionId())).orElse(false)
+        );
+    }
+
+    @Override
+    public Optional<MassIndexBatchExecutionDTO> findBatchExecution(long executionId) {
+        return batchLauncher.find(executionId);
+    }
+
+    @Override
+    public List<MassIndexBatchExecutionDTO> findAllBatchExecutions() {
+        return batchLauncher.findAll();
+    }
+
+    @Override
+    public Optional<MassIndexJobDTO> findJob(UUID id) {
+        return jobRegistry.find(id).map(MassIndexJob::toDto);
+    }
+
+    @Override
+    public List<MassIndexJobDTO> findAllJobs() {
+        return jobRegistry.findAll().stream().map(MassIndexJob::toDto).collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<MassIndexJobDTO> cancelJob(UUID id) {
+        return jobRegistry
+            .find(id)
+            .map(job -> {
+                if (job.cancel()) {
+                    log.info("Mass indexing job {} cancelled", id);
+                }
+                return job.toDto();
+            });
+    }
+
+    private ApplicationProperties.MassIndexing.Profile profile(String profileName) {
+        ApplicationProperties.MassIndexing.Profile profile = applicationProperties.getMassIndexing().getProfiles().get(profileName);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown mass indexing profile " + profileName);
+        }
+        return profile;
+    }
+
+    @Override
+    public List<IndexFootprintDTO> footprint() {
+        String mappingProfile = applicationProperties.getSearch().getMappingProfile().name().toLowerCase(Locale.ROOT);
+        List<IndexFootprintDTO> footprints = new ArrayList<>();
+        for (SearchIndexedEntity<?> indexedEntity : indexedEntities(List.of())) {
+            String alias = indexedEntity.indexManager().unwrap(ElasticsearchIndexManager.class).descriptor().readName();
+            try {
+                IndexFootprintDTO footprint = indexAdmin.footprint(alias);
+                footprint.setEntity(indexedEntity.name());
+                footprint.setMappingProfile(mappingProfile);
+                footprints.add(footprint);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read the statistics of index " + alias, e);
+            }
+        }
+        log.info("Index footprints under the {} mapping profile: {}", mappingProfile, footprints);
+        return footprints;
+    }
+
+    private List<SearchIndexedEntity<?>> indexedEntities(ApplicationProperties.MassIndexing.Profile profile) {
+        return indexedEntities(profile.getEntities());
+    }
+
+    private List<SearchIndexedEntity<?>> indexedEntities(List<String> entityNames) {
+        return IndexedEntities.resolve(entityManager.getEntityManagerFactory(), entityNames);
+    }
+
+    private MassIndexJob createJob(String profileName, List<SearchIndexedEntity<?>> indexedEntities) {
+        return jobRegistry.create(profileName, indexedEntities.stream().map(SearchIndexedEntity::name).collect(Collectors.toList()));
+    }
+
+    /**
+     * Index the entity types with one mass indexer per type, so that progress is reported per type
+     * and the job can be cancelled between and during types. Types are spread over
+     * {@code typesToIndexInParallel} lanes, each lane indexing its types one after the other.
+     * <p>
+     * With a {@code bulkLoad} profile, the fresh indexes of a blue/green job are tuned for bulk loading during the run
+     * and their original settings are restored whatever the outcome. In place, the indexes serve searches during the
+     * run: they keep their refreshes and replicas.
+     *
+     * @param inPlace whether the live indexes are purged and rebuilt, rather than fresh indexes.
+     */
+    private CompletableFuture<Void> run(
+        MassIndexJob job,
+        List<SearchIndexedEntity<?>> indexedEntities,
+        ApplicationProperties.MassIndexing.Profile profile,
+        boolean inPlace
+    ) {
+        Map<String, Settings> originalSettings = new LinkedHashMap<>();
+        if (profile.isBulkLoad() && inPlace) {
+            log.info("Mass indexing job {} runs in place: bulk load settings are only applied to blue/green jobs", job.getId());
+        } else if (profile.isBulkLoad()) {
+            try {
+                for (SearchIndexedEntity<?> indexedEntity : indexedEntities) {
+                    String writeAlias = indexedEntity.indexManager().unwrap(ElasticsearchIndexManager.class).descriptor().writeName();
+                    String index = indexAdmin.indexBehindAlias(writeAlias);
+                    originalSettings.put(index, indexAdmin.applyBulkLoadSettings(index));
+                }
+            } catch (IOException | RuntimeException e) {
+                restoreSettings(originalSettings, null);
+                return CompletableFuture.failedFuture(new IllegalStateException("Could not apply bulk load settings", e));
+            }
+        }
+        return startAll(job, indexedEntities, profile, inPlace)
+            .whenComplete((result, throwable) ->
+                restoreSettings(originalSettings, throwable == null ? profile.getForceMergeMaxSegments() : null)
+            );
+    }
+
+    private CompletableFuture<Void> startAll(
+        MassIndexJob job,
+        List<SearchIndexedEntity<?>> indexedEntities,
+        ApplicationProperties.MassIndexing.Profile profile,
+        boolean purgeAllOnStart
+    ) {
+        // this runs on the task executor, without a transaction: the mass indexers come from the mapping, which needs no
+        // session, and open their own
+        SearchMapping searchMapping = Search.mapping(entityManager.getEntityManagerFactory());
+        int laneCount = Math.max(1, Math.min(profile.getTypesToIndexInParallel(), indexedEntities.size()));
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(CompletableFuture.completedFuture(null));
+        }
+        for (int i = 0; i < indexedEntities.size(); i++) {
+            SearchIndexedEntity<?> indexedEntity = indexedEntities.get(i);
+            MicrometerMassIndexingMonitor typeMonitor = job.monitor(indexedEntity.name());
+            MassIndexer massIndexer = searchMapping
+                .scope(indexedEntity.javaClass())
+                .massIndexer()
+                .purgeAllOnStart(purgeAllOnStart)
+                .batchSizeToLoadObjects(profile.getBatchSizeToLoadObjects())
+                .threadsToLoadObjects(profile.getThreadsToLoadObjects())
+                .idFetchSize(profile.getIdFetchSize())
+                .cacheMode(profile.getCacheMode())
+                .monitor(typeMonitor)
+                .failureHandler(typeMonitor);
+            if (profile.getTransactionTimeout() != null) {
+                massIndexer.transactionTimeout(profile.getTransactionTimeout());
+            }
+            int lane = i % laneCount;
+            lanes.set(lane, lanes.get(lane).thenCompose(ignored -> start(job, typeMonitor, massIndexer)));
+        }
+        return CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> start(MassIndexJob job, MicrometerMassIndexingMonitor typeMonitor, MassIndexer massIndexer) {
+        if (job.isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException("Mass indexing job " + job.getId() + " was cancelled"));
+        }
+        typeMonitor.started();
+        CompletableFuture<?> execution = massIndexer.start().toCompletableFuture();
+        job.track(execution);
+        return execution.thenApply(ignored -> null);
+    }
+
+    /**
+     * Put back the settings changed for bulk loading, then refresh and optionally force merge the indexes.
+     * Failures are logged so that every index gets a chance to be restored.
+     */
+    private void restoreSettings(Map<String, Settings> originalSettings, Integer forceMergeMaxSegments) {
+        originalSettings.forEach((index, settings) -> {
+            try {
+                indexAdmin.restoreSettings(index, settings);
+                indexAdmin.refresh(index);
+                if (forceMergeMaxSegments != null) {
+                    indexAdmin.forceMerge(index, forceMergeMaxSegments);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not restore the settings {} of index {}", settings, index, e);
+            }
+        });
+    }
+
+    /**
+     * Point the read aliases to the freshly built indexes, then drop the previous generation.
+     */
+    private void promote(List<IndexSwap> swaps) {
+        for (IndexSwap swap : swaps) {
+            try {
+                indexAdmin.moveAlias(swap.descriptor().readName(), swap.liveIndex(), swap.freshIndex(), false);
+                indexAdmin.deleteIndex(swap.liveIndex());
+            } catch (IOException | RuntimeException e) {
+                // the fresh index already receives every write, leave both indexes in place for a manual fix
+                log.error("Could not promote index {} in place of {}", swap.freshIndex(), swap.liveIndex(), e);
+            }
+        }
+    }
+
+    /**
+     * Give the write aliases back to the live indexes, then drop the partially built indexes. The writes received by the
+     * fresh indexes meanwhile must be replayed, see {@link #replayWritesSince(MassIndexJob, int)}.
+     */
+    private void rollback(List<IndexSwap> swaps) {
+        for (IndexSwap swap : swaps) {
+            try {
+                indexAdmin.moveAlias(swap.descriptor().writeName(), swap.freshIndex(), swap.liveIndex(), true);
+                indexAdmin.deleteIndex(swap.freshIndex());
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not roll back index {} to {}", swap.freshIndex(), swap.liveIndex(), e);
+            }
+        }
+    }
+
+    /**
+     * Make the writes of the rebuilt indexes searchable again, once the fresh indexes were promoted or the writes replayed
+     * into the live indexes.
+     */
+    private void endRebuilds(List<IndexSwap> swaps) {
+        swaps.forEach(swap -> searchIndexGenerations.rebuildEnded(swap.descriptor().hibernateSearchName()));
+    }
+
+    private record IndexSwap(ElasticsearchIndexDescriptor descriptor, String liveIndex, String freshIndex) {}
+
+    private record DeltaRun(MassIndexJob job, CompletableFuture<Void> completion) {}
 }
@@ -0,0 +1,168 @@
+package com.sample.shop.service.impl;
+
+import com.sample.shop.service.dto.MassIndexProgressDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingFailureContext;
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingFailureHandler;
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
+import org.hibernate.search.mapper.pojo.massindexing.impl.PojoMassIndexingLoggingMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the mass indexing progress of one entity type and publishes it to Micrometer.
+ * <p>
+ * Progress is still logged every 1000 documents, as the default Hibernate Search monitor does.
+ */
+public class MicrometerMassIndexingMonitor implements MassIndexingMonitor, MassIndexingFailureHandler {
+
+    static final String METRIC_PREFIX = "mass.indexing";
+
+    private final Logger log = LoggerFactory.getLogger(MicrometerMassIndexingMonitor.class);
+
+    private final String entityName;
+
+    private final MassIndexingMonitor loggingMonitor = new PojoMassIndexingLoggingMonitor(1000);
+
+    private final Counter documentsAddedCounter;
+
+    private final Counter entitiesLoadedCounter;
+
+    private final Counter failureCounter;
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong documentsAdded = new AtomicLong();
+
+    private final AtomicLong errorCount = new AtomicLong();
+
+    private volatile long startNanos;
+
+    private volatile long endNanos;
+
+    public MicrometerMassIndexingMonitor(String entityName, MeterRegistry meterRegistry) {
+        this.entityName = entityName;
+        this.documentsAddedCounter =
+            Counter
+                .builder(METRIC_PREFIX + ".documents.added")
+                .description("Documents written to the index by the mass indexer")
+                .tag("entity", entityName)
+                .register(meterRegistry);
+        this.entitiesLoadedCounter =
+            Counter
+                .builder(METRIC_PREFIX + ".entities.loaded")
+                .description("Entities loaded from the database by the mass indexer")
+                .tag("entity", entityName)
+                .register(meterRegistry);
+        this.failureCounter =
+            Counter
+                .builder(METRIC_PREFIX + ".failures")
+                .description("Mass indexing failures")
+                .tag("entity", entityName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mark the beginning of the indexing of this entity type, throughput is measured from there.
+     */
+    public void started() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void documentsAdded(long increment) {
+        documentsAdded.addAndGet(increment);
+        documentsAddedCounter.increment(increment);
+        loggingMonitor.documentsAdded(increment);
+    }
+
+    @Override
+    public void documentsBuilt(long increment) {
+        loggingMonitor.documentsBuilt(increment);
+    }
+
+    @Override
+    public void entitiesLoaded(long increment) {
+        entitiesLoadedCounter.increment(increment);
+        loggingMonitor.entitiesLoaded(increment);
+    }
+
+    @Override
+    public void addToTotalCount(long count) {
+        totalCount.addAndGet(count);
+        loggingMonitor.addToTotalCount(count);
+    }
+
+    @Override
+    public void indexingCompleted() {
+        endNanos = System.nanoTime();
+        loggingMonitor.indexingCompleted();
+    }
+
+    @Override
+    public void handle(MassIndexingFailureContext context) {
+        errorCount.incrementAndGet();
+        failureCounter.increment();
+        log.error("Mass indexing of {} failed: {}", entityName, context.failingOperation(), context.throwable());
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public boolean isCompleted() {
+        return endNanos != 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getDocumentsAdded() {
+        return documentsAdded.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public double getDocumentsPerSecond() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = isCompleted() ? endNanos : System.nanoTime();
+        double elapsedSeconds = (end - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        return elapsedSeconds > 0 ? documentsAdded.get() / elapsedSeconds : 0;
+    }
+
+    /**
+     * @return the estimated remaining time in seconds, or {@code null} while it cannot be estimated yet.
+     */
+    public Long getEtaSeconds() {
+        if (isCompleted()) {
+            return 0L;
+        }
+        double rate = getDocumentsPerSecond();
+        if (rate <= 0) {
+            return null;
+        }
+        long remaining = Math.max(0, totalCount.get() - documentsAdded.get());
+        return (long) Math.ceil(remaining / rate);
+    }
+
+    public MassIndexProgressDTO toDto() {
+        MassIndexProgressDTO progress = new MassIndexProgressDTO();
+        progress.setEntity(entityName);
+        progress.setTotalCount(getTotalCount());
+        progress.setDocumentsIndexed(getDocumentsAdded());
+        progress.setDocumentsPerSecond(getDocumentsPerSecond());
+        progress.setEtaSeconds(getEtaSeconds());
+        progress.setErrorCount(getErrorCount());
+        progress.setCompleted(isCompleted());
+        return progress;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sample.shop.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics of the Hibernate Search outbox-polling coordination: the number of indexing events waiting in the outbox,
+ * how long the oldest one has been waiting, and the number of agents sharing the work.
+ * <p>
+ * Values are read from the outbox tables on every scrape, so they reflect the whole cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.search.coordination.strategy", havingValue = "outbox-polling")
+public class OutboxPollingMetrics implements MeterBinder {
+
+    static final String METRIC_PREFIX = "search.outbox";
+
+    /**
+     * Ordinals of the outbox event status, as persisted by Hibernate Search.
+     */
+    private static final int STATUS_PENDING = 0;
+
+    private static final int STATUS_ABANDONED = 1;
+
+    /**
+     * Timestamps are written in UTC, see {@code hibernate.jdbc.time_zone}.
+     */
+    private static final TimeZone JDBC_TIME_ZONE = TimeZone.getTimeZone("UTC");
+
+    private final Logger log = LoggerFactory.getLogger(OutboxPollingMetrics.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxPollingMetrics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge
+            .builder(METRIC_PREFIX + ".backlog", this, metrics -> metrics.eventCount(STATUS_PENDING))
+            .description("Indexing events waiting to be processed")
+            .tag("status", "pending")
+            .register(registry);
+        Gauge
+            .builder(METRIC_PREFIX + ".backlog", this, metrics -> metrics.eventCount(STATUS_ABANDONED))
+            .description("Indexing events abandoned after too many processing failures")
+            .tag("status", "abandoned")
+            .register(registry);
+        Gauge
+            .builder(METRIC_PREFIX + ".lag", this, OutboxPollingMetrics::lagSeconds)
+            .description("Age of the oldest pending indexing event")
+            .baseUnit("seconds")
+            .register(registry);
+        Gauge
+            .builder(METRIC_PREFIX + ".agents", this, OutboxPollingMetrics::agentCount)
+            .description("Hibernate Search agents registered in the cluster")
+            .register(registry);
+    }
+
+    private double eventCount(int status) {
+        try {
+            Long count = jdbcTemplate.queryForObject("select count(*) from hsearch_outbox_event where status = ?", Long.class, status);
+            return count == null ? 0 : count;
+        } catch (DataAccessException e) {
+            log.warn("Could not count the outbox events: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    private double lagSeconds() {
+        try {
+            Timestamp oldest = jdbcTemplate.query(
+                "select min(process_after) from hsearch_outbox_event where status = ?",
+                rs -> rs.next() ? rs.getTimestamp(1, Calendar.getInstance(JDBC_TIME_ZONE)) : null,
+                STATUS_PENDING
+            );
+            if (oldest == null) {
+                return 0;
+            }
+            // retried events are postponed to the future
+            return Math.max(0, Duration.between(oldest.toInstant(), Instant.now()).toMillis() / 1000d);
+        } catch (DataAccessException e) {
+            log.warn("Could not compute the outbox lag: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    private double agentCount() {
+        try {
+            Long count = jdbcTemplate.queryForObject("select count(*) from hsearch_agent", Long.class);
+            return count == null ? 0 : count;
+        } catch (DataAccessException e) {
+            log.warn("Could not count the outbox agents: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
@@ -22,7 +22,7 @@ public record Address(
     String city,
     String postcode,
     String country,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     Customer customer
 ) {
 
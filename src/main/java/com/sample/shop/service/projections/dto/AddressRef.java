@@ -0,0 +1,18 @@
+package com.sample.shop.service.projections.dto;
+
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.ProjectionConstructor;
+
+import java.util.UUID;
+
+/**
+ * An address embedded in the document of another entity, as flattened by its {@code includePaths}.
+ */
+@ProjectionConstructor
+public record AddressRef(
+    UUID id,
+    String address1,
+    String address2,
+    String city,
+    String postcode,
+    String country
+) {}
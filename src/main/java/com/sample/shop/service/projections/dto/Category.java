@@ -22,8 +22,8 @@ public record Category(
     LocalDate dateAdded,
     LocalDate dateModified,
     CategoryStatus status,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     Category parent,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
-    List<Product> products
+    @IndexedEmbedded(includePaths = { "id", "title" }, structure = ObjectStructure.FLATTENED)
+    List<ProductRef> products
 ) {}
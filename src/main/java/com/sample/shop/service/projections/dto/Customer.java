@@ -17,9 +17,9 @@ public record Customer(
     String lastName,
     String email,
     String telephone,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
-    List<WishList> wishLists,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
-    List<Address> addresses
+    @IndexedEmbedded(includePaths = { "id", "title" }, structure = ObjectStructure.FLATTENED)
+    List<WishListRef> wishLists,
+    @IndexedEmbedded(includePaths = { "id", "address1", "address2", "city", "postcode", "country" }, structure = ObjectStructure.FLATTENED)
+    List<AddressRef> addresses
 ) {
 }
@@ -20,9 +20,9 @@ public record Product(
     Integer rating,
     LocalDate dateAdded,
     LocalDate dateModified,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     WishList wishList,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
-    List<Category> categories
+    @IndexedEmbedded(includePaths = { "id", "description" }, structure = ObjectStructure.FLATTENED)
+    List<CategoryRef> categories
 ) {
 }
@@ -0,0 +1,14 @@
+package com.sample.shop.service.projections.dto;
+
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.ProjectionConstructor;
+
+import java.util.UUID;
+
+/**
+ * A product embedded in the document of another entity, as flattened by its {@code includePaths}.
+ */
+@ProjectionConstructor
+public record ProductRef(
+    UUID id,
+    String title
+) {}
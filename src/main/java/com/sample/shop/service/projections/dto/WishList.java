@@ -15,8 +15,8 @@ public record WishList(
     UUID id,
     String title,
     Boolean restricted,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
-    List<Product> products,
-    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.NESTED)
+    @IndexedEmbedded(includePaths = { "id", "title" }, structure = ObjectStructure.FLATTENED)
+    List<ProductRef> products,
+    @IndexedEmbedded(includeDepth = 1, structure = ObjectStructure.FLATTENED)
     Customer customer
 ) {}
@@ -0,0 +1,57 @@
+package com.sample.shop.web.filter;
+
+import com.sample.shop.security.AuthoritiesConstants;
+import com.sample.shop.security.SecurityUtils;
+import com.sample.shop.service.IndexingSync;
+import com.sample.shop.service.IndexingSynchronizations;
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Bind the indexing synchronization asked by the {@code X-Indexing-Sync} header, one of {@code async},
+ * {@code write-sync}, {@code read-sync} or {@code sync}, to the transactions of the request.
+ * <p>
+ * A client which reads its writes back from a search asks for {@code read-sync}; a bulk client asks for {@code async}
+ * and does not wait for the indexes to be refreshed. Since {@code read-sync} and {@code sync} refresh the indexes on
+ * every commit, only the {@link AuthoritiesConstants#ADMIN administrators} may send the header: the other requests
+ * with the header are rejected. The filter runs after the Spring Security filter chain, which authenticates the request.
+ */
+@Component
+public class IndexingSyncWebFilter extends OncePerRequestFilter {
+
+    public static final String INDEXING_SYNC_HEADER = "X-Indexing-Sync";
+
+    private final IndexingSynchronizations indexingSynchronizations;
+
+    public IndexingSyncWebFilter(IndexingSynchronizations indexingSynchronizations) {
+        this.indexingSynchronizations = indexingSynchronizations;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        IndexingSync sync;
+        try {
+            sync = IndexingSync.parse(request.getHeader(INDEXING_SYNC_HEADER));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + INDEXING_SYNC_HEADER + " header");
+            return;
+        }
+        if (sync == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "The " + INDEXING_SYNC_HEADER + " header is reserved to administrators");
+            return;
+        }
+        try (IndexingSynchronizations.Scope scope = indexingSynchronizations.bind(sync)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.sample.shop.web.filter;
+
+import com.sample.shop.service.SearchConsistency;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Read-your-writes consistency, see {@link SearchConsistency}.
+ * <p>
+ * A write request to an entity resource returns the {@code X-Consistency-Token} header when it changed indexed
+ * entities; its body is buffered so that the header can be added once the transactions of the request are committed.
+ * A {@code GET /api/_search/**} request sending the token back waits for the writes to be searchable before running.
+ * If the wait times out, the request runs anyway and its response carries {@code X-Consistency-Stale: true}.
+ * <p>
+ * The other requests are not filtered, and neither are the writes when they return no token, see
+ * {@link SearchConsistency#tracksWrites()}.
+ */
+@Component
+public class SearchConsistencyWebFilter extends OncePerRequestFilter {
+
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
+    public static final String CONSISTENCY_STALE_HEADER = "X-Consistency-Stale";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private static final List<String> WRITE_PATTERNS = List.of(
+        "/api/addresses/**",
+        "/api/categories/**",
+        "/api/customers/**",
+        "/api/products/**",
+        "/api/wish-lists/**"
+    );
+
+    private static final String SEARCH_PATTERN = "/api/_search/**";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final SearchConsistency searchConsistency;
+
+    public SearchConsistencyWebFilter(SearchConsistency searchConsistency) {
+        this.searchConsistency = searchConsistency;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            return !searchConsistency.tracksWrites() || WRITE_PATTERNS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+        }
+        return !"GET".equals(request.getMethod()) || !pathMatcher.match(SEARCH_PATTERN, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            filterWrite(request, response, filterChain);
+            return;
+        }
+        String token = request.getHeader(CONSISTENCY_TOKEN_HEADER);
+        if (token != null && !token.isBlank()) {
+            try {
+                if (!searchConsistency.await(token)) {
+                    response.setHeader(CONSISTENCY_STALE_HEADER, "true");
+                }
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + CONSISTENCY_TOKEN_HEADER + " header");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void filterWrite(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        searchConsistency.forgetCurrentThreadWrites();
+        ContentCachingResponseWrapper bufferedResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, bufferedResponse);
+            String token = searchConsistency.currentThreadToken();
+            if (token != null) {
+                response.setHeader(CONSISTENCY_TOKEN_HEADER, token);
+            }
+            bufferedResponse.copyBodyToResponse();
+        } finally {
+            searchConsistency.forgetCurrentThreadWrites();
+        }
+    }
+}
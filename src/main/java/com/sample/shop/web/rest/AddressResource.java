@@ -2,11 +2,13 @@ package com.sample.shop.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.repository.AddressRepository;
 import com.sample.shop.service.AddressQueryService;
 import com.sample.shop.service.AddressService;
 import com.sample.shop.service.criteria.AddressCriteria;
 import com.sample.shop.service.dto.AddressDTO;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -22,9 +24,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -50,10 +55,18 @@ public class AddressResource {
 
     private final AddressQueryService addressQueryService;
 
-    public AddressResource(AddressService addressService, AddressRepository addressRepository, AddressQueryService addressQueryService) {
+    private final ApplicationProperties applicationProperties;
+
+    public AddressResource(
+        AddressService addressService,
+        AddressRepository addressRepository,
+        AddressQueryService addressQueryService,
+        ApplicationProperties applicationProperties
+    ) {
         this.addressService = addressService;
         this.addressRepository = addressRepository;
         this.addressQueryService = addressQueryService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -151,16 +164,22 @@ public class AddressResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param paging the paging mode, {@code exact}, {@code capped} or {@code slice}, see {@link SlicePaginationUtil}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of addresses in body.
      */
     @GetMapping("/addresses")
     public ResponseEntity<List<AddressDTO>> getAllAddresses(
         AddressCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String paging
     ) {
         log.debug("REST request to get Addresses by criteria: {}", criteria);
-        Page<AddressDTO> page = addressQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<AddressDTO> page = addressQueryService.findByCriteria(
+            criteria,
+            pageable,
+            SlicePaginationUtil.pagingMode(paging, ENTITY_NAME)
+        );
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -211,16 +230,33 @@ public class AddressResource {
      *
      * @param query the query of the address search.
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page to fetch, blank for the first page; when present the page is fetched
+     *               with {@code search_after} instead of {@code page}, see {@link CursorPaginationUtil}.
+     * @param paging the paging mode of a page fetched without cursor, {@code exact}, {@code capped} or {@code slice},
+     *               see {@link SlicePaginationUtil}.
      * @return the result of the search.
      */
     @GetMapping("/_search/address")
     public ResponseEntity<List<AddressDTO>> searchAddresses(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String paging
     ) {
+        if (cursor != null) {
+            log.debug("REST request to search for a cursor page of Addresses for query {}", query);
+            CursorPage<AddressDTO> page;
+            try {
+                page = addressService.searchAfter(query, pageable.getSort(), pageable.getPageSize(), cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidcursor");
+            }
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         log.debug("REST request to search for a page of Addresses for query {}", query);
-        Page<AddressDTO> page = addressService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<AddressDTO> page = addressService.search(query, pageable, SlicePaginationUtil.pagingMode(paging, ENTITY_NAME));
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -242,4 +278,18 @@ public class AddressResource {
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_export/addresses?query=:query} : export every address corresponding to the query
+     * as newline delimited JSON, streamed one scroll chunk at a time.
+     *
+     * @param query the query of the address export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed addresses in body.
+     */
+    @GetMapping(value = "/_export/addresses", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAddresses(@RequestParam String query) {
+        log.debug("REST request to export Addresses for query {}", query);
+        StreamingResponseBody body = out -> addressService.export(query, out);
+        return ExportResponseUtil.generateExportResponse("addresses.ndjson", body, applicationProperties.getSearch().getExportTimeout());
+    }
 }
@@ -2,11 +2,13 @@ package com.sample.shop.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.repository.CategoryRepository;
 import com.sample.shop.service.CategoryQueryService;
 import com.sample.shop.service.CategoryService;
 import com.sample.shop.service.criteria.CategoryCriteria;
 import com.sample.shop.service.dto.CategoryDTO;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -22,9 +24,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -50,14 +55,18 @@ public class CategoryResource {
 
     private final CategoryQueryService categoryQueryService;
 
+    private final ApplicationProperties applicationProperties;
+
     public CategoryResource(
         CategoryService categoryService,
         CategoryRepository categoryRepository,
-        CategoryQueryService categoryQueryService
+        CategoryQueryService categoryQueryService,
+        ApplicationProperties applicationProperties
     ) {
         this.categoryService = categoryService;
         this.categoryRepository = categoryRepository;
         this.categoryQueryService = categoryQueryService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -155,16 +164,22 @@ public class CategoryResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param paging the paging mode, {@code exact}, {@code capped} or {@code slice}, see {@link SlicePaginationUtil}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
      */
     @GetMapping("/categories")
     public ResponseEntity<List<CategoryDTO>> getAllCategories(
         CategoryCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String paging
     ) {
         log.debug("REST request to get Categories by criteria: {}", criteria);
-        Page<CategoryDTO> page = categoryQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<CategoryDTO> page = categoryQueryService.findByCriteria(
+            criteria,
+            pageable,
+            SlicePaginationUtil.pagingMode(paging, ENTITY_NAME)
+        );
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -215,16 +230,47 @@ public class CategoryResource {
      *
      * @param query the query of the category search.
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page to fetch, blank for the first page; when present the page is fetched
+     *               with {@code search_after} instead of {@code page}, see {@link CursorPaginationUtil}.
+     * @param paging the paging mode of a page fetched without cursor, {@code exact}, {@code capped} or {@code slice},
+     *               see {@link SlicePaginationUtil}.
      * @return the result of the search.
      */
     @GetMapping("/_search/categories")
     public ResponseEntity<List<CategoryDTO>> searchCategories(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String paging
     ) {
+        if (cursor != null) {
+            log.debug("REST request to search for a cursor page of Categories for query {}", query);
+            CursorPage<CategoryDTO> page;
+            try {
+                page = categoryService.searchAfter(query, pageable.getSort(), pageable.getPageSize(), cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidcursor");
+            }
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         log.debug("REST request to search for a page of Categories for query {}", query);
-        Page<CategoryDTO> page = categoryService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<CategoryDTO> page = categoryService.search(query, pageable, SlicePaginationUtil.pagingMode(paging, ENTITY_NAME));
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_export/categories?query=:query} : export every category corresponding to the query
+     * as newline delimited JSON, streamed one scroll chunk at a time.
+     *
+     * @param query the query of the category export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed categories in body.
+     */
+    @GetMapping(value = "/_export/categories", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCategories(@RequestParam String query) {
+        log.debug("REST request to export Categories for query {}", query);
+        StreamingResponseBody body = out -> categoryService.export(query, out);
+        return ExportResponseUtil.generateExportResponse("categories.ndjson", body, applicationProperties.getSearch().getExportTimeout());
+    }
 }
@@ -0,0 +1,37 @@
+package com.sample.shop.web.rest;
+
+import com.sample.shop.service.dto.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling cursor pagination of the {@code /_search} endpoints.
+ * <p>
+ * The cursor of the next page is returned in the {@code X-Next-Cursor} header, and as a {@code next} link
+ * in the {@code Link} header like the other paginated endpoints. Both are absent on the last page.
+ */
+final class CursorPaginationUtil {
+
+    static final String CURSOR_PARAMETER = "cursor";
+
+    static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private CursorPaginationUtil() {}
+
+    /**
+     * Generate the cursor pagination headers of a page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param page the page.
+     * @return the headers.
+     */
+    static HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, CursorPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            headers.add(HEADER_NEXT_CURSOR, page.getNextCursor());
+            String next = uriBuilder.replaceQueryParam(CURSOR_PARAMETER, page.getNextCursor()).replaceQueryParam("page").toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -2,10 +2,12 @@ package com.sample.shop.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.repository.CustomerRepository;
 import com.sample.shop.service.CustomerQueryService;
 import com.sample.shop.service.CustomerService;
 import com.sample.shop.service.criteria.CustomerCriteria;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.dto.CustomerDTO;
 import com.sample.shop.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
@@ -20,9 +22,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -48,14 +53,18 @@ public class CustomerResource {
 
     private final CustomerQueryService customerQueryService;
 
+    private final ApplicationProperties applicationProperties;
+
     public CustomerResource(
         CustomerService customerService,
         CustomerRepository customerRepository,
-        CustomerQueryService customerQueryService
+        CustomerQueryService customerQueryService,
+        ApplicationProperties applicationProperties
     ) {
         this.customerService = customerService;
         this.customerRepository = customerRepository;
         this.customerQueryService = customerQueryService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -153,16 +162,22 @@ public class CustomerResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param paging the paging mode, {@code exact}, {@code capped} or {@code slice}, see {@link SlicePaginationUtil}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
      */
     @GetMapping("/customers")
     public ResponseEntity<List<CustomerDTO>> getAllCustomers(
         CustomerCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String paging
     ) {
         log.debug("REST request to get Customers by criteria: {}", criteria);
-        Page<CustomerDTO> page = customerQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<CustomerDTO> page = customerQueryService.findByCriteria(
+            criteria,
+            pageable,
+            SlicePaginationUtil.pagingMode(paging, ENTITY_NAME)
+        );
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -213,16 +228,47 @@ public class CustomerResource {
      *
      * @param query the query of the customer search.
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page to fetch, blank for the first page; when present the page is fetched
+     *               with {@code search_after} instead of {@code page}, see {@link CursorPaginationUtil}.
+     * @param paging the paging mode of a page fetched without cursor, {@code exact}, {@code capped} or {@code slice},
+     *               see {@link SlicePaginationUtil}.
      * @return the result of the search.
      */
     @GetMapping("/_search/customers")
     public ResponseEntity<List<CustomerDTO>> searchCustomers(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String paging
     ) {
+        if (cursor != null) {
+            log.debug("REST request to search for a cursor page of Customers for query {}", query);
+            CursorPage<CustomerDTO> page;
+            try {
+                page = customerService.searchAfter(query, pageable.getSort(), pageable.getPageSize(), cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidcursor");
+            }
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         log.debug("REST request to search for a page of Customers for query {}", query);
-        Page<CustomerDTO> page = customerService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<CustomerDTO> page = customerService.search(query, pageable, SlicePaginationUtil.pagingMode(paging, ENTITY_NAME));
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code GET  /_export/customers?query=:query} : export every customer corresponding to the query
+     * as newline delimited JSON, streamed one scroll chunk at a time.
+     *
+     * @param query the query of the customer export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed customers in body.
+     */
+    @GetMapping(value = "/_export/customers", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam String query) {
+        log.debug("REST request to export Customers for query {}", query);
+        StreamingResponseBody body = out -> customerService.export(query, out);
+        return ExportResponseUtil.generateExportResponse("customers.ndjson", body, applicationProperties.getSearch().getExportTimeout());
+    }
 }
@@ -0,0 +1,47 @@
+package com.sample.shop.web.rest;
+
+import java.time.Duration;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Utility class for the streamed {@code /_export} endpoints.
+ * <p>
+ * An export streams its hits for as long as its scroll lasts, much longer than the other asynchronous requests: its
+ * response gets the timeout of {@code application.search.export-timeout} instead of the default one of
+ * {@code spring.mvc.async.request-timeout}.
+ */
+final class ExportResponseUtil {
+
+    private ExportResponseUtil() {}
+
+    /**
+     * Generate the response of an export of the current request.
+     *
+     * @param filename the name of the exported file.
+     * @param body the streamed hits.
+     * @param timeout how long the hits may be streamed.
+     * @return the response.
+     */
+    static ResponseEntity<StreamingResponseBody> generateExportResponse(String filename, StreamingResponseBody body, Duration timeout) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        // the body is streamed through the async web request of the handler, which is created with the default timeout
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, attributes.getResponse());
+        asyncWebRequest.setTimeout(timeout.toMillis());
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+        return ResponseEntity
+            .ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+}
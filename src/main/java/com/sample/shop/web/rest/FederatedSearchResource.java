@@ -0,0 +1,46 @@
+package com.sample.shop.web.rest;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.FederatedSearchService;
+import com.sample.shop.service.dto.FederatedSearchResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller searching every entity at once.
+ */
+@RestController
+@RequestMapping("/api")
+public class FederatedSearchResource {
+
+    private final Logger log = LoggerFactory.getLogger(FederatedSearchResource.class);
+
+    private final FederatedSearchService federatedSearchService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public FederatedSearchResource(FederatedSearchService federatedSearchService, ApplicationProperties applicationProperties) {
+        this.federatedSearchService = federatedSearchService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * {@code SEARCH  /_search/all?query=:query} : search every entity for the query, in a single request.
+     *
+     * @param query the query of the search.
+     * @param size the number of hits per entity, capped by {@code application.search.federated.max-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the hits grouped by entity in body.
+     */
+    @GetMapping("/_search/all")
+    public ResponseEntity<FederatedSearchResultDTO> searchAll(@RequestParam String query, @RequestParam(required = false) Integer size) {
+        log.debug("REST request to search every entity for query {}", query);
+        ApplicationProperties.Search.Federated settings = applicationProperties.getSearch().getFederated();
+        int hitCount = size == null ? settings.getSize() : Math.max(1, Math.min(size, settings.getMaxSize()));
+        return ResponseEntity.ok(federatedSearchService.search(query, hitCount));
+    }
+}
@@ -15,21 +15,39 @@ package com.sample.shop.web.rest;
 
 
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.security.AuthoritiesConstants;
 import com.sample.shop.security.SecurityUtils;
+import com.sample.shop.service.IndexConsistencyService;
+import com.sample.shop.service.MassIndexJobRunningException;
 import com.sample.shop.service.MassIndexService;
+import com.sample.shop.service.SearchIndexingDeadLetters;
+import com.sample.shop.service.dto.IndexConsistencyReportDTO;
+import com.sample.shop.service.dto.IndexFootprintDTO;
+import com.sample.shop.service.dto.IndexingDeadLettersDTO;
+import com.sample.shop.service.dto.MassIndexBatchExecutionDTO;
+import com.sample.shop.service.dto.MassIndexJobDTO;
+import com.sample.shop.web.rest.errors.BadRequestAlertException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -39,6 +57,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing Elasticsearch index.
@@ -48,35 +67,502 @@ import tech.jhipster.web.util.HeaderUtil;
 @Tag(name = " Elastic Search Mass Indexing API", description = "Rest API to Initiate Elastic Search Mass Indexing")
 public class MassIndexResource {
 
+    private static final String ENTITY_NAME = "massIndexJob";
+
     private final Logger log = LoggerFactory.getLogger(MassIndexResource.class);
 
     private final MassIndexService elasticsearchIndexService;
 
-    public MassIndexResource(MassIndexService elasticsearchIndexService) {
+    private final IndexConsistencyService indexConsistencyService;
+
+    private final SearchIndexingDeadLetters searchIndexingDeadLetters;
+
+    private final ApplicationProperties applicationProperties;
+
+    public MassIndexResource(
+        MassIndexService elasticsearchIndexService,
+        IndexConsistencyService indexConsistencyService,
+        SearchIndexingDeadLetters searchIndexingDeadLetters,
+        ApplicationProperties applicationProperties
+    ) {
         this.elasticsearchIndexService = elasticsearchIndexService;
+        this.indexConsistencyService = indexConsistencyService;
+        this.searchIndexingDeadLetters = searchIndexingDeadLetters;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
      * POST /elasticsearch/index -> Reindex all Elasticsearch documents
+     *
+     * @param profile the mass indexing profile, see {@code application.mass-indexing.profiles}.
+     * @param blueGreen build fresh indexes and swap the aliases once done instead of reindexing in place. Until the swap,
+     * searches do not see the writes made since the job started: responses awaiting a consistency token carry
+     * {@code X-Consistency-Stale: true}, see {@link MassIndexService#reindexAllBlueGreen(String)}.
+     * @return the started job, whose progress is available at {@code /mass/index/:id}.
      */
     @PostMapping("/mass/index")
     @Operation(summary = "reIndex All Entries")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Accepted",
+                content = @Content(schema = @Schema(implementation = MassIndexJobDTO.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Unknown profile, or a mass indexing job is already running"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexJobDTO> reindexAll(
+        @RequestParam(value = "profile", defaultValue = ApplicationProperties.MassIndexing.DEFAULT_PROFILE) String profile,
+        @RequestParam(value = "blueGreen", defaultValue = "false") boolean blueGreen
+    ) throws URISyntaxException {
+        log.info(
+            "REST request to reindex Elasticsearch by user : {}, profile : {}, blue/green : {}",
+            SecurityUtils.getCurrentUserLogin(),
+            profile,
+            blueGreen
+        );
+        if (!applicationProperties.getMassIndexing().getProfiles().containsKey(profile)) {
+            throw new BadRequestAlertException("Unknown mass indexing profile " + profile, ENTITY_NAME, "profileunknown");
+        }
+        MassIndexJobDTO job;
+        try {
+            job = blueGreen ? elasticsearchIndexService.reindexAllBlueGreen(profile) : elasticsearchIndexService.reindexAll(profile);
+        } catch (MassIndexJobRunningException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "jobrunning");
+        }
+        return ResponseEntity
+            .accepted()
+            .location(new URI("/api/mass/index/" + job.getId()))
+            .headers(HeaderUtil.createAlert("elasticsearch.reindex.accepted", null, job.getId().toString()))
+            .body(job);
+    }
+
+    /**
+     * POST /mass/index/delta -> Reindex only the documents changed since a revision or a point in time.
+     *
+     * @param sinceRevision the last Envers revision already indexed.
+     * @param since the time since which changes are reindexed, used when no revision is given.
+     * @return the started job. Without parameter, the changes since the last delta indexing are reindexed.
+     */
+    @PostMapping("/mass/index/delta")
+    @Operation(summary = "reIndex entries changed since a revision")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Accepted",
+                content = @Content(schema = @Schema(implementation = MassIndexJobDTO.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "A mass indexing job is already running"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexJobDTO> reindexDelta(
+        @RequestParam(value = "sinceRevision", required = false) Integer sinceRevision,
+        @RequestParam(value = "since", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since
+    ) throws URISyntaxException {
+        log.info(
+            "REST request to reindex Elasticsearch changes by user : {}, since revision : {}, since : {}",
+            SecurityUtils.getCurrentUserLogin(),
+            sinceRevision,
+            since
+        );
+        MassIndexJobDTO job;
+        try {
+            job = elasticsearchIndexService.reindexDelta(sinceRevision, since);
+        } catch (MassIndexJobRunningException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "jobrunning");
+        }
+        return ResponseEntity
+            .accepted()
+            .location(new URI("/api/mass/index/" + job.getId()))
+            .headers(HeaderUtil.createAlert("elasticsearch.reindex.accepted", null, job.getId().toString()))
+            .body(job);
+    }
+
+    /**
+     * POST /mass/index/batch -> Reindex with the checkpointed JSR-352 mass indexing job.
+     *
+     * @param profile the mass indexing profile, see {@code application.mass-indexing.profiles}.
+     * @return the started execution, restartable from its last checkpoints at {@code /mass/index/batch/:executionId/restart}.
+     */
+    @PostMapping("/mass/index/batch")
+    @Operation(summary = "reIndex All Entries with a restartable job")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Accepted",
+                content = @Content(schema = @Schema(implementation = MassIndexBatchExecutionDTO.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Unknown profile, or a mass indexing job is already running"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexBatchExecutionDTO> startBatchReindex(
+        @RequestParam(value = "profile", defaultValue = ApplicationProperties.MassIndexing.DEFAULT_PROFILE) String profile
+    ) throws URISyntaxException {
+        log.info(
+            "REST request to reindex Elasticsearch with a batch job by user : {}, profile : {}",
+            SecurityUtils.getCurrentUserLogin(),
+            profile
+        );
+        if (!applicationProperties.getMassIndexing().getProfiles().containsKey(profile)) {
+            throw new BadRequestAlertException("Unknown mass indexing profile " + profile, ENTITY_NAME, "profileunknown");
+        }
+        MassIndexBatchExecutionDTO execution;
+        try {
+            execution = elasticsearchIndexService.startBatchReindex(profile);
+        } catch (MassIndexJobRunningException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "jobrunning");
+        }
+        return batchExecutionAccepted(execution);
+    }
+
+    /**
+     * POST /mass/index/batch/:executionId/restart -> Resume a stopped, failed or interrupted batch execution.
+     *
+     * @param executionId the id of the execution to restart.
+     * @return the new execution.
+     */
+    @PostMapping("/mass/index/batch/{executionId}/restart")
+    @Operation(summary = "Restart a mass indexing batch execution from its last checkpoints")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Accepted",
+                content = @Content(schema = @Schema(implementation = MassIndexBatchExecutionDTO.class))
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The execution cannot be restarted, or a mass indexing job is already running"
+            ),
+            @ApiResponse(responseCode = "404", description = "The execution was not found"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexBatchExecutionDTO> restartBatchReindex(@PathVariable long executionId) throws URISyntaxException {
+        log.info("REST request to restart mass indexing batch execution {} by user : {}", executionId, SecurityUtils.getCurrentUserLogin());
+        Optional<MassIndexBatchExecutionDTO> execution;
+        try {
+            execution = elasticsearchIndexService.restartBatchReindex(executionId);
+        } catch (MassIndexJobRunningException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "jobrunning");
+        } catch (IllegalStateException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "notrestartable");
+        }
+        if (execution.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return batchExecutionAccepted(execution.get());
+    }
+
+    /**
+     * GET /mass/index/batch -> list the executions of the checkpointed mass indexing job.
+     *
+     * @return the executions of the most recent job instances.
+     */
+    @GetMapping("/mass/index/batch")
+    @Operation(summary = "List mass indexing batch executions")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = MassIndexBatchExecutionDTO.class)))
+            ),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public List<MassIndexBatchExecutionDTO> getAllBatchExecutions() {
+        log.debug("REST request to get all mass indexing batch executions");
+        return elasticsearchIndexService.findAllBatchExecutions();
+    }
+
+    /**
+     * GET /mass/index/batch/:executionId -> get the status of a batch execution.
+     *
+     * @param executionId the id of the execution.
+     * @return the execution.
+     */
+    @GetMapping("/mass/index/batch/{executionId}")
+    @Operation(summary = "Get a mass indexing batch execution")
     @ApiResponses(
         value = {
             @ApiResponse(
                 responseCode = "200",
                 description = "OK",
-                content = @Content(array = @ArraySchema(schema = @Schema(implementation = Void.class)))
+                content = @Content(schema = @Schema(implementation = MassIndexBatchExecutionDTO.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "The execution was not found"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexBatchExecutionDTO> getBatchExecution(@PathVariable long executionId) {
+        log.debug("REST request to get mass indexing batch execution : {}", executionId);
+        return ResponseUtil.wrapOrNotFound(elasticsearchIndexService.findBatchExecution(executionId));
+    }
+
+    private ResponseEntity<MassIndexBatchExecutionDTO> batchExecutionAccepted(MassIndexBatchExecutionDTO execution)
+        throws URISyntaxException {
+        return ResponseEntity
+            .accepted()
+            .location(new URI("/api/mass/index/batch/" + execution.getExecutionId()))
+            .headers(HeaderUtil.createAlert("elasticsearch.reindex.accepted", null, execution.getExecutionId().toString()))
+            .body(execution);
+    }
+
+    /**
+     * POST /mass/index/verify -> Compare the indexes with the database, optionally repairing the differences.
+     *
+     * @param entities the entity types to verify, every indexed entity type when not given.
+     * @param compareContent compare the indexed field values on top of the document ids.
+     * @param repair reindex the missing and stale documents and purge the extra ones.
+     * @return the started verification, whose report is available at {@code /mass/index/verify/:id}.
+     */
+    @PostMapping("/mass/index/verify")
+    @Operation(summary = "Verify the indexes against the database")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Accepted",
+                content = @Content(schema = @Schema(implementation = IndexConsistencyReportDTO.class))
             ),
-            @ApiResponse(responseCode = "404", description = "The resource not found"),
+            @ApiResponse(responseCode = "400", description = "Unknown entity, or a mass indexing job or verification is already running"),
         }
     )
     @Secured(AuthoritiesConstants.ADMIN)
-    public ResponseEntity<Void> reindexAll() throws URISyntaxException {
-        log.info("REST request to reindex Elasticsearch by user : {}", SecurityUtils.getCurrentUserLogin());
-        elasticsearchIndexService.reindexAll();
-        return ResponseEntity.accepted().headers(HeaderUtil.createAlert("elasticsearch.reindex.accepted", null,"asdf")).build();
+    public ResponseEntity<IndexConsistencyReportDTO> verify(
+        @RequestParam(value = "entities", required = false) List<String> entities,
+        @RequestParam(value = "compareContent", defaultValue = "true") boolean compareContent,
+        @RequestParam(value = "repair", defaultValue = "false") boolean repair
+    ) throws URISyntaxException {
+        log.info(
+            "REST request to verify Elasticsearch by user : {}, entities : {}, compare content : {}, repair : {}",
+            SecurityUtils.getCurrentUserLogin(),
+            entities,
+            compareContent,
+            repair
+        );
+        IndexConsistencyReportDTO report;
+        try {
+            report = indexConsistencyService.verify(entities, compareContent, repair);
+        } catch (MassIndexJobRunningException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "jobrunning");
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "entityunknown");
+        }
+        return ResponseEntity
+            .accepted()
+            .location(new URI("/api/mass/index/verify/" + report.getId()))
+            .headers(HeaderUtil.createAlert("elasticsearch.verify.accepted", null, report.getId().toString()))
+            .body(report);
     }
 
+    /**
+     * GET /mass/index/verify -> list the index verifications started on this node.
+     *
+     * @return the verification reports.
+     */
+    @GetMapping("/mass/index/verify")
+    @Operation(summary = "List index verifications")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = IndexConsistencyReportDTO.class)))
+            ),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public List<IndexConsistencyReportDTO> getAllVerifications() {
+        log.debug("REST request to get all index verifications");
+        return indexConsistencyService.findAllReports();
+    }
 
+    /**
+     * GET /mass/index/verify/:id -> get the report of an index verification.
+     *
+     * @param id the id of the verification.
+     * @return the missing, extra and stale documents found so far, per entity type.
+     */
+    @GetMapping("/mass/index/verify/{id}")
+    @Operation(summary = "Get an index verification report")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(schema = @Schema(implementation = IndexConsistencyReportDTO.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "The verification was not found"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<IndexConsistencyReportDTO> getVerification(@PathVariable UUID id) {
+        log.debug("REST request to get index verification : {}", id);
+        return ResponseUtil.wrapOrNotFound(indexConsistencyService.findReport(id));
+    }
+
+    /**
+     * DELETE /mass/index/verify/:id -> cancel a running index verification.
+     *
+     * @param id the id of the verification.
+     * @return the verification, with its final status.
+     */
+    @DeleteMapping("/mass/index/verify/{id}")
+    @Operation(summary = "Cancel an index verification")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(schema = @Schema(implementation = IndexConsistencyReportDTO.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "The verification was not found"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<IndexConsistencyReportDTO> cancelVerification(@PathVariable UUID id) {
+        log.info("REST request to cancel index verification {} by user : {}", id, SecurityUtils.getCurrentUserLogin());
+        return ResponseUtil.wrapOrNotFound(indexConsistencyService.cancel(id));
+    }
+
+    /**
+     * GET /mass/index/footprint -> report the document counts, the size and the indexing and query statistics of each index.
+     * <p>
+     * The report carries the current {@code application.search.mapping-profile}: run it after a full mass indexing
+     * under each profile, or each index layout, to compare them.
+     *
+     * @return the footprint of each index.
+     */
+    @GetMapping("/mass/index/footprint")
+    @Operation(summary = "Report the size and the indexing and query statistics of every index")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = IndexFootprintDTO.class)))
+            ),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public List<IndexFootprintDTO> getFootprint() {
+        log.debug("REST request to get the index footprints");
+        return elasticsearchIndexService.footprint();
+    }
+
+    /**
+     * GET /mass/index/dead-letters -> report the size of the dead-letter queue of the entities whose indexing failed.
+     *
+     * @return the number of entities waiting to be reindexed, due ones and per entity type.
+     */
+    @GetMapping("/mass/index/dead-letters")
+    @Operation(summary = "Report the size of the indexing dead-letter queue")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(schema = @Schema(implementation = IndexingDeadLettersDTO.class))
+            ),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public IndexingDeadLettersDTO getDeadLetters() {
+        log.debug("REST request to get the indexing dead-letter queue size");
+        return searchIndexingDeadLetters.deadLetters();
+    }
+
+    /**
+     * POST /mass/index/dead-letters/retry -> reindex the due entities of the dead-letter queue now, without waiting
+     * for the scheduled retry.
+     *
+     * @return the dead-letter queue after the retry.
+     */
+    @PostMapping("/mass/index/dead-letters/retry")
+    @Operation(summary = "Retry the due entities of the indexing dead-letter queue")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(schema = @Schema(implementation = IndexingDeadLettersDTO.class))
+            ),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public IndexingDeadLettersDTO retryDeadLetters() {
+        log.info("REST request to retry the indexing dead-letter queue by user : {}", SecurityUtils.getCurrentUserLogin());
+        searchIndexingDeadLetters.retryDue();
+        return searchIndexingDeadLetters.deadLetters();
+    }
+
+    /**
+     * GET /mass/index -> list the mass indexing jobs started on this node.
+     *
+     * @return the jobs, with their progress.
+     */
+    @GetMapping("/mass/index")
+    @Operation(summary = "List mass indexing jobs")
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "OK",
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = MassIndexJobDTO.class)))
+            ),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public List<MassIndexJobDTO> getAllJobs() {
+        log.debug("REST request to get all mass indexing jobs");
+        return elasticsearchIndexService.findAllJobs();
+    }
+
+    /**
+     * GET /mass/index/:id -> get the progress of a mass indexing job.
+     *
+     * @param id the id of the job.
+     * @return the job, with per entity type progress, throughput, ETA and error count.
+     */
+    @GetMapping("/mass/index/{id}")
+    @Operation(summary = "Get a mass indexing job")
+    @ApiResponses(
+        value = {
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(implementation = MassIndexJobDTO.class))),
+            @ApiResponse(responseCode = "404", description = "The job was not found"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexJobDTO> getJob(@PathVariable UUID id) {
+        log.debug("REST request to get mass indexing job : {}", id);
+        return ResponseUtil.wrapOrNotFound(elasticsearchIndexService.findJob(id));
+    }
+
+    /**
+     * DELETE /mass/index/:id -> cancel a running mass indexing job.
+     *
+     * @param id the id of the job.
+     * @return the job, with its final status.
+     */
+    @DeleteMapping("/mass/index/{id}")
+    @Operation(summary = "Cancel a mass indexing job")
+    @ApiResponses(
+        value = {
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(implementation = MassIndexJobDTO.class))),
+            @ApiResponse(responseCode = "404", description = "The job was not found"),
+        }
+    )
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<MassIndexJobDTO> cancelJob(@PathVariable UUID id) {
+        log.info("REST request to cancel mass indexing job {} by user : {}", id, SecurityUtils.getCurrentUserLogin());
+        return ResponseUtil.wrapOrNotFound(elasticsearchIndexService.cancelJob(id));
+    }
 }
@@ -2,11 +2,14 @@ package com.sample.shop.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.repository.ProductRepository;
 import com.sample.shop.service.ProductQueryService;
 import com.sample.shop.service.ProductService;
 import com.sample.shop.service.criteria.ProductCriteria;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.dto.ProductDTO;
+import com.sample.shop.service.dto.ProductSearchResultDTO;
 import com.sample.shop.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -21,10 +24,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -50,10 +57,18 @@ public class ProductResource {
 
     private final ProductQueryService productQueryService;
 
-    public ProductResource(ProductService productService, ProductRepository productRepository, ProductQueryService productQueryService) {
+    private final ApplicationProperties applicationProperties;
+
+    public ProductResource(
+        ProductService productService,
+        ProductRepository productRepository,
+        ProductQueryService productQueryService,
+        ApplicationProperties applicationProperties
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
         this.productQueryService = productQueryService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -151,16 +166,22 @@ public class ProductResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param paging the paging mode, {@code exact}, {@code capped} or {@code slice}, see {@link SlicePaginationUtil}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
      */
     @GetMapping("/products")
     public ResponseEntity<List<ProductDTO>> getAllProducts(
         ProductCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String paging
     ) {
         log.debug("REST request to get Products by criteria: {}", criteria);
-        Page<ProductDTO> page = productQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<ProductDTO> page = productQueryService.findByCriteria(
+            criteria,
+            pageable,
+            SlicePaginationUtil.pagingMode(paging, ENTITY_NAME)
+        );
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -211,16 +232,67 @@ public class ProductResource {
      *
      * @param query the query of the product search.
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page to fetch, blank for the first page; when present the page is fetched
+     *               with {@code search_after} instead of {@code page}, see {@link CursorPaginationUtil}.
+     * @param paging the paging mode of a page fetched without cursor, {@code exact}, {@code capped} or {@code slice},
+     *               see {@link SlicePaginationUtil}.
      * @return the result of the search.
      */
     @GetMapping("/_search/products")
     public ResponseEntity<List<ProductDTO>> searchProducts(
         @RequestParam String query,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String paging
     ) {
+        if (cursor != null) {
+            log.debug("REST request to search for a cursor page of Products for query {}", query);
+            CursorPage<ProductDTO> page;
+            try {
+                page = productService.searchAfter(query, pageable.getSort(), pageable.getPageSize(), cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidcursor");
+            }
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         log.debug("REST request to search for a page of Products for query {}", query);
-        Page<ProductDTO> page = productService.search(query, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        Slice<ProductDTO> page = productService.search(query, pageable, SlicePaginationUtil.pagingMode(paging, ENTITY_NAME));
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code SEARCH  /_search/products/faceted?query=:query} : search for the product corresponding
+     * to the query, along with the facet counts of every matching product.
+     *
+     * @param query the query of the product search.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of products and the facets in body.
+     */
+    @GetMapping("/_search/products/faceted")
+    public ResponseEntity<ProductSearchResultDTO> searchProductsWithFacets(
+        @RequestParam String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a faceted page of Products for query {}", query);
+        ProductSearchResultDTO result = productService.searchWithFacets(query, pageable);
+        Page<ProductDTO> page = new PageImpl<>(result.getProducts(), pageable, result.getTotalCount());
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(result);
+    }
+
+    /**
+     * {@code GET  /_export/products?query=:query} : export every product corresponding to the query
+     * as newline delimited JSON, streamed one scroll chunk at a time.
+     *
+     * @param query the query of the product export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed products in body.
+     */
+    @GetMapping(value = "/_export/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam String query) {
+        log.debug("REST request to export Products for query {}", query);
+        StreamingResponseBody body = out -> productService.export(query, out);
+        return ExportResponseUtil.generateExportResponse("products.ndjson", body, applicationProperties.getSearch().getExportTimeout());
+    }
 }
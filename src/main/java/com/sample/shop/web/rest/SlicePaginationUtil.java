@@ -0,0 +1,87 @@
+package com.sample.shop.web.rest;
+
+import com.sample.shop.service.PagingMode;
+import com.sample.shop.service.dto.CappedPage;
+import com.sample.shop.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for handling the pagination of listings which do not count every matching entity,
+ * see {@link PagingMode}.
+ * <p>
+ * Pages with an exact total get the usual {@link PaginationUtil} headers. A capped page whose total is a lower bound
+ * has its {@code X-Total-Count} completed by {@code X-Total-Count-Exact: false}, and a slice has no total but
+ * {@code X-Has-Next}; neither has a {@code last} link.
+ */
+final class SlicePaginationUtil {
+
+    static final String HEADER_HAS_NEXT = "X-Has-Next";
+
+    static final String HEADER_TOTAL_COUNT_EXACT = "X-Total-Count-Exact";
+
+    private static final String HEADER_TOTAL_COUNT = "X-Total-Count";
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * @param paging the {@code paging} request parameter.
+     * @param entityName the name of the listed entity.
+     * @return the requested paging mode, or {@code null} for the mode of the entity.
+     * @throws BadRequestAlertException if the parameter is not a paging mode.
+     */
+    static PagingMode pagingMode(String paging, String entityName) {
+        try {
+            return PagingMode.parse(paging);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid paging mode " + paging, entityName, "invalidpaging");
+        }
+    }
+
+    /**
+     * Generate the pagination headers of a page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the page.
+     * @return the headers.
+     */
+    static HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<?> slice) {
+        if (slice instanceof Page<?> page && !(slice instanceof CappedPage<?> capped && !capped.isTotalExact())) {
+            return PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (slice instanceof Page<?> page) {
+            headers.add(HEADER_TOTAL_COUNT, Long.toString(page.getTotalElements()));
+            headers.add(HEADER_TOTAL_COUNT_EXACT, Boolean.FALSE.toString());
+        } else {
+            headers.add(HEADER_HAS_NEXT, Boolean.toString(slice.hasNext()));
+        }
+        List<String> links = new ArrayList<>();
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        if (slice.hasNext()) {
+            links.add(link(uriBuilder, pageNumber + 1, pageSize, "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(link(uriBuilder, pageNumber - 1, pageSize, "prev"));
+        }
+        links.add(link(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    private static String link(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+}
@@ -0,0 +1,57 @@
+package com.sample.shop.web.rest;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.SuggestService;
+import com.sample.shop.service.dto.SuggestionDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller serving type-ahead suggestions.
+ */
+@RestController
+@RequestMapping("/api")
+public class SuggestResource {
+
+    private final Logger log = LoggerFactory.getLogger(SuggestResource.class);
+
+    private final SuggestService suggestService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SuggestResource(SuggestService suggestService, ApplicationProperties applicationProperties) {
+        this.suggestService = suggestService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * {@code GET  /_suggest/:entity?prefix=:prefix} : suggest the entities matching a prefix.
+     *
+     * @param entity the entity to suggest, e.g. {@code products}.
+     * @param prefix the prefix typed so far.
+     * @param size the number of suggestions, capped by {@code application.search.suggest.max-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body,
+     * or with status {@code 404 (Not Found)} if no suggestions are served for the entity.
+     */
+    @GetMapping("/_suggest/{entity}")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+        @PathVariable String entity,
+        @RequestParam String prefix,
+        @RequestParam(required = false) Integer size
+    ) {
+        log.debug("REST request to suggest {} for prefix {}", entity, prefix);
+        if (!suggestService.supports(entity)) {
+            return ResponseEntity.notFound().build();
+        }
+        ApplicationProperties.Search.Suggest settings = applicationProperties.getSearch().getSuggest();
+        int suggestionCount = size == null ? settings.getSize() : Math.max(1, Math.min(size, settings.getMaxSize()));
+        return ResponseEntity.ok(suggestService.suggest(entity, prefix, suggestionCount));
+    }
+}
@@ -2,10 +2,12 @@ package com.sample.shop.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.sample.shop.config.ApplicationProperties;
 import com.sample.shop.repository.WishListRepository;
 import com.sample.shop.service.WishListQueryService;
 import com.sample.shop.service.WishListService;
 import com.sample.shop.service.criteria.WishListCriteria;
+import com.sample.shop.service.dto.CursorPage;
 import com.sample.shop.service.dto.WishListDTO;
 import com.sample.shop.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
@@ -20,9 +22,17 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -45,14 +55,18 @@ public class WishListResource {
 
     private final WishListQueryService wishListQueryService;
 
+    private final ApplicationProperties applicationProperties;
+
     public WishListResource(
         WishListService wishListService,
         WishListRepository wishListRepository,
-        WishListQueryService wishListQueryService
+        WishListQueryService wishListQueryService,
+        ApplicationProperties applicationProperties
     ) {
         this.wishListService = wishListService;
         this.wishListRepository = wishListRepository;
         this.wishListQueryService = wishListQueryService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -204,24 +218,67 @@ public class WishListResource {
      * to the query.
      *
      * @param query the query of the wishList search.
+     * @param pageable the pagination information.
+     * @param cursor the cursor of the page to fetch, blank for the first page; when present the page is fetched
+     *               with {@code search_after} instead of {@code page}, see {@link CursorPaginationUtil}.
+     * @param paging the paging mode of a page fetched without cursor, {@code exact}, {@code capped} or {@code slice},
+     *               see {@link SlicePaginationUtil}.
      * @return the result of the search.
      */
     @GetMapping("/_search/wish-lists")
-    public List<WishListDTO> searchWishLists(@RequestParam String query) {
-        log.debug("REST request to search WishLists for query {}", query);
-        return wishListService.search(query);
+    public ResponseEntity<List<WishListDTO>> searchWishLists(
+        @RequestParam String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String paging
+    ) {
+        if (cursor != null) {
+            log.debug("REST request to search for a cursor page of WishLists for query {}", query);
+            CursorPage<WishListDTO> page;
+            try {
+                page = wishListService.searchAfter(query, pageable.getSort(), pageable.getPageSize(), cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidcursor");
+            }
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        log.debug("REST request to search for a page of WishLists for query {}", query);
+        Slice<WishListDTO> page = wishListService.search(query, pageable, SlicePaginationUtil.pagingMode(paging, ENTITY_NAME));
+        HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
     /**
-     * {@code SEARCH  /_search/wish-lists?query=:query} : search for the wishList corresponding
-     * to the query.
+     * {@code SEARCH  /_search/wish-lists/projection?query=:query} : search for the wishList corresponding
+     * to the query, building the results from the index only.
      *
      * @param query the query of the wishList search.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search/wish-lists/projection")
-    public List<WishListDTO> searchWishListsProjections(@RequestParam String query) {
-        log.debug("REST request to search WishLists for query {}", query);
-        return wishListService.searchWithProjection(query);
+    public ResponseEntity<List<WishListDTO>> searchWishListsProjections(
+        @RequestParam String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of WishLists for query {}", query);
+        Page<WishListDTO> page = wishListService.searchWithProjection(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /_export/wish-lists?query=:query} : export every wishList corresponding to the query
+     * as newline delimited JSON, streamed one scroll chunk at a time.
+     *
+     * @param query the query of the wishList export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed wishLists in body.
+     */
+    @GetMapping(value = "/_export/wish-lists", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportWishLists(@RequestParam String query) {
+        log.debug("REST request to export WishLists for query {}", query);
+        StreamingResponseBody body = out -> wishListService.export(query, out);
+        return ExportResponseUtil.generateExportResponse("wish-lists.ndjson", body, applicationProperties.getSearch().getExportTimeout());
     }
 }
@@ -1,5 +1,6 @@
 package com.sample.shop.web.rest.errors;
 
+import com.sample.shop.service.InvalidSortException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -124,6 +125,12 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         );
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleInvalidSortException(InvalidSortException ex, NativeWebRequest request) {
+        Problem problem = Problem.builder().withStatus(Status.BAD_REQUEST).withTitle("Invalid sort").withDetail(ex.getMessage()).build();
+        return create(ex, problem, request);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleConcurrencyFailure(ConcurrencyFailureException ex, NativeWebRequest request) {
         Problem problem = Problem.builder().withStatus(Status.CONFLICT).with(MESSAGE_KEY, ErrorConstants.ERR_CONCURRENCY_FAILURE).build();
@@ -0,0 +1,38 @@
+package com.sample.shop.config;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.hibernate.search.backend.elasticsearch.analysis.ElasticsearchAnalysisConfigurationContext;
+import org.hibernate.search.backend.elasticsearch.analysis.model.dsl.ElasticsearchCustomAnalyzerOptionalComponentsStep;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ElasticsearchAnalysisConfig} mapping profiles.
+ */
+class ElasticsearchAnalysisConfigTest {
+
+    @Test
+    void fullProfileIndexesTextFieldsWithEdgeNgrams() {
+        verify(configuredTextIndexing(ApplicationProperties.Search.MappingProfile.FULL))
+            .tokenFilters("lowercase", "asciifolding", "autocomplete_edge_ngram");
+    }
+
+    @Test
+    void leanProfileIndexesTextFieldsWordByWord() {
+        verify(configuredTextIndexing(ApplicationProperties.Search.MappingProfile.LEAN)).tokenFilters("lowercase", "asciifolding");
+    }
+
+    private static ElasticsearchCustomAnalyzerOptionalComponentsStep configuredTextIndexing(
+        ApplicationProperties.Search.MappingProfile mappingProfile
+    ) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().setMappingProfile(mappingProfile);
+        ElasticsearchAnalysisConfigurationContext context = mock(ElasticsearchAnalysisConfigurationContext.class, RETURNS_DEEP_STUBS);
+
+        new ElasticsearchAnalysisConfig(applicationProperties).configure(context);
+
+        return context.analyzer("text_indexing").custom().tokenizer("whitespace").charFilters("tm_char_filter");
+    }
+}
@@ -0,0 +1,20 @@
+package com.sample.shop.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ElasticsearchClientMetricsConfigurer} operation tags.
+ */
+class ElasticsearchClientMetricsConfigurerTest {
+
+    @Test
+    void operationIsTheLastKnownEndpointOfThePath() {
+        assertThat(ElasticsearchClientMetricsConfigurer.operation("/_bulk")).isEqualTo("bulk");
+        assertThat(ElasticsearchClientMetricsConfigurer.operation("/product-read/_search?size=20")).isEqualTo("search");
+        assertThat(ElasticsearchClientMetricsConfigurer.operation("/_search/scroll")).isEqualTo("scroll");
+        assertThat(ElasticsearchClientMetricsConfigurer.operation("/product-write/_doc/42")).isEqualTo("other");
+        assertThat(ElasticsearchClientMetricsConfigurer.operation("/")).isEqualTo("other");
+    }
+}
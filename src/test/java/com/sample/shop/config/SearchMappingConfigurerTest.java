@@ -0,0 +1,22 @@
+package com.sample.shop.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SearchMappingConfigurer} mapping profiles.
+ */
+class SearchMappingConfigurerTest {
+
+    @Test
+    void onlyTheFullProfileKeepsTheDocValuesOfUnsortedFields() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+
+        assertThat(new SearchMappingConfigurer(applicationProperties).docValues()).isEqualTo(Sortable.YES);
+
+        applicationProperties.getSearch().setMappingProfile(ApplicationProperties.Search.MappingProfile.LEAN);
+        assertThat(new SearchMappingConfigurer(applicationProperties).docValues()).isEqualTo(Sortable.NO);
+    }
+}
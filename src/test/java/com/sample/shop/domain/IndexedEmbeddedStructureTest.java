@@ -0,0 +1,30 @@
+package com.sample.shop.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.search.engine.backend.types.ObjectStructure;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the shop entities are indexed as a single Lucene document each: no embedded association is nested.
+ */
+class IndexedEmbeddedStructureTest {
+
+    @Test
+    void embeddedAssociationsAreFlattened() {
+        List<String> nested = new ArrayList<>();
+        for (Class<?> entityType : List.of(Product.class, Category.class, Customer.class, WishList.class, Address.class)) {
+            for (Field field : entityType.getDeclaredFields()) {
+                IndexedEmbedded indexedEmbedded = field.getAnnotation(IndexedEmbedded.class);
+                if (indexedEmbedded != null && indexedEmbedded.structure() != ObjectStructure.FLATTENED) {
+                    nested.add(entityType.getSimpleName() + "." + field.getName());
+                }
+            }
+        }
+        assertThat(nested).isEmpty();
+    }
+}
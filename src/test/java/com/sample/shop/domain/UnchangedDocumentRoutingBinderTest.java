@@ -0,0 +1,50 @@
+package com.sample.shop.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class UnchangedDocumentRoutingBinderTest {
+
+    @BeforeEach
+    void initSynchronization() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    void onlyTheUnchangedEntityIsSkipped() {
+        Product unchanged = new Product().id(UUID.randomUUID());
+        Product changed = new Product().id(UUID.randomUUID());
+        Category category = new Category().id(unchanged.getId());
+
+        UnchangedDocumentRoutingBinder.skipInCurrentTransaction(Product.class, unchanged.getId());
+
+        assertThat(UnchangedDocumentRoutingBinder.isSkipped(unchanged, unchanged.getId())).isTrue();
+        assertThat(UnchangedDocumentRoutingBinder.isSkipped(changed, changed.getId())).isFalse();
+        assertThat(UnchangedDocumentRoutingBinder.isSkipped(category, category.getId())).isFalse();
+    }
+
+    @Test
+    void skippedEntitiesAreForgottenWithTheirTransaction() {
+        Product unchanged = new Product().id(UUID.randomUUID());
+        UnchangedDocumentRoutingBinder.skipInCurrentTransaction(Product.class, unchanged.getId());
+
+        clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(UnchangedDocumentRoutingBinder.isSkipped(unchanged, unchanged.getId())).isFalse();
+    }
+}
@@ -0,0 +1,33 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.gson.JsonArray;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CursorPagedSearch} cursor encoding.
+ */
+class CursorPagedSearchTest {
+
+    @Test
+    void cursorRoundTrips() {
+        JsonArray searchAfter = new JsonArray();
+        searchAfter.add(1.5f);
+        searchAfter.add("5bd6a2b4-4f36-4a8e-8c5e-7e0d8b7a1c01");
+
+        String cursor = new CursorPagedSearch.Position("pit-id", searchAfter).encode();
+        CursorPagedSearch.Position position = CursorPagedSearch.Position.decode(cursor);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+        assertThat(position.pit()).isEqualTo("pit-id");
+        assertThat(position.searchAfter()).isEqualTo(searchAfter);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> CursorPagedSearch.Position.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPagedSearch.Position.decode("e30")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
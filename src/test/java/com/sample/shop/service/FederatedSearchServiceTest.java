@@ -0,0 +1,60 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sample.shop.service.dto.SearchGroupDTO;
+import com.sample.shop.service.dto.SuggestionDTO;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link FederatedSearchService} aggregation.
+ */
+class FederatedSearchServiceTest {
+
+    @Test
+    void aggregationGroupsTopHitsByIndexAlias() {
+        Map<String, String> readNames = new LinkedHashMap<>();
+        readNames.put("products", "product-read");
+        readNames.put("categories", "category-read");
+
+        JsonObject json = FederatedSearchService.groupsAggregationJson(readNames, 5, Set.of("title"));
+
+        JsonObject filters = json.getAsJsonObject("filters").getAsJsonObject("filters");
+        assertThat(filters.getAsJsonObject("products").getAsJsonObject("term").get("_index").getAsString()).isEqualTo("product-read");
+        assertThat(filters.getAsJsonObject("categories").getAsJsonObject("term").get("_index").getAsString()).isEqualTo("category-read");
+        JsonObject topHits = json.getAsJsonObject("aggs").getAsJsonObject("top").getAsJsonObject("top_hits");
+        assertThat(topHits.get("size").getAsInt()).isEqualTo(5);
+        assertThat(topHits.getAsJsonObject("_source").getAsJsonArray("includes").get(0).getAsString()).isEqualTo("title");
+    }
+
+    @Test
+    void bucketsAreParsedIntoGroups() {
+        UUID id = UUID.randomUUID();
+        JsonObject aggregation = JsonParser
+            .parseString(
+                "{\"buckets\":{" +
+                "\"products\":{\"doc_count\":12,\"top\":{\"hits\":{\"hits\":[" +
+                "{\"_index\":\"product-000001\",\"_id\":\"" +
+                id +
+                "\",\"_score\":1.5,\"_source\":{\"title\":\"Red lamp\"}}" +
+                "]}}}," +
+                "\"customers\":{\"doc_count\":0,\"top\":{\"hits\":{\"hits\":[]}}}" +
+                "}}"
+            )
+            .getAsJsonObject();
+
+        Map<String, SearchGroupDTO> groups = FederatedSearchService.toGroups(aggregation);
+
+        assertThat(groups).containsOnlyKeys("products", "categories", "customers", "addresses", "wish-lists");
+        assertThat(groups.get("products").getTotal()).isEqualTo(12);
+        assertThat(groups.get("products").getHits()).containsExactly(new SuggestionDTO(id, "Red lamp"));
+        assertThat(groups.get("customers").getHits()).isEmpty();
+        assertThat(groups.get("categories").getTotal()).isZero();
+    }
+}
@@ -0,0 +1,158 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.engine.reporting.EntityIndexingFailureContext;
+import org.hibernate.search.engine.reporting.FailureHandler;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationStrategy;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+import org.hibernate.search.util.common.SearchException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the {@link IndexingSynchronizations} binding, the {@link IndexingSync} names, the
+ * {@link MeasuredSynchronizationStrategy} and the {@link IndexingMetrics}.
+ */
+class IndexingSynchronizationsTest {
+
+    @Test
+    void syncIsParsedFromItsExternalName() {
+        assertThat(IndexingSync.parse("write-sync")).isEqualTo(IndexingSync.WRITE_SYNC);
+        assertThat(IndexingSync.parse(" Read-Sync ")).isEqualTo(IndexingSync.READ_SYNC);
+        assertThat(IndexingSync.parse(null)).isNull();
+        assertThat(IndexingSync.READ_SYNC.externalName()).isEqualTo("read-sync");
+        assertThatThrownBy(() -> IndexingSync.parse("eventually")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void closingAScopeRestoresTheOuterSync() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IndexingMetrics indexingMetrics = new IndexingMetrics(meterRegistry);
+        IndexingSynchronizations indexingSynchronizations = new IndexingSynchronizations(null, null, null, indexingMetrics, null, null);
+
+        try (IndexingSynchronizations.Scope request = indexingSynchronizations.bind(IndexingSync.READ_SYNC)) {
+            try (IndexingSynchronizations.Scope method = indexingSynchronizations.bind(IndexingSync.ASYNC)) {
+                assertThat(indexingSynchronizations.current()).isEqualTo(IndexingSync.ASYNC);
+            }
+            assertThat(indexingSynchronizations.current()).isEqualTo(IndexingSync.READ_SYNC);
+        }
+        assertThat(indexingSynchronizations.current()).isNull();
+        assertThat(meterRegistry.find(IndexingMetrics.METRIC_PREFIX + ".wait").tag("sync", "write-sync").timer()).isNotNull();
+    }
+
+    @Test
+    void unboundThreadsGetTheSyncOfTheGlobalStrategy() {
+        assertThat(IndexingSynchronizations.defaultSync(null)).isEqualTo(IndexingSync.WRITE_SYNC);
+        assertThat(IndexingSynchronizations.defaultSync("read-sync")).isEqualTo(IndexingSync.READ_SYNC);
+        assertThat(IndexingSynchronizations.defaultSync("bean:customStrategy")).isNull();
+    }
+
+    @Test
+    void transactionsKeepTheSyncOfTheirServiceMethod() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(IndexingSynchronizations.choose(IndexingSync.READ_SYNC, false)).isTrue();
+            assertThat(IndexingSynchronizations.choose(IndexingSync.READ_SYNC, false)).isFalse();
+            assertThat(IndexingSynchronizations.choose(IndexingSync.ASYNC, true)).isTrue();
+            // flushes after the method returned to a caller bound to another sync
+            assertThat(IndexingSynchronizations.choose(IndexingSync.READ_SYNC, false)).isFalse();
+            assertThat(IndexingSynchronizations.chosen()).isEqualTo(IndexingSync.ASYNC);
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+        assertThat(IndexingSynchronizations.chosen()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void defaultWriteSyncStrategyReportsFailuresBeforeThrowing() {
+        IndexingMetrics indexingMetrics = new IndexingMetrics(new SimpleMeterRegistry());
+        AutomaticIndexingSynchronizationStrategy strategy = new MeasuredSynchronizationStrategy(
+            IndexingSynchronizations.defaultSync(null),
+            indexingMetrics,
+            null,
+            null
+        );
+        AutomaticIndexingSynchronizationConfigurationContext context = mock(AutomaticIndexingSynchronizationConfigurationContext.class);
+        FailureHandler failureHandler = mock(FailureHandler.class);
+        when(context.failureHandler()).thenReturn(failureHandler);
+        SearchIndexingPlanExecutionReport report = mock(SearchIndexingPlanExecutionReport.class);
+        when(report.throwable()).thenReturn(Optional.of(new IllegalStateException("Elasticsearch is down")));
+
+        strategy.apply(context);
+
+        verify(context).documentCommitStrategy(DocumentCommitStrategy.FORCE);
+        verify(context).documentRefreshStrategy(DocumentRefreshStrategy.NONE);
+        ArgumentCaptor<Consumer> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(context).indexingFutureHandler(handler.capture());
+        assertThatThrownBy(() -> handler.getValue().accept(CompletableFuture.completedFuture(report))).isInstanceOf(SearchException.class);
+        verify(failureHandler).handle(any(EntityIndexingFailureContext.class));
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void asyncPlanIsHandedOverUntilItsTransactionCompletes() {
+        AutomaticIndexingSynchronizationStrategy strategy = new MeasuredSynchronizationStrategy(
+            IndexingSync.ASYNC,
+            new IndexingMetrics(new SimpleMeterRegistry()),
+            mock(SearchDocumentVersions.class),
+            null
+        );
+        AutomaticIndexingSynchronizationConfigurationContext context = mock(AutomaticIndexingSynchronizationConfigurationContext.class);
+        strategy.apply(context);
+        ArgumentCaptor<Consumer> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(context).indexingFutureHandler(handler.capture());
+        CompletableFuture<SearchIndexingPlanExecutionReport> plan = new CompletableFuture<>();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            IndexingSynchronizations.choose(IndexingSync.ASYNC, false);
+            handler.getValue().accept(plan);
+            assertThat(IndexingTransaction.executingPlan()).isSameAs(plan);
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+        // not left to the next transaction of the thread
+        assertThat(IndexingTransaction.executingPlan()).isNull();
+    }
+
+    @Test
+    void worksStayPendingUntilTheirPlanCompletes() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IndexingMetrics indexingMetrics = new IndexingMetrics(meterRegistry);
+        CompletableFuture<SearchIndexingPlanExecutionReport> plan = new CompletableFuture<>();
+
+        indexingMetrics.submitted(Map.of("product", 3, "category", 1), plan);
+
+        assertThat(indexingMetrics.pendingWorks("product")).isEqualTo(3);
+        assertThat(meterRegistry.get(IndexingMetrics.METRIC_PREFIX + ".pending.works").tag("index", "category").gauge().value())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(IndexingMetrics.METRIC_PREFIX + ".works").tag("index", "product").counter().count()).isEqualTo(3);
+
+        plan.complete(mock(SearchIndexingPlanExecutionReport.class));
+
+        assertThat(indexingMetrics.pendingWorks("product")).isZero();
+        assertThat(meterRegistry.find(IndexingMetrics.METRIC_PREFIX + ".failures").counter()).isNull();
+    }
+}
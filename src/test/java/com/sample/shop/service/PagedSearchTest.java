@@ -0,0 +1,81 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.gson.JsonObject;
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.service.dto.CappedPage;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Test class for the {@link PagedSearch} query building and paging.
+ */
+class PagedSearchTest {
+
+    @Test
+    void blankOrWildcardQueryMatchesAll() {
+        assertThat(PagedSearch.isMatchAll(null)).isTrue();
+        assertThat(PagedSearch.isMatchAll(" ")).isTrue();
+        assertThat(PagedSearch.isMatchAll(" * ")).isTrue();
+        assertThat(PagedSearch.isMatchAll("title:foo*")).isFalse();
+    }
+
+    @Test
+    void queryStringTargetsFullTextFields() {
+        JsonObject json = PagedSearch.queryStringJson("id:\"42\" OR lamp", "title", "description");
+
+        JsonObject queryString = json.getAsJsonObject("query_string");
+        assertThat(queryString.get("query").getAsString()).isEqualTo("id:\"42\" OR lamp");
+        assertThat(queryString.getAsJsonArray("fields")).hasSize(2);
+        assertThat(queryString.getAsJsonArray("fields").get(0).getAsString()).isEqualTo("title");
+        assertThat(queryString.get("lenient").getAsBoolean()).isTrue();
+    }
+
+    @Test
+    void leanProfileAlsoMatchesPrefixes() {
+        JsonObject full = PagedSearch.queryJson("desk lam", ApplicationProperties.Search.MappingProfile.FULL, "title", "description");
+        JsonObject lean = PagedSearch.queryJson("desk lam", ApplicationProperties.Search.MappingProfile.LEAN, "title", "description");
+
+        assertThat(full.has("query_string")).isTrue();
+        JsonObject bool = lean.getAsJsonObject("bool");
+        assertThat(bool.get("minimum_should_match").getAsInt()).isEqualTo(1);
+        assertThat(bool.getAsJsonArray("should")).hasSize(2);
+        assertThat(bool.getAsJsonArray("should").get(0).getAsJsonObject().has("query_string")).isTrue();
+        JsonObject multiMatch = bool.getAsJsonArray("should").get(1).getAsJsonObject().getAsJsonObject("multi_match");
+        assertThat(multiMatch.get("type").getAsString()).isEqualTo("bool_prefix");
+        assertThat(multiMatch.get("query").getAsString()).isEqualTo("desk lam");
+        assertThat(multiMatch.getAsJsonArray("fields")).hasSize(2);
+    }
+
+    @Test
+    void sliceDropsTheFirstHitOfTheNextPage() {
+        Slice<String> slice = PagedSearch.toSlice(List.of("a", "b", "c"), PageRequest.of(1, 2));
+
+        assertThat(slice.getContent()).containsExactly("a", "b");
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(PagedSearch.toSlice(List.of("a"), PageRequest.of(1, 2)).hasNext()).isFalse();
+    }
+
+    @Test
+    void cappedPageKeepsItsLowerBoundWhenMapped() {
+        CappedPage<Integer> page = new CappedPage<>(List.of(1, 2), PageRequest.of(0, 2), 10000, false);
+
+        CappedPage<String> mapped = page.map(String::valueOf);
+
+        assertThat(mapped.getContent()).containsExactly("1", "2");
+        assertThat(mapped.getTotalElements()).isEqualTo(10000);
+        assertThat(mapped.isTotalExact()).isFalse();
+    }
+
+    @Test
+    void pagingModeIsParsedCaseInsensitively() {
+        assertThat(PagingMode.parse("slice")).isEqualTo(PagingMode.SLICE);
+        assertThat(PagingMode.parse(" Capped ")).isEqualTo(PagingMode.CAPPED);
+        assertThat(PagingMode.parse(null)).isNull();
+        assertThatThrownBy(() -> PagingMode.parse("approximately")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
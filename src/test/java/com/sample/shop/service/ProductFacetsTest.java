@@ -0,0 +1,47 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.hibernate.search.util.common.data.Range;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ProductFacets} bucket parsing.
+ */
+class ProductFacetsTest {
+
+    @Test
+    void dateHistogramBucketsAreKeyedByMonth() {
+        JsonObject histogram = JsonParser
+            .parseString(
+                "{\"buckets\":[" +
+                "{\"key_as_string\":\"2022-01\",\"key\":1640995200000,\"doc_count\":3}," +
+                "{\"key_as_string\":\"2022-03\",\"key\":1646092800000,\"doc_count\":1}" +
+                "]}"
+            )
+            .getAsJsonObject();
+
+        Map<String, Long> months = ProductFacets.dateAddedMonths(histogram);
+
+        assertThat(months).containsExactly(Map.entry("2022-01", 3L), Map.entry("2022-03", 1L));
+    }
+
+    @Test
+    void missingDateHistogramHasNoMonths() {
+        assertThat(ProductFacets.dateAddedMonths(null)).isEmpty();
+        assertThat(ProductFacets.dateAddedMonths(new JsonObject())).isEmpty();
+    }
+
+    @Test
+    void ratingRangesAreKeyedByLowerBound() {
+        Map<Range<Integer>, Long> counts = new LinkedHashMap<>();
+        counts.put(Range.atLeast(1), 10L);
+        counts.put(Range.atLeast(4), 2L);
+
+        assertThat(ProductFacets.minimumRatings(counts)).containsExactly(Map.entry(1, 10L), Map.entry(4, 2L));
+    }
+}
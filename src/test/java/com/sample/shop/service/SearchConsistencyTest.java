@@ -0,0 +1,119 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sample.shop.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.cfg.HibernateOrmMapperSettings;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SearchConsistency} tokens and waits.
+ */
+class SearchConsistencyTest {
+
+    @Test
+    void tokenCarriesTheGenerationOfEachIndex() {
+        String token = SearchConsistency.encode(Map.of("product", 42L, "category", 7L));
+
+        assertThat(token).doesNotContain(":", ",", "=");
+        assertThat(SearchConsistency.decode(token)).containsExactly(Map.entry("category", 7L), Map.entry("product", 42L));
+    }
+
+    @Test
+    void invalidTokenIsRejected() {
+        assertThatThrownBy(() -> SearchConsistency.decode("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchConsistency.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        // product:x
+        assertThatThrownBy(() -> SearchConsistency.decode("cHJvZHVjdDp4")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void awaitWaitsForTheEarlierPlansToo() throws Exception {
+        DefaultCacheManager cacheManager = cacheManager();
+        SearchIndexGenerations searchIndexGenerations = new SearchIndexGenerations(mock(EntityManagerFactory.class), cacheManager);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().getConsistency().setPollInterval(Duration.ofMillis(5));
+        SearchConsistency searchConsistency = new SearchConsistency(
+            searchIndexGenerations,
+            null,
+            null,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        try {
+            CompletableFuture<Void> first = new CompletableFuture<>();
+            CompletableFuture<Void> second = new CompletableFuture<>();
+            searchIndexGenerations.committed("product", searchIndexGenerations.bump("product"), first);
+            long generation = searchIndexGenerations.bump("product");
+            searchIndexGenerations.committed("product", generation, second);
+
+            // the plan of the token completes before the plan of an earlier commit
+            second.complete(null);
+            assertThat(searchConsistency.awaitIndexed("product", generation, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50)))
+                .isFalse();
+
+            CompletableFuture.runAsync(() -> first.complete(null), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            assertThat(searchConsistency.awaitIndexed("product", generation, System.nanoTime() + TimeUnit.SECONDS.toNanos(5))).isTrue();
+
+            // a blue/green job sends the writes to a fresh index, which the searches do not read yet
+            searchIndexGenerations.rebuildStarted("product");
+            assertThat(searchConsistency.await(SearchConsistency.encode(Map.of("product", generation)))).isFalse();
+        } finally {
+            searchIndexGenerations.forgetCommittedByCurrentThread();
+            cacheManager.stop();
+        }
+    }
+
+    @Test
+    void writesAreNotTrackedUnderOutboxPolling() {
+        DefaultCacheManager cacheManager = cacheManager();
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.getProperties())
+            .thenReturn(Map.of(HibernateOrmMapperSettings.COORDINATION_STRATEGY, SearchIndexGenerations.OUTBOX_POLLING));
+        SearchIndexGenerations searchIndexGenerations = new SearchIndexGenerations(entityManagerFactory, cacheManager);
+        SearchConsistency searchConsistency = new SearchConsistency(
+            searchIndexGenerations,
+            null,
+            null,
+            new ApplicationProperties(),
+            new SimpleMeterRegistry()
+        );
+        try {
+            // marked indexed at commit, while the background agents may not have indexed the write yet
+            long generation = searchIndexGenerations.bump("product");
+            searchIndexGenerations.committed("product", generation, null);
+
+            assertThat(searchConsistency.tracksWrites()).isFalse();
+            assertThat(searchConsistency.currentThreadToken()).isNull();
+            assertThat(searchConsistency.await(SearchConsistency.encode(Map.of("product", generation)))).isFalse();
+            assertThatThrownBy(() -> searchConsistency.await("")).isInstanceOf(IllegalArgumentException.class);
+        } finally {
+            searchIndexGenerations.forgetCommittedByCurrentThread();
+            cacheManager.stop();
+        }
+    }
+
+    private static DefaultCacheManager cacheManager() {
+        DefaultCacheManager cacheManager = new DefaultCacheManager();
+        for (String cache : List.of(
+            SearchIndexGenerations.INDEX_GENERATIONS_CACHE,
+            SearchIndexGenerations.INDEXED_GENERATIONS_CACHE,
+            SearchIndexGenerations.INDEX_REBUILDS_CACHE
+        )) {
+            cacheManager.defineConfiguration(cache, new ConfigurationBuilder().build());
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,54 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.shop.domain.Category;
+import com.sample.shop.domain.Product;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class SearchDocumentHashServiceTest {
+
+    private static final List<String> PATHS = List.of("categories.description", "id", "rating", "title");
+
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+
+    @Test
+    void hashIgnoresCollectionOrder() {
+        Product product = product("Phone").addCategory(category("b")).addCategory(category("a"));
+        Product sameProduct = product("Phone").addCategory(category("a")).addCategory(category("b"));
+
+        assertThat(SearchDocumentHashService.hash(product, PATHS)).isEqualTo(SearchDocumentHashService.hash(sameProduct, PATHS));
+    }
+
+    @Test
+    void hashChangesWithIndexedValues() {
+        Product product = product("Phone").addCategory(category("a"));
+
+        String hash = SearchDocumentHashService.hash(product, PATHS);
+        product.setTitle("Smartphone");
+        String titleChangedHash = SearchDocumentHashService.hash(product, PATHS);
+        product.getCategories().iterator().next().setDescription("b");
+
+        assertThat(titleChangedHash).isNotEqualTo(hash);
+        assertThat(SearchDocumentHashService.hash(product, PATHS)).isNotEqualTo(titleChangedHash);
+    }
+
+    @Test
+    void hashIgnoresValuesOutsideTheDocument() {
+        Product product = product("Phone");
+        String hash = SearchDocumentHashService.hash(product, PATHS);
+        product.setKeywords("audit only");
+
+        assertThat(SearchDocumentHashService.hash(product, PATHS)).isEqualTo(hash);
+    }
+
+    private static Product product(String title) {
+        return new Product().id(PRODUCT_ID).title(title).rating(4);
+    }
+
+    private static Category category(String description) {
+        return new Category().id(UUID.randomUUID()).description(description);
+    }
+}
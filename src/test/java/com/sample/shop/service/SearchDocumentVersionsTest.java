@@ -0,0 +1,50 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SearchDocumentVersions} conflict detection.
+ */
+class SearchDocumentVersionsTest {
+
+    private static final SearchDocumentVersions.Document PRODUCT = new SearchDocumentVersions.Document("Product", 1L);
+
+    private static final SearchDocumentVersions.Document CATEGORY = new SearchDocumentVersions.Document("Category", 2L);
+
+    @Test
+    void documentsWrittenAgainAreOvertaken() {
+        Map<SearchDocumentVersions.Document, Long> written = Map.of(PRODUCT, 1L, CATEGORY, 3L);
+
+        assertThat(SearchDocumentVersions.overtaken(written, Map.of("Product:1", 2L, "Category:2", 3L))).containsExactly(PRODUCT);
+        assertThat(SearchDocumentVersions.overtaken(written, Map.of())).isEmpty();
+    }
+
+    @Test
+    void overtakenDocumentsAreQueuedForAReindex() {
+        EmbeddedCacheManager cacheManager = mock(EmbeddedCacheManager.class);
+        @SuppressWarnings("unchecked")
+        Cache<String, Long> versions = mock(Cache.class);
+        when(cacheManager.<String, Long>getCache(SearchDocumentVersions.DOCUMENT_VERSIONS_CACHE)).thenReturn(versions);
+        when(versions.get("Product:1")).thenReturn(2L);
+        when(versions.get("Category:2")).thenReturn(3L);
+        SearchIndexingDeadLetters deadLetters = mock(SearchIndexingDeadLetters.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchDocumentVersions documentVersions = new SearchDocumentVersions(null, cacheManager, deadLetters, meterRegistry);
+
+        documentVersions.executed(Map.of(PRODUCT, 1L, CATEGORY, 3L));
+
+        verify(deadLetters).reindexLater("Product", 1L, "Written by overlapping indexing plans");
+        verifyNoMoreInteractions(deadLetters);
+        assertThat(meterRegistry.get(SearchDocumentVersions.METRIC_NAME).tag("entity", "Product").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SearchExporter} output format.
+ */
+class SearchExporterTest {
+
+    @Test
+    void chunkIsWrittenAsOneJsonDocumentPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int written = SearchExporter.writeChunk(new ObjectMapper().writer(), List.of("lamp", "desk"), title -> Map.of("title", title), out);
+
+        assertThat(written).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"title\":\"lamp\"}\n{\"title\":\"desk\"}\n");
+    }
+}
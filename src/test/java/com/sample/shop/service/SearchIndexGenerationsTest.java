@@ -0,0 +1,77 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.persistence.EntityManagerFactory;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SearchIndexGenerations} indexed generations.
+ */
+class SearchIndexGenerationsTest {
+
+    private DefaultCacheManager cacheManager;
+
+    private SearchIndexGenerations searchIndexGenerations;
+
+    @BeforeEach
+    void createCache() {
+        cacheManager = new DefaultCacheManager();
+        for (String cache : List.of(
+            SearchIndexGenerations.INDEX_GENERATIONS_CACHE,
+            SearchIndexGenerations.INDEXED_GENERATIONS_CACHE,
+            SearchIndexGenerations.INDEX_REBUILDS_CACHE
+        )) {
+            cacheManager.defineConfiguration(cache, new ConfigurationBuilder().build());
+        }
+        searchIndexGenerations = new SearchIndexGenerations(mock(EntityManagerFactory.class), cacheManager);
+    }
+
+    @AfterEach
+    void stopCache() {
+        searchIndexGenerations.forgetCommittedByCurrentThread();
+        cacheManager.stop();
+    }
+
+    @Test
+    void aGenerationIsIndexedOnceEveryEarlierPlanCompleted() {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        CompletableFuture<Void> third = new CompletableFuture<>();
+        searchIndexGenerations.committed("product", searchIndexGenerations.bump("product"), first);
+        searchIndexGenerations.committed("product", searchIndexGenerations.bump("product"), second);
+        searchIndexGenerations.committed("product", searchIndexGenerations.bump("product"), third);
+
+        third.complete(null);
+        assertThat(searchIndexGenerations.indexed("product")).isZero();
+
+        first.complete(null);
+        assertThat(searchIndexGenerations.indexed("product")).isEqualTo(1);
+
+        second.complete(null);
+        assertThat(searchIndexGenerations.indexed("product")).isEqualTo(3);
+    }
+
+    @Test
+    void aGenerationWhosePlanNeverCompletesIsGivenUp() {
+        long indexedAt = 1000;
+        SearchIndexGenerations.IndexedGeneration indexed = SearchIndexGenerations.IndexedGeneration.NONE.indexed(2, indexedAt);
+
+        assertThat(indexed.generation()).isZero();
+        assertThat(indexed.settled(indexedAt + SearchIndexGenerations.ABANDONED_GENERATION_TIMEOUT.toMillis() - 1).generation())
+            .isZero();
+        SearchIndexGenerations.IndexedGeneration settled = indexed.settled(
+            indexedAt + SearchIndexGenerations.ABANDONED_GENERATION_TIMEOUT.toMillis()
+        );
+        assertThat(settled.generation()).isEqualTo(2);
+        assertThat(settled.indexedAt()).isEqualTo(indexedAt);
+        assertThat(settled.ahead()).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.domain.SearchIndexingFailure;
+import com.sample.shop.repository.SearchIndexingFailureRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Test class for the {@link SearchIndexingDeadLetters} queue and retry backoff.
+ */
+class SearchIndexingDeadLettersTest {
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(10);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Test
+    void backoffDoublesAfterEachFailedRetry() {
+        assertThat(SearchIndexingDeadLetters.backoff(1, INITIAL_BACKOFF, MAX_BACKOFF)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(SearchIndexingDeadLetters.backoff(2, INITIAL_BACKOFF, MAX_BACKOFF)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(SearchIndexingDeadLetters.backoff(4, INITIAL_BACKOFF, MAX_BACKOFF)).isEqualTo(Duration.ofSeconds(80));
+    }
+
+    @Test
+    void backoffIsCapped() {
+        assertThat(SearchIndexingDeadLetters.backoff(10, INITIAL_BACKOFF, MAX_BACKOFF)).isEqualTo(MAX_BACKOFF);
+        assertThat(SearchIndexingDeadLetters.backoff(Integer.MAX_VALUE, INITIAL_BACKOFF, MAX_BACKOFF)).isEqualTo(MAX_BACKOFF);
+    }
+
+    @Test
+    void failureQueuedConcurrentlyIsUpdated() {
+        SearchIndexingFailureRepository repository = mock(SearchIndexingFailureRepository.class);
+        SearchIndexingFailure concurrent = new SearchIndexingFailure()
+            .documentKey("Product:1")
+            .entityName("Product")
+            .entityId("1")
+            .attempts(1);
+        when(repository.findById("Product:1")).thenReturn(Optional.empty(), Optional.of(concurrent));
+        when(repository.saveAndFlush(any()))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchIndexingDeadLetters deadLetters = deadLetters(repository, meterRegistry);
+
+        deadLetters.record("Product", 1L, new IllegalStateException("cluster unavailable"));
+
+        verify(repository, times(2)).saveAndFlush(any());
+        assertThat(concurrent.getAttempts()).isEqualTo(2);
+        assertThat(meterRegistry.get(SearchIndexingDeadLetters.METRIC_PREFIX + ".recorded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sizeIsCountedOnTheRetrySchedule() {
+        SearchIndexingFailureRepository repository = mock(SearchIndexingFailureRepository.class);
+        when(repository.count()).thenReturn(3L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        deadLetters(repository, meterRegistry);
+
+        assertThat(meterRegistry.get(SearchIndexingDeadLetters.METRIC_PREFIX).gauge().value()).isNaN();
+        verify(repository, times(0)).count();
+    }
+
+    @Test
+    void sizeIsCachedBetweenCounts() {
+        SearchIndexingFailureRepository repository = mock(SearchIndexingFailureRepository.class);
+        when(repository.count()).thenReturn(3L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SearchIndexingDeadLetters deadLetters = deadLetters(repository, meterRegistry);
+
+        deadLetters.countDeadLetters();
+
+        assertThat(meterRegistry.get(SearchIndexingDeadLetters.METRIC_PREFIX).gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get(SearchIndexingDeadLetters.METRIC_PREFIX).gauge().value()).isEqualTo(3);
+        verify(repository).count();
+    }
+
+    private static SearchIndexingDeadLetters deadLetters(SearchIndexingFailureRepository repository, SimpleMeterRegistry meterRegistry) {
+        return new SearchIndexingDeadLetters(
+            repository,
+            null,
+            new ApplicationProperties(),
+            meterRegistry,
+            mock(PlatformTransactionManager.class)
+        );
+    }
+}
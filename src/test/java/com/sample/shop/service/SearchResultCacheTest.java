@@ -0,0 +1,158 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sample.shop.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.cfg.HibernateOrmMapperSettings;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link SearchResultCache} keys, hits and invalidation.
+ */
+class SearchResultCacheTest {
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 20);
+
+    private DefaultCacheManager cacheManager;
+
+    private SearchIndexGenerations searchIndexGenerations;
+
+    private ApplicationProperties applicationProperties;
+
+    private SearchResultCache searchResultCache;
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @BeforeEach
+    void createCache() {
+        cacheManager = new DefaultCacheManager();
+        for (String cache : List.of(
+            SearchResultCache.SEARCH_RESULTS_CACHE,
+            SearchIndexGenerations.INDEX_GENERATIONS_CACHE,
+            SearchIndexGenerations.INDEXED_GENERATIONS_CACHE,
+            SearchIndexGenerations.INDEX_REBUILDS_CACHE
+        )) {
+            cacheManager.defineConfiguration(cache, new ConfigurationBuilder().build());
+        }
+        searchIndexGenerations = new SearchIndexGenerations(mock(EntityManagerFactory.class), cacheManager);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().getResultCache().setRefreshInterval(Duration.ZERO);
+        searchResultCache =
+            new SearchResultCache(cacheManager, null, searchIndexGenerations, applicationProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stopCache() {
+        searchIndexGenerations.forgetCommittedByCurrentThread();
+        cacheManager.stop();
+    }
+
+    @Test
+    void repeatedSearchesAreServedFromTheCache() {
+        assertThat(search()).containsExactly("lamp 1");
+        assertThat(search()).containsExactly("lamp 1");
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void writesInvalidateTheCachedPagesOnceSearchable() {
+        search();
+        long generation = searchIndexGenerations.bump("product");
+
+        // committed, indexing plan still running: the page is searched again and not cached
+        assertThat(search()).containsExactly("lamp 2");
+        assertThat(search()).containsExactly("lamp 3");
+
+        searchIndexGenerations.committed("product", generation, CompletableFuture.completedFuture(null));
+
+        assertThat(search()).containsExactly("lamp 4");
+        assertThat(search()).containsExactly("lamp 4");
+        assertThat(searches).hasValue(4);
+    }
+
+    @Test
+    void writesAreNotCachedBeforeARefresh() {
+        applicationProperties.getSearch().getResultCache().setRefreshInterval(Duration.ofHours(1));
+        searchIndexGenerations.committed("product", searchIndexGenerations.bump("product"), null);
+
+        search();
+        search();
+
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void searchesAreNotCachedWhileTheirIndexIsRebuilt() {
+        search();
+        searchIndexGenerations.rebuildStarted("product");
+
+        // the writes go to the fresh index: the live one would be cached without them
+        assertThat(search()).containsExactly("lamp 2");
+        assertThat(search()).containsExactly("lamp 3");
+
+        searchIndexGenerations.rebuildEnded("product");
+
+        // the page cached from the previous index is not served
+        assertThat(search()).containsExactly("lamp 4");
+        assertThat(search()).containsExactly("lamp 4");
+    }
+
+    @Test
+    void searchesAreNotCachedUnderOutboxPolling() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.getProperties())
+            .thenReturn(Map.of(HibernateOrmMapperSettings.COORDINATION_STRATEGY, SearchIndexGenerations.OUTBOX_POLLING));
+        searchIndexGenerations = new SearchIndexGenerations(entityManagerFactory, cacheManager);
+        searchResultCache =
+            new SearchResultCache(cacheManager, null, searchIndexGenerations, applicationProperties, new SimpleMeterRegistry());
+        // marked indexed at commit, while the background agents may not have indexed the write yet
+        searchIndexGenerations.committed("product", searchIndexGenerations.bump("product"), null);
+
+        assertThat(search()).containsExactly("lamp 1");
+        assertThat(search()).containsExactly("lamp 2");
+    }
+
+    private Page<String> search() {
+        Supplier<Page<String>> search = () -> new PageImpl<>(List.of("lamp " + searches.incrementAndGet()), PAGEABLE, 1);
+        return searchResultCache.get("product", "lamp", PAGEABLE, search);
+    }
+
+    @Test
+    void keyNormalizesWhitespaceAndMatchAllQueries() {
+        Pageable pageable = PageRequest.of(0, 20);
+
+        assertThat(SearchResultCache.key("product", 3, "  red   lamp ", pageable))
+            .isEqualTo(SearchResultCache.key("product", 3, "red lamp", pageable));
+        assertThat(SearchResultCache.key("product", 3, "", pageable)).isEqualTo(SearchResultCache.key("product", 3, " * ", pageable));
+    }
+
+    @Test
+    void keyDependsOnGenerationPageAndSort() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("title"));
+        String key = SearchResultCache.key("product", 3, "lamp", pageable);
+
+        assertThat(SearchResultCache.key("product", 4, "lamp", pageable)).isNotEqualTo(key);
+        assertThat(SearchResultCache.key("product", 3, "lamp", PageRequest.of(1, 20, Sort.by("title")))).isNotEqualTo(key);
+        assertThat(SearchResultCache.key("product", 3, "lamp", PageRequest.of(0, 20, Sort.by("title").descending()))).isNotEqualTo(key);
+        assertThat(SearchResultCache.key("category", 3, "lamp", pageable)).isNotEqualTo(key);
+    }
+}
@@ -0,0 +1,33 @@
+package com.sample.shop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.shop.service.dto.SuggestionDTO;
+import java.util.Arrays;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SuggestService} suggestion building.
+ */
+class SuggestServiceTest {
+
+    @Test
+    void suggestionTextJoinsDisplayFieldsWithValues() {
+        UUID id = UUID.randomUUID();
+
+        SuggestionDTO suggestion = SuggestService.toSuggestion(Arrays.asList(id, "Ada", null, "ada@example.com"));
+
+        assertThat(suggestion.getId()).isEqualTo(id);
+        assertThat(suggestion.getText()).isEqualTo("Ada ada@example.com");
+    }
+
+    @Test
+    void suggestionsAreServedForIndexedResourcesOnly() {
+        SuggestService suggestService = new SuggestService(null, null);
+
+        assertThat(suggestService.supports("products")).isTrue();
+        assertThat(suggestService.supports("wish-lists")).isTrue();
+        assertThat(suggestService.supports("users")).isFalse();
+    }
+}
@@ -0,0 +1,53 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.sample.shop.IntegrationTest;
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.config.BatchConfiguration;
+import com.sample.shop.domain.Category;
+import com.sample.shop.service.dto.MassIndexBatchExecutionDTO;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link BatchMassIndexingLauncher} job repository.
+ */
+@IntegrationTest
+class BatchMassIndexingLauncherIT {
+
+    @Autowired
+    private BatchMassIndexingLauncher batchLauncher;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void executionsSurviveARestart() {
+        MassIndexBatchExecutionDTO started = batchLauncher.start(
+            List.of(Category.class),
+            new ApplicationProperties.MassIndexing.Profile(),
+            applicationProperties.getMassIndexing().getBatch()
+        );
+        await()
+            .atMost(Duration.ofMinutes(1))
+            .until(() -> batchLauncher.find(started.getExecutionId()).map(MassIndexBatchExecutionDTO::getEndTime).isPresent());
+
+        // a new runtime on the same database, as after a restart of the node
+        BatchMassIndexingLauncher restartedLauncher = new BatchMassIndexingLauncher(() -> BatchConfiguration.createJobOperator(dataSource));
+
+        assertThat(restartedLauncher.find(started.getExecutionId()))
+            .hasValueSatisfying(execution -> {
+                assertThat(execution.getInstanceId()).isEqualTo(started.getInstanceId());
+                assertThat(execution.getBatchStatus()).isEqualTo("COMPLETED");
+            });
+        assertThat(restartedLauncher.findAll()).extracting(MassIndexBatchExecutionDTO::getExecutionId).contains(started.getExecutionId());
+    }
+}
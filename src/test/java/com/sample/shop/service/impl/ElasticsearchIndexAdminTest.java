@@ -0,0 +1,69 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.gson.JsonParser;
+import com.sample.shop.service.dto.IndexFootprintDTO;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ElasticsearchIndexAdmin} index naming, settings and statistics.
+ */
+class ElasticsearchIndexAdminTest {
+
+    @Test
+    void nextIndexNameIncrementsVersion() {
+        assertThat(ElasticsearchIndexAdmin.nextIndexName("product-000001")).isEqualTo("product-000002");
+        assertThat(ElasticsearchIndexAdmin.nextIndexName("wish-list-000009")).isEqualTo("wish-list-000010");
+    }
+
+    @Test
+    void nextIndexNameRejectsUnversionedIndex() {
+        assertThatThrownBy(() -> ElasticsearchIndexAdmin.nextIndexName("product")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void restorableSettingsKeepExplicitValues() {
+        Settings current = Settings.builder().put("index.refresh_interval", "30s").put("index.number_of_replicas", 2).build();
+
+        Settings restorable = ElasticsearchIndexAdmin.restorableSettings(current);
+
+        assertThat(restorable.get("index.refresh_interval")).isEqualTo("30s");
+        assertThat(restorable.get("index.number_of_replicas")).isEqualTo("2");
+    }
+
+    @Test
+    void restorableSettingsResetImplicitValues() {
+        Settings current = Settings.builder().put("index.number_of_replicas", 1).build();
+
+        Settings restorable = ElasticsearchIndexAdmin.restorableSettings(current);
+
+        assertThat(restorable.keySet()).contains("index.refresh_interval");
+        assertThat(restorable.get("index.refresh_interval")).isNull();
+        assertThat(restorable.get("index.number_of_replicas")).isEqualTo("1");
+    }
+
+    @Test
+    void footprintReadsThePrimaryShardStatistics() {
+        String stats =
+            "{\"indices\":{\"product-000001\":{" +
+            "\"primaries\":{\"docs\":{\"count\":2000},\"store\":{\"size_in_bytes\":1000000}," +
+            "\"indexing\":{\"index_total\":4000,\"index_time_in_millis\":2000}," +
+            "\"search\":{\"query_total\":10,\"query_time_in_millis\":25}}," +
+            "\"total\":{\"docs\":{\"count\":4000}}}}}";
+
+        IndexFootprintDTO footprint = ElasticsearchIndexAdmin.footprint(JsonParser.parseString(stats).getAsJsonObject());
+
+        assertThat(footprint.getIndex()).isEqualTo("product-000001");
+        assertThat(footprint.getDocuments()).isEqualTo(2000);
+        assertThat(footprint.getDocumentsIndexedPerSecond()).isEqualTo(2000.0);
+        assertThat(footprint.getAverageQueryTimeInMillis()).isEqualTo(2.5);
+
+        footprint.setRootDocuments(500);
+
+        assertThat(footprint.getBytesPerDocument()).isEqualTo(2000);
+        assertThat(footprint.getNestedDocumentsPerRootDocument()).isEqualTo(3.0);
+    }
+}
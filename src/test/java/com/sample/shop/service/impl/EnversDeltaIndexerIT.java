@@ -0,0 +1,131 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.shop.IntegrationTest;
+import com.sample.shop.domain.Category;
+import com.sample.shop.domain.Product;
+import com.sample.shop.repository.CategoryRepository;
+import com.sample.shop.repository.ProductRepository;
+import com.sample.shop.web.rest.ProductResourceIT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link EnversDeltaIndexer}. The entities are saved without a test transaction, so that
+ * their revisions are committed as in production.
+ */
+@IntegrationTest
+class EnversDeltaIndexerIT {
+
+    @Autowired
+    private EnversDeltaIndexer deltaIndexer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void changesAreReindexedInChunksAndDeletedEntitiesPurged() {
+        int fromRevision = deltaIndexer.latestRevision();
+        Category first = categoryRepository.saveAndFlush(new Category().description("first"));
+        Category second = categoryRepository.saveAndFlush(new Category().description("second"));
+        Category deleted = categoryRepository.saveAndFlush(new Category().description("deleted"));
+        categoryRepository.delete(deleted);
+        int toRevision = deltaIndexer.latestRevision();
+        // the delta indexing must restore the live documents and drop the one left behind by the deletion
+        transactionTemplate.executeWithoutResult(status -> {
+            Search.session(entityManager).workspace(Category.class).purge();
+            Search.session(entityManager).indexingPlan().addOrUpdate(deleted);
+        });
+        refresh();
+
+        MassIndexJob job = job("Category");
+        List<Object> chunkEnds = new ArrayList<>();
+        Object lastId = null;
+        do {
+            lastId = deltaIndexer.reindexChanges(job, "Category", Category.class, fromRevision, toRevision, lastId, 2);
+            chunkEnds.add(lastId);
+        } while (lastId != null);
+        refresh();
+
+        assertThat(chunkEnds).hasSize(2).last().isNull();
+        assertThat(job.monitor("Category").getDocumentsAdded()).isEqualTo(3);
+        assertThat(indexedIds(Category.class)).containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    @Test
+    void productsMovedInOrOutOfACategoryAreReindexed() {
+        Product product = productRepository.saveAndFlush(ProductResourceIT.createEntity(entityManager));
+        Category category = categoryRepository.saveAndFlush(new Category().description("category"));
+
+        int fromRevision = deltaIndexer.latestRevision();
+        categoryRepository.saveAndFlush(category.products(Set.of(product)));
+        int addedRevision = deltaIndexer.latestRevision();
+        categoryRepository.saveAndFlush(category.products(Set.of()));
+        int removedRevision = deltaIndexer.latestRevision();
+
+        // the association is owned by the category: the product itself has no revision
+        MassIndexJob job = job("Product");
+        assertThat(deltaIndexer.reindexChanges(job, "Product", Product.class, fromRevision, removedRevision, null, 10)).isNull();
+        assertThat(job.monitor("Product").getDocumentsAdded()).isZero();
+
+        assertThat(deltaIndexer.reindexAssociationChanges(job, "Product", Product.class, fromRevision, addedRevision, null, 10)).isNull();
+        assertThat(job.monitor("Product").getDocumentsAdded()).isEqualTo(1);
+        assertThat(deltaIndexer.reindexAssociationChanges(job, "Product", Product.class, addedRevision, removedRevision, null, 10))
+            .isNull();
+        assertThat(job.monitor("Product").getDocumentsAdded()).isEqualTo(2);
+    }
+
+    @Test
+    void checkpointOnlyMovesForward() {
+        int checkpoint = deltaIndexer.lastIndexedRevision();
+
+        deltaIndexer.advanceCheckpoint(checkpoint + 2);
+        deltaIndexer.advanceCheckpoint(checkpoint + 1);
+
+        assertThat(deltaIndexer.lastIndexedRevision()).isEqualTo(checkpoint + 2);
+    }
+
+    private MassIndexJob job(String entityName) {
+        return new MassIndexJob("delta", List.of(new MicrometerMassIndexingMonitor(entityName, new SimpleMeterRegistry())));
+    }
+
+    private void refresh() {
+        Search.mapping(entityManager.getEntityManagerFactory()).scope(Object.class).workspace().refresh();
+    }
+
+    private List<UUID> indexedIds(Class<?> entityType) {
+        return transactionTemplate.execute(status ->
+            Search
+                .session(entityManager)
+                .search(entityType)
+                .select(f -> f.id(UUID.class))
+                .where(f -> f.matchAll())
+                .fetchAllHits()
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.shop.service.impl.IndexConsistencyComparator.DocumentState;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+
+class IndexConsistencyComparatorTest {
+
+    private final List<String> missing = new ArrayList<>();
+
+    private final List<String> extra = new ArrayList<>();
+
+    private final List<String> stale = new ArrayList<>();
+
+    private final List<String> matched = new ArrayList<>();
+
+    private final IndexConsistencyComparator.Listener listener = new IndexConsistencyComparator.Listener() {
+        @Override
+        public void matched(DocumentState document) {
+            matched.add(document.sortKey());
+        }
+
+        @Override
+        public void missing(DocumentState document) {
+            missing.add(document.sortKey());
+        }
+
+        @Override
+        public void extra(DocumentState document) {
+            extra.add(document.sortKey());
+        }
+
+        @Override
+        public void stale(DocumentState document) {
+            stale.add(document.sortKey());
+        }
+    };
+
+    @Test
+    void compareReportsEveryKindOfDifference() {
+        List<DocumentState> database = List.of(document("a", 1), document("b", 2), document("d", 4), document("e", 5));
+        List<DocumentState> index = List.of(document("b", 2), document("c", 3), document("d", 40), document("f", 6));
+
+        IndexConsistencyComparator.compare(chunked(database, 2), chunked(index, 3), true, listener);
+
+        assertThat(missing).containsExactly("a", "e");
+        assertThat(extra).containsExactly("c", "f");
+        assertThat(stale).containsExactly("d");
+        assertThat(matched).containsExactly("b");
+    }
+
+    @Test
+    void compareIgnoresContentWhenDisabled() {
+        List<DocumentState> database = List.of(document("a", 1));
+        List<DocumentState> index = List.of(document("a", 2));
+
+        IndexConsistencyComparator.compare(chunked(database, 1), chunked(index, 1), false, listener);
+
+        assertThat(stale).isEmpty();
+        assertThat(matched).containsExactly("a");
+    }
+
+    @Test
+    void chunkedFetchesFollowingChunks() {
+        List<Object> requestedAfter = new ArrayList<>();
+        List<DocumentState> documents = List.of(document("a", 1), document("b", 2), document("c", 3));
+
+        Iterator<DocumentState> iterator = IndexConsistencyComparator.chunked(afterId -> {
+            requestedAfter.add(afterId);
+            return page(documents, afterId, 2);
+        });
+        List<String> ids = new ArrayList<>();
+        iterator.forEachRemaining(document -> ids.add(document.sortKey()));
+
+        assertThat(ids).containsExactly("a", "b", "c");
+        assertThat(requestedAfter).containsExactly(null, "b", "c");
+    }
+
+    private static DocumentState document(String id, Object value) {
+        return new DocumentState(id, List.of(value));
+    }
+
+    private static Iterator<DocumentState> chunked(List<DocumentState> documents, int chunkSize) {
+        return IndexConsistencyComparator.chunked(afterId -> page(documents, afterId, chunkSize));
+    }
+
+    private static List<DocumentState> page(List<DocumentState> documents, Object afterId, int chunkSize) {
+        int start = 0;
+        if (afterId != null) {
+            while (!Objects.equals(documents.get(start).id(), afterId)) {
+                start++;
+            }
+            start++;
+        }
+        return documents.subList(start, Math.min(start + chunkSize, documents.size()));
+    }
+}
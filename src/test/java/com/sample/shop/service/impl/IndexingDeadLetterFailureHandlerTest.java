@@ -0,0 +1,50 @@
+package com.sample.shop.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sample.shop.service.SearchIndexingDeadLetters;
+import java.util.UUID;
+import org.hibernate.search.engine.reporting.EntityIndexingFailureContext;
+import org.hibernate.search.mapper.orm.common.EntityReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Test class for the {@link IndexingDeadLetterFailureHandler}.
+ */
+class IndexingDeadLetterFailureHandlerTest {
+
+    @Test
+    void eachFailingEntityIsRecordedEvenIfAnotherCannotBe() {
+        SearchIndexingDeadLetters deadLetters = mock(SearchIndexingDeadLetters.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<SearchIndexingDeadLetters> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(deadLetters);
+        UUID failing = UUID.randomUUID();
+        UUID recorded = UUID.randomUUID();
+        doThrow(new IllegalStateException("database down")).when(deadLetters).record(eq("Product"), eq(failing), any());
+        RuntimeException failure = new IllegalStateException("cluster unavailable");
+
+        EntityIndexingFailureContext.Builder context = EntityIndexingFailureContext.builder();
+        context.throwable(failure);
+        context.failingOperation("Automatic indexing of entities");
+        context.entityReference(entityReference("Product", failing));
+        context.entityReference(entityReference("Product", recorded));
+        new IndexingDeadLetterFailureHandler(provider).handle(context.build());
+
+        verify(deadLetters).record("Product", failing, failure);
+        verify(deadLetters).record("Product", recorded, failure);
+    }
+
+    private static EntityReference entityReference(String name, Object id) {
+        EntityReference reference = mock(EntityReference.class);
+        when(reference.name()).thenReturn(name);
+        when(reference.id()).thenReturn(id);
+        return reference;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sample.shop.service.MassIndexJobRunningException;
+import com.sample.shop.service.dto.MassIndexJobDTO;
+import com.sample.shop.service.dto.MassIndexProgressDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MassIndexJobTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MassIndexJobRegistry jobRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jobRegistry = new MassIndexJobRegistry(meterRegistry);
+    }
+
+    @Test
+    void cancelInterruptsRunningExecution() {
+        MassIndexJob job = jobRegistry.create("default", List.of("Product", "Category"));
+        CompletableFuture<Void> execution = new CompletableFuture<>();
+        job.track(execution);
+
+        assertThat(job.cancel()).isTrue();
+        assertThat(execution).isCancelled();
+        assertThat(job.getStatus()).isEqualTo(MassIndexJobDTO.Status.CANCELLED);
+
+        job.complete(null);
+        assertThat(job.getStatus()).isEqualTo(MassIndexJobDTO.Status.CANCELLED);
+        assertThat(job.cancel()).isFalse();
+    }
+
+    @Test
+    void completeRecordsOutcome() {
+        MassIndexJob succeeded = jobRegistry.create("default", List.of("Product"));
+        succeeded.complete(null);
+        MassIndexJob failed = jobRegistry.create("default", List.of("Product"));
+        failed.complete(new IllegalStateException());
+
+        assertThat(succeeded.getStatus()).isEqualTo(MassIndexJobDTO.Status.SUCCEEDED);
+        assertThat(failed.getStatus()).isEqualTo(MassIndexJobDTO.Status.FAILED);
+        assertThat(jobRegistry.hasRunningJob()).isFalse();
+    }
+
+    @Test
+    void onlyOneJobRunsAtATime() {
+        MassIndexJob running = jobRegistry.create("default", List.of("Product"));
+
+        assertThatThrownBy(() -> jobRegistry.create("default", List.of("Category"))).isInstanceOf(MassIndexJobRunningException.class);
+        assertThat(jobRegistry.findAll()).containsExactly(running);
+
+        running.complete(null);
+        assertThat(jobRegistry.create("default", List.of("Category")).isRunning()).isTrue();
+    }
+
+    @Test
+    void exclusiveActivitiesAndJobsExcludeEachOther() {
+        AtomicBoolean batchRunning = new AtomicBoolean(true);
+        assertThat(jobRegistry.startExclusive(() -> "batch", batch -> batchRunning.get())).isEqualTo("batch");
+
+        assertThatThrownBy(() -> jobRegistry.create("default", List.of("Product"))).isInstanceOf(MassIndexJobRunningException.class);
+        assertThatThrownBy(() -> jobRegistry.startExclusive(() -> "restart", restart -> true))
+            .isInstanceOf(MassIndexJobRunningException.class);
+        assertThat(jobRegistry.hasRunningJob()).isTrue();
+
+        batchRunning.set(false);
+        MassIndexJob job = jobRegistry.create("default", List.of("Product"));
+        assertThatThrownBy(() -> jobRegistry.startExclusive(() -> "batch", batch -> true)).isInstanceOf(MassIndexJobRunningException.class);
+
+        job.complete(null);
+        assertThat(jobRegistry.hasRunningJob()).isFalse();
+    }
+
+    @Test
+    void monitorReportsProgressAndMetrics() {
+        MassIndexJob job = jobRegistry.create("default", List.of("Product"));
+        MicrometerMassIndexingMonitor monitor = job.monitor("Product");
+        monitor.started();
+        monitor.addToTotalCount(100);
+        monitor.entitiesLoaded(40);
+        monitor.documentsAdded(40);
+
+        MassIndexProgressDTO progress = job.toDto().getEntities().get(0);
+        assertThat(progress.getEntity()).isEqualTo("Product");
+        assertThat(progress.getTotalCount()).isEqualTo(100);
+        assertThat(progress.getDocumentsIndexed()).isEqualTo(40);
+        assertThat(progress.isCompleted()).isFalse();
+        assertThat(meterRegistry.get("mass.indexing.documents.added").tag("entity", "Product").counter().count()).isEqualTo(40);
+        assertThat(meterRegistry.get("mass.indexing.documents.total").tag("entity", "Product").gauge().value()).isEqualTo(100);
+
+        monitor.documentsAdded(60);
+        monitor.indexingCompleted();
+        assertThat(job.toDto().getEntities().get(0).getEtaSeconds()).isZero();
+    }
+}
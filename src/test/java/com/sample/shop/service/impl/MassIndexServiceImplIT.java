@@ -0,0 +1,101 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.sample.shop.IntegrationTest;
+import com.sample.shop.config.ApplicationProperties;
+import com.sample.shop.domain.Category;
+import com.sample.shop.repository.CategoryRepository;
+import com.sample.shop.service.SearchIndexGenerations;
+import com.sample.shop.service.dto.MassIndexJobDTO;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.persistence.EntityManager;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link MassIndexServiceImpl} jobs, run on a thread of their own as in production.
+ */
+@IntegrationTest
+class MassIndexServiceImplIT {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RestHighLevelClient client;
+
+    @Autowired
+    private ElasticsearchIndexAdmin indexAdmin;
+
+    @Autowired
+    private MassIndexJobRegistry jobRegistry;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EnversDeltaIndexer deltaIndexer;
+
+    @Autowired
+    private BatchMassIndexingLauncher batchLauncher;
+
+    @Autowired
+    private SearchIndexGenerations searchIndexGenerations;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private ExecutorService executor;
+
+    private MassIndexServiceImpl massIndexService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        // not a Spring proxy: the job runs without the transaction of the request which started it
+        massIndexService =
+            new MassIndexServiceImpl(
+                entityManager,
+                client,
+                indexAdmin,
+                jobRegistry,
+                applicationProperties,
+                deltaIndexer,
+                executor,
+                batchLauncher,
+                searchIndexGenerations
+            );
+    }
+
+    @AfterEach
+    void tearDown() {
+        await().atMost(Duration.ofMinutes(1)).until(() -> !jobRegistry.hasRunningJob());
+        executor.shutdown();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void jobStartedThroughTheExecutorIndexesTheEntities() {
+        categoryRepository.saveAndFlush(new Category().description("mass indexed"));
+
+        MassIndexJobDTO started = massIndexService.reindexAll(ApplicationProperties.MassIndexing.DEFAULT_PROFILE);
+
+        await().atMost(Duration.ofMinutes(1)).until(() -> massIndexService.findJob(started.getId()).orElseThrow().getEndTime() != null);
+        MassIndexJobDTO job = massIndexService.findJob(started.getId()).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(MassIndexJobDTO.Status.SUCCEEDED);
+        assertThat(job.getEntities())
+            .filteredOn(progress -> "Category".equals(progress.getEntity()))
+            .singleElement()
+            .satisfies(progress -> {
+                assertThat(progress.getDocumentsIndexed()).isPositive();
+                assertThat(progress.getErrorCount()).isZero();
+            });
+    }
+}
@@ -0,0 +1,93 @@
+package com.sample.shop.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.shop.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests for the {@link OutboxPollingMetrics} queries, run against the outbox tables created by Liquibase.
+ */
+@IntegrationTest
+class OutboxPollingMetricsIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        new OutboxPollingMetrics(jdbcTemplate).bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from hsearch_outbox_event");
+        jdbcTemplate.update("delete from hsearch_agent");
+    }
+
+    @Test
+    void emptyOutbox() {
+        assertThat(backlog("pending")).isZero();
+        assertThat(backlog("abandoned")).isZero();
+        assertThat(meterRegistry.get("search.outbox.lag").gauge().value()).isZero();
+        assertThat(meterRegistry.get("search.outbox.agents").gauge().value()).isZero();
+    }
+
+    @Test
+    void backlogLagAndAgents() {
+        Instant now = Instant.now();
+        insertEvent(0, now.minusSeconds(60));
+        insertEvent(0, now.minusSeconds(10));
+        // postponed retry, not waiting yet
+        insertEvent(0, now.plusSeconds(600));
+        insertEvent(1, now.minusSeconds(3600));
+        insertAgent(now.plusSeconds(30));
+
+        assertThat(backlog("pending")).isEqualTo(3);
+        assertThat(backlog("abandoned")).isEqualTo(1);
+        assertThat(meterRegistry.get("search.outbox.lag").gauge().value()).isBetween(60d, 120d);
+        assertThat(meterRegistry.get("search.outbox.agents").gauge().value()).isEqualTo(1);
+    }
+
+    private double backlog(String status) {
+        return meterRegistry.get("search.outbox.backlog").tag("status", status).gauge().value();
+    }
+
+    private void insertEvent(int status, Instant processAfter) {
+        jdbcTemplate.update(
+            "insert into hsearch_outbox_event (id, entity_name, entity_id, entity_id_hash, payload, retries, process_after, status)" +
+            " values (?, 'Product', ?, 0, ?, 0, ?, ?)",
+            ps -> {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setString(2, UUID.randomUUID().toString());
+                ps.setBytes(3, new byte[0]);
+                ps.setTimestamp(4, Timestamp.from(processAfter), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+                ps.setInt(5, status);
+            }
+        );
+    }
+
+    private void insertAgent(Instant expiration) {
+        jdbcTemplate.update(
+            "insert into hsearch_agent (id, type, name, expiration, state) values (?, 0, 'test-agent', ?, 0)",
+            ps -> {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setTimestamp(2, Timestamp.from(expiration), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+            }
+        );
+    }
+}
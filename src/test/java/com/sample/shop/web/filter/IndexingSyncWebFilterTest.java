@@ -0,0 +1,88 @@
+package com.sample.shop.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.shop.security.AuthoritiesConstants;
+import com.sample.shop.service.IndexingSync;
+import com.sample.shop.service.IndexingSynchronizations;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Test class for the {@link IndexingSyncWebFilter} authorization.
+ */
+class IndexingSyncWebFilterTest {
+
+    private final IndexingSynchronizations indexingSynchronizations = new IndexingSynchronizations(null, null, null, null, null, null);
+
+    private final IndexingSyncWebFilter filter = new IndexingSyncWebFilter(indexingSynchronizations);
+
+    @BeforeEach
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void administratorsChooseTheSync() throws Exception {
+        authenticate(AuthoritiesConstants.ADMIN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<IndexingSync> bound = new AtomicReference<>();
+
+        filter.doFilter(request("sync"), response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                bound.set(indexingSynchronizations.current());
+            }
+        });
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(bound.get()).isEqualTo(IndexingSync.SYNC);
+        assertThat(indexingSynchronizations.current()).isNull();
+    }
+
+    @Test
+    void otherUsersCannotSendTheHeader() throws Exception {
+        authenticate(AuthoritiesConstants.USER);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("read-sync"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void requestsWithoutTheHeaderAreLetThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/products/1"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest request(String sync) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/products/1");
+        request.addHeader(IndexingSyncWebFilter.INDEXING_SYNC_HEADER, sync);
+        return request;
+    }
+
+    private static void authenticate(String authority) {
+        SecurityContextHolder
+            .getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken("user", "password", List.of(new SimpleGrantedAuthority(authority))));
+    }
+}
@@ -0,0 +1,92 @@
+package com.sample.shop.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sample.shop.service.SearchConsistency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test class for the {@link SearchConsistencyWebFilter} scope.
+ */
+class SearchConsistencyWebFilterTest {
+
+    private static final String TOKEN = "cHJvZHVjdDox";
+
+    private final SearchConsistency searchConsistency = mock(SearchConsistency.class);
+
+    private final SearchConsistencyWebFilter filter = new SearchConsistencyWebFilter(searchConsistency);
+
+    @BeforeEach
+    void setUp() {
+        when(searchConsistency.tracksWrites()).thenReturn(true);
+        when(searchConsistency.currentThreadToken()).thenReturn(TOKEN);
+    }
+
+    @Test
+    void entityWritesReturnTheToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/products/1"), response, new MockFilterChain());
+
+        assertThat(response.getHeader(SearchConsistencyWebFilter.CONSISTENCY_TOKEN_HEADER)).isEqualTo(TOKEN);
+    }
+
+    @Test
+    void otherWritesAreNotBuffered() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/mass/index"), response, new MockFilterChain());
+
+        assertThat(response.getHeader(SearchConsistencyWebFilter.CONSISTENCY_TOKEN_HEADER)).isNull();
+        verify(searchConsistency, never()).currentThreadToken();
+    }
+
+    @Test
+    void untrackedWritesAreNotBuffered() throws Exception {
+        when(searchConsistency.tracksWrites()).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/products"), response, new MockFilterChain());
+
+        assertThat(response.getHeader(SearchConsistencyWebFilter.CONSISTENCY_TOKEN_HEADER)).isNull();
+        verify(searchConsistency, never()).currentThreadToken();
+    }
+
+    @Test
+    void searchesWaitForTheToken() throws Exception {
+        when(searchConsistency.await(TOKEN)).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/api/_search/products"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader(SearchConsistencyWebFilter.CONSISTENCY_STALE_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void otherReadsDoNotWait() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/api/products/1"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        verify(searchConsistency, never()).await(any());
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader(SearchConsistencyWebFilter.CONSISTENCY_TOKEN_HEADER, TOKEN);
+        return request;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sample.shop.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Test class for the {@link ExportResponseUtil} utility class.
+ */
+class ExportResponseUtilTest {
+
+    @AfterEach
+    void resetRequestAttributes() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void exportsStreamWithTheirOwnTimeout() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/_export/products");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        ResponseEntity<StreamingResponseBody> export = ExportResponseUtil.generateExportResponse(
+            "products.ndjson",
+            out -> {},
+            Duration.ofMinutes(90)
+        );
+
+        assertThat(export.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("products.ndjson");
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setTaskExecutor(new SyncTaskExecutor());
+        asyncManager.startCallableProcessing(() -> null);
+        assertThat(request.getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(90).toMillis());
+    }
+}
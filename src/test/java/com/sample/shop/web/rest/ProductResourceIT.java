@@ -241,6 +241,27 @@ class ProductResourceIT {
             .andExpect(jsonPath("$.[*].dateModified").value(hasItem(DEFAULT_DATE_MODIFIED.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllProductsAsSlice() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+
+        // Get the productList without counting it
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&paging=slice&size=1000"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Has-Next", "false"))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().toString())));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithInvalidPaging() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?paging=approximately")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getProduct() throws Exception {
@@ -1177,4 +1198,13 @@ class ProductResourceIT {
             .andExpect(jsonPath("$.[*].dateAdded").value(hasItem(DEFAULT_DATE_ADDED.toString())))
             .andExpect(jsonPath("$.[*].dateModified").value(hasItem(DEFAULT_DATE_MODIFIED.toString())));
     }
+
+    @Test
+    @Transactional
+    void searchProductSortedOnAFullTextFieldIsABadRequest() throws Exception {
+        restProductMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=*&sort=title,asc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.title").value("Invalid sort"));
+    }
 }